@@ -0,0 +1,183 @@
+import java.util.Random;
+
+/**
+ * Compares the running time of ConvolutionFilter with the single-threaded
+ * loop that JavaPixelManipulation originally used for its filters, for images
+ * of size 640-by-480, 1920-by-1080, and 3840-by-2160.  Each filter is run several
+ * times to warm up the JIT compiler before it is timed.  The program also
+ * checks that the two methods give identical results for pixels that are not
+ * on the border of the image.  (The old loop did not change border pixels.)
+ * Finally, it times large box and Gaussian blurs, which use the separable
+ * and running-sum methods in ConvolutionFilter, and checks them against a
+ * direct two-dimensional convolution.
+ */
+public class ConvolutionBenchmark {
+
+	private static final int WARMUP = 5;   // Untimed runs of each filter for each size.
+	private static final int RUNS = 10;    // Timed runs of each filter for each size.
+
+	public static void main(String[] args) {
+		int[][] sizes = { {640,480}, {1920,1080}, {3840,2160} };
+		String[] names = { "Blur", "Sharpen", "Emboss", "Edge Detect" };
+		ConvolutionFilter[] filters = { ConvolutionFilter.BLUR, ConvolutionFilter.SHARPEN,
+				ConvolutionFilter.EMBOSS, ConvolutionFilter.EDGE_DETECT };
+		double[][] arrays = {
+				{ 1/9.0,1/9.0,1/9.0, 1/9.0,1/9.0,1/9.0, 1/9.0,1/9.0,1/9.0 },
+				{ 0,-1/3.0,0, -1/3.0,7/3.0,-1/3.0, 0,-1/3.0,0 },
+				{ -2,-1,0, -1,1,1, 0,1,2 },
+				{ 0,1,0, 1,-4,1, 0,1,0 }
+		};
+		System.out.printf("Using %d processors.%n%n", Runtime.getRuntime().availableProcessors());
+		System.out.printf("%-12s %-10s %12s %12s %9s%n", "Size", "Filter", "Old (ms)", "New (ms)", "Speedup");
+		for (int[] size : sizes) {
+			int w = size[0], h = size[1];
+			int[] src = randomImage(w,h);
+			int[] oldDst = new int[w*h];
+			int[] newDst = new int[w*h];
+			for (int f = 0; f < filters.length; f++) {
+				for (int i = 0; i < WARMUP; i++) {
+					oldFilter(src, oldDst, w, h, arrays[f]);
+					filters[f].filter(src, newDst, w, h);
+				}
+				long start = System.nanoTime();
+				for (int i = 0; i < RUNS; i++)
+					oldFilter(src, oldDst, w, h, arrays[f]);
+				double oldTime = (System.nanoTime() - start) / 1e6 / RUNS;
+				start = System.nanoTime();
+				for (int i = 0; i < RUNS; i++)
+					filters[f].filter(src, newDst, w, h);
+				double newTime = (System.nanoTime() - start) / 1e6 / RUNS;
+				System.out.printf("%-12s %-10s %12.2f %12.2f %8.1fx%n", w + "x" + h, names[f],
+						oldTime, newTime, oldTime/newTime);
+				checkInterior(oldDst, newDst, w, h, names[f]);
+			}
+		}
+		System.out.println();
+		System.out.printf("%-12s %-18s %12s%n", "Size", "Filter", "Time (ms)");
+		int[] kernelSizes = { 15, 51 };
+		for (int[] size : sizes) {
+			int w = size[0], h = size[1];
+			int[] src = randomImage(w,h);
+			int[] dst = new int[w*h];
+			for (int kernelSize : kernelSizes) {
+				ConvolutionFilter[] blurs = { ConvolutionFilter.box(kernelSize), ConvolutionFilter.gaussian(kernelSize) };
+				String[] blurNames = { "Box " + kernelSize, "Gaussian " + kernelSize };
+				for (int f = 0; f < blurs.length; f++) {
+					for (int i = 0; i < WARMUP; i++)
+						blurs[f].filter(src, dst, w, h);
+					long start = System.nanoTime();
+					for (int i = 0; i < RUNS; i++)
+						blurs[f].filter(src, dst, w, h);
+					double time = (System.nanoTime() - start) / 1e6 / RUNS;
+					System.out.printf("%-12s %-18s %12.2f%n", w + "x" + h, blurNames[f], time);
+					if (w == 640)
+						checkAll(referenceFilter(src, w, h, blurs[f]), dst, w, h, blurNames[f]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Make an image filled with random colors.
+	 */
+	private static int[] randomImage(int w, int h) {
+		Random random = new Random(17);
+		int[] image = new int[w*h];
+		for (int i = 0; i < image.length; i++)
+			image[i] = random.nextInt() & 0xFFFFFF;
+		return image;
+	}
+
+	/**
+	 * Report an error if any non-border pixel differs in the two images.
+	 */
+	private static void checkInterior(int[] a, int[] b, int w, int h, String name) {
+		for (int y = 1; y < h-1; y++) {
+			for (int x = 1; x < w-1; x++) {
+				if ((a[x + y*w] & 0xFFFFFF) != (b[x + y*w] & 0xFFFFFF)) {
+					System.out.printf("   *** %s differs at (%d,%d)%n", name, x, y);
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Report an error if any pixel differs in the two images.
+	 */
+	private static void checkAll(int[] a, int[] b, int w, int h, String name) {
+		for (int i = 0; i < w*h; i++) {
+			if ((a[i] & 0xFFFFFF) != (b[i] & 0xFFFFFF)) {
+				System.out.printf("   *** %s differs at (%d,%d)%n", name, i % w, i / w);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * A straightforward two-dimensional convolution with the kernel of a ConvolutionFilter,
+	 * using the same rules for borders and rounding as ConvolutionFilter.
+	 */
+	private static int[] referenceFilter(int[] src, int w, int h, ConvolutionFilter filter) {
+		int size = filter.getSize();
+		int radius = size/2;
+		int[] weights = filter.getWeights();
+		long divisor = filter.getDivisor();
+		int[] dst = new int[w*h];
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				long[] sums = new long[3];
+				for (int j = 0; j < size; j++) {
+					int row = Math.min(h-1, Math.max(0, y + j - radius));
+					for (int i = 0; i < size; i++) {
+						int column = Math.min(w-1, Math.max(0, x + i - radius));
+						int rgb = src[column + row*w];
+						long weight = weights[i + j*size];
+						sums[0] += weight * ((rgb >> 16) & 255);
+						sums[1] += weight * ((rgb >> 8) & 255);
+						sums[2] += weight * (rgb & 255);
+					}
+				}
+				int rgb = 0;
+				for (int c = 0; c < 3; c++) {
+					long v = (2*Math.abs(sums[c]) + divisor) / (2*divisor);
+					rgb = (rgb << 8) | (int)Math.min(255, v);
+				}
+				dst[x + y*w] = rgb;
+			}
+		}
+		return dst;
+	}
+
+	/**
+	 * The filter loop from the original version of JavaPixelManipulation.applyFilter(),
+	 * except that it writes to an array instead of calling setRGB() on the image.
+	 */
+	private static void oldFilter(int[] rgbArray, int[] dst, int w, int h, double[] filterArray) {
+		for (int x = 1; x < w-1; x++) {
+			for (int y = 1; y < h-1; y++) {
+				double rNew = 0, gNew = 0, bNew = 0;
+				int k = 0;
+				int rgb, r, g, b;
+				for (int j = y-1; j <= y+1; j++) {
+					for (int i = x-1; i <= x+1; i++) {
+						rgb = rgbArray[i + j*w];
+						r = (rgb >> 16) & 255;
+						g = (rgb >> 8) & 255;
+						b = rgb & 255;
+						rNew += r*filterArray[k];
+						gNew += g*filterArray[k];
+						bNew += b*filterArray[k];
+						k++;
+					}
+				}
+				r = (int)Math.round(Math.min(255, Math.abs(rNew)));
+				g = (int)Math.round(Math.min(255, Math.abs(gNew)));
+				b = (int)Math.round(Math.min(255, Math.abs(bNew)));
+				rgb = (r << 16) | (g << 8) | b;
+				dst[x + y*w] = rgb;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,250 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.imageio.ImageIO;
+
+/**
+ * Draws frames of one of the 2D animations (AnimationStarter, HierarchicalModeling2D,
+ * or SceneGraphAPI2D) into PNG files, without opening a window, so that the frames
+ * can be made into a video.  Command line:
+ * <pre>
+ *     java -Djava.awt.headless=true FrameExporter  class  frames  [width height]  [directory]
+ * </pre>
+ * where class is the name of one of the animations and frames is the number of
+ * frames to draw, starting from frame 1.  The size defaults to the preferred size of
+ * the panel, and the directory defaults to "frames".  The files are named
+ * frame00001.png, frame00002.png, and so on.  Each animation depends only on its
+ * frame number, so the output does not depend on timing or on the number of threads.
+ *    The work is done in two stages.  In the first stage, one thread for each
+ * processor draws frames, one frame at a time.  Each of those threads has its own
+ * copy of the panel, since the panels are not thread-safe.  The frames are drawn
+ * into images taken from a fixed pool, so images are reused instead of being
+ * allocated for every frame.  A finished image is put into a queue for the second
+ * stage, where other threads encode the images as PNG files and then return them
+ * to the pool.  Drawing and encoding overlap, and when the encoders fall behind,
+ * the drawing threads wait for images instead of using more memory.
+ */
+public class FrameExporter {
+
+	private static final int IMAGES_PER_THREAD = 2;  // Size of the image pool, per drawing thread.
+
+	/**
+	 * Draws frames of one of the animations.  Each drawing thread has its own Scene.
+	 */
+	private interface Scene {
+		void draw(int frame, Graphics2D g);
+	}
+
+	/**
+	 * A drawn frame, waiting to be encoded.  A frame with a null image tells
+	 * an encoding thread that there is no more work.
+	 */
+	private static class Frame {
+		int number;
+		BufferedImage image;
+		Frame(int number, BufferedImage image) {
+			this.number = number;
+			this.image = image;
+		}
+	}
+
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		if (args.length != 2 && args.length != 3 && args.length != 4 && args.length != 5) {
+			System.out.println("Usage:  java FrameExporter <class> <frames> [<width> <height>] [<directory>]");
+			System.out.println("where <class> is AnimationStarter, HierarchicalModeling2D, or SceneGraphAPI2D.");
+			System.exit(1);
+		}
+		String name = args[0];
+		int frames, width = 0, height = 0;
+		File directory = new File(args.length % 2 == 1 ? args[args.length - 1] : "frames");
+		try {
+			frames = Integer.parseInt(args[1]);
+			if (args.length >= 4) {
+				width = Integer.parseInt(args[2]);
+				height = Integer.parseInt(args[3]);
+			}
+		}
+		catch (NumberFormatException e) {
+			System.out.println("The number of frames, width, and height must be integers.");
+			System.exit(1);
+			return;
+		}
+		try {
+			java.awt.Dimension size = createPanel(name).getPreferredSize();  // Also checks the name.
+			if (width <= 0 || height <= 0) {
+				width = size.width;
+				height = size.height;
+			}
+			long start = System.nanoTime();
+			export(name, frames, width, height, directory);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("Wrote %d frames of %s, %dx%d, to %s in %.1f seconds (%.1f frames per second).%n",
+					frames, name, width, height, directory, seconds, frames / seconds);
+		}
+		catch (IllegalArgumentException | IOException e) {
+			System.out.println("Error: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Draw frames 1 through frames of an animation and save them as PNG files in a directory,
+	 * which is created if it does not exist.
+	 */
+	public static void export(String name, int frames, int width, int height, File directory) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Cannot create the directory " + directory);
+		int threads = Runtime.getRuntime().availableProcessors();
+		ArrayList<Scene> scenes = new ArrayList<>();
+		for (int i = 0; i < threads; i++)
+			scenes.add(createScene(name, width, height)); // Panels are created in this thread, one at a time.
+		BlockingQueue<BufferedImage> pool = new ArrayBlockingQueue<>(IMAGES_PER_THREAD*threads);
+		for (int i = 0; i < IMAGES_PER_THREAD*threads; i++)
+			pool.add(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+		BlockingQueue<Frame> encodeQueue = new ArrayBlockingQueue<>(IMAGES_PER_THREAD*threads + threads);
+		AtomicInteger nextFrame = new AtomicInteger(1);
+		AtomicReference<Exception> failure = new AtomicReference<>();  // The first error, if any.
+		ExecutorService drawers = Executors.newFixedThreadPool(threads);
+		ExecutorService encoders = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < threads; i++) {
+			encoders.execute(() -> {
+				try {
+					while (true) {
+						Frame frame = encodeQueue.take();
+						if (frame.image == null)
+							return;
+						try {
+							File file = new File(directory, String.format("frame%05d.png", frame.number));
+							if (!ImageIO.write(frame.image, "png", file))
+								throw new IOException("No PNG writer is available.");
+						}
+						catch (Exception e) {
+							fail(failure, e, nextFrame);
+						}
+						pool.put(frame.image);  // Even after an error, so that no drawing thread waits forever.
+					}
+				}
+				catch (InterruptedException e) {
+				}
+			});
+		}
+		for (Scene scene : scenes) {
+			drawers.execute(() -> {
+				try {
+					while (true) {
+						int number = nextFrame.getAndIncrement();
+						if (number > frames)
+							return;
+						BufferedImage image = pool.take();
+						Graphics2D g = image.createGraphics();
+						try {
+							scene.draw(number, g);
+						}
+						catch (Exception e) {
+							fail(failure, e, nextFrame);
+							pool.put(image);
+							return;
+						}
+						finally {
+							g.dispose();
+						}
+						encodeQueue.put(new Frame(number, image));
+					}
+				}
+				catch (InterruptedException e) {
+				}
+			});
+		}
+		try {
+			drawers.shutdown();
+			drawers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			for (int i = 0; i < threads; i++)
+				encodeQueue.put(new Frame(0, null));
+			encoders.shutdown();
+			encoders.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		}
+		catch (InterruptedException e) {
+			drawers.shutdownNow();
+			encoders.shutdownNow();
+			throw new IOException("Interrupted while exporting frames.");
+		}
+		Exception error = failure.get();
+		if (error instanceof IOException)
+			throw (IOException)error;
+		if (error instanceof RuntimeException)
+			throw (RuntimeException)error;
+		if (error != null)
+			throw new IOException(error);
+	}
+
+	/**
+	 * Record an error, if it is the first one, and tell the drawing threads to stop
+	 * by moving nextFrame past the last frame.  Frames that have already been drawn
+	 * are still encoded.
+	 */
+	private static void fail(AtomicReference<Exception> failure, Exception e, AtomicInteger nextFrame) {
+		failure.compareAndSet(null, e);
+		nextFrame.set(Integer.MAX_VALUE/2);
+	}
+
+	/**
+	 * Create a panel for one of the animations, with its animation timer stopped.
+	 */
+	private static javax.swing.JPanel createPanel(String name) {
+		switch (name) {
+		case "AnimationStarter":
+			return new AnimationStarter();
+		case "HierarchicalModeling2D":
+			HierarchicalModeling2D hierarchical = new HierarchicalModeling2D();
+			hierarchical.setAnimationRunning(false);
+			return hierarchical;
+		case "SceneGraphAPI2D":
+			SceneGraphAPI2D sceneGraph = new SceneGraphAPI2D();
+			sceneGraph.setAnimationRunning(false);
+			sceneGraph.setDamageTracking(false);  // Every frame is drawn completely.
+			return sceneGraph;
+		default:
+			throw new IllegalArgumentException("Unknown animation: " + name);
+		}
+	}
+
+	/**
+	 * Create a Scene that draws frames of an animation with its own copy of the panel.
+	 */
+	private static Scene createScene(String name, int width, int height) {
+		javax.swing.JPanel panel = createPanel(name);
+		panel.setSize(width, height);
+		if (panel instanceof AnimationStarter) {
+			AnimationStarter starter = (AnimationStarter)panel;
+			return (frame, g) -> {
+				starter.setFrameNumber(frame);
+				starter.paintComponent(g);
+			};
+		}
+		else if (panel instanceof HierarchicalModeling2D) {
+			HierarchicalModeling2D hierarchical = (HierarchicalModeling2D)panel;
+			return (frame, g) -> {
+				hierarchical.setFrameNumber(frame);
+				hierarchical.paintComponent(g);
+			};
+		}
+		else {
+			SceneGraphAPI2D sceneGraph = (SceneGraphAPI2D)panel;
+			return (frame, g) -> {
+				sceneGraph.setFrameNumber(frame);
+				sceneGraph.paintComponent(g);
+			};
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+import java.util.Random;
+
+/**
+ * Measures the frustum culling methods of the Camera class, without OpenGL.  First,
+ * for the 11-by-11-by-11 grid of spheres from ColorCubeOfSpheres, viewed as in that
+ * program with a 600-by-600 viewport, it reports how many spheres are not culled at
+ * several zoom levels, for perspective and orthographic projection.  It checks that
+ * no sphere whose center projects into the view volume is culled.  Then it times
+ * Camera.cullSpheres() and Camera.cullBoxes() on a million random spheres and boxes,
+ * and reports the time per object.
+ */
+public class FrustumCullingBenchmark {
+
+	private static final int COUNT = 1000000;  // Number of random spheres and boxes for timing.
+	private static final int REPEATS = 20;
+
+	public static void main(String[] args) {
+		float[] grid = new float[4*1331];
+		for (int s = 0; s < 1331; s++) {
+			grid[4*s] = s/121 - 5;
+			grid[4*s+1] = (s/11) % 11 - 5;
+			grid[4*s+2] = s % 11 - 5;
+			grid[4*s+3] = 0.4f;
+		}
+		int[] visible = new int[COUNT];
+		Camera camera = new Camera();
+		camera.lookAt(8, 6, 24, 0, 0, 0, 0, 1, 0);
+		System.out.printf("%-14s %6s %10s %10s%n", "Projection", "Zoom", "Drawn", "Check");
+		for (boolean orthographic : new boolean[] { false, true }) {
+			camera.setOrthographic(orthographic);
+			for (double zoom : new double[] { 10, 5, 2, 1, 0.5 }) {
+				camera.setLimits(-zoom, zoom, -zoom, zoom, -10, 10);
+				camera.setViewport(600, 600);
+				int drawn = camera.cullSpheres(grid, 1331, visible);
+				boolean ok = true;
+				for (int s = 0, n = 0; s < 1331; s++) {
+					if (n < drawn && visible[n] == s)
+						n++;
+					else if (centerInside(camera, grid[4*s], grid[4*s+1], grid[4*s+2]))
+						ok = false;
+				}
+				System.out.printf("%-14s %6.1f %10d %10s%n", orthographic ? "orthographic" : "perspective",
+						zoom, drawn, ok ? "OK" : "WRONG");
+			}
+		}
+		Random random = new Random(1);
+		float[] spheres = new float[4*COUNT];
+		float[] boxes = new float[6*COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			for (int k = 0; k < 3; k++) {
+				float center = 40*random.nextFloat() - 20;
+				float size = random.nextFloat();
+				spheres[4*i+k] = center;
+				boxes[6*i+k] = center - size;
+				boxes[6*i+k+3] = center + size;
+			}
+			spheres[4*i+3] = random.nextFloat();
+		}
+		camera.setOrthographic(false);
+		camera.setLimits(-10, 10, -10, 10, -10, 10);
+		camera.setViewport(600, 600);
+		int drawnSpheres = 0, drawnBoxes = 0;
+		for (int i = 0; i < REPEATS; i++)  // Warm up.
+			drawnSpheres += camera.cullSpheres(spheres, COUNT, visible) + camera.cullBoxes(boxes, COUNT, visible);
+		long start = System.nanoTime();
+		for (int i = 0; i < REPEATS; i++)
+			drawnSpheres = camera.cullSpheres(spheres, COUNT, visible);
+		double sphereTime = (System.nanoTime() - start) / (double)REPEATS / COUNT;
+		start = System.nanoTime();
+		for (int i = 0; i < REPEATS; i++)
+			drawnBoxes = camera.cullBoxes(boxes, COUNT, visible);
+		double boxTime = (System.nanoTime() - start) / (double)REPEATS / COUNT;
+		System.out.printf("%ncullSpheres: %.2f ns per sphere, %d of %d visible%n", sphereTime, drawnSpheres, COUNT);
+		System.out.printf("cullBoxes:   %.2f ns per box, %d of %d visible%n", boxTime, drawnBoxes, COUNT);
+	}
+
+	/**
+	 * Tests whether a point is inside the view volume, by applying the view and
+	 * projection matrices and checking the clip coordinates.
+	 */
+	private static boolean centerInside(Camera camera, double x, double y, double z) {
+		float[] v = camera.getViewMatrix(), p = camera.getProjectionMatrix();
+		double[] eye = new double[4], clip = new double[4];
+		for (int r = 0; r < 4; r++)
+			eye[r] = v[r]*x + v[4+r]*y + v[8+r]*z + v[12+r];
+		for (int r = 0; r < 4; r++)
+			clip[r] = p[r]*eye[0] + p[4+r]*eye[1] + p[8+r]*eye[2] + p[12+r]*eye[3];
+		double w = clip[3];
+		return Math.abs(clip[0]) <= w && Math.abs(clip[1]) <= w && Math.abs(clip[2]) <= w;
+	}
+
+}
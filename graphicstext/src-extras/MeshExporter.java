@@ -0,0 +1,276 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exports all of the models from the Polyhedron class, in up to three formats:
+ *
+ *     ifsb -- the binary format of MeshBinaryFormat, one file per model, name.ifsb
+ *     json -- the layout used for models in the WebGL examples, such as
+ *             basic-object-models-IFS.js, one file per model, name.json
+ *     c    -- C source for the GLUT examples, all models in one file, Polyhedron.c
+ *
+ * Usage:  java MeshExporter [-quantize] [-formats ifsb,json,c] [outputDirectory]
+ *
+ * By default, all three formats are written, without quantization, into a directory
+ * named "polyhedra" in the current directory.  The models are exported in parallel.
+ * After it is written, each binary file is read back and compared to the original
+ * model, to within the precision of the quantization if it is used, and a table of
+ * file sizes and the result of the check is printed.
+ *    In the JSON files, each face has its own copies of its vertices, so that it can
+ * have its own normal vector (and color, in vertexColors, if the model has colors).
+ * The faces are divided into triangles for the indices.  The texture coordinates are
+ * all zero, since the polyhedra do not have any.  In the C file, numbers are written
+ * with full precision, using the same helper functions, doubleArray and intArray, as
+ * before.
+ */
+public class MeshExporter {
+
+	public static void main(String[] args) {
+		boolean quantize = false;
+		List<String> formats = Arrays.asList("ifsb", "json", "c");
+		File directory = new File("polyhedra");
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-quantize"))
+				quantize = true;
+			else if (args[i].equals("-formats") && i + 1 < args.length)
+				formats = Arrays.asList(args[++i].toLowerCase().split(","));
+			else if (!args[i].startsWith("-"))
+				directory = new File(args[i]);
+			else {
+				System.out.println("Usage:  java MeshExporter [-quantize] [-formats ifsb,json,c] [outputDirectory]");
+				return;
+			}
+		}
+		for (String format : formats) {
+			if (!format.equals("ifsb") && !format.equals("json") && !format.equals("c")) {
+				System.out.println("Unknown format \"" + format + "\"; the formats are ifsb, json, and c.");
+				return;
+			}
+		}
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			System.out.println("Can't create the directory " + directory);
+			return;
+		}
+		try {
+			export(Polyhedron.getModelNames(), directory, formats, quantize);
+		}
+		catch (IOException | UncheckedIOException e) {
+			System.out.println("Export failed: " + e);
+		}
+	}
+
+	/**
+	 * The result of exporting one model.
+	 */
+	private static class Result {
+		String name;
+		Polyhedron model;
+		long binarySize, jsonSize;
+		String cSource;
+		String check = "";
+	}
+
+	/**
+	 * Export the models with the given names from the Polyhedron catalog in all of the
+	 * requested formats, and print a summary.  Each model is created by the task that
+	 * exports it.
+	 */
+	private static void export(String[] names, File directory, List<String> formats,
+			boolean quantize) throws IOException {
+		Result[] results = new Result[names.length];
+		long start = System.nanoTime();
+		ParallelLoop.run(results.length, 1, (first, last) -> {
+			for (int i = first; i < last; i++) {
+				Result result = new Result();
+				result.name = names[i];
+				result.model = Polyhedron.getModel(names[i]);
+				try {
+					if (formats.contains("ifsb"))
+						writeBinary(result, directory, quantize);
+					if (formats.contains("json"))
+						writeJSON(result, directory);
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(result.name + ": " + e.getMessage(), e);
+				}
+				if (formats.contains("c"))
+					result.cSource = cSource(result.model, result.name);
+				results[i] = result;
+			}
+		});
+		if (formats.contains("c")) {
+			StringBuilder source = new StringBuilder();
+			for (Result result : results)
+				source.append(result.cSource);
+			Files.write(new File(directory, "Polyhedron.c").toPath(),
+					source.toString().getBytes(StandardCharsets.US_ASCII));
+		}
+		double time = (System.nanoTime() - start) / 1e6;
+		System.out.printf("%-30s %12s %12s   %s%n", "Model", "ifsb bytes", "json bytes", "Binary check");
+		for (Result result : results)
+			System.out.printf("%-30s %12d %12d   %s%n", result.name, result.binarySize, result.jsonSize, result.check);
+		System.out.printf("%nExported %d models to %s in %.1f ms%s.%n", results.length, directory,
+				time, quantize ? ", quantized" : "");
+	}
+
+	/**
+	 * Write the model as name.ifsb, then read it back and check it against the model.
+	 */
+	private static void writeBinary(Result result, File directory, boolean quantize) throws IOException {
+		File file = new File(directory, result.name + ".ifsb");
+		PackedMesh mesh = new PackedMesh(result.model);
+		MeshBinaryFormat.write(mesh, file, quantize);
+		result.binarySize = file.length();
+		PackedMesh copy = MeshBinaryFormat.read(file);
+		float[] box = new float[6];  // Used to find the largest quantization error for positions.
+		Arrays.fill(box, 0, 3, Float.POSITIVE_INFINITY);
+		Arrays.fill(box, 3, 6, Float.NEGATIVE_INFINITY);
+		for (int i = 0; i < mesh.positions.length; i++) {
+			box[i % 3] = Math.min(box[i % 3], mesh.positions[i]);
+			box[3 + i % 3] = Math.max(box[3 + i % 3], mesh.positions[i]);
+		}
+		double positionError = 0, normalError = 0, colorError = 0;
+		if (quantize) {
+			for (int k = 0; k < 3; k++)
+				positionError = Math.max(positionError, (box[k+3] - box[k]) / 65535 * 0.5001 + 1e-6);
+			normalError = 0.5001 / 32767;
+			colorError = 0.5001 / 255;
+		}
+		if (!Arrays.equals(mesh.faceOffsets, copy.faceOffsets) || !Arrays.equals(mesh.faceIndices, copy.faceIndices))
+			result.check = "FAILED: faces differ";
+		else if (!close(mesh.positions, copy.positions, positionError))
+			result.check = "FAILED: vertices differ";
+		else if (!close(mesh.normals, copy.normals, normalError))
+			result.check = "FAILED: normals differ";
+		else if (!close(mesh.faceColors, copy.faceColors, colorError))
+			result.check = "FAILED: colors differ";
+		else
+			result.check = "OK";
+	}
+
+	private static boolean close(float[] a, float[] b, double tolerance) {
+		if (a == null || b == null)
+			return a == b;
+		if (a.length != b.length)
+			return false;
+		for (int i = 0; i < a.length; i++) {
+			if (Math.abs(a[i] - b[i]) > tolerance)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Write the model as name.json, in the layout used by the WebGL examples.
+	 */
+	private static void writeJSON(Result result, File directory) throws IOException {
+		MeshBuffers buffers = new MeshBuffers(result.model);
+		int vertexCount = buffers.getVertexCount();
+		float[] data = buffers.vertexData;
+		StringBuilder json = new StringBuilder();
+		json.append("{\n   \"vertexPositions\": [");
+		appendAttribute(json, data, vertexCount, 0);
+		json.append("],\n   \"vertexNormals\": [");
+		appendAttribute(json, data, vertexCount, MeshBuffers.NORMAL_OFFSET/4);
+		json.append("],\n   \"vertexTextureCoords\": [");
+		for (int i = 0; i < 2*vertexCount; i++)
+			json.append(i == 0 ? "0" : ",0");
+		if (result.model.faceColors != null) {
+			json.append("],\n   \"vertexColors\": [");
+			appendAttribute(json, data, vertexCount, MeshBuffers.COLOR_OFFSET/4);
+		}
+		json.append("],\n   \"indices\": [");
+		for (int i = 0; i < buffers.triangleIndices.length; i++) {
+			if (i > 0)
+				json.append(',');
+			json.append(buffers.triangleIndices[i]);
+		}
+		json.append("]\n}\n");
+		File file = new File(directory, result.name + ".json");
+		Files.write(file.toPath(), json.toString().getBytes(StandardCharsets.US_ASCII));
+		result.jsonSize = file.length();
+	}
+
+	/**
+	 * Append three numbers for each vertex, starting at the given offset in each
+	 * vertex of the interleaved vertex data.
+	 */
+	private static void appendAttribute(StringBuilder json, float[] data, int vertexCount, int offset) {
+		for (int v = 0; v < vertexCount; v++) {
+			for (int k = 0; k < 3; k++) {
+				if (v > 0 || k > 0)
+					json.append(',');
+				float x = data[v*MeshBuffers.FLOATS_PER_VERTEX + offset + k];
+				if (x == (int)x)
+					json.append((int)x);
+				else
+					json.append(x);
+			}
+		}
+	}
+
+	/**
+	 * Returns C source code for a function that creates the model, in the form
+	 * used in polyhedron.c in the GLUT examples.
+	 */
+	private static String cSource(Polyhedron poly, String name) {
+		StringWriter text = new StringWriter();
+		PrintWriter out = new PrintWriter(text);
+		int i;
+		out.println();
+		out.println("extern Polyhedron " + name + ";");
+		out.println();
+		out.println("static Polyhedron create_" + name + "IFS() {");
+		out.println("   Polyhedron poly;");
+		out.println("   poly.vertexCount = " + poly.vertices.length + ";");
+		out.println("   poly.faceCount = " + poly.faces.length + ";");
+		out.println("   poly.vertices = malloc( poly.vertexCount*3*sizeof(double) );");
+		if (poly.faceColors == null)
+			out.println("   poly.faceColors = NULL;");
+		else
+			out.println("   poly.faceColors = malloc( poly.faceCount*3*sizeof(double) );");
+		out.println("   poly.normals = malloc( poly.faceCount*3*sizeof(double) );");
+		int faceSize = 0;
+		for (i = 0; i < poly.faces.length; i++)
+			faceSize += poly.faces[i].length + 1;
+		out.println("   poly.faces = malloc( " + faceSize + "*sizeof(int) );");
+		out.println("   doubleArray(poly.vertices, 3*poly.vertexCount,");
+		writeTriples(out, poly.vertices);
+		out.println("   );");
+		out.println("   doubleArray(poly.normals, 3*poly.faceCount,");
+		writeTriples(out, poly.normals);
+		out.println("   );");
+		out.println("   intArray(poly.faces, " + faceSize + ",");
+		for (i = 0; i < poly.faces.length; i++) {
+			out.print("      ");
+			for (int j = 0; j < poly.faces[i].length; j++)
+				out.print(poly.faces[i][j] + ",");
+			out.println(i < poly.faces.length - 1 ? "-1," : "-1");
+		}
+		out.println("   );");
+		if (poly.faceColors != null) {
+			out.println("   doubleArray(poly.faceColors, 3*poly.faceCount,");
+			writeTriples(out, poly.faceColors);
+			out.println("   );");
+		}
+		out.println("   return poly;");
+		out.println("}");
+		out.flush();
+		return text.toString();
+	}
+
+	private static void writeTriples(PrintWriter out, double[][] triples) {
+		for (int i = 0; i < triples.length; i++) {
+			out.print("      " + triples[i][0] + ", " + triples[i][1] + ", " + triples[i][2]);
+			out.println(i < triples.length - 1 ? "," : "");
+		}
+	}
+
+}
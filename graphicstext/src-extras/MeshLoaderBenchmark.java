@@ -0,0 +1,152 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Times MeshLoader on a triangulated grid written as an OBJ file, a binary PLY file,
+ * and a binary STL file.  The size of the OBJ file, in megabytes, can be given as a
+ * command-line argument; the default is 500.  For comparison, it also times a
+ * simple OBJ loader that reads lines with a BufferedReader and splits them with
+ * String.split, and it checks that the two loaders get the same mesh.  The files
+ * are written to the system's temporary directory and are deleted at the end.
+ * Each loader is run once before it is timed.  Run with a large heap, such as -Xmx3g.
+ */
+public class MeshLoaderBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+		int side = (int)Math.sqrt(megabytes * 1e6 / 87);  // An OBJ grid takes about 87 bytes per vertex.
+		System.out.printf("Using %d processors.%n", Runtime.getRuntime().availableProcessors());
+		File obj = File.createTempFile("grid", ".obj");
+		File ply = File.createTempFile("grid", ".ply");
+		File stl = File.createTempFile("grid", ".stl");
+		try {
+			writeGrid(side, obj, ply, stl);
+			System.out.printf("%d vertices, %d triangles.%n%n", side*side, 2*(side-1)*(side-1));
+			System.out.printf("%-22s %10s %10s%n", "File", "MB", "Seconds");
+			simpleOBJ(obj);
+			long start = System.nanoTime();
+			PackedMesh simple = simpleOBJ(obj);
+			report("OBJ, String.split", obj, start);
+			for (File file : new File[] { obj, ply, stl }) {
+				MeshLoader.load(file);
+				start = System.nanoTime();
+				PackedMesh mesh = MeshLoader.load(file);
+				report(file.getName().substring(file.getName().length() - 3).toUpperCase() + ", MeshLoader", file, start);
+				if (file == obj && !(Arrays.equals(mesh.positions, simple.positions)
+						&& Arrays.equals(mesh.faceIndices, simple.faceIndices)))
+					System.out.println("ERROR:  The two OBJ loaders disagree.");
+			}
+		}
+		finally {
+			obj.delete();
+			ply.delete();
+			stl.delete();
+		}
+	}
+
+	private static void report(String name, File file, long start) {
+		System.out.printf("%-22s %10.1f %10.2f%n", name, file.length() / 1e6, (System.nanoTime() - start) / 1e9);
+	}
+
+	/**
+	 * Write a side-by-side grid of vertices on a wavy surface, with each square
+	 * divided into two triangles, in the three file formats.
+	 */
+	private static void writeGrid(int side, File obj, File ply, File stl) throws IOException {
+		float[] positions = new float[3*side*side];
+		for (int i = 0; i < side; i++) {
+			for (int j = 0; j < side; j++) {
+				int p = 3*(i*side + j);
+				positions[p] = (float)i / side;
+				positions[p+1] = (float)j / side;
+				positions[p+2] = (float)(0.05*Math.sin(20.0*i/side) * Math.cos(15.0*j/side));
+			}
+		}
+		int triangles = 2*(side-1)*(side-1);
+		int[] indices = new int[3*triangles];
+		int k = 0;
+		for (int i = 0; i < side - 1; i++) {
+			for (int j = 0; j < side - 1; j++) {
+				int a = i*side + j;
+				indices[k++] = a; indices[k++] = a + side; indices[k++] = a + side + 1;
+				indices[k++] = a; indices[k++] = a + side + 1; indices[k++] = a + 1;
+			}
+		}
+		try (PrintWriter out = new PrintWriter(new BufferedOutputStream(new FileOutputStream(obj), 1 << 16))) {
+			out.println("# Grid for MeshLoaderBenchmark");
+			for (int v = 0; v < positions.length; v += 3)
+				out.println("v " + positions[v] + " " + positions[v+1] + " " + positions[v+2]);
+			for (int t = 0; t < indices.length; t += 3)
+				out.println("f " + (indices[t]+1) + " " + (indices[t+1]+1) + " " + (indices[t+2]+1));
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(ply), 1 << 16))) {
+			out.writeBytes("ply\nformat binary_big_endian 1.0\nelement vertex " + side*side
+					+ "\nproperty float x\nproperty float y\nproperty float z\nelement face " + triangles
+					+ "\nproperty list uchar int vertex_indices\nend_header\n");
+			for (float x : positions)
+				out.writeFloat(x);
+			for (int t = 0; t < indices.length; t += 3) {
+				out.writeByte(3);
+				out.writeInt(indices[t]);
+				out.writeInt(indices[t+1]);
+				out.writeInt(indices[t+2]);
+			}
+		}
+		try (BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(stl), 1 << 16)) {
+			ByteBuffer record = ByteBuffer.allocate(84).order(ByteOrder.LITTLE_ENDIAN);
+			record.putInt(80, triangles);
+			out.write(record.array());
+			for (int t = 0; t < indices.length; t += 3) {
+				record.clear();
+				record.putFloat(0).putFloat(0).putFloat(0);  // Zero normal; MeshLoader computes it.
+				for (int j = 0; j < 3; j++)
+					record.putFloat(positions[3*indices[t+j]]).putFloat(positions[3*indices[t+j]+1])
+							.putFloat(positions[3*indices[t+j]+2]);
+				record.putShort((short)0);
+				out.write(record.array(), 0, 50);
+			}
+		}
+	}
+
+	/**
+	 * The straightforward way to read an OBJ file that contains only vertices and
+	 * triangles, for comparison.
+	 */
+	private static PackedMesh simpleOBJ(File file) throws IOException {
+		float[] positions = new float[3000];
+		int[] indices = new int[3000];
+		int coords = 0, count = 0;
+		try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				String[] words = line.trim().split("\\s+");
+				if (words[0].equals("v")) {
+					if (coords + 3 > positions.length)
+						positions = Arrays.copyOf(positions, 2*positions.length);
+					for (int j = 1; j <= 3; j++)
+						positions[coords++] = Float.parseFloat(words[j]);
+				}
+				else if (words[0].equals("f")) {
+					if (count + 3 > indices.length)
+						indices = Arrays.copyOf(indices, 2*indices.length);
+					for (int j = 1; j <= 3; j++)
+						indices[count++] = Integer.parseInt(words[j].split("/")[0]) - 1;
+				}
+			}
+		}
+		int[] offsets = new int[count/3 + 1];
+		for (int f = 0; f < offsets.length; f++)
+			offsets[f] = 3*f;
+		return new PackedMesh(Arrays.copyOf(positions, coords), offsets, Arrays.copyOf(indices, count), null, null);
+	}
+
+}
@@ -0,0 +1,145 @@
+import java.util.Random;
+
+/**
+ * Times MeshBVH on triangulated tori with about 200 thousand, 1 million, and 4 million
+ * faces.  For each size, it reports the time to build the hierarchy, the average time
+ * for a ray query, and, for comparison, the average time to find the first hit by
+ * testing the ray against every face.  The rays start outside the torus and point
+ * at random points near it, so that most of them hit.  The two methods are checked
+ * to find the same faces.  Run with a large heap, such as -Xmx3g.
+ */
+public class PickingBenchmark {
+
+	private static final int QUERIES = 100000;   // Rays for timing MeshBVH queries.
+	private static final int BRUTE_QUERIES = 50; // Rays for timing the face loop.
+
+	public static void main(String[] args) {
+		int[][] sizes = { {250,400}, {500,1000}, {1000,2000} };  // Rings and segments of the tori.
+		System.out.printf("Using %d processors.%n%n", Runtime.getRuntime().availableProcessors());
+		System.out.printf("%-10s %12s %8s %14s %16s %10s%n", "Faces", "Build (ms)", "Depth",
+				"BVH query (us)", "Face loop (us)", "Mismatches");
+		for (int[] size : sizes) {
+			PackedMesh torus = torus(size[0], size[1]);
+			new MeshBVH(torus);  // Warm up.
+			long start = System.nanoTime();
+			MeshBVH bvh = new MeshBVH(torus);
+			double buildTime = (System.nanoTime() - start) / 1e6;
+			double[][] rays = randomRays(QUERIES, new Random(size[0]));
+			int hits = 0;
+			for (int i = 0; i < QUERIES; i++)  // Warm up.
+				hits += bvh.intersect(rays[i], rays[i+QUERIES]) == null ? 0 : 1;
+			start = System.nanoTime();
+			for (int i = 0; i < QUERIES; i++)
+				hits += bvh.intersect(rays[i], rays[i+QUERIES]) == null ? 0 : 1;
+			double queryTime = (System.nanoTime() - start) / 1e3 / QUERIES;
+			int mismatches = 0;
+			start = System.nanoTime();
+			for (int i = 0; i < BRUTE_QUERIES; i++) {
+				int face = firstHit(torus, rays[i], rays[i+QUERIES]);
+				MeshBVH.Hit hit = bvh.intersect(rays[i], rays[i+QUERIES]);
+				if (face != (hit == null ? -1 : hit.face))
+					mismatches++;
+			}
+			double bruteTime = (System.nanoTime() - start) / 1e3 / BRUTE_QUERIES;
+			System.out.printf("%-10d %12.1f %8d %14.2f %16.1f %10d%n", torus.getFaceCount(), buildTime,
+					bvh.getDepth(), queryTime, bruteTime, mismatches);
+		}
+	}
+
+	/**
+	 * Make rays from random points on a sphere of radius 5 toward random points within
+	 * the torus's bounding box.  Origins are in rays[0..count-1], and unit directions in
+	 * rays[count..2*count-1].
+	 */
+	private static double[][] randomRays(int count, Random random) {
+		double[][] rays = new double[2*count][];
+		for (int i = 0; i < count; i++) {
+			double[] origin = new double[3];
+			double length;
+			do {
+				for (int k = 0; k < 3; k++)
+					origin[k] = 2*random.nextDouble() - 1;
+				length = Math.sqrt(origin[0]*origin[0] + origin[1]*origin[1] + origin[2]*origin[2]);
+			} while (length > 1 || length < 0.1);
+			for (int k = 0; k < 3; k++)
+				origin[k] *= 5/length;
+			double[] direction = { 5.2*random.nextDouble() - 2.6 - origin[0],
+					5.2*random.nextDouble() - 2.6 - origin[1], 1.2*random.nextDouble() - 0.6 - origin[2] };
+			length = Math.sqrt(direction[0]*direction[0] + direction[1]*direction[1] + direction[2]*direction[2]);
+			for (int k = 0; k < 3; k++)
+				direction[k] /= length;
+			rays[i] = origin;
+			rays[i+count] = direction;
+		}
+		return rays;
+	}
+
+	/**
+	 * The straightforward method:  test the ray against every triangle, and return
+	 * the face of the nearest hit, or -1.
+	 */
+	private static int firstHit(PackedMesh mesh, double[] o, double[] d) {
+		float[] p = mesh.positions;
+		double closest = Double.POSITIVE_INFINITY;
+		int face = -1;
+		for (int f = 0; f < mesh.getFaceCount(); f++) {
+			int s = mesh.faceOffsets[f];
+			int a = 3*mesh.faceIndices[s], b = 3*mesh.faceIndices[s+1], c = 3*mesh.faceIndices[s+2];
+			double e1x = p[b] - p[a], e1y = p[b+1] - p[a+1], e1z = p[b+2] - p[a+2];
+			double e2x = p[c] - p[a], e2y = p[c+1] - p[a+1], e2z = p[c+2] - p[a+2];
+			double px = d[1]*e2z - d[2]*e2y, py = d[2]*e2x - d[0]*e2z, pz = d[0]*e2y - d[1]*e2x;
+			double det = e1x*px + e1y*py + e1z*pz;
+			if (det == 0)
+				continue;
+			double sx = o[0] - p[a], sy = o[1] - p[a+1], sz = o[2] - p[a+2];
+			double u = (sx*px + sy*py + sz*pz) / det;
+			if (u < 0 || u > 1)
+				continue;
+			double qx = sy*e1z - sz*e1y, qy = sz*e1x - sx*e1z, qz = sx*e1y - sy*e1x;
+			double v = (d[0]*qx + d[1]*qy + d[2]*qz) / det;
+			if (v < 0 || u + v > 1)
+				continue;
+			double t = (e2x*qx + e2y*qy + e2z*qz) / det;
+			if (t >= 0 && t < closest) {
+				closest = t;
+				face = f;
+			}
+		}
+		return face;
+	}
+
+	/**
+	 * Make a torus, divided into rings*segments quads, each split into two triangles.
+	 */
+	private static PackedMesh torus(int rings, int segments) {
+		float[] positions = new float[3*rings*segments];
+		for (int i = 0; i < rings; i++) {
+			double u = 2*Math.PI*i/rings;
+			for (int j = 0; j < segments; j++) {
+				double v = 2*Math.PI*j/segments;
+				int p = 3*(i*segments + j);
+				positions[p] = (float)((2 + 0.6*Math.cos(u)) * Math.cos(v));
+				positions[p+1] = (float)((2 + 0.6*Math.cos(u)) * Math.sin(v));
+				positions[p+2] = (float)(0.6*Math.sin(u));
+			}
+		}
+		int faces = 2*rings*segments;
+		int[] offsets = new int[faces + 1];
+		int[] indices = new int[3*faces];
+		for (int f = 0; f <= faces; f++)
+			offsets[f] = 3*f;
+		int k = 0;
+		for (int i = 0; i < rings; i++) {
+			for (int j = 0; j < segments; j++) {
+				int a = i*segments + j;
+				int b = ((i+1) % rings)*segments + j;
+				int c = ((i+1) % rings)*segments + (j+1) % segments;
+				int d = i*segments + (j+1) % segments;
+				indices[k++] = a; indices[k++] = d; indices[k++] = c;
+				indices[k++] = a; indices[k++] = c; indices[k++] = b;
+			}
+		}
+		return new PackedMesh(positions, offsets, indices, null, null);
+	}
+
+}
@@ -0,0 +1,71 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * Measures the startup cost of the catalog of models in the Polyhedron class.  Since
+ * a class is initialized only once in a Java virtual machine, each measurement is
+ * made in a new JVM, which this program starts by running itself with the argument
+ * -child.  Each child times, with System.nanoTime(), three steps in order:  loading
+ * the Polyhedron class and getting the list of model names; getting one model, the
+ * tetrahedron; and getting all the other models.  The last two steps together cost
+ * about as much as the old static initializer of Polyhedron, which built every model
+ * as soon as the class was used.  The number of JVMs can be given as a command-line
+ * argument; the default is 10.  The times reported are averages.
+ */
+public class PolyhedronStartupBenchmark {
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length == 1 && args[0].equals("-child")) {
+			child();
+			return;
+		}
+		int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		String classPath = System.getProperty("java.class.path");
+		double[] totals = new double[3];
+		for (int run = 0; run < runs; run++) {
+			Process process = new ProcessBuilder(java, "-cp", classPath, "PolyhedronStartupBenchmark", "-child")
+					.redirectErrorStream(true).start();
+			String line;
+			try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+				line = in.readLine();
+			}
+			if (process.waitFor() != 0 || line == null) {
+				System.out.println("The child JVM failed" + (line == null ? "." : ": " + line));
+				return;
+			}
+			String[] times = line.trim().split(" ");
+			for (int i = 0; i < 3; i++)
+				totals[i] += Double.parseDouble(times[i]);
+		}
+		System.out.printf("Average over %d JVMs, in milliseconds:%n%n", runs);
+		System.out.printf("   Load Polyhedron and list the model names:  %8.3f%n", totals[0] / runs);
+		System.out.printf("   Get the first model (tetrahedron):         %8.3f%n", totals[1] / runs);
+		System.out.printf("   Get the other %2d models:                   %8.3f%n",
+				Polyhedron.getModelNames().length - 1, totals[2] / runs);
+		System.out.printf("%n   A program that uses one model:             %8.3f%n", (totals[0] + totals[1]) / runs);
+		System.out.printf("   Building every model, as before:           %8.3f%n",
+				(totals[0] + totals[1] + totals[2]) / runs);
+	}
+
+	/**
+	 * Time the three steps and print the times, in milliseconds, on one line.
+	 */
+	private static void child() {
+		long start = System.nanoTime();
+		String[] names = Polyhedron.getModelNames();
+		long loaded = System.nanoTime();
+		Polyhedron one = Polyhedron.getModel("tetrahedron");
+		long first = System.nanoTime();
+		int faces = one.faces.length;
+		for (String name : names)
+			faces += Polyhedron.getModel(name).faces.length;
+		long all = System.nanoTime();
+		if (faces == 0)  // (Uses the models, so the work can't be skipped.)
+			System.out.println("No faces?");
+		System.out.println((loaded - start) / 1e6 + " " + (first - loaded) / 1e6 + " " + (all - first) / 1e6);
+	}
+
+}
@@ -0,0 +1,166 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+/**
+ * Compares drawing a large scene by traversing a SceneGraphAPI2D scene graph with
+ * drawing the same scene from a SceneGraphAPI2D.RenderList.  The scene contains
+ * thousands of windmills and carts built from the same kinds of nodes as the scene
+ * in SceneGraphAPI2D, with more than 100000 primitives in all.  The rotors and
+ * wheels turn in every frame.  Frames are drawn into a BufferedImage, so the
+ * program can run without a display.  Three views are tested:  one that shows the
+ * entire scene, one that shows only a small part of it, and one that shows an empty
+ * area next to it.  For each, the program reports the time per frame for updating
+ * and drawing the scene, the number of bytes allocated during that time (using the
+ * HotSpot-specific com.sun.management.ThreadMXBean, and not counting the bytes that
+ * it allocates itself), and the number of pixels that differ between the two methods.
+ * Note that Java2D itself allocates some memory for each shape that it draws, such
+ * as a path iterator for each filled shape, so only the render list in the empty
+ * view, where every item is culled, can be free of allocation.
+ */
+public class RenderListBenchmark {
+
+	private static final int WARMUP = 20;   // Untimed frames for each test.
+	private static final int FRAMES = 40;   // Timed frames for each test.
+
+	private static final int COLUMNS = 200, ROWS = 100;  // Windmills are in a 200-by-100 grid.
+	private static final int CARTS = 1000;
+
+	private static SceneGraphAPI2D.TransformedObject rotor, wheel;  // The animated objects.
+
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		SceneGraphAPI2D.CompoundObject world = createWorld();
+		ArrayList<SceneGraphAPI2D.SceneGraphNode> nodes = new ArrayList<>();
+		nodes.add(world);
+		SceneGraphAPI2D.RenderList list = new SceneGraphAPI2D.RenderList(nodes, Color.BLACK, rotor, wheel);
+		System.out.printf("%d primitives, using %d processors.%n%n", list.getItemCount(),
+				Runtime.getRuntime().availableProcessors());
+		System.out.printf("%-8s %-12s %12s %14s %16s%n", "View", "Method", "ms/frame", "bytes/frame", "differing pixels");
+		String[] views = { "Entire", "Part", "Empty" };
+		double[] widths = { 2*COLUMNS, 20, 20 };
+		double[] lefts = { 0, 0, -40 };  // The x-coordinate at the left edge of the view.
+		long overhead = measurementOverhead();
+		for (int v = 0; v < views.length; v++) {
+			BufferedImage treeImage = new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB);
+			BufferedImage listImage = new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB);
+			double scale = treeImage.getWidth() / widths[v];
+			BasicStroke stroke = new BasicStroke((float)(1/scale));  // One stroke for every frame, as in SceneGraphAPI2D.
+			for (int method = 0; method < 2; method++) {
+				BufferedImage image = method == 0 ? treeImage : listImage;
+				long bytes = 0, time = 0;
+				for (int frame = 0; frame < WARMUP + FRAMES; frame++) {
+					Graphics2D g = image.createGraphics();
+					g.setColor(Color.WHITE);
+					g.fillRect(0, 0, image.getWidth(), image.getHeight());
+					g.setClip(0, 0, image.getWidth(), image.getHeight());
+					g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+					g.scale(scale, -scale);
+					g.translate(-lefts[v], -image.getHeight() / scale);
+					g.setStroke(stroke);
+					AffineTransform view = g.getTransform();
+					long startBytes = allocatedBytes();
+					long startTime = System.nanoTime();
+					rotor.setRotation(frame * 2.7);
+					wheel.setRotation(-frame * 3.1);
+					if (method == 0) {
+						g.setColor(Color.BLACK);
+						world.draw(g);
+					}
+					else {
+						list.update();
+						list.draw(g, view);
+					}
+					if (frame >= WARMUP) {
+						time += System.nanoTime() - startTime;
+						bytes += allocatedBytes() - startBytes - overhead;
+					}
+					g.dispose();
+				}
+				System.out.printf("%-8s %-12s %12.2f %14d", views[v], method == 0 ? "Scene graph" : "Render list",
+						time / 1e6 / FRAMES, bytes / FRAMES);
+				System.out.println(method == 0 ? "" : String.format(" %16d", countDifferences(treeImage, listImage)));
+			}
+		}
+	}
+
+	/**
+	 * Build the scene.  The windmills all share one CompoundObject, which contains the
+	 * animated rotor, and the carts all share one CompoundObject, which contains two
+	 * copies of the animated wheel.
+	 */
+	private static SceneGraphAPI2D.CompoundObject createWorld() {
+		SceneGraphAPI2D.CompoundObject rotorTemp = new SceneGraphAPI2D.CompoundObject();
+		rotorTemp.setColor(new Color(200,100,100));
+		rotorTemp.add(SceneGraphAPI2D.windmillVane);
+		rotorTemp.add(new SceneGraphAPI2D.TransformedObject(SceneGraphAPI2D.windmillVane).setRotation(120));
+		rotorTemp.add(new SceneGraphAPI2D.TransformedObject(SceneGraphAPI2D.windmillVane).setRotation(240));
+		rotor = new SceneGraphAPI2D.TransformedObject(rotorTemp);
+		SceneGraphAPI2D.CompoundObject windmill = new SceneGraphAPI2D.CompoundObject();
+		windmill.setColor(new Color(0xAA9999));
+		windmill.add(new SceneGraphAPI2D.TransformedObject(SceneGraphAPI2D.filledRect).setScale(0.1,3).setTranslation(0,1.5));
+		windmill.add(new SceneGraphAPI2D.TransformedObject(rotor).setTranslation(0,3));
+		SceneGraphAPI2D.CompoundObject wheelTemp = new SceneGraphAPI2D.CompoundObject();
+		wheelTemp.setColor(Color.BLACK);
+		wheelTemp.add(new SceneGraphAPI2D.TransformedObject(SceneGraphAPI2D.filledCircle).setScale(2,2));
+		wheelTemp.add(new SceneGraphAPI2D.TransformedObject(SceneGraphAPI2D.filledCircle).setScale(1.6,1.6).setColor(Color.LIGHT_GRAY));
+		wheelTemp.add(new SceneGraphAPI2D.TransformedObject(SceneGraphAPI2D.filledCircle).setScale(0.4,0.4));
+		for (int i = 0; i < 12; i++)
+			wheelTemp.add(new SceneGraphAPI2D.TransformedObject(SceneGraphAPI2D.line).setRotation(i*30));
+		wheel = new SceneGraphAPI2D.TransformedObject(wheelTemp);
+		SceneGraphAPI2D.CompoundObject cart = new SceneGraphAPI2D.CompoundObject();
+		cart.setColor(Color.RED);
+		cart.add(new SceneGraphAPI2D.TransformedObject(wheel).setScale(0.8,0.8).setTranslation(1.65,-0.1));
+		cart.add(new SceneGraphAPI2D.TransformedObject(wheel).setScale(0.8,0.8).setTranslation(-1.65,-0.1));
+		cart.add(new SceneGraphAPI2D.TransformedObject(SceneGraphAPI2D.filledRect).setScale(6,1.5).setTranslation(0,1));
+		cart.add(new SceneGraphAPI2D.TransformedObject(SceneGraphAPI2D.filledRect).setScale(2.6,1).setTranslation(-1,2));
+		SceneGraphAPI2D.CompoundObject world = new SceneGraphAPI2D.CompoundObject();
+		for (int row = 0; row < ROWS; row++)
+			for (int column = 0; column < COLUMNS; column++)
+				world.add(new SceneGraphAPI2D.TransformedObject(windmill).setScale(0.5,0.5)
+						.setTranslation(2*column + 1, 2*row + 0.2));
+		for (int i = 0; i < CARTS; i++)
+			world.add(new SceneGraphAPI2D.TransformedObject(cart).setScale(0.3,0.3)
+					.setTranslation(2*(i % COLUMNS) + 0.5, 2*(i / COLUMNS) + 1.4));
+		return world;
+	}
+
+	/**
+	 * Returns the number of bytes allocated so far by the current thread.
+	 */
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean())
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Returns the number of bytes that are allocated by a call to allocatedBytes(),
+	 * which is subtracted from each measurement.
+	 */
+	private static long measurementOverhead() {
+		long overhead = Long.MAX_VALUE;
+		for (int i = 0; i < 100; i++) {
+			long start = allocatedBytes();
+			overhead = Math.min(overhead, allocatedBytes() - start);
+		}
+		return overhead;
+	}
+
+	/**
+	 * Returns the number of pixels that are not the same in two images.
+	 */
+	private static int countDifferences(BufferedImage a, BufferedImage b) {
+		int count = 0;
+		for (int y = 0; y < a.getHeight(); y++)
+			for (int x = 0; x < a.getWidth(); x++)
+				if (a.getRGB(x,y) != b.getRGB(x,y))
+					count++;
+		return count;
+	}
+
+}
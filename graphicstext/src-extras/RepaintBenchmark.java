@@ -0,0 +1,59 @@
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * Measures the time needed to draw frames of the SceneGraphAPI2D animation,
+ * comparing full repaints of the panel with the partial repaints that are used
+ * when damage tracking is turned on.  The panel is painted into a BufferedImage,
+ * so the program can run without a display.  Several panel sizes are tested.
+ */
+public class RepaintBenchmark {
+
+	private static final int WARMUP = 100;  // Untimed frames for each test.
+	private static final int FRAMES = 200;  // Timed frames for each test.
+
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		int[][] sizes = { {700,500}, {1920,1080}, {3840,2160} };
+		System.out.printf("%-12s %16s %16s %9s%n", "Size", "Full (ms/frame)", "Damage (ms/frame)", "Speedup");
+		for (int[] size : sizes) {
+			double full = run(size[0], size[1], false);
+			double partial = run(size[0], size[1], true);
+			System.out.printf("%-12s %16.3f %16.3f %8.1fx%n", size[0] + "x" + size[1], full, partial, full/partial);
+		}
+	}
+
+	/**
+	 * Returns the average time, in milliseconds, to update and draw one frame.
+	 */
+	private static double run(int width, int height, boolean damageTracking) {
+		SceneGraphAPI2D panel = new SceneGraphAPI2D();
+		panel.setAnimationRunning(false);
+		panel.setSize(width, height);
+		panel.setDamageTracking(damageTracking);
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		long start = 0;
+		for (int frame = 0; frame < WARMUP + FRAMES; frame++) {
+			if (frame == WARMUP)
+				start = System.nanoTime();
+			panel.updateFrame();
+			if (!damageTracking || panel.damage.isEverything()) {
+				Graphics2D g = image.createGraphics();
+				panel.paint(g);
+				g.dispose();
+			}
+			else {
+				for (Rectangle r : panel.damage.getRectangles()) {
+					Graphics2D g = image.createGraphics();
+					g.setClip(r);
+					panel.paint(g);
+					g.dispose();
+				}
+			}
+			panel.damage.clear();
+		}
+		return (System.nanoTime() - start) / 1e6 / FRAMES;
+	}
+
+}
@@ -0,0 +1,117 @@
+/**
+ * Times SmoothNormals on triangulated tori with about 200 thousand, 1 million,
+ * and 4 million faces, using area weights with no crease angle and angle weights
+ * with a 30-degree crease angle.  For comparison, it also times a simple
+ * single-threaded loop that adds the area-weighted face normals into an array
+ * of vertex normals, and it checks that the area-weighted result from
+ * SmoothNormals agrees with that loop.  Each method is run several times to warm
+ * up the JIT compiler before it is timed.  Run with a large heap, such as -Xmx3g.
+ */
+public class SmoothNormalsBenchmark {
+
+	private static final int WARMUP = 2;   // Untimed runs of each method for each size.
+	private static final int RUNS = 5;     // Timed runs of each method for each size.
+
+	public static void main(String[] args) {
+		int[][] sizes = { {250,400}, {500,1000}, {1000,2000} };  // Rings and segments of the tori.
+		System.out.printf("Using %d processors.%n%n", Runtime.getRuntime().availableProcessors());
+		System.out.printf("%-10s %14s %14s %16s %14s%n", "Faces", "Simple (ms)", "Area (ms)",
+				"Crease 30 (ms)", "Max error");
+		for (int[] size : sizes) {
+			PackedMesh torus = torus(size[0], size[1]);
+			float[] simpleNormals = null;
+			SmoothNormals area = null;
+			for (int i = 0; i < WARMUP; i++) {
+				simpleNormals = simpleNormals(torus);
+				area = new SmoothNormals(torus, 180, SmoothNormals.Weighting.AREA);
+				new SmoothNormals(torus, 30, SmoothNormals.Weighting.ANGLE);
+			}
+			long start = System.nanoTime();
+			for (int i = 0; i < RUNS; i++)
+				simpleNormals = simpleNormals(torus);
+			double simpleTime = (System.nanoTime() - start) / 1e6 / RUNS;
+			start = System.nanoTime();
+			for (int i = 0; i < RUNS; i++)
+				area = new SmoothNormals(torus, 180, SmoothNormals.Weighting.AREA);
+			double areaTime = (System.nanoTime() - start) / 1e6 / RUNS;
+			start = System.nanoTime();
+			for (int i = 0; i < RUNS; i++)
+				new SmoothNormals(torus, 30, SmoothNormals.Weighting.ANGLE);
+			double creaseTime = (System.nanoTime() - start) / 1e6 / RUNS;
+			double maxError = 0;
+			for (int c = 0; c < torus.faceIndices.length; c++) {
+				int v = torus.faceIndices[c];
+				for (int k = 0; k < 3; k++)
+					maxError = Math.max(maxError, Math.abs(area.cornerNormals[3*c+k] - simpleNormals[3*v+k]));
+			}
+			System.out.printf("%-10d %14.1f %14.1f %16.1f %14.2g%n", torus.getFaceCount(),
+					simpleTime, areaTime, creaseTime, maxError);
+		}
+	}
+
+	/**
+	 * Make a torus, divided into rings*segments quads, each split into two triangles.
+	 */
+	private static PackedMesh torus(int rings, int segments) {
+		float[] positions = new float[3*rings*segments];
+		for (int i = 0; i < rings; i++) {
+			double u = 2*Math.PI*i/rings;
+			for (int j = 0; j < segments; j++) {
+				double v = 2*Math.PI*j/segments;
+				int p = 3*(i*segments + j);
+				positions[p] = (float)((2 + 0.6*Math.cos(u)) * Math.cos(v));
+				positions[p+1] = (float)((2 + 0.6*Math.cos(u)) * Math.sin(v));
+				positions[p+2] = (float)(0.6*Math.sin(u));
+			}
+		}
+		int faces = 2*rings*segments;
+		int[] offsets = new int[faces + 1];
+		int[] indices = new int[3*faces];
+		for (int f = 0; f <= faces; f++)
+			offsets[f] = 3*f;
+		int k = 0;
+		for (int i = 0; i < rings; i++) {
+			for (int j = 0; j < segments; j++) {
+				int a = i*segments + j;
+				int b = ((i+1) % rings)*segments + j;
+				int c = ((i+1) % rings)*segments + (j+1) % segments;
+				int d = i*segments + (j+1) % segments;
+				indices[k++] = a; indices[k++] = d; indices[k++] = c;
+				indices[k++] = a; indices[k++] = c; indices[k++] = b;
+			}
+		}
+		return new PackedMesh(positions, offsets, indices, null, null);
+	}
+
+	/**
+	 * The straightforward method:  For each triangle, add its cross product, whose
+	 * length is twice the area of the triangle, to each of its vertices, then
+	 * normalize the sums.
+	 */
+	private static float[] simpleNormals(PackedMesh mesh) {
+		double[] sums = new double[mesh.positions.length];
+		float[] p = mesh.positions;
+		for (int f = 0; f < mesh.getFaceCount(); f++) {
+			int s = mesh.faceOffsets[f];
+			int a = 3*mesh.faceIndices[s], b = 3*mesh.faceIndices[s+1], c = 3*mesh.faceIndices[s+2];
+			double ux = p[b] - p[a], uy = p[b+1] - p[a+1], uz = p[b+2] - p[a+2];
+			double vx = p[c] - p[a], vy = p[c+1] - p[a+1], vz = p[c+2] - p[a+2];
+			double nx = uy*vz - uz*vy, ny = uz*vx - ux*vz, nz = ux*vy - uy*vx;
+			for (int j = 0; j < 3; j++) {
+				int v = mesh.faceIndices[s+j];
+				sums[3*v] += nx;
+				sums[3*v+1] += ny;
+				sums[3*v+2] += nz;
+			}
+		}
+		float[] normals = new float[sums.length];
+		for (int v = 0; v < sums.length; v += 3) {
+			double length = Math.sqrt(sums[v]*sums[v] + sums[v+1]*sums[v+1] + sums[v+2]*sums[v+2]);
+			normals[v] = (float)(sums[v]/length);
+			normals[v+1] = (float)(sums[v+1]/length);
+			normals[v+2] = (float)(sums[v+2]/length);
+		}
+		return normals;
+	}
+
+}
@@ -0,0 +1,78 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Compares the SceneGraphAPI2D animation drawn by Java2D, using the panel's
+ * paintComponent() method, with the same animation drawn by a SoftwareRenderer.
+ * For each of several image sizes, the program reports the number of frames
+ * per minute for each method and statistics about the differences between the
+ * images:  the largest difference in any color component of any pixel, and the
+ * percentage of pixels that have a component that differs by more than 4.
+ * The program does not need a display.  The number of processors is printed,
+ * since the software renderer draws its tiles in parallel and Java2D does not;
+ * on one processor, Java2D is several times faster.
+ */
+public class SoftwareRendererBenchmark {
+
+	private static final int WARMUP = 50;   // Untimed frames for each test.
+	private static final int FRAMES = 200;  // Timed frames for each test.
+
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		int[][] sizes = { {700,500}, {1920,1080}, {3840,2160} };
+		System.out.printf("Using %d processors.%n%n", Runtime.getRuntime().availableProcessors());
+		System.out.printf("%-12s %16s %16s %14s %14s%n", "Size", "Java2D (fpm)", "Software (fpm)",
+				"Max diff", "% over 4");
+		for (int[] size : sizes) {
+			int width = size[0], height = size[1];
+			SceneGraphAPI2D java2D = new SceneGraphAPI2D();
+			java2D.setAnimationRunning(false);
+			java2D.setDamageTracking(false);
+			java2D.setSize(width, height);
+			BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			SceneGraphAPI2D software = new SceneGraphAPI2D();
+			software.setAnimationRunning(false);
+			SoftwareRenderer renderer = new SoftwareRenderer(width, height, 64);
+			long java2DTime = 0, softwareTime = 0;
+			int maxDiff = 0;
+			long over = 0;
+			for (int frame = 0; frame < WARMUP + FRAMES; frame++) {
+				long start = System.nanoTime();
+				java2D.updateFrame();
+				Graphics2D g = image.createGraphics();
+				java2D.paintComponent(g);
+				g.dispose();
+				long middle = System.nanoTime();
+				software.updateFrame();
+				BufferedImage softwareImage = software.renderFrame(renderer);
+				long end = System.nanoTime();
+				if (frame >= WARMUP) {
+					java2DTime += middle - start;
+					softwareTime += end - middle;
+					for (int y = 0; y < height; y++) {
+						for (int x = 0; x < width; x++) {
+							int diff = difference(image.getRGB(x,y), softwareImage.getRGB(x,y));
+							maxDiff = Math.max(maxDiff, diff);
+							if (diff > 4)
+								over++;
+						}
+					}
+				}
+			}
+			System.out.printf("%-12s %16.0f %16.0f %14d %13.3f%%%n", width + "x" + height,
+					60e9 * FRAMES / java2DTime, 60e9 * FRAMES / softwareTime, maxDiff,
+					100.0 * over / ((double)FRAMES * width * height));
+		}
+	}
+
+	/**
+	 * Returns the largest difference between corresponding color components of two colors.
+	 */
+	private static int difference(int rgb1, int rgb2) {
+		int max = 0;
+		for (int shift = 0; shift < 24; shift += 8)
+			max = Math.max(max, Math.abs(((rgb1 >> shift) & 255) - ((rgb2 >> shift) & 255)));
+		return max;
+	}
+
+}
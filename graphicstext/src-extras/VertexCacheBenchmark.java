@@ -0,0 +1,107 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Reports the ACMR (average cache miss ratio) of meshes before and after they are
+ * reordered by VertexCacheOptimizer, for simulated first-in-first-out vertex caches of
+ * 16 and 32 entries.  The meshes are all the models in the Polyhedron catalog, a
+ * torus with 2 million triangles in the order in which it is generated (rows of
+ * quads), the same torus with its triangles in random order, which is like a mesh
+ * that has been through a tool that does not care about order, and any model files
+ * named on the command line, which are read with MeshLoader.  (Vertices of STL files
+ * are welded first.)  For each mesh, it also reports the time for the optimization,
+ * and it checks that optimizing the mesh a second time gives exactly the same result.
+ */
+public class VertexCacheBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		System.out.printf("%-30s %10s %9s %9s %9s %9s %10s  %s%n", "Mesh", "Triangles", "FIFO 16",
+				"After", "FIFO 32", "After", "Time (ms)", "Repeatable");
+		for (String name : Polyhedron.getModelNames())
+			report(name, new PackedMesh(Polyhedron.getModel(name)));
+		PackedMesh torus = torus(1000, 1000);
+		report("torus", torus);
+		report("torus, shuffled", shuffled(torus, new Random(1)));
+		for (String fileName : args) {
+			File file = new File(fileName);
+			PackedMesh mesh = MeshLoader.load(file);
+			if (fileName.toLowerCase().endsWith(".stl"))
+				mesh = MeshWelder.weld(mesh, 0);
+			report(file.getName(), mesh);
+		}
+	}
+
+	private static void report(String name, PackedMesh mesh) {
+		VertexCacheOptimizer.optimize(mesh);  // Warm up.
+		long start = System.nanoTime();
+		PackedMesh optimized = VertexCacheOptimizer.optimize(mesh);
+		double time = (System.nanoTime() - start) / 1e6;
+		PackedMesh again = VertexCacheOptimizer.optimize(mesh);
+		boolean same = Arrays.equals(optimized.faceIndices, again.faceIndices)
+				&& Arrays.equals(optimized.positions, again.positions);
+		int triangles = 0;
+		for (int f = 0; f < mesh.getFaceCount(); f++)
+			triangles += Math.max(0, mesh.getFaceSize(f) - 2);
+		System.out.printf("%-30s %10d %9.3f %9.3f %9.3f %9.3f %10.1f  %s%n", name, triangles,
+				VertexCacheOptimizer.acmr(mesh, 16), VertexCacheOptimizer.acmr(optimized, 16),
+				VertexCacheOptimizer.acmr(mesh, 32), VertexCacheOptimizer.acmr(optimized, 32),
+				time, same ? "yes" : "NO");
+	}
+
+	/**
+	 * Returns a copy of a triangle mesh with its triangles in random order.
+	 */
+	private static PackedMesh shuffled(PackedMesh mesh, Random random) {
+		int faces = mesh.getFaceCount();
+		int[] order = new int[faces];
+		for (int i = 0; i < faces; i++)
+			order[i] = i;
+		for (int i = faces - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int temp = order[i];
+			order[i] = order[j];
+			order[j] = temp;
+		}
+		int[] indices = new int[3*faces];
+		for (int i = 0; i < faces; i++)
+			System.arraycopy(mesh.faceIndices, 3*order[i], indices, 3*i, 3);
+		return new PackedMesh(mesh.positions, mesh.faceOffsets, indices, null, null);
+	}
+
+	/**
+	 * Make a torus, divided into rings*segments quads, each split into two triangles.
+	 */
+	private static PackedMesh torus(int rings, int segments) {
+		float[] positions = new float[3*rings*segments];
+		for (int i = 0; i < rings; i++) {
+			double u = 2*Math.PI*i/rings;
+			for (int j = 0; j < segments; j++) {
+				double v = 2*Math.PI*j/segments;
+				int p = 3*(i*segments + j);
+				positions[p] = (float)((2 + 0.6*Math.cos(u)) * Math.cos(v));
+				positions[p+1] = (float)((2 + 0.6*Math.cos(u)) * Math.sin(v));
+				positions[p+2] = (float)(0.6*Math.sin(u));
+			}
+		}
+		int faces = 2*rings*segments;
+		int[] offsets = new int[faces + 1];
+		int[] indices = new int[3*faces];
+		for (int f = 0; f <= faces; f++)
+			offsets[f] = 3*f;
+		int k = 0;
+		for (int i = 0; i < rings; i++) {
+			for (int j = 0; j < segments; j++) {
+				int a = i*segments + j;
+				int b = ((i+1) % rings)*segments + j;
+				int c = ((i+1) % rings)*segments + (j+1) % segments;
+				int d = i*segments + (j+1) % segments;
+				indices[k++] = a; indices[k++] = d; indices[k++] = c;
+				indices[k++] = a; indices[k++] = c; indices[k++] = b;
+			}
+		}
+		return new PackedMesh(positions, offsets, indices, null, null);
+	}
+
+}
@@ -0,0 +1,95 @@
+import java.util.Random;
+
+/**
+ * Times MeshWelder on triangle soups made from tori, like the meshes read from STL
+ * files, where every triangle has its own three vertices.  Each torus is divided into
+ * rings*segments quads, each split into two triangles, and one triangle in every
+ * hundred is made degenerate by repeating a vertex.  The soup is welded twice:  once
+ * with exactly repeated vertices and epsilon = 0, and once with every vertex moved
+ * by a random amount up to 1e-6 in each coordinate, with epsilon = 1e-5.  In both
+ * cases, welding should give back the rings*segments vertices of the torus, without
+ * the degenerate triangles.  For each case, it reports the time, the numbers of
+ * vertices and faces before and after, and the average number of vertices that would
+ * be transformed per triangle when the triangles are drawn in order with a 16-entry
+ * FIFO post-transform vertex cache (the "ACMR").  Run with a large heap, such as -Xmx3g.
+ */
+public class WeldBenchmark {
+
+	private static final int CACHE_SIZE = 16;
+
+	public static void main(String[] args) {
+		int[][] sizes = { {250,400}, {500,1000}, {1000,2000} };  // Rings and segments of the tori.
+		System.out.printf("%-8s %10s %10s %10s %10s %10s %8s %8s  %s%n", "Epsilon", "Vertices", "Welded",
+				"Faces", "Welded", "Time (ms)", "ACMR", "Welded", "Check");
+		for (int[] size : sizes) {
+			for (double epsilon : new double[] { 0, 1e-5 }) {
+				PackedMesh soup = triangleSoup(size[0], size[1], epsilon == 0 ? 0 : 1e-6, new Random(size[0]));
+				MeshWelder.weld(soup, epsilon);  // Warm up.
+				long start = System.nanoTime();
+				PackedMesh welded = MeshWelder.weld(soup, epsilon);
+				double time = (System.nanoTime() - start) / 1e6;
+				int expectedFaces = 2*size[0]*size[1] - (2*size[0]*size[1] + 99) / 100;
+				boolean ok = welded.getVertexCount() == size[0]*size[1] && welded.getFaceCount() == expectedFaces;
+				System.out.printf("%-8s %10d %10d %10d %10d %10.1f %8.3f %8.3f  %s%n", epsilon, soup.getVertexCount(),
+						welded.getVertexCount(), soup.getFaceCount(), welded.getFaceCount(), time, acmr(soup),
+						acmr(welded), ok ? "OK" : "WRONG");
+			}
+		}
+	}
+
+	/**
+	 * Returns the average number of cache misses per triangle for a FIFO vertex cache.
+	 */
+	private static double acmr(PackedMesh mesh) {
+		int[] cache = new int[CACHE_SIZE];
+		java.util.Arrays.fill(cache, -1);
+		int next = 0, misses = 0;
+		for (int v : mesh.faceIndices) {
+			boolean hit = false;
+			for (int c : cache) {
+				if (c == v) {
+					hit = true;
+					break;
+				}
+			}
+			if (!hit) {
+				misses++;
+				cache[next] = v;
+				next = (next + 1) % CACHE_SIZE;
+			}
+		}
+		return (double)misses / mesh.getFaceCount();
+	}
+
+	/**
+	 * Make a triangulated torus with three separate vertices for each triangle, each moved
+	 * by up to jitter in each coordinate.  Every hundredth triangle repeats its first vertex.
+	 */
+	private static PackedMesh triangleSoup(int rings, int segments, double jitter, Random random) {
+		int faces = 2*rings*segments;
+		float[] positions = new float[9*faces];
+		int[] offsets = new int[faces + 1];
+		int[] indices = new int[3*faces];
+		int t = 0;
+		for (int i = 0; i < rings; i++) {
+			for (int j = 0; j < segments; j++) {
+				int[][] triangles = { {i,j, i,j+1, i+1,j+1}, {i,j, i+1,j+1, i+1,j} };
+				for (int[] corners : triangles) {
+					for (int k = 0; k < 3; k++) {
+						int corner = (t % 100 == 0 && k == 1) ? 0 : k;
+						double u = 2*Math.PI*(corners[2*corner] % rings)/rings;
+						double v = 2*Math.PI*(corners[2*corner+1] % segments)/segments;
+						int p = 9*t + 3*k;
+						positions[p] = (float)((2 + 0.6*Math.cos(u)) * Math.cos(v) + jitter*(2*random.nextDouble() - 1));
+						positions[p+1] = (float)((2 + 0.6*Math.cos(u)) * Math.sin(v) + jitter*(2*random.nextDouble() - 1));
+						positions[p+2] = (float)(0.6*Math.sin(u) + jitter*(2*random.nextDouble() - 1));
+						indices[3*t + k] = 3*t + k;
+					}
+					offsets[++t] = 3*t;
+				}
+			}
+		}
+		return new PackedMesh(positions, offsets, indices, null, null);
+	}
+
+}
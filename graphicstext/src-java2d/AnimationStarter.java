@@ -39,19 +39,34 @@ public class AnimationStarter extends JPanel {
 			public void actionPerformed(ActionEvent arg0) {
 				panel.frameNumber++;
 				panel.elapsedTimeMillis = System.currentTimeMillis() - startTime;
-				panel.repaint();
+				if (REPAINT_ANIMATED_BOUNDS_ONLY)
+					panel.repaint( panel.getAnimatedBounds() ); // Only repaint the part that changes.
+				else
+					panel.repaint();  // Repaint the entire panel.
 			}
 		});
 		window.setVisible(true); // Open the window, making it visible on the screen.
 		animationTimer.start();  // Start the animation running.
 	}
 	
+	/**
+	 * If this is changed to true, only the part of the panel given by getAnimatedBounds()
+	 * is repainted in each frame, instead of the entire panel.  That can save time when the
+	 * panel is large, but getAnimatedBounds() must then be changed whenever the drawing
+	 * is changed, or parts of the picture will not be updated.
+	 */
+	private static final boolean REPAINT_ANIMATED_BOUNDS_ONLY = false;
+	
 	private int frameNumber;  // A counter that increases by one in each frame.
 	private long elapsedTimeMillis;  // The time, in milliseconds, since the animation started.
 	
 	private float pixelSize;  // This is the measure of a pixel in the coordinate system
                               // set up by calling the applyLimits method.  It can be used
                               // for setting line widths, for example.
+	
+	private AffineTransform viewTransform;  // The coordinate transform that was set up by
+	                                        // the applyLimits method, or null if the
+	                                        // panel has not yet been painted.
 
 	/**
 	 * This constructor sets up an AnimationStarter when it is created.  Here, it
@@ -62,6 +77,18 @@ public class AnimationStarter extends JPanel {
 		setPreferredSize( new Dimension(800,600) ); // Set size of drawing area, in pixels.
 	}
 	
+	/**
+	 * Jump directly to a given frame of the animation, without using a timer.  The
+	 * value of elapsedTimeMillis is set to the time at which the frame would be drawn
+	 * if the timer in main() fired exactly every 16 milliseconds, so the same frame
+	 * number always gives the same picture.  This can be used to draw the frames
+	 * of the animation into images, with no window on the screen.
+	 */
+	public void setFrameNumber(int frame) {
+		frameNumber = frame;
+		elapsedTimeMillis = 16L * frame;
+	}
+	
 	/**
 	 * The paintComponent method draws the content of the JPanel.  The parameter
 	 * is a graphics context that can be used for drawing on the panel.  Note that
@@ -139,6 +166,23 @@ public class AnimationStarter extends JPanel {
 		}
 	}
 	
+	/**
+	 * Returns a rectangle, in pixel coordinates, that contains everything that changes
+	 * from one frame to the next.  Only this part of the panel has to be repainted
+	 * for a new frame, which saves time when the panel is large.  This is used only if
+	 * REPAINT_ANIMATED_BOUNDS_ONLY is true.  Here, the entire picture rotates about (0,0),
+	 * and it lies within a distance of about 3.75 from (0,0), including the line widths;
+	 * if you change the picture, you must also change this method.
+	 */
+	public Rectangle getAnimatedBounds() {
+		if (viewTransform == null)
+			return new Rectangle(0, 0, getWidth(), getHeight());
+		Rectangle bounds = viewTransform.createTransformedShape(
+				new Rectangle2D.Double(-3.8, -3.8, 7.6, 7.6) ).getBounds();
+		bounds.grow(2,2);  // Allow for antialiasing.
+		return bounds;
+	}
+	
 	/**
      * Applies a coordinate transform to a Graphics2D graphics context.  The upper
      * left corner of the viewport where the graphics context draws is assumed to
@@ -185,8 +229,10 @@ public class AnimationStarter extends JPanel {
 				left -= excess/2;
 			}
 		}
-		g2.scale( width / (right-left), height / (bottom-top) );
-		g2.translate( -left, -top );
+		viewTransform = new AffineTransform();
+		viewTransform.scale( width / (right-left), height / (bottom-top) );
+		viewTransform.translate( -left, -top );
+		g2.transform(viewTransform);
 		double pixelWidth = Math.abs(( right - left ) / width);
 		double pixelHeight = Math.abs(( bottom - top ) / height);
 		pixelSize = (float)Math.max(pixelWidth,pixelHeight);
@@ -0,0 +1,495 @@
+
+/**
+ * A ConvolutionFilter applies a square convolution kernel to an image
+ * that is given as an array of packed RGB colors, such as the data array
+ * of a BufferedImage of type TYPE_INT_RGB.  The kernel can have any odd
+ * size.  The kernel weights are stored as integers, together with an
+ * integer divisor, so that the weighted sums for the red, green, and blue
+ * components can be computed exactly in integer arithmetic.  (For example,
+ * the "Blur" kernel has all weights equal to 1 and divisor 9.)  The new
+ * value of a color component is the absolute value of the weighted sum
+ * divided by the divisor, rounded to the nearest integer and clamped to
+ * the range 0 to 255.
+ *     Pixels along the border of the image are also filtered.  When part
+ * of the kernel hangs over the edge of the image, the missing pixels are
+ * taken to be copies of the nearest pixel on the edge.
+ *     When a filter is created, the kernel is checked to see whether it
+ * is "separable," that is, whether it is the product of a column vector and
+ * a row vector.  A separable kernel, such as a Gaussian blur, is applied as
+ * two one-dimensional passes, a horizontal pass followed by a vertical pass,
+ * so that the work per pixel grows like the size of the kernel instead of the
+ * square of the size.  A "box" kernel, with all weights equal, is applied using
+ * running sums, so that the work per pixel does not depend on the size at all.
+ * All methods give exactly the same result as a direct two-dimensional
+ * convolution.
+ *     The work is divided into bands of rows that are processed in parallel
+ * by the common ForkJoinPool.
+ */
+public class ConvolutionFilter {
+
+	public static final ConvolutionFilter BLUR = box(3);
+
+	public static final ConvolutionFilter SHARPEN = new ConvolutionFilter(3,
+			new int[] { 0,-1,0, -1,7,-1, 0,-1,0 }, 3);
+
+	public static final ConvolutionFilter EMBOSS = new ConvolutionFilter(3,
+			new int[] { -2,-1,0, -1,1,1, 0,1,2 }, 1);
+
+	public static final ConvolutionFilter EDGE_DETECT = new ConvolutionFilter(3,
+			new int[] { 0,1,0, 1,-4,1, 0,1,0 }, 1);
+
+	private static final int MIN_BAND_PIXELS = 16384; // Bands with fewer pixels are not split further.
+
+	private final int size;       // The kernel is size-by-size; size is odd.
+	private final int[] weights;  // The kernel, in row-major order.
+	private final int divisor;    // The weighted sums are divided by this number.
+
+	private boolean box;          // True if all the weights are equal.
+	private int[] rowWeights;     // For a separable kernel that is not a box, the weights for the
+	private int[] columnWeights;  //    horizontal and vertical passes; null if the kernel is not separable.
+
+	private long scaleNumerator;   // A sum, s, computed by the filter is converted to a color
+	private long scaleDenominator; //    component by rounding |s|*scaleNumerator/scaleDenominator.
+
+	/**
+	 * Create a filter for a given kernel.
+	 * @param size the number of rows and of columns in the kernel.  Must be a positive odd number.
+	 * @param weights the size*size weights of the kernel, listed row by row.  The array
+	 *    is copied, so later changes to the array do not affect the filter.
+	 * @param divisor the weighted sums are divided by this value.  Must be positive.
+	 * @throws IllegalArgumentException if the parameters are not legal, or if the kernel is not
+	 *    separable and its weights are so large that the sums could overflow an int.
+	 */
+	public ConvolutionFilter(int size, int[] weights, int divisor) {
+		if (size < 1 || size % 2 == 0)
+			throw new IllegalArgumentException("Kernel size must be a positive odd number.");
+		if (weights.length != size*size)
+			throw new IllegalArgumentException("Kernel must have size*size weights.");
+		if (divisor <= 0)
+			throw new IllegalArgumentException("Divisor must be positive.");
+		this.size = size;
+		this.weights = weights.clone();
+		this.divisor = divisor;
+		scaleNumerator = 1;
+		scaleDenominator = divisor;
+		box = weights[0] != 0;
+		for (int weight : weights)
+			if (weight != weights[0])
+				box = false;
+		if (box && 255L*size*size > Integer.MAX_VALUE)
+			box = false;  // The running sums could overflow an int.
+		if (box) {
+			// The running sums add up the colors without weights; the weight goes into the scale.
+			long weight = Math.abs((long)weights[0]);
+			long common = gcd(weight, divisor);
+			scaleNumerator = weight / common;
+			scaleDenominator = divisor / common;
+		}
+		if (!box && size > 1)
+			findSeparation();
+		if (!box && rowWeights == null) {
+			long max = 0;
+			for (int weight : weights)
+				max += 255L*Math.abs(weight);
+			if (max > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("Kernel weights are too large.");
+		}
+	}
+
+	/**
+	 * Returns a filter that replaces each pixel with the average of the colors
+	 * in a size-by-size square centered on that pixel.
+	 * @param size the size of the square.  Must be a positive odd number.
+	 */
+	public static ConvolutionFilter box(int size) {
+		int[] weights = new int[size*size];
+		for (int i = 0; i < weights.length; i++)
+			weights[i] = 1;
+		return new ConvolutionFilter(size, weights, size*size);
+	}
+
+	/**
+	 * Returns a filter that applies a size-by-size Gaussian blur, with standard
+	 * deviation equal to one-sixth of the size.  The weights are integer
+	 * approximations of the Gaussian function.  The kernel is separable.
+	 * @param size the size of the kernel.  Must be an odd number between 1 and 255.
+	 */
+	public static ConvolutionFilter gaussian(int size) {
+		if (size < 1 || size > 255 || size % 2 == 0)
+			throw new IllegalArgumentException("Gaussian size must be an odd number between 1 and 255.");
+		int radius = size/2;
+		double sigma = Math.max(size/6.0, 0.5);
+		int[] g = new int[size];  // The one-dimensional kernel.
+		int sum = 0;
+		for (int i = 0; i < size; i++) {
+			double d = i - radius;
+			g[i] = (int)Math.max(1, Math.round(256*Math.exp(-d*d/(2*sigma*sigma))));
+			sum += g[i];
+		}
+		int[] weights = new int[size*size];
+		for (int j = 0; j < size; j++)
+			for (int i = 0; i < size; i++)
+				weights[i + j*size] = g[i]*g[j];
+		return new ConvolutionFilter(size, weights, sum*sum);
+	}
+
+	/**
+	 * Returns the number of rows and of columns in the kernel.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns a copy of the kernel weights, listed row by row.
+	 */
+	public int[] getWeights() {
+		return weights.clone();
+	}
+
+	/**
+	 * Returns the number by which the weighted sums are divided.
+	 */
+	public int getDivisor() {
+		return divisor;
+	}
+
+	/**
+	 * Returns true if the kernel is the product of a column vector and a row
+	 * vector, so that it is applied as two one-dimensional passes.  (A box
+	 * kernel is separable, but it is applied using running sums.)
+	 */
+	public boolean isSeparable() {
+		return box || rowWeights != null;
+	}
+
+	/**
+	 * Apply the filter to the image whose pixels are in the array src, storing
+	 * the result in dst.  Both arrays hold w*h packed RGB colors, row by row.
+	 * The arrays can be the same array, since the filter works from a copy of
+	 * the source data.  Any alpha component in src is ignored; the alpha component
+	 * of every color in dst will be zero.
+	 */
+	public void filter(int[] src, int[] dst, int w, int h) {
+		if (src.length < w*h || dst.length < w*h)
+			throw new IllegalArgumentException("Arrays are too small for the image size.");
+		int[] padded = pad(src, w, h, size/2);
+		if (box)
+			boxFilter(padded, dst, w, h);
+		else if (rowWeights != null)
+			separableFilter(padded, dst, w, h);
+		else
+			directFilter(padded, dst, w, h);
+	}
+
+	/**
+	 * Returns a copy of the image in which the image is surrounded by a border
+	 * of the given width, filled with copies of the nearest edge pixel.
+	 */
+	static int[] pad(int[] src, int w, int h, int border) {
+		int pw = w + 2*border;
+		int ph = h + 2*border;
+		int[] padded = new int[pw*ph];
+		for (int y = 0; y < ph; y++) {
+			int row = Math.min(h-1, Math.max(0, y - border)) * w;
+			int out = y*pw;
+			int left = src[row];
+			int right = src[row + w - 1];
+			for (int x = 0; x < border; x++) {
+				padded[out + x] = left;
+				padded[out + border + w + x] = right;
+			}
+			System.arraycopy(src, row, padded, out + border, w);
+		}
+		return padded;
+	}
+
+	/**
+	 * Check whether the kernel is a product of a column vector and a row vector.
+	 * If so, set rowWeights and columnWeights to those vectors, divided by
+	 * their greatest common divisors, and set scaleNumerator and scaleDenominator
+	 * to the factor needed to turn the result of the two passes into the weighted
+	 * sum for the full kernel, divided by the divisor.
+	 */
+	private void findSeparation() {
+		int pivot = 0;  // Position of first non-zero weight; all rows must be multiples of its row.
+		while (pivot < weights.length && weights[pivot] == 0)
+			pivot++;
+		if (pivot == weights.length)
+			return;  // All weights are zero; the general path just makes every pixel black.
+		int pivotRow = pivot / size;
+		int pivotColumn = pivot % size;
+		long p = weights[pivot];
+		for (int j = 0; j < size; j++)
+			for (int i = 0; i < size; i++)
+				if ((long)weights[i + j*size] * p != (long)weights[pivotColumn + j*size] * weights[i + pivotRow*size])
+					return;
+		int[] row = new int[size];
+		int[] column = new int[size];
+		int rowGCD = 0, columnGCD = 0;
+		long rowMax = 0;
+		for (int i = 0; i < size; i++) {
+			row[i] = weights[i + pivotRow*size];
+			column[i] = weights[pivotColumn + i*size];
+			rowGCD = gcd(rowGCD, Math.abs(row[i]));
+			columnGCD = gcd(columnGCD, Math.abs(column[i]));
+		}
+		for (int i = 0; i < size; i++) {
+			row[i] /= rowGCD;
+			column[i] /= columnGCD;
+			rowMax += 255L*Math.abs(row[i]);
+		}
+		if (rowMax > Integer.MAX_VALUE)
+			return;  // The horizontal pass could overflow, so don't use it.
+		// The full kernel is row*column*rowGCD*columnGCD/p, and the result is divided by divisor.
+		long numerator = (long)rowGCD * columnGCD;
+		long denominator = Math.abs(p) * divisor;
+		long common = gcd(numerator, denominator);
+		rowWeights = row;
+		columnWeights = column;
+		scaleNumerator = numerator / common;
+		scaleDenominator = denominator / common;
+	}
+
+	private static int gcd(int a, int b) {
+		return (int)gcd((long)a, (long)b);
+	}
+
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+	/**
+	 * Apply the kernel directly, as a two-dimensional convolution.  The source
+	 * data is the padded copy of the image made by pad().
+	 */
+	private void directFilter(int[] padded, int[] dst, int w, int h) {
+		int paddedWidth = w + size - 1;
+		int count = 0;  // Number of non-zero weights.
+		for (int weight : weights)
+			if (weight != 0)
+				count++;
+		int[] offsets = new int[count];  // Position in padded of each non-zero weight, relative to the pixel
+		int[] factors = new int[count];  //    at the upper left corner of the kernel, and the weight itself.
+		int max = 0;  // The largest possible absolute value of a weighted sum.
+		count = 0;
+		for (int j = 0; j < size; j++) {
+			for (int i = 0; i < size; i++) {
+				int weight = weights[i + j*size];
+				if (weight != 0) {
+					offsets[count] = i + j*paddedWidth;
+					factors[count] = weight;
+					max += 255*Math.abs(weight);
+					count++;
+				}
+			}
+		}
+		int n = count;
+		int[] table = scaleTable(max);
+		int tableOffset = max;
+		inParallel(w, h, (firstRow, lastRow) -> {
+			for (int y = firstRow; y < lastRow; y++) {
+				int base = y*paddedWidth;  // Upper left corner of the kernel for x = 0.
+				int out = y*w;
+				for (int x = 0; x < w; x++) {
+					int r = 0, g = 0, b = 0;
+					int corner = base + x;
+					for (int k = 0; k < n; k++) {
+						int rgb = padded[corner + offsets[k]];
+						int weight = factors[k];
+						r += weight * ((rgb >> 16) & 255);
+						g += weight * ((rgb >> 8) & 255);
+						b += weight * (rgb & 255);
+					}
+					if (table != null)
+						dst[out + x] = (table[r + tableOffset] << 16) | (table[g + tableOffset] << 8) | table[b + tableOffset];
+					else
+						dst[out + x] = (scale(r) << 16) | (scale(g) << 8) | scale(b);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Apply a separable kernel as a horizontal pass using rowWeights, which
+	 * stores unscaled sums for each color component in separate arrays, followed
+	 * by a vertical pass using columnWeights.
+	 */
+	private void separableFilter(int[] padded, int[] dst, int w, int h) {
+		int paddedWidth = w + size - 1;
+		int rows = h + size - 1;  // The horizontal pass is applied to every row of padded.
+		int[] red = new int[w*rows];
+		int[] green = new int[w*rows];
+		int[] blue = new int[w*rows];
+		inParallel(w, rows, (firstRow, lastRow) -> {
+			for (int y = firstRow; y < lastRow; y++) {
+				int base = y*paddedWidth;
+				int out = y*w;
+				for (int x = 0; x < w; x++) {
+					int r = 0, g = 0, b = 0;
+					for (int i = 0; i < size; i++) {
+						int rgb = padded[base + x + i];
+						int weight = rowWeights[i];
+						r += weight * ((rgb >> 16) & 255);
+						g += weight * ((rgb >> 8) & 255);
+						b += weight * (rgb & 255);
+					}
+					red[out + x] = r;
+					green[out + x] = g;
+					blue[out + x] = b;
+				}
+			}
+		});
+		long max = 0;
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++)
+				max += 255L * Math.abs(rowWeights[i]) * Math.abs(columnWeights[j]);
+		int[] table = max < Integer.MAX_VALUE ? scaleTable((int)max) : null;
+		int tableOffset = (int)max;
+		inParallel(w, h, (firstRow, lastRow) -> {
+			for (int y = firstRow; y < lastRow; y++) {
+				int out = y*w;
+				for (int x = 0; x < w; x++) {
+					long r = 0, g = 0, b = 0;
+					int pos = out + x;
+					for (int j = 0; j < size; j++) {
+						long weight = columnWeights[j];
+						r += weight * red[pos];
+						g += weight * green[pos];
+						b += weight * blue[pos];
+						pos += w;
+					}
+					if (table != null)
+						dst[out + x] = (table[(int)r + tableOffset] << 16) | (table[(int)g + tableOffset] << 8) | table[(int)b + tableOffset];
+					else
+						dst[out + x] = (scale(r) << 16) | (scale(g) << 8) | scale(b);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Apply a box kernel, in which all weights are equal, using running sums.
+	 * The horizontal pass keeps a sum of the colors in a window that slides
+	 * along each row; the vertical pass keeps a sum for each column in a
+	 * window that slides down the image.  The cost per pixel is independent
+	 * of the size of the kernel.
+	 */
+	private void boxFilter(int[] padded, int[] dst, int w, int h) {
+		int paddedWidth = w + size - 1;
+		int rows = h + size - 1;
+		int[] red = new int[w*rows];
+		int[] green = new int[w*rows];
+		int[] blue = new int[w*rows];
+		inParallel(w, rows, (firstRow, lastRow) -> {
+			for (int y = firstRow; y < lastRow; y++) {
+				int base = y*paddedWidth;
+				int out = y*w;
+				int r = 0, g = 0, b = 0;
+				for (int i = 0; i < size - 1; i++) {
+					int rgb = padded[base + i];
+					r += (rgb >> 16) & 255;
+					g += (rgb >> 8) & 255;
+					b += rgb & 255;
+				}
+				for (int x = 0; x < w; x++) {
+					int rgb = padded[base + x + size - 1];  // Pixel entering the window.
+					r += (rgb >> 16) & 255;
+					g += (rgb >> 8) & 255;
+					b += rgb & 255;
+					red[out + x] = r;
+					green[out + x] = g;
+					blue[out + x] = b;
+					rgb = padded[base + x];  // Pixel leaving the window.
+					r -= (rgb >> 16) & 255;
+					g -= (rgb >> 8) & 255;
+					b -= rgb & 255;
+				}
+			}
+		});
+		int max = 255*size*size;  // The constructor checked that this fits in an int.
+		int[] table = scaleTable(max);
+		// Each band starts by adding up size-1 rows of horizontal sums, so the bands must be
+		// several times taller than the kernel, or that would cost more than the band itself.
+		inParallel(w, h, 4*size, (firstRow, lastRow) -> {
+			int[] r = new int[w];  // Column sums for the window that
+			int[] g = new int[w];  //   starts at row y of the horizontal sums.
+			int[] b = new int[w];
+			for (int j = 0; j < size - 1; j++) {
+				int in = (firstRow + j)*w;
+				for (int x = 0; x < w; x++) {
+					r[x] += red[in + x];
+					g[x] += green[in + x];
+					b[x] += blue[in + x];
+				}
+			}
+			for (int y = firstRow; y < lastRow; y++) {
+				int in = (y + size - 1)*w;
+				int leave = y*w;
+				int out = y*w;
+				for (int x = 0; x < w; x++) {
+					int rs = r[x] + red[in + x];
+					int gs = g[x] + green[in + x];
+					int bs = b[x] + blue[in + x];
+					if (table != null)
+						dst[out + x] = (table[rs + max] << 16) | (table[gs + max] << 8) | table[bs + max];
+					else
+						dst[out + x] = (scale(rs) << 16) | (scale(gs) << 8) | scale(bs);
+					r[x] = rs - red[leave + x];
+					g[x] = gs - green[leave + x];
+					b[x] = bs - blue[leave + x];
+				}
+			}
+		});
+	}
+
+	/**
+	 * Returns a table that maps a sum, s, in the range -max to max to
+	 * the color component scale(s); entry number max+s in the table is scale(s).
+	 * Returns null if the table would be too large to be worth computing.
+	 */
+	private int[] scaleTable(int max) {
+		if (max > 1 << 20)
+			return null;
+		int[] table = new int[2*max + 1];
+		for (int s = -max; s <= max; s++)
+			table[s + max] = scale(s);
+		return table;
+	}
+
+	/**
+	 * Convert a sum into a color component: the absolute value of
+	 * sum*scaleNumerator/scaleDenominator, rounded to the nearest integer
+	 * and clamped to 255.
+	 */
+	private int scale(long sum) {
+		if (sum < 0)
+			sum = -sum;
+		long v = (2*sum*scaleNumerator + scaleDenominator) / (2*scaleDenominator);
+		return v > 255 ? 255 : (int)v;
+	}
+
+	/**
+	 * Run a task on rows 0 through rows-1 of an image of width w, dividing the
+	 * rows into bands that are processed in parallel.
+	 */
+	private static void inParallel(int w, int rows, ParallelRange.Task task) {
+		inParallel(w, rows, 1, task);
+	}
+
+	/**
+	 * Run a task on rows 0 through rows-1 of an image of width w, dividing the
+	 * rows into bands that are processed in parallel.  A band is not split unless
+	 * both halves would have at least minRows rows and the band has more than
+	 * MIN_BAND_PIXELS pixels.
+	 */
+	private static void inParallel(int w, int rows, int minRows, ParallelRange.Task task) {
+		ParallelRange.run(rows, Math.max(2*minRows - 1, MIN_BAND_PIXELS / Math.max(w, 1)), task);
+	}
+
+}
@@ -0,0 +1,163 @@
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import javax.swing.JComponent;
+
+/**
+ * A DamageTracker collects the parts of a component that need to be
+ * repainted in the next frame of an animation, so that the program can
+ * repaint just those parts instead of the whole component.  The program
+ * adds the bounding box of each object that moves, both before and after
+ * it moves.  Rectangles are given in user coordinates together with the
+ * transform that maps them to the component's pixel coordinates.  The
+ * tracker merges rectangles that overlap or that are close together, and it
+ * never keeps more than a given number of rectangles; when there are too
+ * many, the two rectangles whose union is smallest are merged.
+ */
+public class DamageTracker {
+
+	private final int maxRectangles;  // Maximum number of separate rectangles.
+	private ArrayList<Rectangle> rectangles = new ArrayList<>();  // The damaged regions.
+	private boolean everything;  // If true, the entire component must be repainted.
+
+	/**
+	 * Create a tracker that keeps at most maxRectangles separate rectangles.
+	 */
+	public DamageTracker(int maxRectangles) {
+		if (maxRectangles < 1)
+			throw new IllegalArgumentException("There must be at least one rectangle.");
+		this.maxRectangles = maxRectangles;
+	}
+
+	/**
+	 * Add a rectangle, given in user coordinates, to the damaged region.
+	 * @param bounds the rectangle, in user coordinates.  If null, the entire
+	 *    component is marked as damaged.
+	 * @param transform the transform from user coordinates to pixel coordinates.
+	 *    If null, the bounds are already in pixel coordinates.
+	 * @param pad number of extra pixels to add on each side of the transformed
+	 *    rectangle, to allow for line widths and antialiasing.
+	 */
+	public void add(Rectangle2D bounds, AffineTransform transform, int pad) {
+		if (bounds == null) {
+			everything = true;
+			return;
+		}
+		Rectangle r;
+		if (transform == null)
+			r = bounds.getBounds();
+		else
+			r = transform.createTransformedShape(bounds).getBounds();
+		r.grow(pad, pad);
+		add(r);
+	}
+
+	/**
+	 * Add a rectangle, given in pixel coordinates, to the damaged region.
+	 */
+	public void add(Rectangle r) {
+		if (everything || r.isEmpty())
+			return;
+		Rectangle merged = new Rectangle(r);
+		boolean changed = true;
+		while (changed) {  // Absorb every rectangle that is worth merging with this one.
+			changed = false;
+			for (int i = rectangles.size() - 1; i >= 0; i--) {
+				Rectangle other = rectangles.get(i);
+				if (worthMerging(merged, other)) {
+					merged.add(other);
+					rectangles.remove(i);
+					changed = true;
+				}
+			}
+		}
+		rectangles.add(merged);
+		while (rectangles.size() > maxRectangles)
+			mergeClosestPair();
+	}
+
+	/**
+	 * Mark the entire component as damaged.
+	 */
+	public void addEverything() {
+		everything = true;
+	}
+
+	/**
+	 * Returns true if the entire component has been marked as damaged.
+	 */
+	public boolean isEverything() {
+		return everything;
+	}
+
+	/**
+	 * Returns the list of damaged rectangles, in pixel coordinates.  If the
+	 * entire component is damaged, the return value is meaningless.
+	 */
+	public ArrayList<Rectangle> getRectangles() {
+		return rectangles;
+	}
+
+	/**
+	 * Discard all damage information.
+	 */
+	public void clear() {
+		rectangles.clear();
+		everything = false;
+	}
+
+	/**
+	 * Repaint the damaged parts of a component and then discard the damage
+	 * information.  Each rectangle is painted by calling paintImmediately(), since
+	 * repaint() would combine them into a single rectangle that contains them all.
+	 * This must be called in the event-handling thread, for example from the
+	 * action listener of a javax.swing.Timer.
+	 */
+	public void repaint(JComponent c) {
+		if (everything || !c.isShowing()) {
+			c.repaint();
+		}
+		else {
+			for (Rectangle r : rectangles)
+				c.paintImmediately(r);
+		}
+		clear();
+	}
+
+	/**
+	 * Two rectangles are merged if they intersect or if the area of their union
+	 * is not much bigger than the sum of their areas.
+	 */
+	private static boolean worthMerging(Rectangle a, Rectangle b) {
+		if (a.intersects(b))
+			return true;
+		Rectangle union = a.union(b);
+		return area(union) <= 1.25 * (area(a) + area(b));
+	}
+
+	private static double area(Rectangle r) {
+		return (double)r.width * r.height;
+	}
+
+	/**
+	 * Merge the two rectangles whose union is smallest.
+	 */
+	private void mergeClosestPair() {
+		int bestI = 0, bestJ = 1;
+		double bestArea = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < rectangles.size(); i++) {
+			for (int j = i + 1; j < rectangles.size(); j++) {
+				double a = area(rectangles.get(i).union(rectangles.get(j)));
+				if (a < bestArea) {
+					bestArea = a;
+					bestI = i;
+					bestJ = j;
+				}
+			}
+		}
+		Rectangle r = rectangles.remove(bestJ);
+		rectangles.get(bestI).add(r);
+	}
+
+}
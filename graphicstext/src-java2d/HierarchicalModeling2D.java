@@ -3,6 +3,7 @@ import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
 import java.awt.geom.*;
+import java.awt.image.BufferedImage;
 
 /**
  * A panel that displays a two-dimensional animation that is constructed
@@ -10,6 +11,9 @@ import java.awt.geom.*;
  * shines and three windmills turn in the background.  This class also
  * contains a main() routine that simply opens a window that displays
  * the animation.
+ *    The sky, ground, and road do not change, so they are drawn just once,
+ * into an off-screen image.  In each frame, only the parts of the panel
+ * that contain moving objects are repainted.  (See the DamageTracker class.)
  */
 public class HierarchicalModeling2D extends JPanel {
 
@@ -35,6 +39,11 @@ public class HierarchicalModeling2D extends JPanel {
    private double ytopRequested = 4;       //   drawgin area.
    private double ybottomRequested = -1;
 
+   private BufferedImage background; // Holds the sky, ground, and road.
+   private AffineTransform viewTransform; // The transform set up by applyLimits().
+   private DamageTracker damage = new DamageTracker(4); // Parts of the panel that must be repainted.
+   private Timer timer;  // Drives the animation by advancing the frame number every 30 milliseconds.
+
    /**
     * Constructor sets the preferred size of the panel to 700-by-500, adds
     * a gray border, and starts a timer that will drive the animation.
@@ -60,19 +69,58 @@ public class HierarchicalModeling2D extends JPanel {
       windmillVane.lineTo(1.5F,0);
       windmillVane.lineTo(0.5F,-0.1F);
       windmillVane.closePath();
-      new Timer(30,new ActionListener() {
+      timer = new Timer(30,new ActionListener() {
          public void actionPerformed(ActionEvent evt) {
-            frameNumber++;
-            repaint();
+            setFrameNumber(frameNumber + 1);
+            damage.repaint(HierarchicalModeling2D.this);
          }
-      }).start();
+      });
+      timer.start();
+   }
+   
+   /**
+    * Start or stop the timer that drives the animation.  (When it is stopped,
+    * a frame can still be selected by calling setFrameNumber().)
+    */
+   public void setAnimationRunning(boolean run) {
+      if (run)
+         timer.start();
+      else
+         timer.stop();
+   }
+   
+   /**
+    * Jump directly to a given frame of the animation.  Everything that is drawn
+    * depends only on the frame number, so any frame can be drawn without drawing
+    * the frames before it.
+    */
+   public void setFrameNumber(int frame) {
+      addAnimatedDamage();  // Where the moving objects are now...
+      frameNumber = frame;
+      addAnimatedDamage();  // ...and where they will be in the new frame.
    }
    
    /**
     * Draw the current frame of the animation.
     */
    protected void paintComponent(Graphics g) {
-      super.paintComponent(g);
+      
+      /* The sky, ground, and road are drawn into an off-screen image, which
+       * is created the first time the panel is painted.  The image is copied
+       * to the panel, and then the moving objects are drawn on top of it. */
+      
+      if (background == null || background.getWidth() != getWidth() || background.getHeight() != getHeight()) {
+         background = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_RGB);
+         Graphics2D bg = background.createGraphics();
+         bg.setColor(getBackground());
+         bg.fillRect(0,0,getWidth(),getHeight());
+         bg.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+         applyLimits(bg, xleftRequested, xrightRequested, ytopRequested, ybottomRequested, false);
+         drawBackground(bg);
+         bg.dispose();
+      }
+      g.drawImage(background,0,0,null);
+
       Graphics2D g2 = (Graphics2D)g.create();
       g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
       
@@ -82,17 +130,6 @@ public class HierarchicalModeling2D extends JPanel {
        * closely match the aspect ratio of the coordinate rectangle. */
 
       applyLimits(g2, xleftRequested, xrightRequested, ytopRequested, ybottomRequested, false);
-      
-      /* Draw the sky, ground, and road directly (untransformed). */
-      g2.setColor( new Color(200,200,255) );
-      g2.fillRect(0,0,7,4);  // fills the sky, behind the hills
-      g2.setColor( new Color(0,150,30) );
-      g2.fill(ground);  // the ground
-      g2.setColor(new Color(100,100,150));
-      g2.fill(new Rectangle2D.Double(0,-0.4,7,0.8));  // the road
-      g2.setStroke( new BasicStroke(5*pixelSize) );
-      g2.setColor(Color.WHITE);
-      g2.drawLine(0,0,7,0); // the stripe on the road, drawn as a thick line
       g2.setStroke( new BasicStroke(pixelSize) );
       
       /* Keep a copy of the current transform, so that it can be restored after drawing
@@ -143,12 +180,53 @@ public class HierarchicalModeling2D extends JPanel {
       drawCart(g2);
    }
    
+   /**
+    * Draw the parts of the scene that do not move:  the sky, ground, and road.
+    * This is done only once, when the background image is created.
+    */
+   private void drawBackground(Graphics2D g2) {
+      
+      /* Draw the sky, ground, and road directly (untransformed). */
+      g2.setColor( new Color(200,200,255) );
+      g2.fillRect(0,0,7,4);  // fills the sky, behind the hills
+      g2.setColor( new Color(0,150,30) );
+      g2.fill(ground);  // the ground
+      g2.setColor(new Color(100,100,150));
+      g2.fill(new Rectangle2D.Double(0,-0.4,7,0.8));  // the road
+      g2.setStroke( new BasicStroke(5*pixelSize) );
+      g2.setColor(Color.WHITE);
+      g2.drawLine(0,0,7,0); // the stripe on the road, drawn as a thick line
+   }
+   
+   /**
+    * Add the pixel bounds of the moving objects to the damaged region.  This is
+    * called before and after frameNumber changes.  The sun and the vanes of the
+    * windmills rotate in place, so their bounds are disks that contain them in
+    * every frame; the cart's bounds depend on the frame number.  The positions
+    * and scales here must match the transforms used in paintComponent().
+    */
+   private void addAnimatedDamage() {
+      if (viewTransform == null) {
+         damage.addEverything();  // The panel has not yet been drawn.
+         return;
+      }
+      damage.add(new Rectangle2D.Double(5.5-0.75, 3.3-0.75, 1.5, 1.5), viewTransform, 2); // sun
+      double[][] windmills = { {0.75,1,0.6}, {2.2,1.3,0.4}, {3.7,0.8,0.7} }; // x, y, scale
+      for (double[] w : windmills) {
+         double r = 1.5*w[2];   // radius of the vanes
+         damage.add(new Rectangle2D.Double(w[0]-r, w[1]+3*w[2]-r, 2*r, 2*r), viewTransform, 2);
+      }
+      double cartX = -3 + 13*(frameNumber % 300) / 300.0;
+      damage.add(new Rectangle2D.Double(cartX-0.3*3, -0.3*1.1, 0.3*6, 0.3*3.2), viewTransform, 2); // cart
+   }
+   
    /**
     * Applies a coordinate transform to a Graphics2D graphics context.  The upper left corner of 
     * the viewport where the graphics context draws is assumed to be (0,0).  The coordinate
     * transform will make a requested rectangle visible in the drawing area.  The requested
     * limits might be adjusted to preserve the aspect ratio.  (This method sets the global variable 
-    * pixelSize to be equal to the size of one pixel in the transformed coordinate system.)
+    * pixelSize to be equal to the size of one pixel in the transformed coordinate system, and it
+    * sets viewTransform to the transform that it applies.)
     * @param g2 The drawing context whose transform will be set.
     * @param xleft requested x-value at left of drawing area.
     * @param xright requested x-value at right of drawing area.
@@ -182,8 +260,10 @@ public class HierarchicalModeling2D extends JPanel {
       double pixelWidth = Math.abs(( xright - xleft ) / width);
       double pixelHeight = Math.abs(( ybottom - ytop ) / height);
       pixelSize = (float)Math.min(pixelWidth,pixelHeight);
-      g2.scale( width / (xright-xleft), height / (ybottom-ytop) );
-      g2.translate( -xleft, -ytop );
+      viewTransform = new AffineTransform();
+      viewTransform.scale( width / (xright-xleft), height / (ybottom-ytop) );
+      viewTransform.translate( -xleft, -ytop );
+      g2.transform(viewTransform);
    }
 
    /**
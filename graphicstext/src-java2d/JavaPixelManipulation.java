@@ -1,9 +1,11 @@
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.io.*;
+import java.util.Arrays;
 
 /**
  *  A demo program that manipulates colors of individual pixels in
@@ -15,6 +17,9 @@ import java.io.*;
  *  the RGB color data in the BufferedImage.  There is also a "Smudge"
  *  tool that the user can drag on the image to spread color around like
  *  wet paint; it works with the pixel data from the BufferedImage.
+ *  Changes to the image can be undone with the "Undo" command; the
+ *  history of changes is kept by a TileHistory object, which saves
+ *  only the parts of the image that were changed by each edit.
  */
 public class JavaPixelManipulation extends JPanel {
 
@@ -56,7 +61,25 @@ public class JavaPixelManipulation extends JPanel {
 	private int dragStartX, dragStartY;     // Start point of drag for use with dragShape.
 	private int dragCurrentX, dragCurrentY; // Current mouse position for use with dragShape.
 
-	private double[][] smudgeRed, smudgeBlue, smudgeGreen; // Data used by "Smudge" tool.
+	private int[] pixels;  // The array that holds the RGB color data for OSC.  The "Smudge"
+	                       // and "Erase" tools and the filters work directly with this array.
+
+	private int brushRadius = 3;  // The Smudge tool affects a square of size 2*brushRadius+1,
+	                              // centered at the mouse; the Erase tool affects a square
+	                              // that is 2 pixels larger on each side.
+	private int[] smudgeData;  // Data used by "Smudge" tool: the red, green, and blue components
+	                           // for each pixel in the brush, stored consecutively in the array.
+	                           // The values are multiplied by 256, to allow for fractional values.
+
+	private int damageLeft, damageTop, damageRight, damageBottom; // The rectangle that needs
+	                      // to be repainted because of changes made by the Smudge or Erase
+	                      // tool.  When damageRight < damageLeft, nothing needs to be repainted.
+
+	private TileHistory history;  // Saved states of the image, for the "Undo" and "Redo" commands.
+	private Rectangle editBounds; // The part of the image that has been changed by the current
+	                              // mouse drag, or null if nothing has been changed.  When the
+	                              // drag ends, this part of the image is saved in the history.
+	private JMenuItem undoMenuItem, redoMenuItem;  // The "Undo" and "Redo" menu items.
 
 	
 	/**
@@ -71,9 +94,10 @@ public class JavaPixelManipulation extends JPanel {
 		OSG.fillRect(0,0,640,480);
 		OSG.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 		stroke = new BasicStroke(5, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
-		smudgeRed = new double[7][7];
-		smudgeBlue = new double[7][7];
-		smudgeGreen = new double[7][7];
+		pixels = ((DataBufferInt)OSC.getRaster().getDataBuffer()).getData();
+		setBrushRadius(3);
+		damageRight = -1;  // Makes the damage rectangle empty.
+		history = new TileHistory(pixels, 640, 480, 64, 64*1024*1024);  // Use at most 64 megabytes.
 		addMouseListener( new MouseHandler() ); // nested class MouseHandler is defined below.
 	}
 
@@ -114,91 +138,195 @@ public class JavaPixelManipulation extends JPanel {
 		}
 		if (repaint) {
 			repaint(x-13,y-13,w+26,h+26); // large enough to contain widest stroke
+			addEditBounds(x-13,y-13,w+26,h+26);
 		}
 	}
 
 
 	/**
-	 * Apply the "Smudge" or "Erase" tool at the point (x,y)
+	 * Set the size of the square that is affected by the "Smudge" and "Erase" tools.
+	 * The Smudge tool works on a square of size 2*radius+1, centered at the mouse.
+	 */
+	private void setBrushRadius(int radius) {
+		int size = 2*radius + 1;
+		brushRadius = radius;
+		smudgeData = new int[3*size*size];
+	}
+
+	
+	/**
+	 * Apply the "Smudge" or "Erase" tool at the point (x,y).  The changes are made
+	 * directly in the pixels array.  The part of the panel that needs to be repainted is
+	 * added to the damage rectangle, but repaint() is not called here.
 	 */
 	private void applyTool(String tool, int x, int y) {
-		if (tool.equals("Erase")) { // Clear a 10-by-10 square, centered at (x,y).
-			OSG.setColor(Color.WHITE);
-			OSG.fillRect(x-5,y-5,10,10);  // Erase the sqaure in the BufferedImage.
-			repaint(x-5,y-5,10,10);  // Make change visible on the screen.
+		if (tool.equals("Erase")) { // Clear a square, centered at (x,y).
+			int r = brushRadius + 2;
+			int w = OSC.getWidth();
+			int left = Math.max(0, x - r);
+			int right = Math.min(w - 1, x + r);
+			int top = Math.max(0, y - r);
+			int bottom = Math.min(OSC.getHeight() - 1, y + r);
+			for (int row = top; row <= bottom && left <= right; row++)  // Erase the square in the BufferedImage.
+				Arrays.fill(pixels, row*w + left, row*w + right + 1, 0xFFFFFF);
+			addDamage(x - r, y - r, x + r, y + r);
 		}
 		else { // For the "Smudge" tool, mix some of the "paint" on the tool with the image,
-			   // in a 7-by-7 square centered at x,y.
+			   // in a square centered at x,y.
 			swapSmudgeData(x, y);
-			repaint(x-4,y-4,8,8);  // Make change visible on the screen.
+			addDamage(x - brushRadius, y - brushRadius, x + brushRadius, y + brushRadius);
+		}
+	}
+
+
+	/**
+	 * Add the rectangle with corners (left,top) and (right,bottom) to the damage
+	 * rectangle, which is the part of the panel that needs to be repainted.
+	 */
+	private void addDamage(int left, int top, int right, int bottom) {
+		addEditBounds(left, top, right - left + 1, bottom - top + 1);
+		if (damageRight < damageLeft) {
+			damageLeft = left;
+			damageTop = top;
+			damageRight = right;
+			damageBottom = bottom;
+		}
+		else {
+			damageLeft = Math.min(damageLeft, left);
+			damageTop = Math.min(damageTop, top);
+			damageRight = Math.max(damageRight, right);
+			damageBottom = Math.max(damageBottom, bottom);
+		}
+	}
+
+
+	/**
+	 * Add a rectangle to editBounds, the part of the image that has been changed
+	 * by the current mouse drag.
+	 */
+	private void addEditBounds(int x, int y, int w, int h) {
+		if (editBounds == null)
+			editBounds = new Rectangle(x,y,w,h);
+		else
+			editBounds.add( new Rectangle(x,y,w,h) );
+	}
+
+
+	/**
+	 * Save the current state of the image in the undo history, after an edit that
+	 * changed only the part of the image inside the rectangle r.  If r is null,
+	 * the edit might have changed any part of the image.  Also, enable or disable
+	 * the "Undo" and "Redo" commands.
+	 */
+	private void saveEdit(Rectangle r) {
+		if (r == null)
+			history.commit();
+		else
+			history.commit(r.x, r.y, r.width, r.height);
+		updateUndoMenuItems();
+	}
+
+
+	/**
+	 * Enable or disable the "Undo" and "Redo" commands, depending on whether
+	 * the history has something to undo or redo.
+	 */
+	private void updateUndoMenuItems() {
+		if (undoMenuItem != null) {
+			undoMenuItem.setEnabled(history.canUndo());
+			redoMenuItem.setEnabled(history.canRedo());
 		}
 	}
+
+
+	/**
+	 * Call repaint() for the damage rectangle, if it is not empty, and then
+	 * make the damage rectangle empty.  This is called once for each mouse
+	 * event, no matter how many times the tool was applied.
+	 */
+	private void repaintDamage() {
+		if (damageRight >= damageLeft) {
+			repaint(damageLeft, damageTop, damageRight - damageLeft + 1, damageBottom - damageTop + 1);
+		}
+		damageLeft = 0;
+		damageRight = -1;
+	}
 	
 	
 	/**
-	 * Copy pixel colors from a 7-by-7 square centered at (x,y) into the
-	 * smudge data arrays.  The color components are separated into their
-	 * red, green, and blue components, which are stored in separate arrays.
-	 * The values are stored as type double, not int, since they will be
-	 * used in averaging calculations that require real arithmetic.
+	 * Copy pixel colors from a square centered at (x,y) into the smudge data
+	 * array.  The color components are separated into their red, green, and
+	 * blue components.  The values are multiplied by 256, since they will be
+	 * used in averaging calculations that produce fractional values.
 	 * This method is called at the point where the user starts a drag
 	 * operation with the "Smudge" tool.
 	 */
 	private void grabSmudgeData(int x, int y) {
 		int w = OSC.getWidth();
 		int h = OSC.getHeight();
-		for (int i = 0; i < 7; i++) {
-			for (int j = 0; j < 7; j++) {
-				int r = y + j - 3;
-				int c = x + i - 3;
+		int size = 2*brushRadius + 1;
+		int k = 0;  // Position in the smudge data array.
+		for (int j = 0; j < size; j++) {
+			int r = y + j - brushRadius;  // row number (y-coord) of a pixel in the image
+			for (int i = 0; i < size; i++) {
+				int c = x + i - brushRadius;  // column number (x-coord) of a pixel in the image.
 				if (r < 0 || r >= h || c < 0 || c >= w) {
-					// A -1 in the smudgeRed array indicates that the
+					// A -1 in the smudge data array indicates that the
 					// corresponding pixel was outside the canvas.
-					smudgeRed[i][j] = -1;
+					smudgeData[k] = -1;
 				}
 				else {
-					int color = OSC.getRGB(c,r);
-					smudgeRed[i][j] = (color >> 16) & 0xFF;
-					smudgeGreen[i][j] = (color >> 8) & 0xFF;
-					smudgeBlue[i][j] = color & 0xFF;
+					int color = pixels[r*w + c];
+					smudgeData[k] = ((color >> 16) & 0xFF) << 8;
+					smudgeData[k+1] = ((color >> 8) & 0xFF) << 8;
+					smudgeData[k+2] = (color & 0xFF) << 8;
 				}
+				k += 3;
 			}
 		}
 	}
 	
 	
 	/**
-	 *  Swap some of the color stored in the smudge data arrays with
-	 *  color in a 7-by-7 square centered at (x,y) in the BufferedImage.
-	 *  That is, the color values in the arrays are replaced by a weighted
-	 *  average of the color values in the arrays and the color values in
+	 *  Swap some of the color stored in the smudge data array with
+	 *  color in a square centered at (x,y) in the BufferedImage.
+	 *  That is, the color values in the array are replaced by a weighted
+	 *  average of the color values in the array and the color values in
 	 *  the image.  At the same time, the color values in the image are
 	 *  replaced by a weighted average of the color values in the image
-	 *  and the color values in the arrays.  This method is called at
-	 *  each point along the path that the mouse visits as the user
-	 *  drags the "Smudge" tool.
+	 *  and the color values in the array.  (The weights are 0.7 for the
+	 *  old value and 0.3 for the other value; the arithmetic is done with
+	 *  integers.)  This method is called at each point along the path that
+	 *  the mouse visits as the user drags the "Smudge" tool.
 	 */
 	private void swapSmudgeData(int x, int y) {
-	    int w = OSC.getWidth();  
-        int h = OSC.getHeight();  
-		for (int i = 0; i < 7; i++) { // row number in the smudge data arrays
-			int c = x + i - 3;  // column number (x-coord) of a pixel in the image.
-			for (int j = 0; j < 7; j++) {  // column number in the smudge data arrays
-				int r = y + j - 3;  // row number (y-coord) of a pixel in the image
-				if ( ! (r < 0 || r >= h || c < 0 || c >= w || smudgeRed[i][j] == -1) ) {
-					int curCol = OSC.getRGB(c,r);  // Current color of the pixel in the image.
-					int curRed = (curCol >> 16) & 0xFF;  // RGB components from image
-					int curGreen = (curCol >> 8) & 0xFF;
-					int curBlue = curCol & 0xFF;
-					int newRed = (int)(curRed*0.7 + smudgeRed[i][j]*0.3);  // New RGB's for image.
-					int newGreen = (int)(curGreen*0.7 + smudgeGreen[i][j]*0.3);
-					int newBlue = (int)(curBlue*0.7 + smudgeBlue[i][j]*0.3);
-					int newCol = newRed << 16 | newGreen << 8 | newBlue;
-					OSC.setRGB(c,r,newCol); // Replace the color of the pixel in the image.
-					smudgeRed[i][j] = curRed*0.3 + smudgeRed[i][j]*0.7; // New RGBs for smudge arrays
-					smudgeGreen[i][j] = curGreen*0.3 + smudgeGreen[i][j]*0.7;
-					smudgeBlue[i][j] = curBlue*0.3 + smudgeBlue[i][j]*0.7;
-				}
+		int w = OSC.getWidth();
+		int h = OSC.getHeight();
+		int size = 2*brushRadius + 1;
+		int firstRow = Math.max(0, brushRadius - y);      // Range of rows and columns in the
+		int lastRow = Math.min(size, h + brushRadius - y); //    brush that are inside the image.
+		int firstCol = Math.max(0, brushRadius - x);
+		int lastCol = Math.min(size, w + brushRadius - x);
+		for (int j = firstRow; j < lastRow; j++) {  // row number in the smudge data
+			int pos = (y + j - brushRadius)*w + (x + firstCol - brushRadius);  // Position in pixels array.
+			int k = 3*(j*size + firstCol);  // Position in smudge data array.
+			for (int i = firstCol; i < lastCol; i++, pos++, k += 3) {
+				if (smudgeData[k] == -1)
+					continue;
+				int curCol = pixels[pos];  // Current color of the pixel in the image.
+				int curRed = ((curCol >> 16) & 0xFF) << 8;  // RGB components from image, times 256.
+				int curGreen = ((curCol >> 8) & 0xFF) << 8;
+				int curBlue = (curCol & 0xFF) << 8;
+				int smudgeRed = smudgeData[k];
+				int smudgeGreen = smudgeData[k+1];
+				int smudgeBlue = smudgeData[k+2];
+				int newRed = (curRed*7 + smudgeRed*3) / 2560;  // New RGB's for image.
+				int newGreen = (curGreen*7 + smudgeGreen*3) / 2560;
+				int newBlue = (curBlue*7 + smudgeBlue*3) / 2560;
+				pixels[pos] = newRed << 16 | newGreen << 8 | newBlue; // Replace the color of the pixel in the image.
+				smudgeData[k] = (curRed*3 + smudgeRed*7) / 10;  // New RGBs for smudge data.
+				smudgeData[k+1] = (curGreen*3 + smudgeGreen*7) / 10;
+				smudgeData[k+2] = (curBlue*3 + smudgeBlue*7) / 10;
 			}
 		}
 	}
@@ -207,10 +335,14 @@ public class JavaPixelManipulation extends JPanel {
 	/**
 	 *  For the "Smudge" and "Erase" tools, apply the tool to every point along the
 	 *  line from (x1,y1) to (x2,y2).  This is called each time the mouse moves as
-	 *  the user drags the tool.
+	 *  the user drags the tool.  A single repaint() is done for the entire set
+	 *  of changes.
 	 */
 	private void applyToolAlongLine(String tool, int x1, int y1, int x2, int y2) {
-		if (Math.abs(x1-x2) >= Math.abs(y1-y2)) {
+		if (x1 == x2 && y1 == y2) {
+			applyTool(tool,x1,y1);
+		}
+		else if (Math.abs(x1-x2) >= Math.abs(y1-y2)) {
 			   // Horizontal distance is greater than vertical distance.  Apply the
 			   // tool once for each x-value between x1 and x2, computing the
 			   // y-value for each x-value from the equation of a line. 
@@ -246,6 +378,7 @@ public class JavaPixelManipulation extends JPanel {
 				}
 			}
 		}
+		repaintDamage();
 	}
 
 	
@@ -271,6 +404,7 @@ public class JavaPixelManipulation extends JPanel {
 			}
 			else if (tool.equals("Erase")) {
 				applyTool("Erase",startX,startY);  // Erase a square around the starting point.
+				repaintDamage();
 			}
 			else if (tool.equals("Smudge")) {
 				grabSmudgeData(startX,startY);  // Get data from the image that is needed for the Smudge tool.
@@ -304,6 +438,10 @@ public class JavaPixelManipulation extends JPanel {
 				putShape(OSG, tool, startX, startY, prevX, prevY, true);  // add shape to BufferedImage
 				repaint();  // should be unnecessary; just to be sure that the panel shows the right thing.
 			}
+			if (editBounds != null) {
+				saveEdit(editBounds);  // Save the changed part of the image in the undo history.
+				editBounds = null;
+			}
 		}
 	}
 	
@@ -311,62 +449,36 @@ public class JavaPixelManipulation extends JPanel {
 	/**
 	 *  Apply one of the image filters from the "Filter" menu to the BufferedImage, and
 	 *  copy the result to the screen.  A filters is implemented as a "convolution" with
-	 *  3-by-3 arrays.  That is, the RGB components of each pixel in the image is replaced
-	 *  with a weighted average of the RGB components of the pixels in a 3-by-3 square.
-	 *  The weighting factors are given by the convolution array.  For example, for the
-	 *  "Blur" filter, all the weight factors in the array are equal, and the filter is
-	 *  just a simple averaging operation.  (To make things easy on myself, I don't change
-	 *  the colors of the pixels along the border of the image; this lets me assume that
-	 *  when I work on a pixel, the 3-by-3 square centerd at that pixel is entirely within
-	 *  the image.)  The filter must be one of the strings form the "Filter" menu.
+	 *  a square array of weights.  That is, the RGB components of each pixel in the image
+	 *  is replaced with a weighted average of the RGB components of the pixels in a square
+	 *  centered at that pixel.  The weighting factors are given by the convolution array.
+	 *  For example, for the "Blur" filter, the square is 3-by-3, all the weight factors
+	 *  in the array are equal, and the filter is just a simple averaging operation.
+	 *  The "Box Blur" filters do the same thing on larger squares, and the "Gaussian Blur"
+	 *  filters give more weight to pixels near the center of the square.  The actual
+	 *  computation is done by a ConvolutionFilter object (see ConvolutionFilter.java),
+	 *  which works directly with the array of RGB colors that holds the data for the
+	 *  BufferedImage and splits the image into bands of rows that are processed in
+	 *  parallel.  Pixels along the border of the image are handled by treating the
+	 *  image as if it were extended by copies of its edge pixels.  The filter must
+	 *  be one of the strings form the "Filter" menu.
 	 */
 	private void applyFilter(String filter) {
-		int w = OSC.getWidth();
-		int h = OSC.getHeight();
-		double[] filterArray = null;  // The convolution array for the filter.
-		int[] rgbArray = new int[ w*h ];  // An array to hold the RGB colors of the entire image. 
-		OSC.getRGB(0, 0, w, h, rgbArray, 0, w);  // Grab the RGB color data from the image.
-		double v;
+		ConvolutionFilter convolution = null;
 		switch (filter) {
-		case "Blur":
-			v = 1.0/9.0;
-			filterArray = new double[] { v,v,v, v,v,v, v,v,v }; 
-			break;
-		case "Sharpen":
-			v = 1.0/3.0;
-			filterArray = new double[] { 0,-v,0, -v,7*v,-v, 0,-v,0 };
-			break;
-		case "Emboss":
-			filterArray = new double[] { -2,-1,0, -1,1,1, 0,1,2 };
-			break;
-		case "Edge Detect":
-			filterArray = new double[] { 0,1,0, 1,-4,1, 0,1,0 }; 
-			break;
-		}
-		for (int x = 1; x < w-1; x++) {
-			for (int y = 1; y < h-1; y++) {
-				double rNew = 0, gNew = 0, bNew = 0;
-				int k = 0;
-				int rgb, r, g, b;
-				for (int j = y-1; j <= y+1; j++) {
-					for (int i = x-1; i <= x+1; i++) {
-						rgb = rgbArray[i + j*w];
-						r = (rgb >> 16) & 255;
-						g = (rgb >> 8) & 255;
-						b = rgb & 255;
-						rNew += r*filterArray[k];
-						gNew += g*filterArray[k];
-						bNew += b*filterArray[k];
-						k++;
-					}
-				}
-				r = (int)Math.round(Math.min(255, Math.abs(rNew)));
-				g = (int)Math.round(Math.min(255, Math.abs(gNew)));
-				b = (int)Math.round(Math.min(255, Math.abs(bNew)));
-				rgb = (r << 16) | (g << 8) | b;
-				OSC.setRGB(x, y, rgb);
-			}
+		case "Blur": convolution = ConvolutionFilter.BLUR; break;
+		case "Sharpen": convolution = ConvolutionFilter.SHARPEN; break;
+		case "Emboss": convolution = ConvolutionFilter.EMBOSS; break;
+		case "Edge Detect": convolution = ConvolutionFilter.EDGE_DETECT; break;
+		case "Box Blur 15x15": convolution = ConvolutionFilter.box(15); break;
+		case "Box Blur 51x51": convolution = ConvolutionFilter.box(51); break;
+		case "Gaussian Blur 15x15": convolution = ConvolutionFilter.gaussian(15); break;
+		case "Gaussian Blur 51x51": convolution = ConvolutionFilter.gaussian(51); break;
+		default: return;
 		}
+		int w = OSC.getWidth();
+		int h = OSC.getHeight();
+		convolution.filter(pixels, pixels, w, h);  // Replaces the image data with the filtered data.
 		repaint();
 	}
 	
@@ -422,16 +534,19 @@ public class JavaPixelManipulation extends JPanel {
 					OSG.setColor(Color.WHITE);
 					OSG.fillRect(0,0,OSC.getWidth(),OSC.getHeight());
 					repaint();
+					saveEdit(null);
 					break;
 				case "Quit":
 					System.exit(0);
 					break;
 				case "Load Image...":
 					loadImageFile();
+					saveEdit(null);
 					break;
 				case "Reload Image":
 					OSG.drawImage(saveLoadedImage,0,0,OSC.getWidth(),OSC.getHeight(),null);
 					repaint();
+					saveEdit(null);
 				}
 			}
 		};
@@ -444,6 +559,25 @@ public class JavaPixelManipulation extends JPanel {
 		file.addSeparator();
 		file.add( makeMenuItem("Quit",flistener));
 		menuBar.add(file);
+		ActionListener elistener = new ActionListener() {
+			public void actionPerformed(ActionEvent evt) {
+				if (evt.getActionCommand().equals("Undo"))
+					history.undo();
+				else
+					history.redo();
+				updateUndoMenuItems();
+				repaint();
+			}
+		};
+		JMenu edit = new JMenu("Edit");
+		undoMenuItem = makeMenuItem("Undo",elistener);
+		undoMenuItem.setAccelerator( KeyStroke.getKeyStroke("ctrl Z") );
+		edit.add(undoMenuItem);
+		redoMenuItem = makeMenuItem("Redo",elistener);
+		redoMenuItem.setAccelerator( KeyStroke.getKeyStroke("ctrl Y") );
+		edit.add(redoMenuItem);
+		updateUndoMenuItems();  // Both commands are initially disabled.
+		menuBar.add(edit);
 		ActionListener tlistener = new ActionListener(){
 			public void actionPerformed(ActionEvent evt) {
 				tool = evt.getActionCommand();
@@ -458,6 +592,18 @@ public class JavaPixelManipulation extends JPanel {
 		tools.add( makeMenuItem("Smudge",tlistener) );
 		tools.add( makeMenuItem("Erase",tlistener) );
 		menuBar.add(tools);
+		ActionListener blistener = new ActionListener() {
+			public void actionPerformed(ActionEvent evt) {
+				int size = Integer.parseInt(evt.getActionCommand());
+				setBrushRadius(size/2);
+			}
+		};
+		JMenu brush = new JMenu("BrushSize");
+		brush.add( makeMenuItem("7",blistener) );
+		brush.add( makeMenuItem("15",blistener) );
+		brush.add( makeMenuItem("33",blistener) );
+		brush.add( makeMenuItem("65",blistener) );
+		menuBar.add(brush);
 		ActionListener clistener = new ActionListener(){
 			public void actionPerformed(ActionEvent evt) {
 				if (tool.equals("Smudge") || tool.equals("Erase"))
@@ -521,6 +667,7 @@ public class JavaPixelManipulation extends JPanel {
 				else {
 					applyFilter(evt.getActionCommand());
 				}
+				saveEdit(null);  // The filter might have changed any part of the image.
 			}
 		};
 		JMenu filter = new JMenu("Filter");
@@ -529,6 +676,11 @@ public class JavaPixelManipulation extends JPanel {
 		filter.add( makeMenuItem("Emboss", filterlistener) );
 		filter.add( makeMenuItem("Edge Detect", filterlistener) );
 		filter.addSeparator();
+		filter.add( makeMenuItem("Box Blur 15x15", filterlistener) );
+		filter.add( makeMenuItem("Box Blur 51x51", filterlistener) );
+		filter.add( makeMenuItem("Gaussian Blur 15x15", filterlistener) );
+		filter.add( makeMenuItem("Gaussian Blur 51x51", filterlistener) );
+		filter.addSeparator();
 		filter.add( makeMenuItem("Blur 5 Times", filterlistener) );
 		filter.add( makeMenuItem("Blur 5, Emboss", filterlistener) );
 		menuBar.add(filter);
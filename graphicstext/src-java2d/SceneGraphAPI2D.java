@@ -3,7 +3,11 @@ import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
 import java.awt.geom.*;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
 
 /**
  * A panel that displays a two-dimensional animation that is constructed
@@ -11,6 +15,17 @@ import java.util.ArrayList;
  * shines and three windmills turn in the background.  This class also
  * contains a main() routine that simply opens a window that displays
  * the animation.
+ *    To avoid redrawing the entire scene in every frame, the objects at
+ * the start of the scene that do not move are drawn once into an off-screen
+ * image, and the bounding boxes of the objects that do move are used to
+ * find the parts of the panel that have to be repainted.  (See the
+ * DamageTracker class.)  Each node caches its bounding box, and a transformed
+ * object is not drawn at all if its bounding box lies outside the clip region
+ * of the graphics context, so only the visible parts of a large scene are
+ * traversed.  The animated part of the scene is drawn from a RenderList, a flat
+ * array-based copy of the scene graph that can be drawn without traversing the
+ * graph.  The RenderList itself allocates no objects while drawing, although
+ * Java2D allocates some memory for each shape that it draws.
  */
 public class SceneGraphAPI2D extends JPanel {
 
@@ -29,6 +44,9 @@ public class SceneGraphAPI2D extends JPanel {
    static abstract class SceneGraphNode {
        Color color;  // If not null, the default color for this node and its children.
                      // If null, the default color is inherited.
+       private Rectangle2D bounds;  // Cached value for getBounds(), or null if it must be recomputed.
+       private ArrayList<SceneGraphNode> parents;  // Nodes that contain this node, whose bounds
+                                                   //    depend on the bounds of this node.
        SceneGraphNode setColor(Color c) {
            this.color = c;
            return this;
@@ -45,18 +63,126 @@ public class SceneGraphAPI2D extends JPanel {
            }
        }
        abstract void doDraw(Graphics2D g);
+       abstract Rectangle2D computeBounds(); // A rectangle that contains the node, in its own coordinates.
+       
+       /**
+        * For a primitive node, returns the shape that doDraw() draws or fills, for use by
+        * renderers that do not draw with a Graphics2D, such as SoftwareRenderer.  The shape
+        * must not be modified.  Returns null if the node does not draw a single shape.
+        */
+       Shape getShape() {
+           return null;
+       }
+       
+       /**
+        * For a primitive node, tells whether doDraw() fills the shape returned by getShape(),
+        * rather than stroking its outline.
+        */
+       boolean isFilled() {
+           return true;
+       }
+       
+       /**
+        * Returns the value of computeBounds(), which is only recomputed after the node
+        * or one of its descendants has been modified.  The rectangle must not be changed.
+        */
+       final Rectangle2D getBounds() {
+           if (bounds == null)
+               bounds = computeBounds();
+           return bounds;
+       }
+       
+       /**
+        * Discard the cached bounds of this node and of every node that contains it.
+        * If the bounds are already null, they have not been computed since the last
+        * change, and neither have the bounds of the containing nodes.
+        */
+       void invalidateBounds() {
+           if (bounds == null)
+               return;
+           bounds = null;
+           if (parents != null) {
+               for (SceneGraphNode parent : parents)
+                   parent.invalidateBounds();
+           }
+       }
+       
+       /**
+        * Record that parent contains this node, so that the parent's bounds will be
+        * invalidated when this node's bounds change.
+        */
+       void addParent(SceneGraphNode parent) {
+           if (parents == null)
+               parents = new ArrayList<SceneGraphNode>(1);
+           parents.add(parent);
+       }
+       
+       /**
+        * Test whether a rectangle, given in the current user coordinates of g, lies
+        * completely outside the clip region of g, so that nothing inside it can be visible.
+        * If g has no clip, the bounds of its drawing surface are used instead.
+        * The rectangle is extended by the amount that the current stroke can reach beyond
+        * a shape, plus two pixels for antialiasing.
+        */
+       static boolean isOutsideClip(Graphics2D g, Rectangle2D r) {
+           Stroke stroke = g.getStroke();
+           if ( ! (stroke instanceof BasicStroke) )
+               return false;  // We don't know how far an unknown stroke can reach.
+           BasicStroke basic = (BasicStroke)stroke;
+           double reach = basic.getLineWidth() / 2;
+           if (basic.getLineJoin() == BasicStroke.JOIN_MITER)
+               reach *= Math.max(1, basic.getMiterLimit());
+           double minX = r.getMinX() - reach, maxX = r.getMaxX() + reach;
+           double minY = r.getMinY() - reach, maxY = r.getMaxY() + reach;
+           AffineTransform t = g.getTransform();
+           Shape clip = g.getClip();
+           if (clip == null) {  // Transform the rectangle to device coordinates.
+               double[] corners = { minX, minY, maxX, minY, maxX, maxY, minX, maxY };
+               t.transform(corners, 0, corners, 0, 4);
+               Rectangle device = g.getDeviceConfiguration().getBounds();
+               minX = maxX = corners[0];
+               minY = maxY = corners[1];
+               for (int i = 2; i < 8; i += 2) {
+                   minX = Math.min(minX, corners[i]);
+                   maxX = Math.max(maxX, corners[i]);
+                   minY = Math.min(minY, corners[i+1]);
+                   maxY = Math.max(maxY, corners[i+1]);
+               }
+               return maxX + 2 < 0 || minX - 2 > device.width || maxY + 2 < 0 || minY - 2 > device.height;
+           }
+           double det = Math.abs(t.getDeterminant());
+           if (det == 0)
+               return false;
+           double padX = 2*(Math.abs(t.getScaleY()) + Math.abs(t.getShearX())) / det; // 2 pixels, in
+           double padY = 2*(Math.abs(t.getShearY()) + Math.abs(t.getScaleX())) / det; //   user coordinates.
+           Rectangle2D c = clip.getBounds2D();
+           return maxX + padX < c.getMinX() || minX - padX > c.getMaxX()
+                     || maxY + padY < c.getMinY() || minY - padY > c.getMaxY();
+       }
    }
    
    static class CompoundObject extends SceneGraphNode {
        ArrayList<SceneGraphNode> subobjects = new ArrayList<SceneGraphNode>();
        CompoundObject add(SceneGraphNode node) {
            subobjects.add(node);
+           node.addParent(this);
+           invalidateBounds();
            return this;
        }
        void doDraw(Graphics2D g) {
            for (SceneGraphNode node : subobjects)
               node.draw(g);
        }
+       Rectangle2D computeBounds() {
+           Rectangle2D bounds = null;
+           for (SceneGraphNode node : subobjects) {
+              if (bounds == null)
+                 bounds = node.getBounds().getBounds2D();
+              else
+                 bounds.add(node.getBounds());
+           }
+           return bounds == null ? new Rectangle2D.Double() : bounds;
+       }
    }
    
    static class TransformedObject extends SceneGraphNode {
@@ -66,22 +192,34 @@ public class SceneGraphAPI2D extends JPanel {
        double translateX = 0, translateY = 0;
        TransformedObject(SceneGraphNode object) {
            this.object = object;
+           object.addParent(this);
        }
        TransformedObject setRotation(double degrees) {
-           rotationInDegrees = degrees;
+           if (degrees != rotationInDegrees) {
+               rotationInDegrees = degrees;
+               invalidateBounds();
+           }
            return this;
        }
        TransformedObject setTranslation(double dx, double dy) {
-           translateX = dx;
-           translateY = dy;
+           if (dx != translateX || dy != translateY) {
+               translateX = dx;
+               translateY = dy;
+               invalidateBounds();
+           }
            return this;
        }
        TransformedObject setScale(double sx, double sy) {
-           scaleX = sx;
-           scaleY = sy;
+           if (sx != scaleX || sy != scaleY) {
+               scaleX = sx;
+               scaleY = sy;
+               invalidateBounds();
+           }
            return this;
        }
        void doDraw(Graphics2D g) {
+           if (isOutsideClip(g, getBounds()))
+               return;  // Skip the entire subtree, since none of it can be seen.
            AffineTransform savedTransform = g.getTransform();
            if (translateX != 0 || translateY != 0)
                g.translate(translateX,translateY);
@@ -92,29 +230,75 @@ public class SceneGraphAPI2D extends JPanel {
            object.draw(g);
            g.setTransform(savedTransform);
        }
+       AffineTransform getTransform() { // The same transform that is applied by doDraw().
+           AffineTransform transform = new AffineTransform();
+           transform.translate(translateX,translateY);
+           transform.rotate( rotationInDegrees/180.0 * Math.PI);
+           transform.scale(scaleX,scaleY);
+           return transform;
+       }
+       Rectangle2D computeBounds() {  // Transforms the corners of the object's bounds.
+           Rectangle2D r = object.getBounds();
+           double[] corners = { r.getMinX(), r.getMinY(), r.getMaxX(), r.getMinY(),
+                                r.getMaxX(), r.getMaxY(), r.getMinX(), r.getMaxY() };
+           getTransform().transform(corners, 0, corners, 0, 4);
+           Rectangle2D bounds = new Rectangle2D.Double(corners[0], corners[1], 0, 0);
+           for (int i = 2; i < 8; i += 2)
+               bounds.add(corners[i], corners[i+1]);
+           return bounds;
+       }
+   }
+   
+   /**
+    * A node that draws one fixed shape.  Since its bounds never change, it does not need
+    * to invalidate the bounds of the nodes that contain it, so it does not record them.
+    * This matters because the primitives below are shared by every scene graph that is
+    * built, and recording the parents would keep every old scene graph reachable.
+    */
+   static abstract class Primitive extends SceneGraphNode {
+       void addParent(SceneGraphNode parent) {
+       }
    }
    
-   static SceneGraphNode line = new SceneGraphNode() {
+   static SceneGraphNode line = new Primitive() {
+       Line2D segment = new Line2D.Double(0,0,1,0);
        void doDraw(Graphics2D g) {  g.drawLine(0,0,1,0); }
+       Rectangle2D computeBounds() { return new Rectangle2D.Double(0,0,1,0); }
+       Shape getShape() { return segment; }
+       boolean isFilled() { return false; }
    };
    
-   static SceneGraphNode rect = new SceneGraphNode() {
-       void doDraw(Graphics2D g) {  g.draw(new Rectangle2D.Double(-0.5,-0.5,1,1)); }
+   static SceneGraphNode rect = new Primitive() {
+       Rectangle2D square = new Rectangle2D.Double(-0.5,-0.5,1,1);  // Shared by every draw.
+       void doDraw(Graphics2D g) {  g.draw(square); }
+       Rectangle2D computeBounds() { return new Rectangle2D.Double(-0.5,-0.5,1,1); }
+       Shape getShape() { return square; }
+       boolean isFilled() { return false; }
    };
    
-   static SceneGraphNode filledRect = new SceneGraphNode() {
-       void doDraw(Graphics2D g) {  g.fill(new Rectangle2D.Double(-0.5,-0.5,1,1)); }
+   static SceneGraphNode filledRect = new Primitive() {
+       Rectangle2D square = new Rectangle2D.Double(-0.5,-0.5,1,1);
+       void doDraw(Graphics2D g) {  g.fill(square); }
+       Rectangle2D computeBounds() { return new Rectangle2D.Double(-0.5,-0.5,1,1); }
+       Shape getShape() { return square; }
    };
    
-   static SceneGraphNode circle = new SceneGraphNode() {
-       void doDraw(Graphics2D g) {  g.draw(new Ellipse2D.Double(-0.5,-0.5,1,1)); }
+   static SceneGraphNode circle = new Primitive() {
+       Ellipse2D disk = new Ellipse2D.Double(-0.5,-0.5,1,1);
+       void doDraw(Graphics2D g) {  g.draw(disk); }
+       Rectangle2D computeBounds() { return new Rectangle2D.Double(-0.5,-0.5,1,1); }
+       Shape getShape() { return disk; }
+       boolean isFilled() { return false; }
    };
    
-   static SceneGraphNode filledCircle = new SceneGraphNode() {
-       void doDraw(Graphics2D g) {  g.fill(new Ellipse2D.Double(-0.5,-0.5,1,1)); }
+   static SceneGraphNode filledCircle = new Primitive() {
+       Ellipse2D disk = new Ellipse2D.Double(-0.5,-0.5,1,1);
+       void doDraw(Graphics2D g) {  g.fill(disk); }
+       Rectangle2D computeBounds() { return new Rectangle2D.Double(-0.5,-0.5,1,1); }
+       Shape getShape() { return disk; }
    };
    
-   static SceneGraphNode ground = new SceneGraphNode() {
+   static SceneGraphNode ground = new Primitive() {
         Path2D path;
         {
            path = new Path2D.Float();
@@ -130,9 +314,11 @@ public class SceneGraphAPI2D extends JPanel {
            path.closePath();
         }
         void doDraw(Graphics2D g) { g.fill(path); };
+        Rectangle2D computeBounds() { return path.getBounds2D(); }
+        Shape getShape() { return path; }
    };
    
-   static SceneGraphNode windmillVane = new SceneGraphNode() {
+   static SceneGraphNode windmillVane = new Primitive() {
         Path2D path;
         {
            path = new Path2D.Float();
@@ -143,8 +329,365 @@ public class SceneGraphAPI2D extends JPanel {
            path.closePath();
         }
         void doDraw(Graphics2D g) { g.fill(path); };
+        Rectangle2D computeBounds() { return path.getBounds2D(); }
+        Shape getShape() { return path; }
    };
    
+   /**
+    * A RenderList is a flattened copy of part of a scene graph, which can be drawn
+    * without traversing the graph.  Each primitive node that would be drawn by the graph
+    * becomes one item in the list, with a shape ID (an index into the array of distinct
+    * primitives), a color, and the index of the transform that applies to it.  Every
+    * copy of a TransformedObject in the graph has its own transform, stored as six
+    * numbers in a double array; the transform maps the object's coordinates to the
+    * coordinates at the root of the graph.  It is computed by multiplying the transform
+    * of the containing object by the local transform of the TransformedObject, which is
+    * computed only once for all copies of the object.  Only the transforms for objects
+    * that are animated, or that are contained in animated objects, are recomputed when
+    * update() is called.  The rest of the graph is assumed not to change after the list is made;
+    * if it does, a new RenderList must be created.  In a steady state, update() and draw()
+    * do not allocate any objects themselves, and a frame in which every item is culled
+    * allocates nothing.  However, Java2D allocates some memory for each shape that is
+    * actually drawn (such as a path iterator for each filled shape), so the allocation
+    * per frame is proportional to the number of visible items.
+    */
+   static class RenderList {
+       private SceneGraphNode[] shapes = new SceneGraphNode[8]; // Distinct primitive nodes.
+       private int shapeCount;
+       private int itemCount;            // Number of primitives to be drawn.
+       private int[] itemShape = new int[64];      // Index in shapes of each item's primitive.
+       private int[] itemTransform = new int[64];  // Index of the transform for each item.
+       private Color[] itemColor = new Color[64];  // Color for each item (never null).
+       private double[] itemBounds;  // For each item, minX, minY, maxX, maxY of its bounds in root coordinates,
+                                     //   extended by the reach of the stroke.
+       private int transformCount;     // Number of transforms; transform 0 is the identity.
+       private double[] matrices = new double[6*64]; // For each transform, m00, m10, m01, m11, m02, m12.
+       private int[] transformParent = new int[64];  // The transform that contains each transform.
+       private int[] transformLocal = new int[64];   // Index of the local transform for each transform.
+       private int localCount;         // Number of distinct TransformedObjects.
+       private TransformedObject[] localSource = new TransformedObject[16]; // The distinct TransformedObjects.
+       private double[] locals = new double[6*16];  // The transform of each TransformedObject by itself.
+       private int[] dynamicLocals;      // Local transforms that are recomputed by update().
+       private int[] dynamicTransforms;  // Transforms that are recomputed by update(), parents first.
+       private int[] dynamicItems;       // Items whose bounds are recomputed by update().
+       
+       private TransformedObject[] animated;  // These are only used while the list is being made.
+       private IdentityHashMap<TransformedObject,Integer> localIndex;
+       private ArrayList<Integer> dynamicL, dynamicT, dynamicI;
+       
+       private Stroke stroke;     // The stroke that was used to compute itemBounds.
+       private double reach;      // How far that stroke extends beyond a shape, in local coordinates.
+       private final AffineTransform scratch = new AffineTransform();   // Objects that are reused
+       private final AffineTransform device = new AffineTransform();    //   during drawing.
+       private final AffineTransform identity = new AffineTransform();
+       private final Rectangle clipRect = new Rectangle();
+       private double clipMinX, clipMinY, clipMaxX, clipMaxY;  // Visible region, in root coordinates.
+       
+       /**
+        * Create a list containing the given nodes, in order.
+        * @param nodes the nodes, which are treated as children of an untransformed root.
+        * @param defaultColor the color for primitives that do not inherit a color from
+        *     one of the nodes.  Must not be null.
+        * @param animated the objects whose transforms can change.  Only the transforms
+        *     for these objects and the objects that they contain are updated by update().
+        */
+       RenderList(List<SceneGraphNode> nodes, Color defaultColor, TransformedObject... animated) {
+           transformCount = 1;
+           matrices[0] = matrices[3] = 1;  // The identity transform, for the root.
+           transformParent[0] = -1;
+           this.animated = animated;
+           localIndex = new IdentityHashMap<TransformedObject,Integer>();
+           dynamicL = new ArrayList<Integer>();
+           dynamicT = new ArrayList<Integer>();
+           dynamicI = new ArrayList<Integer>();
+           for (SceneGraphNode node : nodes)
+               compile(node, 0, defaultColor, false);
+           itemBounds = new double[4*itemCount];
+           dynamicLocals = toArray(dynamicL);
+           dynamicTransforms = toArray(dynamicT);
+           dynamicItems = toArray(dynamicI);
+           this.animated = null;
+           localIndex = null;
+           dynamicL = dynamicT = dynamicI = null;
+       }
+       
+       private static int[] toArray(ArrayList<Integer> list) {
+           int[] array = new int[list.size()];
+           for (int i = 0; i < array.length; i++)
+               array[i] = list.get(i);
+           return array;
+       }
+       
+       /**
+        * Returns the number of primitives in the list.
+        */
+       int getItemCount() {
+           return itemCount;
+       }
+       
+       /**
+        * Returns the primitive node that is drawn by an item.
+        */
+       SceneGraphNode getItemNode(int item) {
+           return shapes[itemShape[item]];
+       }
+       
+       /**
+        * Returns the color of an item.
+        */
+       Color getItemColor(int item) {
+           return itemColor[item];
+       }
+       
+       /**
+        * Set t to the transform from an item's coordinates to the root coordinates.
+        */
+       void getItemTransform(int item, AffineTransform t) {
+           int m = 6*itemTransform[item];
+           t.setTransform(matrices[m], matrices[m+1], matrices[m+2],
+                          matrices[m+3], matrices[m+4], matrices[m+5]);
+       }
+       
+       /**
+        * Add the primitives for a node and its descendants to the list.  The node is
+        * drawn with the given transform and with the given color unless it has its own.
+        * Dynamic is true if the node is contained in an animated object.
+        */
+       private void compile(SceneGraphNode node, int transform, Color color, boolean dynamic) {
+           if (node.color != null)
+               color = node.color;
+           if (node instanceof TransformedObject) {
+               TransformedObject t = (TransformedObject)node;
+               boolean isAnimated = false;
+               for (TransformedObject a : animated)
+                   if (a == t)
+                       isAnimated = true;
+               dynamic = dynamic || isAnimated;
+               Integer local = localIndex.get(t);
+               if (local == null) {
+                   if (localCount == localSource.length) {
+                       localSource = Arrays.copyOf(localSource, 2*localCount);
+                       locals = Arrays.copyOf(locals, 12*localCount);
+                   }
+                   local = localCount++;
+                   localIndex.put(t, local);
+                   localSource[local] = t;
+                   computeLocal(local);
+                   if (isAnimated)
+                       dynamicL.add(local);
+               }
+               if (transformCount == transformParent.length) {
+                   transformParent = Arrays.copyOf(transformParent, 2*transformCount);
+                   transformLocal = Arrays.copyOf(transformLocal, 2*transformCount);
+                   matrices = Arrays.copyOf(matrices, 12*transformCount);
+               }
+               int index = transformCount++;
+               transformParent[index] = transform;
+               transformLocal[index] = local;
+               computeMatrix(index);
+               if (dynamic)
+                   dynamicT.add(index);
+               compile(t.object, index, color, dynamic);
+           }
+           else if (node instanceof CompoundObject) {
+               for (SceneGraphNode child : ((CompoundObject)node).subobjects)
+                   compile(child, transform, color, dynamic);
+           }
+           else {
+               int shape = 0;
+               while (shape < shapeCount && shapes[shape] != node)
+                   shape++;
+               if (shape == shapeCount) {
+                   if (shapeCount == shapes.length)
+                       shapes = Arrays.copyOf(shapes, 2*shapeCount);
+                   shapes[shapeCount++] = node;
+               }
+               if (itemCount == itemShape.length) {
+                   itemShape = Arrays.copyOf(itemShape, 2*itemCount);
+                   itemTransform = Arrays.copyOf(itemTransform, 2*itemCount);
+                   itemColor = Arrays.copyOf(itemColor, 2*itemCount);
+               }
+               if (dynamic)
+                   dynamicI.add(itemCount);
+               itemShape[itemCount] = shape;
+               itemTransform[itemCount] = transform;
+               itemColor[itemCount] = color;
+               itemCount++;
+           }
+       }
+       
+       /**
+        * Recompute the transforms of the animated objects and of the objects that they
+        * contain, from the current rotation, scale, and translation of each object.
+        */
+       void update() {
+           for (int l : dynamicLocals)
+               computeLocal(l);
+           for (int t : dynamicTransforms)
+               computeMatrix(t);
+           if (stroke != null) {
+               for (int i : dynamicItems)
+                   computeBounds(i);
+           }
+       }
+       
+       /**
+        * Compute the local transform of a TransformedObject, in the same way as
+        * TransformedObject.doDraw().
+        */
+       private void computeLocal(int l) {
+           TransformedObject source = localSource[l];
+           scratch.setToIdentity();
+           if (source.translateX != 0 || source.translateY != 0)
+               scratch.translate(source.translateX, source.translateY);
+           if (source.rotationInDegrees != 0)
+               scratch.rotate( source.rotationInDegrees/180.0 * Math.PI);
+           if (source.scaleX != 1 || source.scaleY != 1)
+               scratch.scale(source.scaleX, source.scaleY);
+           int m = 6*l;
+           locals[m] = scratch.getScaleX();
+           locals[m+1] = scratch.getShearY();
+           locals[m+2] = scratch.getShearX();
+           locals[m+3] = scratch.getScaleY();
+           locals[m+4] = scratch.getTranslateX();
+           locals[m+5] = scratch.getTranslateY();
+       }
+       
+       /**
+        * Compute one transform as its parent's transform multiplied by its local transform.
+        */
+       private void computeMatrix(int t) {
+           int p = 6*transformParent[t];
+           int b = 6*transformLocal[t];
+           int m = 6*t;
+           double p00 = matrices[p], p10 = matrices[p+1], p01 = matrices[p+2];
+           double p11 = matrices[p+3], p02 = matrices[p+4], p12 = matrices[p+5];
+           double b00 = locals[b], b10 = locals[b+1], b01 = locals[b+2];
+           double b11 = locals[b+3], b02 = locals[b+4], b12 = locals[b+5];
+           matrices[m] = p00*b00 + p01*b10;
+           matrices[m+1] = p10*b00 + p11*b10;
+           matrices[m+2] = p00*b01 + p01*b11;
+           matrices[m+3] = p10*b01 + p11*b11;
+           matrices[m+4] = p00*b02 + p01*b12 + p02;
+           matrices[m+5] = p10*b02 + p11*b12 + p12;
+       }
+       
+       /**
+        * Compute the bounds of an item in root coordinates, by transforming the corners
+        * of its primitive's bounds, extended by the reach of the stroke.
+        */
+       private void computeBounds(int item) {
+           Rectangle2D r = shapes[itemShape[item]].getBounds();
+           double left = r.getMinX() - reach, right = r.getMaxX() + reach;
+           double top = r.getMinY() - reach, bottom = r.getMaxY() + reach;
+           int m = 6*itemTransform[item];
+           double m00 = matrices[m], m10 = matrices[m+1], m01 = matrices[m+2];
+           double m11 = matrices[m+3], m02 = matrices[m+4], m12 = matrices[m+5];
+           double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+           double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+           for (int corner = 0; corner < 4; corner++) {
+               double x = (corner & 1) == 0 ? left : right;
+               double y = corner < 2 ? top : bottom;
+               double tx = m00*x + m01*y + m02;
+               double ty = m10*x + m11*y + m12;
+               minX = Math.min(minX, tx);
+               maxX = Math.max(maxX, tx);
+               minY = Math.min(minY, ty);
+               maxY = Math.max(maxY, ty);
+           }
+           itemBounds[4*item] = minX;
+           itemBounds[4*item+1] = minY;
+           itemBounds[4*item+2] = maxX;
+           itemBounds[4*item+3] = maxY;
+       }
+       
+       /**
+        * Draw the items in the list, skipping those that lie outside the clip region.
+        * @param g the graphics context.  Its transform is changed during drawing, and
+        *    is set to view at the end.
+        * @param view the transform from root coordinates to the device coordinates
+        *    of g.  This is usually the transform of g at the time of the call.
+        */
+       void draw(Graphics2D g, AffineTransform view) {
+           Stroke s = g.getStroke();
+           if (stroke == null || !stroke.equals(s)) {  // Recompute all the bounds for a different stroke.
+               stroke = s;
+               if (s instanceof BasicStroke) {
+                   BasicStroke basic = (BasicStroke)s;
+                   reach = basic.getLineWidth() / 2;
+                   if (basic.getLineJoin() == BasicStroke.JOIN_MITER)
+                       reach *= Math.max(1, basic.getMiterLimit());
+               }
+               else {
+                   reach = Double.POSITIVE_INFINITY;  // Items will never be culled.
+               }
+               for (int i = 0; i < itemCount; i++)
+                   computeBounds(i);
+           }
+           boolean cull = findClip(g, view);
+           Color saveColor = g.getColor();
+           Color color = null;
+           int transform = -1;
+           for (int i = 0; i < itemCount; i++) {
+               if (cull) {
+                   int b = 4*i;
+                   if (itemBounds[b+2] < clipMinX || itemBounds[b] > clipMaxX
+                            || itemBounds[b+3] < clipMinY || itemBounds[b+1] > clipMaxY)
+                       continue;
+               }
+               if (itemTransform[i] != transform) {
+                   transform = itemTransform[i];
+                   int m = 6*transform;
+                   scratch.setTransform(matrices[m], matrices[m+1], matrices[m+2],
+                                        matrices[m+3], matrices[m+4], matrices[m+5]);
+                   device.setTransform(view);
+                   device.concatenate(scratch);
+                   g.setTransform(device);
+               }
+               if (itemColor[i] != color) {
+                   color = itemColor[i];
+                   g.setColor(color);
+               }
+               shapes[itemShape[i]].doDraw(g);
+           }
+           g.setTransform(view);
+           g.setColor(saveColor);
+       }
+       
+       /**
+        * Find the bounding box, in root coordinates, of the clip region of g, extended
+        * by two pixels on each side for antialiasing.  If g has no clip, the bounds of
+        * its drawing surface are used.  Returns false if items should not be culled.
+        */
+       private boolean findClip(Graphics2D g, AffineTransform view) {
+           double det = view.getDeterminant();
+           if (det == 0)
+               return false;
+           g.setTransform(identity);  // So the clip bounds are in device coordinates.
+           clipRect.setBounds(0, 0, -1, -1);
+           g.getClipBounds(clipRect); // Leaves clipRect unchanged if there is no clip.
+           if (clipRect.width < 0)
+               clipRect.setBounds(g.getDeviceConfiguration().getBounds());
+           double left = clipRect.getMinX() - 2, right = clipRect.getMaxX() + 2;  // (The device bounds can
+           double top = clipRect.getMinY() - 2, bottom = clipRect.getMaxY() + 2;  //   be huge, so use doubles.)
+           clipMinX = clipMinY = Double.POSITIVE_INFINITY;
+           clipMaxX = clipMaxY = Double.NEGATIVE_INFINITY;
+           double m00 = view.getScaleX(), m01 = view.getShearX(), m02 = view.getTranslateX();
+           double m10 = view.getShearY(), m11 = view.getScaleY(), m12 = view.getTranslateY();
+           for (int corner = 0; corner < 4; corner++) { // Apply the inverse of view to each corner.
+               double x = ((corner & 1) == 0 ? left : right) - m02;
+               double y = (corner < 2 ? top : bottom) - m12;
+               double rx = (m11*x - m01*y) / det;
+               double ry = (m00*y - m10*x) / det;
+               clipMinX = Math.min(clipMinX, rx);
+               clipMaxX = Math.max(clipMaxX, rx);
+               clipMinY = Math.min(clipMinY, ry);
+               clipMaxY = Math.max(clipMaxY, ry);
+           }
+           return true;
+       }
+   }
+   
    //-----------------------------------------------------------------------------------
    
    private CompoundObject world;     // A SceneGraphNode representing the entire scene.
@@ -156,7 +699,23 @@ public class SceneGraphAPI2D extends JPanel {
    
    private int frameNumber; // For animation, increases by 1 in each frame.
 
+   private TransformedObject[] animated;  // The objects whose transforms change in updateFrame().
+   private int firstDynamic;  // Index in world.subobjects of the first object that contains an
+                              //   animated object.  The objects before it are drawn only once,
+                              //   into the background image.
+   private BufferedImage background; // Holds the drawing of the static objects, plus the
+                                     //   panel's background color.
+   private RenderList renderList;  // Flattened copy of the objects starting at firstDynamic.
+   private RenderList sceneList;   // Flattened copy of the entire scene, for renderFrame().
+   private boolean useRenderList = true;  // If false, the scene graph is drawn directly.
+   private AffineTransform viewTransform; // The transform set up by applyLimits(), from
+                                          //   drawing coordinates to pixel coordinates.
+   private Timer timer;  // Drives the animation by calling updateFrame() every 30 milliseconds.
+   private boolean damageTracking = true; // If false, the entire panel is repainted in each frame.
+   DamageTracker damage = new DamageTracker(4); // Parts of the panel that must be repainted.
+
    private float pixelSize;  // The size of a pixel in drawing coordinates.
+   private BasicStroke pixelStroke;  // A stroke of width pixelSize, made again only when pixelSize changes.
 
    private double xleftRequested = 0;      // horizontal and vertical limits in the
    private double xrightRequested = 7;     //   coordinate system applied to the
@@ -175,12 +734,70 @@ public class SceneGraphAPI2D extends JPanel {
       setBackground( new Color(200,200,255) );
       setBorder(BorderFactory.createLineBorder(Color.DARK_GRAY, 2));
       createWorld();
-      new Timer(30,new ActionListener() {
+      timer = new Timer(30,new ActionListener() {
          public void actionPerformed(ActionEvent evt) {
             updateFrame();
-            repaint();
+            damage.repaint(SceneGraphAPI2D.this);
          }
-      }).start();
+      });
+      timer.start();
+   }
+   
+   
+   /**
+    * Start or stop the timer that drives the animation.  (When it is stopped,
+    * the animation can still be advanced by calling updateFrame().)
+    */
+   public void setAnimationRunning(boolean run) {
+      if (run)
+         timer.start();
+      else
+         timer.stop();
+   }
+   
+   
+   /**
+    * Turn the use of a background image and partial repainting on or off.
+    * When it is off, the entire scene is drawn in every frame.
+    */
+   public void setDamageTracking(boolean track) {
+      damageTracking = track;
+      background = null;
+      damage.addEverything();
+   }
+   
+   
+   /**
+    * Turn the use of a RenderList for drawing the animated objects on or off.
+    * When it is off, the scene graph itself is traversed to draw them.
+    */
+   public void setRenderList(boolean use) {
+      useRenderList = use;
+      damage.addEverything();
+   }
+   
+   
+   /**
+    * Draw the current frame of the animation with a SoftwareRenderer, instead of
+    * with Java2D, and return the image.  The entire scene is drawn, at the size of
+    * the renderer's image, with the same limits and line width as paintComponent().
+    * The panel does not need to be showing on the screen.
+    */
+   public BufferedImage renderFrame(SoftwareRenderer renderer) {
+      if (sceneList == null)
+         sceneList = new RenderList(world.subobjects, world.color, animated);
+      else
+         sceneList.update();
+      int width = renderer.getWidth();
+      int height = renderer.getHeight();
+      AffineTransform view = new AffineTransform();
+      view.scale( width / (xrightRequested-xleftRequested), height / (ybottomRequested-ytopRequested) );
+      view.translate( -xleftRequested, -ytopRequested );
+      double pixelWidth = Math.abs(( xrightRequested - xleftRequested ) / width);
+      double pixelHeight = Math.abs(( ybottomRequested - ytopRequested ) / height);
+      BasicStroke stroke = new BasicStroke( (float)Math.min(pixelWidth,pixelHeight) );
+      renderer.render(sceneList, view, stroke, getBackground());
+      return renderer.getImage();
    }
    
    
@@ -189,12 +806,56 @@ public class SceneGraphAPI2D extends JPanel {
     * environment, then calls the draw() in the object that represents the scene.
     */
    protected void paintComponent(Graphics g) {
-      super.paintComponent(g);
+      if (!damageTracking) {
+         super.paintComponent(g);
+         Graphics2D g2 = (Graphics2D)g.create();
+         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+         applyLimits(g2, xleftRequested, xrightRequested, ytopRequested, ybottomRequested, false);
+         g2.setStroke( pixelStroke );
+         drawWorld(g2, 0, firstDynamic);
+         drawDynamic(g2);
+         return;
+      }
+      if (background == null || background.getWidth() != getWidth() || background.getHeight() != getHeight()) {
+         background = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_RGB);
+         Graphics2D bg = background.createGraphics();
+         bg.setColor(getBackground());
+         bg.fillRect(0, 0, getWidth(), getHeight());
+         bg.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+         applyLimits(bg, xleftRequested, xrightRequested, ytopRequested, ybottomRequested, false);
+         bg.setStroke( pixelStroke );
+         drawWorld(bg, 0, firstDynamic);
+         bg.dispose();
+      }
+      g.drawImage(background, 0, 0, null);
       Graphics2D g2 = (Graphics2D)g.create();
       g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
       applyLimits(g2, xleftRequested, xrightRequested, ytopRequested, ybottomRequested, false);
-      g2.setStroke( new BasicStroke(pixelSize) );
-      world.draw(g2);
+      g2.setStroke( pixelStroke );
+      drawDynamic(g2);
+   }
+   
+   
+   /**
+    * Draw the objects in world.subobjects starting at index firstDynamic, either from
+    * the render list or by traversing the scene graph.
+    */
+   private void drawDynamic(Graphics2D g2) {
+      if (useRenderList)
+         renderList.draw(g2, g2.getTransform());
+      else
+         drawWorld(g2, firstDynamic, world.subobjects.size());
+   }
+   
+   
+   /**
+    * Draw the objects in world.subobjects from index start up to, but not including,
+    * index end, using the default color from the world object.
+    */
+   private void drawWorld(Graphics2D g2, int start, int end) {
+      g2.setColor(world.color);
+      for (int i = start; i < end; i++)
+         world.subobjects.get(i).draw(g2);
    }
    
    /**
@@ -254,19 +915,100 @@ public class SceneGraphAPI2D extends JPanel {
        world.add( new TransformedObject(sun).setTranslation(5.5,3.3) );
        world.add( cart );
        
+       animated = new TransformedObject[] { cart, wheel, sun, rotor };
+       firstDynamic = 0;
+       while (firstDynamic < world.subobjects.size() && !containsAnimated(world.subobjects.get(firstDynamic)))
+          firstDynamic++;
+       renderList = new RenderList(world.subobjects.subList(firstDynamic, world.subobjects.size()),
+                                   world.color, animated);
+       
    } // end createWorld()
    
    
+   /**
+    * Test whether a node is, or contains, one of the animated objects.
+    */
+   private boolean containsAnimated(SceneGraphNode node) {
+      for (SceneGraphNode a : animated)
+         if (node == a)
+            return true;
+      if (node instanceof TransformedObject)
+         return containsAnimated( ((TransformedObject)node).object );
+      if (node instanceof CompoundObject) {
+         for (SceneGraphNode child : ((CompoundObject)node).subobjects)
+            if (containsAnimated(child))
+               return true;
+      }
+      return false;
+   }
+   
+   
+   /**
+    * Add the pixel bounds of every copy of an animated object in the world to the
+    * damaged region.  This is called before and after the transforms are changed
+    * in updateFrame().
+    */
+   private void addAnimatedDamage() {
+      if (viewTransform == null || getWidth() == 0) {
+         damage.addEverything();  // The panel has not yet been drawn.
+         return;
+      }
+      addAnimatedDamage(world, viewTransform);
+   }
+   
+   
+   /**
+    * Search the scene graph starting at node for animated objects, keeping track of
+    * the transform from the node's coordinates to pixel coordinates.  When an animated
+    * object is found, its bounds are added to the damaged region; there is no need to
+    * look inside it, since its bounds include all its children.
+    */
+   private void addAnimatedDamage(SceneGraphNode node, AffineTransform transform) {
+      for (SceneGraphNode a : animated) {
+         if (node == a) {
+            damage.add(node.getBounds(), transform, 2);
+            return;
+         }
+      }
+      if (node instanceof TransformedObject) {
+         TransformedObject t = (TransformedObject)node;
+         AffineTransform childTransform = new AffineTransform(transform);
+         childTransform.concatenate(t.getTransform());
+         addAnimatedDamage(t.object, childTransform);
+      }
+      else if (node instanceof CompoundObject) {
+         for (SceneGraphNode child : ((CompoundObject)node).subobjects)
+            addAnimatedDamage(child, transform);
+      }
+   }
+   
+   
    /**
     * This method is called just before each frame is drawn.  It updates the modeling
     * transformations of the objects in the scene that are animated.
     */
    public void updateFrame() {
-       frameNumber++;
+       setFrameNumber(frameNumber + 1);
+   }
+   
+   
+   /**
+    * Jump directly to a given frame of the animation.  The scene depends only on
+    * the frame number, so any frame can be drawn without drawing the frames before it.
+    */
+   public void setFrameNumber(int frame) {
+       if (damageTracking)
+          addAnimatedDamage();
+       frameNumber = frame;
        cart.setTranslation(-3 + 13*(frameNumber % 300) / 300.0, 0);
        wheel.setRotation(-frameNumber*3.1);
        sun.setRotation(-frameNumber);
        rotor.setRotation(frameNumber * 2.7);
+       renderList.update();
+       if (damageTracking)
+          addAnimatedDamage();
+       else
+          damage.addEverything();
    }
 
     
@@ -275,7 +1017,8 @@ public class SceneGraphAPI2D extends JPanel {
     * the viewport where the graphics context draws is assumed to be (0,0).  The coordinate
     * transform will make a requested rectangle visible in the drawing area.  The requested
     * limits might be adjusted to preserve the aspect ratio.  (This method sets the global variable 
-    * pixelSize to be equal to the size of one pixel in the transformed coordinate system.)
+    * pixelSize to be equal to the size of one pixel in the transformed coordinate system, and it
+    * sets viewTransform to the transform that it applies.)
     * @param g2 The drawing context whose transform will be set.
     * @param xleft requested x-value at left of drawing area.
     * @param xright requested x-value at right of drawing area.
@@ -309,8 +1052,12 @@ public class SceneGraphAPI2D extends JPanel {
       double pixelWidth = Math.abs(( xright - xleft ) / width);
       double pixelHeight = Math.abs(( ybottom - ytop ) / height);
       pixelSize = (float)Math.min(pixelWidth,pixelHeight);
-      g2.scale( width / (xright-xleft), height / (ybottom-ytop) );
-      g2.translate( -xleft, -ytop );
+      if (pixelStroke == null || pixelStroke.getLineWidth() != pixelSize)
+         pixelStroke = new BasicStroke(pixelSize);
+      viewTransform = new AffineTransform();
+      viewTransform.scale( width / (xright-xleft), height / (ybottom-ytop) );
+      viewTransform.translate( -xleft, -ytop );
+      g2.transform(viewTransform);
    }
    
 }
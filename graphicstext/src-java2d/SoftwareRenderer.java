@@ -0,0 +1,497 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * A SoftwareRenderer draws the primitives of a SceneGraphAPI2D.RenderList into
+ * an image without using Java2D's rendering pipeline, so that frames can be
+ * rendered in parallel on all available processors.  The image is divided into
+ * square tiles.  Each primitive is first converted to a polygon in pixel
+ * coordinates; curves are approximated by line segments, and stroked shapes are
+ * replaced by the outline of the stroke, which is computed by BasicStroke.  The
+ * primitives are then sorted into bins, one for each tile that they intersect,
+ * and the tiles are rasterized in parallel by the common ForkJoinPool.  Since each
+ * tile is drawn by just one thread, no synchronization is needed.  The polygon for
+ * a primitive is kept from one frame to the next, as long as its transform does
+ * not change, so only the primitives that move have to be recomputed.
+ *    Primitives are antialiased the same way as by Java2D:  Coverage is computed
+ * exactly in the horizontal direction, and at eight sample rows in each pixel in
+ * the vertical direction, and the color is blended with the existing pixel color
+ * using the coverage as alpha.  Before a path is stroked, its coordinates are moved
+ * to the centers of pixels, as Java2D does by default (with
+ * RenderingHints.VALUE_STROKE_DEFAULT).
+ * The output is not identical to Java2D's output, since the two programs do not
+ * approximate curves and compute stroke outlines in exactly the same way.  For the
+ * SceneGraphAPI2D animation, fewer than 0.2% of the pixels have a color component
+ * that differs from the pixel drawn by Java2D by more than 4 (see
+ * SoftwareRendererBenchmark).  The differences are along the edges of thin
+ * stroked lines, where a few pixels can differ by as much as 191.
+ *    The pixels are drawn directly into the data array of a BufferedImage of type
+ * TYPE_INT_RGB, so the image is ready to use as soon as render() returns.  This
+ * class does not need a display, so it can be used in a headless program.
+ *    This class is an example of tiled, parallel rasterization, not a faster
+ * replacement for Java2D.  On a machine with one processor, it is between two and
+ * six times slower than Java2D for the SceneGraphAPI2D animation, with the larger
+ * factors for larger images (see SoftwareRendererBenchmark).  It has not been shown
+ * to be faster than Java2D on any number of processors, so programs that need speed,
+ * such as FrameExporter, should draw with Java2D.
+ */
+public class SoftwareRenderer {
+
+	private static final int SAMPLE_ROWS = 8;     // Number of sample rows per pixel, as in Java2D.
+	private static final double FLATNESS = 0.05;  // Maximum distance, in pixels, between a curve and the
+	                                              //   line segments that approximate it.
+	private static final double MIN_PEN_SIZE = 1.0/8; // Java2D's minimum width for antialiased lines.
+	private static final int MIN_ITEMS = 64;      // Groups of items that are prepared by one task.
+
+	private final int width, height;     // The size of the image.
+	private final int tileSize;          // Tiles are tileSize-by-tileSize, except at the right and bottom edges.
+	private final int columns, rows;     // The number of columns and rows of tiles.
+	private final BufferedImage image;   // The image, of type TYPE_INT_RGB.
+	private final int[] pixels;          // The data array of the image.
+
+	private SceneGraphAPI2D.RenderList list;   // The list that was drawn most recently.
+	private BasicStroke stroke;                // The stroke that was used for that list.
+	private AffineTransform view;              // The view transform that was used for that list.
+	private float[][] edges;      // For each item, x1,y1,x2,y2 for each non-horizontal edge of its polygon.
+	private double[] matrices;    // For each item, the item transform that was used to compute its polygon.
+	private int[] itemBounds;     // For each item, pixel bounds left, top, right, bottom (exclusive).
+	private int[] colors;         // For each item, its RGB color.
+	private boolean[] evenOdd;    // For each item, true if it uses the even-odd winding rule.
+	private int maxEdges;         // The largest number of edges in any polygon.
+	private int[][] bins;         // For each tile, the items that intersect the tile, in drawing order.
+	private int[] binSizes;       // For each tile, the number of items in its bin.
+
+	/**
+	 * Create a renderer that draws images of a given size.
+	 * @param tileSize the width and height of the tiles, such as 64
+	 */
+	public SoftwareRenderer(int width, int height, int tileSize) {
+		if (width <= 0 || height <= 0 || tileSize <= 0)
+			throw new IllegalArgumentException("Image and tile size must be positive.");
+		this.width = width;
+		this.height = height;
+		this.tileSize = tileSize;
+		columns = (width + tileSize - 1) / tileSize;
+		rows = (height + tileSize - 1) / tileSize;
+		image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		pixels = ((DataBufferInt)image.getRaster().getDataBuffer()).getData();
+		bins = new int[columns*rows][16];
+		binSizes = new int[columns*rows];
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the image that holds the most recently rendered frame.  The same
+	 * image is used for every frame.
+	 */
+	public BufferedImage getImage() {
+		return image;
+	}
+
+	/**
+	 * Draw all the items in a render list.  The list must contain only primitive nodes
+	 * for which getShape() returns a non-null value.
+	 * @param list the items to be drawn.  The caller should call list.update() before
+	 *    rendering a frame in which the scene has changed.
+	 * @param view the transform from the root coordinates of the list to pixel coordinates
+	 * @param stroke the stroke for primitives that are not filled, in the coordinates
+	 *    of each primitive, as for a Graphics2D
+	 * @param background the color that fills the image before the items are drawn
+	 */
+	void render(SceneGraphAPI2D.RenderList list, AffineTransform view, BasicStroke stroke, Color background) {
+		int count = list.getItemCount();
+		if (list != this.list || !stroke.equals(this.stroke) || !view.equals(this.view)) {
+			this.list = list;  // Nothing that was computed for the previous list can be reused.
+			this.stroke = stroke;
+			this.view = new AffineTransform(view);
+			edges = new float[count][];
+			matrices = new double[6*count];
+			itemBounds = new int[4*count];
+			colors = new int[count];
+			evenOdd = new boolean[count];
+		}
+		ParallelRange.run(count, MIN_ITEMS, (first, last) -> {
+			AffineTransform transform = new AffineTransform();
+			double[] matrix = new double[6];
+			for (int i = first; i < last; i++) {
+				list.getItemTransform(i, transform);
+				transform.getMatrix(matrix);
+				if (edges[i] == null || !Arrays.equals(matrices, 6*i, 6*i + 6, matrix, 0, 6)) {
+					System.arraycopy(matrix, 0, matrices, 6*i, 6);
+					prepare(i, transform);
+				}
+				colors[i] = list.getItemColor(i).getRGB() & 0xFFFFFF;
+			}
+		});
+		maxEdges = 0;
+		Arrays.fill(binSizes, 0);
+		for (int i = 0; i < count; i++) {
+			maxEdges = Math.max(maxEdges, edges[i].length/4);
+			int left = itemBounds[4*i], top = itemBounds[4*i+1];
+			int right = itemBounds[4*i+2], bottom = itemBounds[4*i+3];
+			if (left >= right || top >= bottom)
+				continue;  // The item is not visible.
+			for (int row = top / tileSize; row <= (bottom - 1) / tileSize; row++) {
+				for (int column = left / tileSize; column <= (right - 1) / tileSize; column++) {
+					int tile = column + row*columns;
+					if (binSizes[tile] == bins[tile].length)
+						bins[tile] = Arrays.copyOf(bins[tile], 2*binSizes[tile]);
+					bins[tile][binSizes[tile]++] = i;
+				}
+			}
+		}
+		int rgb = background.getRGB() & 0xFFFFFF;
+		ParallelRange.run(columns*rows, 1, (first, last) -> {
+			float[] coverage = new float[tileSize + 1];
+			int[] runs = new int[tileSize + 1];
+			float[] active = new float[4*maxEdges];
+			int[] live = new int[maxEdges];
+			float[] crossings = new float[maxEdges];
+			byte[] directions = new byte[maxEdges];
+			for (int tile = first; tile < last; tile++)
+				drawTile(tile, rgb, coverage, runs, active, live, crossings, directions);
+		});
+	}
+
+	/**
+	 * Compute the polygon and pixel bounds for one item.
+	 * @param transform the transform from the item's coordinates to root coordinates.
+	 *    It is changed to the transform from the item's coordinates to pixel coordinates.
+	 */
+	private void prepare(int item, AffineTransform transform) {
+		SceneGraphAPI2D.SceneGraphNode node = list.getItemNode(item);
+		Shape shape = node.getShape();
+		if (shape == null)
+			throw new IllegalArgumentException("A node in the list does not have a shape.");
+		transform.preConcatenate(view);
+		Shape outline;
+		if (node.isFilled())
+			outline = transform.createTransformedShape(shape);
+		else
+			outline = strokeOutline(normalize(shape.getPathIterator(transform)), transform);
+		evenOdd[item] = outline != null && outline.getPathIterator(null).getWindingRule() == PathIterator.WIND_EVEN_ODD;
+		float[] polygon = new float[64];
+		int count = 0;
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		if (outline != null) {
+			double[] coords = new double[6];
+			double startX = 0, startY = 0, x = 0, y = 0;
+			for (PathIterator iter = outline.getPathIterator(null, FLATNESS); ; iter.next()) {
+				boolean done = iter.isDone();
+				int type = done ? PathIterator.SEG_CLOSE : iter.currentSegment(coords);
+				double nextX, nextY;  // The end of the next edge.
+				if (type == PathIterator.SEG_LINETO) {
+					nextX = coords[0];
+					nextY = coords[1];
+				}
+				else {  // Close the current subpath, which is done implicitly at a moveTo.
+					nextX = startX;
+					nextY = startY;
+				}
+				if (nextY != y) {  // Horizontal edges are not needed.
+					if (count + 4 > polygon.length)
+						polygon = Arrays.copyOf(polygon, 2*polygon.length);
+					polygon[count++] = (float)x;
+					polygon[count++] = (float)y;
+					polygon[count++] = (float)nextX;
+					polygon[count++] = (float)nextY;
+					minX = Math.min(minX, Math.min(x, nextX));
+					maxX = Math.max(maxX, Math.max(x, nextX));
+					minY = Math.min(minY, Math.min(y, nextY));
+					maxY = Math.max(maxY, Math.max(y, nextY));
+				}
+				if (done)
+					break;
+				if (type == PathIterator.SEG_MOVETO) {
+					startX = nextX = coords[0];
+					startY = nextY = coords[1];
+				}
+				x = nextX;
+				y = nextY;
+			}
+		}
+		edges[item] = sortByTop(polygon, count);
+		int b = 4*item;
+		if (count == 0) {
+			itemBounds[b] = itemBounds[b+1] = itemBounds[b+2] = itemBounds[b+3] = 0;
+		}
+		else {
+			itemBounds[b] = (int)Math.max(0, Math.floor(minX));
+			itemBounds[b+1] = (int)Math.max(0, Math.floor(minY));
+			itemBounds[b+2] = (int)Math.min(width, Math.ceil(maxX) + 1);
+			itemBounds[b+3] = (int)Math.min(height, Math.ceil(maxY) + 1);
+		}
+	}
+
+	/**
+	 * Returns a copy of the first count numbers in an array of edges, x1,y1,x2,y2 for
+	 * each edge, with the edges sorted by the smaller of their two y-coordinates.
+	 */
+	private static float[] sortByTop(float[] polygon, int count) {
+		long[] keys = new long[count/4];
+		for (int e = 0; e < keys.length; e++) {
+			int bits = Float.floatToIntBits(Math.min(polygon[4*e+1], polygon[4*e+3]));
+			bits ^= (bits >> 31) & 0x7FFFFFFF;  // Now the ints are in the same order as the floats.
+			keys[e] = ((long)bits << 32) | e;
+		}
+		Arrays.sort(keys);
+		float[] sorted = new float[count];
+		for (int e = 0; e < keys.length; e++)
+			System.arraycopy(polygon, 4*(int)keys[e], sorted, 4*e, 4);
+		return sorted;
+	}
+
+	/**
+	 * Copy a path, moving the end point of each segment to the center of the pixel that
+	 * contains it and moving control points by the average adjustment of
+	 * the end points of their segments, as Java2D does when it draws with antialiasing.
+	 */
+	private static Path2D normalize(PathIterator iter) {
+		Path2D.Double path = new Path2D.Double(iter.getWindingRule());
+		double[] c = new double[6];
+		double adjustX = 0, adjustY = 0;        // Adjustment of the current point.
+		double moveAdjustX = 0, moveAdjustY = 0; // Adjustment of the start of the subpath.
+		for ( ; !iter.isDone(); iter.next()) {
+			int type = iter.currentSegment(c);
+			if (type == PathIterator.SEG_CLOSE) {
+				adjustX = moveAdjustX;
+				adjustY = moveAdjustY;
+				path.closePath();
+				continue;
+			}
+			int last = type == PathIterator.SEG_QUADTO ? 2 : type == PathIterator.SEG_CUBICTO ? 4 : 0;
+			double x = Math.floor(c[last]) + 0.5;
+			double y = Math.floor(c[last+1]) + 0.5;
+			double dx = x - c[last], dy = y - c[last+1];
+			c[last] = x;
+			c[last+1] = y;
+			switch (type) {
+			case PathIterator.SEG_MOVETO:
+				moveAdjustX = dx;
+				moveAdjustY = dy;
+				path.moveTo(c[0], c[1]);
+				break;
+			case PathIterator.SEG_LINETO:
+				path.lineTo(c[0], c[1]);
+				break;
+			case PathIterator.SEG_QUADTO:
+				path.quadTo(c[0] + (adjustX + dx)/2, c[1] + (adjustY + dy)/2, c[2], c[3]);
+				break;
+			case PathIterator.SEG_CUBICTO:
+				path.curveTo(c[0] + adjustX, c[1] + adjustY, c[2] + dx, c[3] + dy, c[4], c[5]);
+				break;
+			}
+			adjustX = dx;
+			adjustY = dy;
+		}
+		return path;
+	}
+
+	/**
+	 * Returns the outline, in pixel coordinates, of the stroke along a path that is
+	 * given in pixel coordinates.  The stroke's width is given in the coordinates of
+	 * the item, so the path is stroked in the item's coordinates, except for the
+	 * translation, and then transformed back to pixel coordinates.  When the transform
+	 * just rotates and scales by the same amount in all directions, the path is stroked
+	 * in pixel coordinates with a scaled stroke instead.  Returns null if nothing
+	 * would be drawn.
+	 */
+	private Shape strokeOutline(Shape path, AffineTransform transform) {
+		double a = transform.getScaleX(), b = transform.getShearX();
+		double c = transform.getShearY(), d = transform.getScaleY();
+		double det = a*d - b*c;
+		if (Math.abs(det) <= 2*Double.MIN_VALUE)
+			return null;
+		float lineWidth = stroke.getLineWidth();
+		double maxScale = Math.sqrt(maxScaleSquared(a, b, c, d));
+		if (lineWidth * maxScale <= MIN_PEN_SIZE)  // Java2D draws thin lines with a minimum width.
+			lineWidth = (float)(MIN_PEN_SIZE / maxScale);
+		float[] dashes = stroke.getDashArray();
+		if (Math.abs(a*b + c*d) < 1e-12 && Math.abs(a*a + c*c - b*b - d*d) < 1e-12) {
+			float scale = (float)Math.sqrt(a*a + c*c);
+			if (dashes != null) {
+				dashes = dashes.clone();
+				for (int i = 0; i < dashes.length; i++)
+					dashes[i] *= scale;
+			}
+			BasicStroke scaled = new BasicStroke(lineWidth*scale, stroke.getEndCap(), stroke.getLineJoin(),
+					stroke.getMiterLimit(), dashes, stroke.getDashPhase()*scale);
+			return scaled.createStrokedShape(path);
+		}
+		AffineTransform delta = new AffineTransform(a, c, b, d, 0, 0);
+		BasicStroke itemStroke = new BasicStroke(lineWidth, stroke.getEndCap(), stroke.getLineJoin(),
+				stroke.getMiterLimit(), dashes, stroke.getDashPhase());
+		try {
+			Shape untransformed = delta.createInverse().createTransformedShape(path);
+			return delta.createTransformedShape(itemStroke.createStrokedShape(untransformed));
+		}
+		catch (NoninvertibleTransformException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the square of the largest factor by which a transform with the given
+	 * coefficients can stretch a vector, as computed by Java2D.
+	 */
+	private static double maxScaleSquared(double a, double b, double c, double d) {
+		double ea = a*a + c*c;
+		double eb = 2*(a*b + c*d);
+		double ec = b*b + d*d;
+		double hypot = Math.sqrt(eb*eb + (ea - ec)*(ea - ec));
+		return (ea + ec + hypot) / 2;
+	}
+
+	/**
+	 * Fill a tile with the background color, and then draw each item in the tile's bin.
+	 * The arrays are work space, so that they are not reallocated for every tile.
+	 * Only the edges of an item's polygon that reach the rows of the tile are copied
+	 * into the active array, so that a large polygon is not scanned in full for every
+	 * sample row of every tile that it covers.  Since the edges are sorted by their
+	 * top y-coordinates, they can be added to the live list, of edges that can cross
+	 * the current sample row, as the sample row moves down, and removed from it
+	 * when the row passes their bottoms; only the live edges are tested on each
+	 * sample row.
+	 */
+	private void drawTile(int tile, int background, float[] coverage, int[] runs,
+			float[] active, int[] live, float[] crossings, byte[] directions) {
+		int tileLeft = (tile % columns) * tileSize;
+		int tileTop = (tile / columns) * tileSize;
+		int tileRight = Math.min(width, tileLeft + tileSize);
+		int tileBottom = Math.min(height, tileTop + tileSize);
+		for (int y = tileTop; y < tileBottom; y++)
+			Arrays.fill(pixels, y*width + tileLeft, y*width + tileRight, background);
+		for (int b = 0; b < binSizes[tile]; b++) {
+			int item = bins[tile][b];
+			float[] polygon = edges[item];
+			int left = Math.max(tileLeft, itemBounds[4*item]);
+			int right = Math.min(tileRight, itemBounds[4*item+2]);
+			int top = Math.max(tileTop, itemBounds[4*item+1]);
+			int bottom = Math.min(tileBottom, itemBounds[4*item+3]);
+			int activeLength = 0;  // Only the edges that reach the rows of this tile are needed.
+			for (int e = 0; e < polygon.length; e += 4) {
+				if (Math.max(polygon[e+1], polygon[e+3]) > top && Math.min(polygon[e+1], polygon[e+3]) < bottom) {
+					System.arraycopy(polygon, e, active, activeLength, 4);
+					activeLength += 4;
+				}
+			}
+			int next = 0;       // Position in active of the next edge to be added to the live edges.
+			int liveCount = 0;  // Number of live edges; live holds their positions in active.
+			for (int y = top; y < bottom; y++) {
+				for (int sample = 0; sample < SAMPLE_ROWS; sample++) {
+					float sampleY = y + (sample + 0.5f) / SAMPLE_ROWS;
+					while (next < activeLength && Math.min(active[next+1], active[next+3]) <= sampleY) {
+						live[liveCount++] = next;
+						next += 4;
+					}
+					int count = 0;
+					for (int k = 0; k < liveCount; k++) {
+						int e = live[k];
+						float y1 = active[e+1], y2 = active[e+3];
+						if (Math.max(y1, y2) <= sampleY) {  // The edge ends above this sample row.
+							live[k--] = live[--liveCount];
+							continue;
+						}
+						float x1 = active[e], x2 = active[e+2];
+						float x = x1 + (sampleY - y1) * (x2 - x1) / (y2 - y1);
+						byte direction = (byte)(y1 < y2 ? 1 : -1);
+						int j = count++;  // Insertion sort by x coordinate.
+						while (j > 0 && crossings[j-1] > x) {
+							crossings[j] = crossings[j-1];
+							directions[j] = directions[j-1];
+							j--;
+						}
+						crossings[j] = x;
+						directions[j] = direction;
+					}
+					int winding = 0;
+					for (int j = 0; j < count - 1; j++) {
+						winding += directions[j];
+						boolean inside = evenOdd[item] ? (winding & 1) != 0 : winding != 0;
+						if (inside)
+							addSpan(coverage, runs, crossings[j] - left, crossings[j+1] - left, right - left);
+					}
+				}
+				blendRow(coverage, runs, y*width + left, right - left, colors[item]);
+			}
+		}
+	}
+
+	/**
+	 * Add the coverage of a horizontal span from x1 to x2 on one sample row, where
+	 * x = 0 is the left edge of the first pixel in the row.  The partly covered pixels
+	 * at the ends of the span are added to the coverage array.  The pixels in between
+	 * are completely covered; they are recorded in the runs array, by adding 1 at the
+	 * start of the run and -1 after its end, so that a long span costs no more than
+	 * a short one.
+	 */
+	private static void addSpan(float[] coverage, int[] runs, float x1, float x2, int count) {
+		if (x1 < 0)
+			x1 = 0;
+		if (x2 > count)
+			x2 = count;
+		if (x2 <= x1)
+			return;
+		int first = (int)x1, last = (int)x2;
+		if (first == last) {
+			coverage[first] += x2 - x1;
+			return;
+		}
+		coverage[first] += first + 1 - x1;
+		runs[first + 1]++;
+		runs[last]--;   // The arrays have an extra element, in case last == count.
+		coverage[last] += x2 - last;
+	}
+
+	/**
+	 * Blend a color into a row of pixels, using the accumulated coverage of each pixel
+	 * as alpha.  The coverage and runs arrays are reset to zero.
+	 */
+	private void blendRow(float[] coverage, int[] runs, int start, int count, int rgb) {
+		int red = rgb >> 16, green = (rgb >> 8) & 255, blue = rgb & 255;
+		int covered = 0;  // The number of sample rows on which the pixel is completely covered.
+		for (int i = 0; i < count; i++) {
+			covered += runs[i];
+			int alpha = Math.min(255, (int)((covered + coverage[i]) * (255f / SAMPLE_ROWS) + 0.5f));
+			coverage[i] = 0;
+			runs[i] = 0;
+			if (alpha == 0)
+				continue;
+			if (alpha == 255) {
+				pixels[start + i] = rgb;
+				continue;
+			}
+			int old = pixels[start + i];
+			int r = mul8(alpha, red) + mul8(255 - alpha, old >> 16);
+			int g = mul8(alpha, green) + mul8(255 - alpha, (old >> 8) & 255);
+			int b = mul8(alpha, blue) + mul8(255 - alpha, old & 255);
+			pixels[start + i] = (r << 16) | (g << 8) | b;
+		}
+		coverage[count] = 0;
+		runs[count] = 0;
+	}
+
+	/**
+	 * Multiply two numbers in the range 0 to 255, treated as fractions of 255.
+	 */
+	private static int mul8(int a, int b) {
+		return (a*b + 127) / 255;
+	}
+
+}
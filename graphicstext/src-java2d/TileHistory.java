@@ -0,0 +1,254 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A TileHistory implements undo and redo for an image whose pixel data is
+ * stored in an int array, such as the data array of a BufferedImage of type
+ * TYPE_INT_RGB.  The image is divided into square tiles.  The history is a
+ * list of saved states of the image.  Each state is an array containing one
+ * copy of each tile, but the copies are shared between states:  When a new
+ * state is saved, only the tiles that have actually changed since the previous
+ * state are copied, and the new state refers to the same tile copies as the
+ * previous state for all the other tiles.  This makes it possible to keep
+ * a long history for a large image, since an edit that only changes a small
+ * part of the image only uses the memory needed for a few tiles.
+ *     The history has a memory budget.  When the memory used by the saved
+ * tiles exceeds the budget, the oldest states are discarded.  The current
+ * state is never discarded.
+ *     The program that uses the history must call commit() after each
+ * edit to the image, to save the new state.
+ */
+public class TileHistory {
+
+	private final int[] pixels;       // The image data, w*h colors, stored row by row.
+	private final int width, height;  // The size of the image.
+	private final int tileSize;       // Tiles are tileSize-by-tileSize, except at the right and bottom edges.
+	private final int columns, rows;  // The number of columns and rows of tiles.
+	private final long memoryBudget;  // Maximum number of bytes to use for saved tiles.
+
+	private ArrayList<int[][]> states = new ArrayList<>(); // Saved states; each is an array of tiles.
+	private int current;       // Index in states of the state that matches the image.
+	private long memoryUsed;   // Number of bytes in all the distinct tiles in all the states.
+
+	/**
+	 * Create a history for an image, and save the current content of the image
+	 * as the first state.
+	 * @param pixels the array that holds the image data.  This array is used
+	 *    directly, not copied.  Undo and redo will modify its contents.
+	 * @param width the width of the image
+	 * @param height the height of the image
+	 * @param tileSize the width and height of the tiles, such as 64
+	 * @param memoryBudget the maximum number of bytes to use for saved tiles.  Note
+	 *    that the first state requires about 4*width*height bytes; at least that
+	 *    much memory will be used, no matter what the budget.
+	 */
+	public TileHistory(int[] pixels, int width, int height, int tileSize, long memoryBudget) {
+		if (width <= 0 || height <= 0 || tileSize <= 0)
+			throw new IllegalArgumentException("Image and tile size must be positive.");
+		if (pixels.length < width*height)
+			throw new IllegalArgumentException("The array is too small for the image size.");
+		this.pixels = pixels;
+		this.width = width;
+		this.height = height;
+		this.tileSize = tileSize;
+		this.memoryBudget = memoryBudget;
+		columns = (width + tileSize - 1) / tileSize;
+		rows = (height + tileSize - 1) / tileSize;
+		clear();
+	}
+
+	/**
+	 * Discard the entire history, and save the current content of the image
+	 * as the only state.
+	 */
+	public void clear() {
+		int[][] tiles = new int[columns*rows][];
+		memoryUsed = 0;
+		for (int i = 0; i < tiles.length; i++) {
+			tiles[i] = copyTile(i);
+			memoryUsed += 4L*tiles[i].length;
+		}
+		states.clear();
+		states.add(tiles);
+		current = 0;
+	}
+
+	/**
+	 * Save the current content of the image as a new state, after an edit
+	 * that might have changed any part of the image.
+	 * @return true if a new state was saved, false if nothing in the
+	 *    image had changed.
+	 */
+	public boolean commit() {
+		return commit(0, 0, width, height);
+	}
+
+	/**
+	 * Save the current content of the image as a new state, after an edit
+	 * that changed only pixels inside a given rectangle.  Tiles that intersect
+	 * the rectangle are compared to the current state, and only tiles that have
+	 * actually changed are copied.  Any states that could have been restored by
+	 * redo() are discarded.  If the memory budget is exceeded, the oldest states
+	 * are discarded.
+	 * @return true if a new state was saved, false if nothing in the
+	 *    rectangle had changed.
+	 */
+	public boolean commit(int x, int y, int w, int h) {
+		if (w <= 0 || h <= 0 || x + w <= 0 || y + h <= 0)
+			return false;
+		int firstColumn = Math.max(0, x / tileSize);
+		int lastColumn = Math.min(columns - 1, (x + w - 1) / tileSize);
+		int firstRow = Math.max(0, y / tileSize);
+		int lastRow = Math.min(rows - 1, (y + h - 1) / tileSize);
+		int[][] tiles = null;  // The new state, created when the first changed tile is found.
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				int tile = column + row*columns;
+				if (!tileMatches(tile, states.get(current)[tile])) {
+					if (tiles == null)
+						tiles = states.get(current).clone();
+					tiles[tile] = copyTile(tile);
+					memoryUsed += 4L*tiles[tile].length;
+				}
+			}
+		}
+		if (tiles == null)
+			return false;
+		while (states.size() > current + 1)
+			discardLast();
+		states.add(tiles);
+		current++;
+		while (memoryUsed > memoryBudget && current > 0)
+			discardFirst();
+		return true;
+	}
+
+	/**
+	 * Returns true if there is a state before the current state.
+	 */
+	public boolean canUndo() {
+		return current > 0;
+	}
+
+	/**
+	 * Returns true if undo() has been called and there is a state after
+	 * the current state.
+	 */
+	public boolean canRedo() {
+		return current < states.size() - 1;
+	}
+
+	/**
+	 * Restore the state before the current state, if there is one.  Only tiles
+	 * that differ between the two states are copied back into the image.
+	 * @return true if a state was restored, false if there is nothing to undo.
+	 */
+	public boolean undo() {
+		if (!canUndo())
+			return false;
+		restore(current - 1);
+		return true;
+	}
+
+	/**
+	 * Restore the state after the current state, if there is one.
+	 * @return true if a state was restored, false if there is nothing to redo.
+	 */
+	public boolean redo() {
+		if (!canRedo())
+			return false;
+		restore(current + 1);
+		return true;
+	}
+
+	/**
+	 * Returns the approximate number of bytes used by the saved tiles.
+	 */
+	public long getMemoryUsed() {
+		return memoryUsed;
+	}
+
+	/**
+	 * Returns the number of saved states, including the current state.
+	 */
+	public int getStateCount() {
+		return states.size();
+	}
+
+	/**
+	 * Copy tiles from a saved state into the image, and make that state current.
+	 * Tiles are shared, so a tile that is the same object in both states does
+	 * not need to be copied.
+	 */
+	private void restore(int index) {
+		int[][] from = states.get(current);
+		int[][] to = states.get(index);
+		for (int tile = 0; tile < to.length; tile++) {
+			if (to[tile] != from[tile]) {
+				int left = (tile % columns) * tileSize;
+				int top = (tile / columns) * tileSize;
+				int w = Math.min(tileSize, width - left);
+				int h = Math.min(tileSize, height - top);
+				for (int j = 0; j < h; j++)
+					System.arraycopy(to[tile], j*w, pixels, (top + j)*width + left, w);
+			}
+		}
+		current = index;
+	}
+
+	/**
+	 * Discard the oldest state.  Tiles from that state that are not used
+	 * by the next state are no longer referenced.
+	 */
+	private void discardFirst() {
+		int[][] first = states.remove(0);
+		int[][] next = states.get(0);
+		for (int tile = 0; tile < first.length; tile++)
+			if (first[tile] != next[tile])
+				memoryUsed -= 4L*first[tile].length;
+		current--;
+	}
+
+	/**
+	 * Discard the newest state.  Tiles from that state that are not used
+	 * by the previous state are no longer referenced.
+	 */
+	private void discardLast() {
+		int[][] last = states.remove(states.size() - 1);
+		int[][] previous = states.get(states.size() - 1);
+		for (int tile = 0; tile < last.length; tile++)
+			if (last[tile] != previous[tile])
+				memoryUsed -= 4L*last[tile].length;
+	}
+
+	/**
+	 * Make a copy of the pixel data for a tile, stored row by row.
+	 */
+	private int[] copyTile(int tile) {
+		int left = (tile % columns) * tileSize;
+		int top = (tile / columns) * tileSize;
+		int w = Math.min(tileSize, width - left);
+		int h = Math.min(tileSize, height - top);
+		int[] copy = new int[w*h];
+		for (int j = 0; j < h; j++)
+			System.arraycopy(pixels, (top + j)*width + left, copy, j*w, w);
+		return copy;
+	}
+
+	/**
+	 * Test whether the pixel data for a tile in the image is the same as a saved copy.
+	 */
+	private boolean tileMatches(int tile, int[] copy) {
+		int left = (tile % columns) * tileSize;
+		int top = (tile / columns) * tileSize;
+		int w = Math.min(tileSize, width - left);
+		int h = Math.min(tileSize, height - top);
+		for (int j = 0; j < h; j++) {
+			int start = (top + j)*width + left;
+			if (!Arrays.equals(pixels, start, start + w, copy, j*w, j*w + w))
+				return false;
+		}
+		return true;
+	}
+
+}
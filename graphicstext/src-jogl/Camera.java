@@ -1,7 +1,6 @@
 
 
 import com.jogamp.opengl.GL2;
-import com.jogamp.opengl.glu.GLU;
 
 import java.awt.Component;
 import java.awt.event.MouseEvent;
@@ -24,6 +23,32 @@ import java.awt.event.MouseMotionListener;
  *     The camera comes along with a simulated trackball that
  * lets the user rotate the view by dragging on the drawing
  * surface.  See the installTrackball() method.
+ *     The view and projection transformations are kept as 4-by-4
+ * matrices, which are recomputed only when the camera changes (or,
+ * for the projection, when the size of the viewport changes), so
+ * apply() does no computation for a frame in which the camera did not
+ * move; it just loads the two matrices with glLoadMatrixd.  The same
+ * matrices are available, as float arrays in the column-major order used
+ * by glUniformMatrix4fv, from getViewMatrix() and getProjectionMatrix(),
+ * for programs that use shaders instead of the fixed-function pipeline.
+ * The trackball does its computations in arrays that are allocated once,
+ * so that no objects are created while the user is dragging.
+ *     Mouse events from the trackball do not change the view directly.  The
+ * rotation for each event is combined into a pending rotation, represented
+ * as a unit quaternion that is renormalized after each event so that rounding
+ * errors cannot accumulate, and at most one repaint is requested until the
+ * next frame is drawn.  The pending rotation is applied to the view when the
+ * next frame calls apply() or setViewport().  So, no matter how many events a
+ * fast mouse generates, the view is recomputed once per frame.  Optionally,
+ * the trackball can keep turning, and slow down gradually, after the user
+ * releases the mouse while it is moving (see setTrackballInertia()).  If the
+ * program calls frameDisplayed() at the end of its display method, the camera
+ * measures the time from the first mouse event that went into a frame until
+ * that frame was finished, and reports it through getInputLatency().
+ *     The planes that bound the view volume are available from
+ * getFrustumPlanes(), and there are methods for testing whether a sphere or
+ * an axis-aligned box can be visible, one at a time or for whole arrays of
+ * them, so that a program can skip drawing objects that are off-screen.
  */
 public class Camera {
    
@@ -38,11 +63,49 @@ public class Camera {
    private boolean preserveAspect = true;
    
    private double xminActual, xmaxActual, yminActual, ymaxActual;
-   private GLU glu = new GLU();
+
+   private final double[] viewMatrix = new double[16];        // Column-major, as for glLoadMatrixd.
+   private final double[] projectionMatrix = new double[16];
+   private final float[] viewMatrixFloat = new float[16];     // The same matrices, as floats.
+   private final float[] projectionMatrixFloat = new float[16];
+   private boolean viewChanged = true;        // Set when viewMatrix must be recomputed.
+   private boolean projectionChanged = true;  // Set when projectionMatrix must be recomputed.
+   private int viewportWidth, viewportHeight; // Size of the viewport for the current projection.
+   private long changeCount;                  // Incremented when either matrix is recomputed.
+   private final int[] viewport = new int[4];
+   private final double[] frustumPlanes = new double[24];  // Six planes, four numbers each.
+   private final double[] clip = new double[16];           // Projection times view, by rows.
+   private long frustumChangeCount = -1;                   // Value of changeCount when the planes were computed.
+
+   // Scratch storage for computing the view axes and for the trackball, so that
+   // no arrays are allocated for each frame or each mouse event.
+   private final double[] xDirection = new double[3], yDirection = new double[3], zDirection = new double[3];
    
    private TrackballMouser trackball;    // handles the mouse for the simulated trackball
    private Component trackballComponent; // if non-null, component where trackball is installed
 
+   // Trackball input that has not yet been applied to the view.  These are shared
+   // between the thread that handles mouse events and the thread that draws frames,
+   // and are accessed only while synchronized on inputLock.
+   private final Object inputLock = new Object();
+   private double pendingW = 1, pendingX, pendingY, pendingZ; // Pending rotation, as a quaternion in view coordinates.
+   private boolean repaintRequested;     // A repaint has been requested and no frame has applied the input since.
+   private long repaintRequestTime;      // Time of that request, from System.nanoTime().
+   private long pendingInputTime = -1;   // Time of the first input event not yet applied, or -1.
+   private boolean inertia;              // Does the trackball keep turning when it is released?
+   private boolean spinning;             // Is it turning now, after being released?
+   private double spinSpeed;             // Angular speed of the trackball, in radians per second.
+   private double spinAxisX, spinAxisY, spinAxisZ = 1;  // Its axis of rotation, in view coordinates.
+   private long spinTime;                // Time when the spin was last applied, or of the last drag.
+   
+   private long frameInputTime = -1;     // Time of the first input event applied in the current frame, or -1.
+   private final LatencyProbe inputLatency = new LatencyProbe();
+   
+   private static final double SPIN_DAMPING = 2.5;    // Rate at which the spin slows down, per second.
+   private static final double MIN_SPIN_SPEED = 0.05; // The spin stops when its speed falls below this.
+   private static final long MAX_RELEASE_DELAY = 50000000;  // No spin if the mouse was still for 50 ms before release.
+   private static final long REPAINT_TIMEOUT = 100000000;   // Request another repaint if none has applied input for 100 ms.
+
    
    public boolean getOrthographic() {
       return orthographic;
@@ -56,6 +119,7 @@ public class Camera {
     */
    public void setOrthographic(boolean orthographic) {
       this.orthographic = orthographic;
+      projectionChanged = true;
    }
 
    public boolean getPreserveAspect() {
@@ -68,6 +132,7 @@ public class Camera {
     */
    public void setPreserveAspect(boolean preserveAspect) {
       this.preserveAspect = preserveAspect;
+      projectionChanged = true;
    }
 
    /**
@@ -91,6 +156,7 @@ public class Camera {
       ymaxRequested = ymaxActual = ymax;
       this.zmin = zmin;
       this.zmax = zmax;
+      projectionChanged = true;
    }
    
    /**
@@ -138,6 +204,8 @@ public class Camera {
       upx = viewUpX;
       upy = viewUpY;
       upz = viewUpZ;
+      viewChanged = true;
+      projectionChanged = true;  // (The projection depends on the distance from eye to view center.)
    }
 
    /**
@@ -146,62 +214,403 @@ public class Camera {
    public double[] getViewParameters() {
       return new double[] { eyex, eyey, eyez, refx, refy, refz, upx, upy, upz };
    }
-   
+
+   /**
+    * Returns the ray, in world coordinates, that is seen at the point (x,y) on a
+    * drawing surface of a given width and height, such as the location of a mouse event.
+    * The return value is an array of length 6 containing the starting point of the ray
+    * followed by a unit vector in the direction of the ray.  For a perspective projection,
+    * the ray starts at the eye; for an orthographic projection, it starts at the front of
+    * the view volume.  Any object that is drawn at the point (x,y) lies on the ray, so the
+    * ray can be used to find the object under the mouse (see MeshBVH).  This uses the
+    * limits from the most recent call to apply().  (This is not the same as the rays used
+    * by the trackball, which map the point onto a sphere to compute rotations.)
+    */
+   public double[] getPickRay(double x, double y, int width, int height) {
+      computeViewAxes();
+      double vx = xminActual + (x + 0.5) / width * (xmaxActual - xminActual);   // The point in view coordinates,
+      double vy = ymaxActual - (y + 0.5) / height * (ymaxActual - yminActual);  //   in the plane of the view center.
+      double[] point = new double[3];
+      point[0] = refx + vx*xDirection[0] + vy*yDirection[0];
+      point[1] = refy + vx*xDirection[1] + vy*yDirection[1];
+      point[2] = refz + vx*xDirection[2] + vy*yDirection[2];
+      if (orthographic) {
+         return new double[] { point[0] + zmax*zDirection[0], point[1] + zmax*zDirection[1],
+               point[2] + zmax*zDirection[2], -zDirection[0], -zDirection[1], -zDirection[2] };
+      }
+      else {
+         double[] direction = new double[] { point[0] - eyex, point[1] - eyey, point[2] - eyez };
+         normalize(direction);
+         return new double[] { eyex, eyey, eyez, direction[0], direction[1], direction[2] };
+      }
+   }
+
    /**
     * Apply the camera to an OpenGL context.  This method completely replaces the
-    * projection and the modelview transformation in the context.  It sets these
-    * transformations to the identity and then applies the view and projection
-    * represented by the camera.  This method is meant to be called at the begining
-    * of the display method and should replace any other means of setting the
-    * projection and view.
+    * projection and the modelview transformation in the context.  It loads the
+    * matrices for the projection and view represented by the camera, as
+    * computed by setViewport() for the size of the context's viewport.  This method
+    * is meant to be called at the begining of the display method and should replace
+    * any other means of setting the projection and view.
     */
    public void apply(GL2 gl) {
-        int[] viewport = new int[4];
-        gl.glGetIntegerv(GL2.GL_VIEWPORT, viewport, 0);
-        xminActual = xminRequested;
-        xmaxActual = xmaxRequested;
-        yminActual = yminRequested;
-        ymaxActual = ymaxRequested;
-        if (preserveAspect) {
-           double viewWidth = viewport[2];
-           double viewHeight = viewport[3];
-           double windowWidth = xmaxActual - xminActual;
-           double windowHeight = ymaxActual - yminActual;
-           double aspect = viewHeight / viewWidth;
-           double desired = windowHeight / windowWidth;
-           if (desired > aspect) { //expand width
-               double extra = (desired / aspect - 1.0) * (xmaxActual - xminActual) / 2.0;
-               xminActual -= extra;
-               xmaxActual += extra;
-           } else if (aspect > desired) {
-               double extra = (aspect / desired - 1.0) * (ymaxActual - yminActual) / 2.0;
-               yminActual -= extra; 
-               ymaxActual += extra;
-           }
-        }
-        gl.glMatrixMode(GL2.GL_PROJECTION);
-        gl.glLoadIdentity();
-       double viewDistance = norm(new double[] {refx-eyex, refy-eyey, refz-eyez});
-        if (orthographic) {
-            gl.glOrtho(xminActual, xmaxActual, yminActual, ymaxActual, viewDistance-zmax, viewDistance-zmin);
-        }
-        else {
-            double near = viewDistance-zmax;
-            if (near < 0.1)
-               near = 0.1;
-            double centerx = (xminActual + xmaxActual) / 2;
-            double centery = (yminActual + ymaxActual) / 2;
-            double newwidth = (near / viewDistance) * (xmaxActual - xminActual);
-            double newheight = (near / viewDistance) * (ymaxActual - yminActual);
-            double x1 = centerx - newwidth / 2;
-            double x2 = centerx + newwidth / 2;
-            double y1 = centery - newheight / 2;
-            double y2 = centery + newheight / 2;
-            gl.glFrustum(x1, x2, y1, y2, near, viewDistance-zmin);
-        }
-        gl.glMatrixMode(GL2.GL_MODELVIEW);
-        gl.glLoadIdentity();
-        glu.gluLookAt(eyex, eyey, eyez, refx, refy, refz, upx, upy, upz);
+      gl.glGetIntegerv(GL2.GL_VIEWPORT, viewport, 0);
+      setViewport(viewport[2], viewport[3]);
+      gl.glMatrixMode(GL2.GL_PROJECTION);
+      gl.glLoadMatrixd(projectionMatrix, 0);
+      gl.glMatrixMode(GL2.GL_MODELVIEW);
+      gl.glLoadMatrixd(viewMatrix, 0);
+   }
+
+   /**
+    * Bring the view and projection matrices up to date for a viewport of the given
+    * size, if the camera or the size has changed since they were last computed.  The
+    * apply() method calls this; a program that uses shaders can call it instead of
+    * apply(), before getting the matrices.  The actual xy-limits (see getActualXYLimits())
+    * are also computed here, and can be adjusted to match the aspect ratio of the viewport.
+    * Any rotation from the trackball since the previous frame is applied to the view
+    * first, so this should be called once, at the start of each frame.
+    */
+   public void setViewport(int width, int height) {
+      applyPendingRotation();
+      updateMatrices(width, height);
+   }
+
+   /**
+    * Returns true if the trackball keeps turning after the user releases the mouse.
+    */
+   public boolean getTrackballInertia() {
+      return inertia;
+   }
+
+   /**
+    * Determine whether the trackball keeps turning, and slows down gradually, if the
+    * user releases the mouse while dragging it.  The spin continues at the speed
+    * and around the axis of the last motion of the mouse.  While it is turning, the
+    * camera requests a repaint of the trackball component after each frame.  Pressing
+    * the mouse on the component stops it.  The default is false.
+    */
+   public void setTrackballInertia(boolean inertia) {
+      synchronized(inputLock) {
+         this.inertia = inertia;
+         if (!inertia)
+            spinning = false;
+      }
+   }
+
+   /**
+    * Tells the camera that a frame has been finished, for measuring input latency.
+    * A program that wants to measure the latency should call this at the end of its
+    * display method, after all drawing commands (and, for a true measure of the time
+    * until the image can be shown, after glFinish()).  If the frame included any
+    * input from the trackball, the time from the first mouse event that went into
+    * the frame until now is added to getInputLatency().
+    */
+   public void frameDisplayed() {
+      if (frameInputTime >= 0) {
+         inputLatency.record(System.nanoTime() - frameInputTime);
+         frameInputTime = -1;
+      }
+   }
+
+   /**
+    * Returns the measurements of the time from a trackball mouse event to the end of
+    * the frame that showed its effect.  These are recorded only if the program calls
+    * frameDisplayed() for each frame.
+    */
+   public LatencyProbe getInputLatency() {
+      return inputLatency;
+   }
+
+   /**
+    * Recompute the view and projection matrices if necessary, without applying input
+    * from the trackball.
+    */
+   private void updateMatrices(int width, int height) {
+      if (width != viewportWidth || height != viewportHeight) {
+         viewportWidth = width;
+         viewportHeight = height;
+         projectionChanged = true;
+      }
+      if (viewChanged)
+         computeViewMatrix();
+      if (projectionChanged)
+         computeProjectionMatrix();
+   }
+
+   /**
+    * Returns the matrix for the viewing transformation, the same matrix that
+    * gluLookAt would make from the parameters of lookAt(), as an array of 16
+    * numbers in column-major order.  The array belongs to the camera and is
+    * overwritten when the view changes; it must not be modified.
+    */
+   public float[] getViewMatrix() {
+      if (viewChanged)
+         computeViewMatrix();
+      return viewMatrixFloat;
+   }
+
+   /**
+    * Returns the matrix for the projection, as computed for the viewport size from the
+    * most recent call to apply() or setViewport(), as an array of 16 numbers in
+    * column-major order.  The array belongs to the camera and is overwritten when the
+    * projection changes; it must not be modified.
+    */
+   public float[] getProjectionMatrix() {
+      if (projectionChanged && viewportWidth > 0 && viewportHeight > 0)
+         updateMatrices(viewportWidth, viewportHeight);
+      return projectionMatrixFloat;
+   }
+
+   /**
+    * Returns a number that increases every time the view or projection matrix is
+    * recomputed.  A program can compare it with the value from the previous
+    * frame to find out whether the camera has changed, for example to decide
+    * whether data that depends on the view must be recomputed.
+    */
+   public long getChangeCount() {
+      return changeCount;
+   }
+
+   /**
+    * Returns the six planes that bound the view volume, in world coordinates (that is,
+    * the coordinates to which the view transformation is applied), for the view and
+    * projection from the most recent call to apply() or setViewport().  The array
+    * holds four numbers, a, b, c, and d, for each plane, in the order left, right,
+    * bottom, top, near, far.  (a,b,c) is a unit vector that points into the view
+    * volume, and a*x + b*y + c*z + d is the signed distance of the point (x,y,z) from
+    * the plane, which is positive on the inside.  The planes are taken from the
+    * product of the projection and view matrices, so they are correct for both
+    * perspective and orthographic projections.  They are recomputed only when the
+    * camera has changed.  The array belongs to the camera and must not be modified.
+    */
+   public double[] getFrustumPlanes() {
+      if ((viewChanged || projectionChanged) && viewportWidth > 0 && viewportHeight > 0)
+         updateMatrices(viewportWidth, viewportHeight);
+      else if (viewChanged)
+         computeViewMatrix();
+      if (frustumChangeCount != changeCount) {
+         double[] p = projectionMatrix, v = viewMatrix;
+         for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+               double sum = 0;
+               for (int k = 0; k < 4; k++)
+                  sum += p[4*k + row] * v[4*col + k];
+               clip[4*row + col] = sum;
+            }
+         }
+         for (int plane = 0; plane < 6; plane++) {
+            int row = plane / 2;
+            double sign = (plane % 2 == 0) ? 1 : -1;  // Add the row for left/bottom/near, subtract it for the others.
+            double a = clip[12] + sign*clip[4*row];
+            double b = clip[13] + sign*clip[4*row+1];
+            double c = clip[14] + sign*clip[4*row+2];
+            double d = clip[15] + sign*clip[4*row+3];
+            double length = Math.sqrt(a*a + b*b + c*c);
+            if (length > 0) {
+               a /= length;
+               b /= length;
+               c /= length;
+               d /= length;
+            }
+            frustumPlanes[4*plane] = a;
+            frustumPlanes[4*plane+1] = b;
+            frustumPlanes[4*plane+2] = c;
+            frustumPlanes[4*plane+3] = d;
+         }
+         frustumChangeCount = changeCount;
+      }
+      return frustumPlanes;
+   }
+
+   /**
+    * Tests whether any part of a sphere, given in world coordinates, can be inside the
+    * view volume.  The test is conservative:  A sphere for which this returns false
+    * is certainly invisible, but a sphere near a corner of the view volume can be
+    * outside it even though this returns true.
+    */
+   public boolean sphereInFrustum(double x, double y, double z, double radius) {
+      double[] planes = getFrustumPlanes();
+      for (int i = 0; i < 24; i += 4) {
+         if (planes[i]*x + planes[i+1]*y + planes[i+2]*z + planes[i+3] < -radius)
+            return false;
+      }
+      return true;
+   }
+
+   /**
+    * Tests whether any part of an axis-aligned box, given in world coordinates, can
+    * be inside the view volume.  Like sphereInFrustum(), the test is conservative.
+    */
+   public boolean boxInFrustum(double xmin, double ymin, double zmin, double xmax, double ymax, double zmax) {
+      double[] planes = getFrustumPlanes();
+      for (int i = 0; i < 24; i += 4) {  // Test the corner of the box that is farthest inside the plane.
+         double a = planes[i], b = planes[i+1], c = planes[i+2];
+         if (a*(a >= 0 ? xmax : xmin) + b*(b >= 0 ? ymax : ymin) + c*(c >= 0 ? zmax : zmin) + planes[i+3] < 0)
+            return false;
+      }
+      return true;
+   }
+
+   /**
+    * Tests a list of spheres against the view volume, as in sphereInFrustum().  The
+    * array spheres holds four numbers for each sphere:  x, y, and z for its center,
+    * then its radius.  The numbers of the spheres that can be visible, in increasing
+    * order, are stored in the array visible, which must have length at least count.
+    * @return the number of spheres that can be visible.
+    */
+   public int cullSpheres(float[] spheres, int count, int[] visible) {
+      double[] planes = getFrustumPlanes();
+      int visibleCount = 0;
+      for (int s = 0; s < count; s++) {
+         double x = spheres[4*s], y = spheres[4*s+1], z = spheres[4*s+2], r = -spheres[4*s+3];
+         if (planes[0]*x + planes[1]*y + planes[2]*z + planes[3] >= r
+               && planes[4]*x + planes[5]*y + planes[6]*z + planes[7] >= r
+               && planes[8]*x + planes[9]*y + planes[10]*z + planes[11] >= r
+               && planes[12]*x + planes[13]*y + planes[14]*z + planes[15] >= r
+               && planes[16]*x + planes[17]*y + planes[18]*z + planes[19] >= r
+               && planes[20]*x + planes[21]*y + planes[22]*z + planes[23] >= r)
+            visible[visibleCount++] = s;
+      }
+      return visibleCount;
+   }
+
+   /**
+    * Tests a list of axis-aligned boxes against the view volume, as in boxInFrustum().
+    * The array boxes holds six numbers for each box:  xmin, ymin, zmin, xmax, ymax, zmax.
+    * The numbers of the boxes that can be visible, in increasing order, are stored in
+    * the array visible, which must have length at least count.
+    * @return the number of boxes that can be visible.
+    */
+   public int cullBoxes(float[] boxes, int count, int[] visible) {
+      double[] planes = getFrustumPlanes();
+      int visibleCount = 0;
+      boxes:
+      for (int box = 0; box < count; box++) {
+         int j = 6*box;
+         for (int i = 0; i < 24; i += 4) {
+            double a = planes[i], b = planes[i+1], c = planes[i+2];
+            if (a*boxes[a >= 0 ? j+3 : j] + b*boxes[b >= 0 ? j+4 : j+1] + c*boxes[c >= 0 ? j+5 : j+2]
+                  + planes[i+3] < 0)
+               continue boxes;
+         }
+         visible[visibleCount++] = box;
+      }
+      return visibleCount;
+   }
+
+   private void computeViewMatrix() {
+      computeViewAxes();
+      double[] m = viewMatrix;
+      for (int i = 0; i < 3; i++) {
+         m[4*i] = xDirection[i];
+         m[4*i+1] = yDirection[i];
+         m[4*i+2] = zDirection[i];
+         m[4*i+3] = 0;
+      }
+      m[12] = -(xDirection[0]*eyex + xDirection[1]*eyey + xDirection[2]*eyez);
+      m[13] = -(yDirection[0]*eyex + yDirection[1]*eyey + yDirection[2]*eyez);
+      m[14] = -(zDirection[0]*eyex + zDirection[1]*eyey + zDirection[2]*eyez);
+      m[15] = 1;
+      for (int i = 0; i < 16; i++)
+         viewMatrixFloat[i] = (float)m[i];
+      viewChanged = false;
+      changeCount++;
+   }
+
+   private void computeProjectionMatrix() {
+      xminActual = xminRequested;
+      xmaxActual = xmaxRequested;
+      yminActual = yminRequested;
+      ymaxActual = ymaxRequested;
+      if (preserveAspect) {
+         double viewWidth = viewportWidth;
+         double viewHeight = viewportHeight;
+         double windowWidth = xmaxActual - xminActual;
+         double windowHeight = ymaxActual - yminActual;
+         double aspect = viewHeight / viewWidth;
+         double desired = windowHeight / windowWidth;
+         if (desired > aspect) { //expand width
+            double extra = (desired / aspect - 1.0) * (xmaxActual - xminActual) / 2.0;
+            xminActual -= extra;
+            xmaxActual += extra;
+         } else if (aspect > desired) {
+            double extra = (aspect / desired - 1.0) * (ymaxActual - yminActual) / 2.0;
+            yminActual -= extra; 
+            ymaxActual += extra;
+         }
+      }
+      double dx = refx - eyex, dy = refy - eyey, dz = refz - eyez;
+      double viewDistance = Math.sqrt(dx*dx + dy*dy + dz*dz);
+      double[] m = projectionMatrix;
+      java.util.Arrays.fill(m, 0);
+      if (orthographic) {  // The matrix made by glOrtho.
+         double l = xminActual, r = xmaxActual, b = yminActual, t = ymaxActual;
+         double n = viewDistance-zmax, f = viewDistance-zmin;
+         m[0] = 2 / (r - l);
+         m[5] = 2 / (t - b);
+         m[10] = -2 / (f - n);
+         m[12] = -(r + l) / (r - l);
+         m[13] = -(t + b) / (t - b);
+         m[14] = -(f + n) / (f - n);
+         m[15] = 1;
+      }
+      else {  // The matrix made by glFrustum.
+         double near = viewDistance-zmax;
+         if (near < 0.1)
+            near = 0.1;
+         double far = viewDistance-zmin;
+         double centerx = (xminActual + xmaxActual) / 2;
+         double centery = (yminActual + ymaxActual) / 2;
+         double newwidth = (near / viewDistance) * (xmaxActual - xminActual);
+         double newheight = (near / viewDistance) * (ymaxActual - yminActual);
+         double x1 = centerx - newwidth / 2;
+         double x2 = centerx + newwidth / 2;
+         double y1 = centery - newheight / 2;
+         double y2 = centery + newheight / 2;
+         m[0] = 2 * near / (x2 - x1);
+         m[5] = 2 * near / (y2 - y1);
+         m[8] = (x2 + x1) / (x2 - x1);
+         m[9] = (y2 + y1) / (y2 - y1);
+         m[10] = -(far + near) / (far - near);
+         m[11] = -1;
+         m[14] = -2 * far * near / (far - near);
+      }
+      for (int i = 0; i < 16; i++)
+         projectionMatrixFloat[i] = (float)m[i];
+      projectionChanged = false;
+      changeCount++;
+   }
+
+   /**
+    * Set xDirection, yDirection, and zDirection to the unit vectors that point to the
+    * right, up, and out of the screen, in world coordinates.  These are the rows of
+    * the rotation part of the view matrix.  (If the view up vector points along the
+    * line of sight, the directions are not well-defined; as in gluLookAt, vectors of
+    * length zero are not normalized.)
+    */
+   private void computeViewAxes() {
+      zDirection[0] = eyex - refx;
+      zDirection[1] = eyey - refy;
+      zDirection[2] = eyez - refz;
+      normalizeIfPossible(zDirection);
+      double proj = upx*zDirection[0] + upy*zDirection[1] + upz*zDirection[2];
+      yDirection[0] = upx - proj*zDirection[0];
+      yDirection[1] = upy - proj*zDirection[1];
+      yDirection[2] = upz - proj*zDirection[2];
+      normalizeIfPossible(yDirection);
+      xDirection[0] = yDirection[1]*zDirection[2] - yDirection[2]*zDirection[1];
+      xDirection[1] = yDirection[2]*zDirection[0] - yDirection[0]*zDirection[2];
+      xDirection[2] = yDirection[0]*zDirection[1] - yDirection[1]*zDirection[0];
+   }
+
+   private static void normalizeIfPossible(double[] v) {
+      double length = Math.sqrt(v[0]*v[0] + v[1]*v[1] + v[2]*v[2]);
+      if (length > 0) {
+         v[0] /= length;
+         v[1] /= length;
+         v[2] /= length;
+      }
    }
    
    /**
@@ -247,65 +656,160 @@ public class Camera {
         v[2] /= norm;
     }
 
-    private void applyTransvection(double[] e1, double[] e2) {
-        // rotate vector e1 onto e2; must be 3D *UNIT* vectors.
-        double[] zDirection = new double[] {eyex - refx, eyey - refy, eyez - refz};
-        double viewDistance = norm(zDirection);
-        normalize(zDirection);
-        double[] yDirection = new double[] {upx, upy, upz};
-        double upLength = norm(yDirection);
-        double proj = yDirection[0]*zDirection[0] + yDirection[1]*zDirection[1] + yDirection[2]*zDirection[2];
-        yDirection[0] = yDirection[0] - proj*zDirection[0];
-        yDirection[1] = yDirection[1] - proj*zDirection[1];
-        yDirection[2] = yDirection[2] - proj*zDirection[2];
-        normalize(yDirection);
-        double[] xDirection = new double[] {yDirection[1]*zDirection[2] - yDirection[2]*zDirection[1],
-                yDirection[2]*zDirection[0] - yDirection[0]*zDirection[2],
-                yDirection[0]*zDirection[1] - yDirection[1]*zDirection[0] };
-       e1 = transformToViewCoords(e1, xDirection, yDirection, zDirection);
-       e2 = transformToViewCoords(e2, xDirection, yDirection, zDirection);
-        double[] e = new double[]{e1[0] + e2[0], e1[1] + e2[1], e1[2] + e2[2]};
-        normalize(e);
-        double[] temp = new double[3];
-        reflectInAxis(e, zDirection, temp);
-        reflectInAxis(e1, temp, zDirection);
-        reflectInAxis(e, xDirection, temp);
-        reflectInAxis(e1, temp, xDirection);
-        reflectInAxis(e, yDirection, temp);
-        reflectInAxis(e1, temp, yDirection);
-        eyex = refx + viewDistance * zDirection[0];
-        eyey = refy + viewDistance * zDirection[1];
-        eyez = refz + viewDistance * zDirection[2];
-        upx = upLength * yDirection[0];
-        upy = upLength * yDirection[1];
-        upz = upLength * yDirection[2];
+    /**
+     * Add the rotation that moves the trackball point ray2 to ray1 (that is, the
+     * rotation of the view when the user drags from ray1 to ray2) to the pending
+     * rotation.  The rays are unit vectors in view coordinates.  The rotation is
+     * expressed in view coordinates, and it is composed on the right, since each
+     * mouse event is relative to the view as it is after the preceding events.
+     * If the trackball has inertia, this also updates the spin axis and speed.
+     * Returns true if a repaint is needed to show the new rotation.
+     */
+    private boolean addTrackballRotation(double[] ray1, double[] ray2, long time) {
+        double w = 1 + ray1[0]*ray2[0] + ray1[1]*ray2[1] + ray1[2]*ray2[2];
+        double x = ray2[1]*ray1[2] - ray2[2]*ray1[1];
+        double y = ray2[2]*ray1[0] - ray2[0]*ray1[2];
+        double z = ray2[0]*ray1[1] - ray2[1]*ray1[0];
+        double length = Math.sqrt(w*w + x*x + y*y + z*z);
+        if (length < 1e-12)
+            return false;  // Opposite rays; the rotation is not defined, and can't come from one mouse motion.
+        w /= length;
+        x /= length;
+        y /= length;
+        z /= length;
+        synchronized(inputLock) {
+            double pw = pendingW, px = pendingX, py = pendingY, pz = pendingZ;
+            pendingW = pw*w - px*x - py*y - pz*z;
+            pendingX = pw*x + px*w + py*z - pz*y;
+            pendingY = pw*y - px*z + py*w + pz*x;
+            pendingZ = pw*z + px*y - py*x + pz*w;
+            length = Math.sqrt(pendingW*pendingW + pendingX*pendingX + pendingY*pendingY + pendingZ*pendingZ);
+            pendingW /= length;
+            pendingX /= length;
+            pendingY /= length;
+            pendingZ /= length;
+            if (pendingInputTime < 0)
+                pendingInputTime = time;
+            if (inertia) {
+                double sin = Math.sqrt(x*x + y*y + z*z);
+                double dt = (time - spinTime) / 1e9;
+                if (sin > 1e-9 && dt > 0) {
+                    double speed = 2 * Math.atan2(sin, w) / Math.min(dt, 0.1);
+                    spinSpeed = 0.5*spinSpeed + 0.5*speed;  // Smooth out the irregular timing of mouse events.
+                    spinAxisX = x / sin;
+                    spinAxisY = y / sin;
+                    spinAxisZ = z / sin;
+                }
+            }
+            spinTime = time;
+            if (repaintRequested && time - repaintRequestTime < REPAINT_TIMEOUT)
+                return false;
+            repaintRequested = true;
+            repaintRequestTime = time;
+            return true;
+        }
     }
 
-    private void reflectInAxis(double[] axis, double[] source, double[] destination) {
-        double s = 2 * (axis[0] * source[0] + axis[1] * source[1] + axis[2] * source[2]);
-        destination[0] = s * axis[0] - source[0];
-        destination[1] = s * axis[1] - source[1];
-        destination[2] = s * axis[2] - source[2];
+    /**
+     * Apply the pending rotation from the trackball, and the next step of the spin
+     * if the trackball is spinning, to the view.  The eye is rotated around the
+     * view center, keeping its distance, and the up vector is rotated, keeping
+     * its length.  Does nothing, and does not mark the view as changed, if
+     * there is no rotation.
+     */
+    private void applyPendingRotation() {
+        double w, x, y, z;
+        boolean spin;
+        synchronized(inputLock) {
+            if (spinning) {
+                long now = System.nanoTime();
+                double dt = Math.min((now - spinTime) / 1e9, 0.1);
+                spinTime = now;
+                double half = 0.5 * spinSpeed * dt;
+                double sin = Math.sin(half), cos = Math.cos(half);
+                double sx = sin*spinAxisX, sy = sin*spinAxisY, sz = sin*spinAxisZ;
+                double pw = pendingW, px = pendingX, py = pendingY, pz = pendingZ;
+                pendingW = pw*cos - px*sx - py*sy - pz*sz;
+                pendingX = pw*sx + px*cos + py*sz - pz*sy;
+                pendingY = pw*sy - px*sz + py*cos + pz*sx;
+                pendingZ = pw*sz + px*sy - py*sx + pz*cos;
+                spinSpeed *= Math.exp(-SPIN_DAMPING * dt);
+                if (spinSpeed < MIN_SPIN_SPEED)
+                    spinning = false;
+            }
+            spin = spinning;
+            w = pendingW;
+            x = pendingX;
+            y = pendingY;
+            z = pendingZ;
+            pendingW = 1;
+            pendingX = pendingY = pendingZ = 0;
+            if (pendingInputTime >= 0) {
+                if (frameInputTime < 0)
+                    frameInputTime = pendingInputTime;
+                pendingInputTime = -1;
+            }
+            repaintRequested = false;
+        }
+        if (spin && trackballComponent != null)
+            trackballComponent.repaint();
+        if (x == 0 && y == 0 && z == 0)
+            return;
+        double dx = eyex - refx, dy = eyey - refy, dz = eyez - refz;
+        double viewDistance = Math.sqrt(dx*dx + dy*dy + dz*dz);
+        double upLength = Math.sqrt(upx*upx + upy*upy + upz*upz);
+        if (viewDistance == 0 || upLength == 0 || Double.isNaN(viewDistance + upLength)
+                    || Double.isInfinite(viewDistance + upLength))
+            throw new NumberFormatException("Vector length zero, undefined, or infinite.");
+        computeViewAxes();
+        // The new y and z axes are the old axes combined using columns 1 and 2 of the
+        // rotation matrix for the quaternion.
+        double r01 = 2*(x*y - w*z), r11 = 1 - 2*(x*x + z*z), r21 = 2*(y*z + w*x);
+        double r02 = 2*(x*z + w*y), r12 = 2*(y*z - w*x), r22 = 1 - 2*(x*x + y*y);
+        double[] xd = xDirection, yd = yDirection, zd = zDirection;
+        eyex = refx + viewDistance * (xd[0]*r02 + yd[0]*r12 + zd[0]*r22);
+        eyey = refy + viewDistance * (xd[1]*r02 + yd[1]*r12 + zd[1]*r22);
+        eyez = refz + viewDistance * (xd[2]*r02 + yd[2]*r12 + zd[2]*r22);
+        upx = upLength * (xd[0]*r01 + yd[0]*r11 + zd[0]*r21);
+        upy = upLength * (xd[1]*r01 + yd[1]*r11 + zd[1]*r21);
+        upz = upLength * (xd[2]*r01 + yd[2]*r11 + zd[2]*r21);
+        viewChanged = true;
     }
-    
-    private double[] transformToViewCoords(double[] v, double[] x, double[] y, double[] z) {
-       double[] w = new double[3];
-       w[0] = v[0]*x[0] + v[1]*y[0] + v[2]*z[0];
-       w[1] = v[0]*x[1] + v[1]*y[1] + v[2]*z[1];
-       w[2] = v[0]*x[2] + v[1]*y[2] + v[2]*z[2];
-       return w;
+
+    /**
+     * Called when the mouse is pressed or released on the trackball component.  Pressing
+     * it stops any spin.  Releasing it starts a spin, if the trackball has inertia and
+     * the mouse was still moving just before it was released.
+     */
+    private void setSpinning(boolean released, long time) {
+        boolean repaint = false;
+        synchronized(inputLock) {
+            spinning = released && inertia && time - spinTime < MAX_RELEASE_DELAY && spinSpeed >= MIN_SPIN_SPEED;
+            if (spinning) {
+                spinTime = time;
+                repaint = !repaintRequested;
+                repaintRequested = true;
+                repaintRequestTime = time;
+            }
+            else if (!released)
+                spinSpeed = 0;
+        }
+        if (repaint && trackballComponent != null)
+            trackballComponent.repaint();
     }
     
     private class TrackballMouser implements MouseListener, MouseMotionListener {
 
         private boolean dragging;
-        private double[] prevRay;
+        private double[] prevRay = new double[3];
+        private double[] thisRay = new double[3];
         
         public void mousePressed(MouseEvent e) {
            if (dragging)
               return;
            dragging = true;
-           prevRay = mousePointToRay(e.getX(), e.getY());
+           setSpinning(false, System.nanoTime());
+           mousePointToRay(e.getX(), e.getY(), prevRay);
            trackballComponent.addMouseMotionListener(this);
         }
 
@@ -314,18 +818,22 @@ public class Camera {
               return;
            dragging = false;
            trackballComponent.removeMouseMotionListener(this);
+           setSpinning(true, System.nanoTime());
         }
 
         public void mouseDragged(MouseEvent e) {
            if (!dragging)
               return;
-           double[] thisRay = mousePointToRay(e.getX(), e.getY());
-           applyTransvection(prevRay, thisRay);
+           mousePointToRay(e.getX(), e.getY(), thisRay);
+           boolean repaint = addTrackballRotation(prevRay, thisRay, System.nanoTime());
+           double[] swap = prevRay;
            prevRay = thisRay;
-           trackballComponent.repaint();
+           thisRay = swap;
+           if (repaint)
+              trackballComponent.repaint();
         }
         
-        private double[] mousePointToRay(int x, int y) {
+        private void mousePointToRay(int x, int y, double[] ray) {
            double dx, dy, dz, norm;
            int centerX = trackballComponent.getWidth()/2;
            int centerY = trackballComponent.getHeight()/2;
@@ -338,7 +846,9 @@ public class Camera {
            else
               dz = Math.sqrt( scale*scale - dx*dx -dy*dy );
            double length = Math.sqrt(dx*dx + dy*dy + dz*dz);
-           return new double[] { dx/length, dy/length, dz/length };
+           ray[0] = dx/length;
+           ray[1] = dy/length;
+           ray[2] = dz/length;
         }
 
         public void mouseClicked(MouseEvent e) { }
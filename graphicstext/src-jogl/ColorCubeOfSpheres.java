@@ -9,17 +9,38 @@ import com.jogamp.opengl.awt.GLJPanel;
 
 import com.jogamp.opengl.util.GLBuffers;
 
+import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 
 
 
 /**
  * A Jogl/OpenGL application that an 11-by-11-by-11 cube of
- * spheres in different colors.  Five rendering methods are 
- * available, selected using a popup menu.  The rendering time
- * to draw the scene is shown.  Use the mouse to rotate
+ * spheres in different colors.  Seven rendering methods are 
+ * available, selected using a popup menu.  The first five draw
+ * the spheres one at a time, with a translation and a color for each
+ * sphere.  The last two draw all the spheres with one drawing command:
+ * "Merged VBO" uses one big VBO that holds all the spheres, already
+ * translated to their positions, with a color for each vertex, and
+ * "Instanced Drawing" draws one sphere many times with
+ * glDrawElementsInstanced, taking the position and color of each copy
+ * from a second VBO (this requires OpenGL 3.3, or 3.1 with the
+ * ARB_instanced_arrays extension).  The time to draw the
+ * spheres is measured by a FrameTimer, which records the CPU time to
+ * submit the commands and, when timer queries are supported, the GPU
+ * time to execute them.  The median, 95th, and 99th percentiles of the
+ * times since the render mode or culling option was last changed are
+ * shown, and the "Save Times" button saves the times for individual
+ * frames in a CSV file.  Use the mouse to rotate
  * the scene and force a redraw.  (You can also force a redraw
- * by resizing the window.)  This program requires OpenGL 1.5
+ * by resizing the window.)  The mouse wheel zooms the view.  When
+ * "Cull Off-Screen Spheres" is checked, spheres that are entirely
+ * outside the view volume are not drawn; they are found by testing
+ * the bounding spheres against the camera's frustum (see
+ * Camera.cullSpheres()).  While the scene is being rotated, the
+ * median time from a mouse event to the end of the frame that shows
+ * it is also shown (see Camera.frameDisplayed()).  This program requires OpenGL 1.5
  * or higher for support of vertex buffer objects.
  */
 public class ColorCubeOfSpheres extends JPanel implements GLEventListener, ActionListener {
@@ -46,20 +67,41 @@ public class ColorCubeOfSpheres extends JPanel implements GLEventListener, Actio
 	private int vertexVboId;   // identifier for the Vertex Buffer Object to hold the vertex coords
 	private int normalVboId;   // identifier for the Vertex Buffer Object to hold the normla vectors
 
+	private static final int SLICES = 32, STACKS = 16;  // Subdivisions of the spheres for render modes 5 and 6.
+	private static final int SPHERE_VERTEX_COUNT = (SLICES+1)*(STACKS+1);  // Vertices in one indexed sphere.
+	private static final int SPHERE_INDEX_COUNT = SLICES*STACKS*6;         // Indices for its triangles.
+	private static final int INSTANCE_OFFSET = 3, INSTANCE_COLOR = 4;      // Attribute locations for mode 6.
+
+	private int mergedVboId;        // All the spheres, pre-transformed, with position, normal, and color, for mode 5.
+	private int mergedIndexVboId;   // Triangle indices for the merged spheres; sphere s uses a block of SPHERE_INDEX_COUNT.
+	private int templateVboId;      // Positions and normals for one sphere, for mode 6.
+	private int templateIndexVboId; // Triangle indices for that sphere.
+	private int instanceVboId;      // Offset and color for each sphere that is drawn, for mode 6.
+	private FloatBuffer instanceBuffer;  // Data for instanceVboId, refilled each frame for the visible spheres.
+	private int instanceProgram;    // The shader program for mode 6, or 0 if instanced drawing is not supported.
+
 	private JComboBox<String> renderModeSelect; // For selecting the type of rendering
 
-	private JLabel message;  // Displays the elapsed time in milliseconds for the most
-	                          // recent rendering of the display.
+	private JLabel message;  // Displays the distribution of rendering times, in milliseconds,
+	                          // for the current render mode.
+	private Timer messageTimer;  // Updates the message twice a second while the panel is showing.
+	private volatile int spheresDrawn;  // The number of spheres drawn in the most recent frame.
+
+	private final FrameTimer frameTimer = new FrameTimer();  // Measures the time to draw the spheres.
+
+	private JCheckBox cullSpheres;  // If checked, spheres outside the view volume are not drawn.
+	private double zoom = 10;       // Half the width of the view, changed by the mouse wheel.
+
+	private final float[] sphereBounds = new float[4*11*11*11];  // Center and radius of each sphere.
+	private final int[] visibleSpheres = new int[11*11*11];      // Numbers of the spheres to draw.
 	
-	private int currentRenderMode;  // Which of the five render modes is selected.
-	private int renderCount;  // Number of time image has been rendered using current render technique.
-	private double renderTimeSum;  // Sum of the rendering times (since the current technique was selected).
+	private int currentRenderMode;  // Which of the seven render modes is selected.
 
 	/**
 	 * Make a regular JPanel to hold the GLJPanel,  Add a small panel at the
-	 * bottom to hold a check box that determines whether a display list is used
-	 * for rendering and a label that displays the rendering time of the most
-	 * recent display of the GLJPanel.  The user can rotate the view with the
+	 * bottom to hold a menu that selects the rendering method, a check box for
+	 * culling, a button for saving the frame times, and a label that displays the
+	 * distribution of rendering times for the current method.  The user can rotate the view with the
 	 * mouse.
 	 */
 	public ColorCubeOfSpheres() {
@@ -69,14 +111,25 @@ public class ColorCubeOfSpheres extends JPanel implements GLEventListener, Actio
 		renderModeSelect.addItem("Use Display List");
 		renderModeSelect.addItem("Use DrawArrays");
 		renderModeSelect.addItem("Use DrawArrays with VBOs");
+		renderModeSelect.addItem("Merged VBO, One Draw Call");
+		renderModeSelect.addItem("Instanced Drawing");
 		renderModeSelect.setSelectedIndex(2);
 		renderModeSelect.addActionListener(this);
 		currentRenderMode = 2;
-		message = new JLabel("Average Render time:");
+		message = new JLabel("Render time:");
+		messageTimer = new Timer(500, evt -> updateMessage());
+		cullSpheres = new JCheckBox("Cull Off-Screen Spheres", true);
+		cullSpheres.addActionListener(this);
+		JButton saveTimes = new JButton("Save Times...");
+		saveTimes.addActionListener( evt -> frameTimer.saveCSV(this) );
+		JPanel options = new JPanel();
+		options.add(cullSpheres);
+		options.add(saveTimes);
 		JPanel bottom = new JPanel();
-		bottom.setLayout(new BorderLayout(20,20));
+		bottom.setLayout(new BorderLayout(20,5));
 		bottom.add(renderModeSelect, BorderLayout.WEST);
-		bottom.add(message, BorderLayout.CENTER);
+		bottom.add(options, BorderLayout.EAST);
+		bottom.add(message, BorderLayout.SOUTH);
 		bottom.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
 		GLJPanel drawable = new GLJPanel();
 		drawable.setPreferredSize(new Dimension(600,600));
@@ -87,9 +140,54 @@ public class ColorCubeOfSpheres extends JPanel implements GLEventListener, Actio
 		camera = new Camera();
 		camera.setLimits(-10,10,-10,10,-10,10);
 		camera.installTrackball(this);
+		addMouseWheelListener( evt -> {
+			zoom *= Math.pow(1.1, evt.getPreciseWheelRotation());
+			zoom = Math.max(0.5, Math.min(20, zoom));
+			camera.setLimits(-zoom,zoom,-zoom,zoom,-10,10);
+			repaint();
+		});
+		for (int s = 0; s < visibleSpheres.length; s++) {  // Sphere s is at (i-5,j-5,k-5), with s = 121*i + 11*j + k.
+			sphereBounds[4*s] = s/121 - 5;
+			sphereBounds[4*s+1] = (s/11) % 11 - 5;
+			sphereBounds[4*s+2] = s % 11 - 5;
+			sphereBounds[4*s+3] = 0.4f;
+		}
 	}
 	
+	/**
+	 * Start updating the message when the panel is added to a window.
+	 */
+	public void addNotify() {
+		super.addNotify();
+		messageTimer.start();
+	}
+
+	/**
+	 * Stop updating the message when the panel is removed from its window.
+	 */
+	public void removeNotify() {
+		messageTimer.stop();
+		super.removeNotify();
+	}
+
+	/**
+	 * Show the distribution of rendering times, the number of spheres drawn, and
+	 * the input latency in the message label.  This is called by messageTimer,
+	 * rather than in every frame, since computing the distribution takes time.
+	 */
+	private void updateMessage() {
+		String text = String.format("%s;  Spheres drawn: %d", frameTimer.getSummary(), spheresDrawn);
+		if (currentRenderMode == 6 && instanceProgram == 0)
+			text = "Instanced drawing is not supported by this OpenGL";
+		if (camera.getInputLatency().getCount() > 0)
+			text += String.format(";  Input latency: %1.1f ms", camera.getInputLatency().getPercentileMillis(50));
+		message.setText(text);
+	}
+
 	public void actionPerformed(ActionEvent evt) {
+		if (evt.getSource() == cullSpheres) {
+			frameTimer.reset();  // Start over, since the amount of work has changed.
+		}
 		repaint();
 	}
 
@@ -117,6 +215,12 @@ public class ColorCubeOfSpheres extends JPanel implements GLEventListener, Actio
 		/* Create the data for glDrawArrays, for render modes 2 and 3
 		 */
 		createSphereArraysAndVBOs(gl);
+		
+		/* Create the merged VBO for render mode 5 and the sphere and
+		 * instance VBOs and shader program for render mode 6.
+		 */
+		createMergedAndInstanceVBOs(gl);
+		instanceProgram = createInstanceProgram(gl);
 	}
 
 	/**
@@ -130,11 +234,10 @@ public class ColorCubeOfSpheres extends JPanel implements GLEventListener, Actio
 		camera.apply(gl);
 		int mode = renderModeSelect.getSelectedIndex();
 		if (mode != currentRenderMode) {
-			currentRenderMode = mode;  // Change mode, and reset timing variables.
-			renderCount = 0;
-			renderTimeSum = 0;
+			currentRenderMode = mode;  // Change mode, and discard the times for the old mode.
+			frameTimer.reset();
 		}
-		long start = System.currentTimeMillis();  // Starting time for rendering.
+		frameTimer.begin(gl);  // Start timing the rendering.
 		if (mode == 4 || mode == 3) {
 			    // We need to enable the vertex and normal arrays, and set
 			    // the vertex and normal points for these modes.
@@ -155,38 +258,43 @@ public class ColorCubeOfSpheres extends JPanel implements GLEventListener, Actio
 				gl.glNormalPointer(GL.GL_FLOAT,0,sphereNormalBuffer);
 			}
 		}
-		for (int i = 0; i <= 10; i++) {
-			float r = i/10.0f;
-			for (int j = 0; j <= 10; j++) {
-				float g = j/10.0f;
-				for (int k = 0; k <= 10; k++) {
-					float b = k/10.0f;
-					gl.glColor3f(r,g,b);
-					gl.glPushMatrix();
-					gl.glTranslatef(i-5,j-5,k-5);
-					if (mode == 0)
-						uvSphere(gl, 0.4, 32, 16, false);  // Draw sphere directly.
-					else if (mode == 1)
-						drawSphereDirectWithDataFromArrays(gl);
-					else if (mode == 2)
-						gl.glCallList(sphereDisplayList);  // Draw by calling a display list.
-					else
-						drawSphereWithDrawArrays(gl);  // Draw using DrawArrays
-					gl.glPopMatrix();
-				}
-			}
+		int sphereCount;
+		if (cullSpheres.isSelected())
+			sphereCount = camera.cullSpheres(sphereBounds, visibleSpheres.length, visibleSpheres);
+		else {
+			sphereCount = visibleSpheres.length;
+			for (int s = 0; s < sphereCount; s++)
+				visibleSpheres[s] = s;
+		}
+		if (mode == 5)
+			drawMergedSpheres(gl, sphereCount);
+		else if (mode == 6 && instanceProgram != 0)
+			drawInstancedSpheres(gl, sphereCount);
+		for (int n = 0; n < sphereCount && mode < 5; n++) {
+			int s = visibleSpheres[n];
+			int i = s/121, j = (s/11) % 11, k = s % 11;
+			gl.glColor3f(i/10.0f, j/10.0f, k/10.0f);
+			gl.glPushMatrix();
+			gl.glTranslatef(i-5,j-5,k-5);
+			if (mode == 0)
+				uvSphere(gl, 0.4, 32, 16, false);  // Draw sphere directly.
+			else if (mode == 1)
+				drawSphereDirectWithDataFromArrays(gl);
+			else if (mode == 2)
+				gl.glCallList(sphereDisplayList);  // Draw by calling a display list.
+			else
+				drawSphereWithDrawArrays(gl);  // Draw using DrawArrays
+			gl.glPopMatrix();
 		}
 		if (mode == 4 || mode == 3) {
 			gl.glDisableClientState(GL2.GL_VERTEX_ARRAY);
 			gl.glDisableClientState(GL2.GL_NORMAL_ARRAY);
 		}
 		gl.glFlush();  // Make sure all commands are sent to graphics card.
-		gl.glFinish(); // Wait for all commands to complete, before checking time.
-		long time = System.currentTimeMillis() - start;
-		renderCount++;
-		renderTimeSum += time;
-		String text = String.format("Average Render Time = %1.2f", renderTimeSum/renderCount);
-		message.setText(text);
+		frameTimer.end(gl);
+		gl.glFinish(); // Wait for all commands to complete, to measure the input latency.
+		camera.frameDisplayed();
+		spheresDrawn = sphereCount;
 	}
 
 
@@ -195,6 +303,7 @@ public class ColorCubeOfSpheres extends JPanel implements GLEventListener, Actio
 	}
 
 	public void dispose(GLAutoDrawable drawable) {
+		frameTimer.dispose(drawable.getGL().getGL2());
 	}
 	
 	//----------------- for glDrawArrays and Vertex Buffer Object ----------------------------------
@@ -264,6 +373,248 @@ public class ColorCubeOfSpheres extends JPanel implements GLEventListener, Actio
         gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
 	}
 
+	/**
+	 * Creates the VBOs for render modes 5 and 6.  Both use an indexed sphere, in which
+	 * the vertices where the quad strips of the other modes meet are shared, and
+	 * the quads are split into triangles, so that any number of spheres can be drawn
+	 * with one call to glDrawElements.  For mode 5, a copy of the sphere is made for
+	 * each of the 1331 spheres, translated to the position of that sphere, with its
+	 * color (as unsigned bytes) in every vertex.  For mode 6, there is just one
+	 * copy of the sphere, and a VBO with room for an offset and a color for every
+	 * sphere.
+	 */
+	private void createMergedAndInstanceVBOs(GL2 gl) {
+		float[] sphere = new float[6*SPHERE_VERTEX_COUNT];  // Position and normal of each vertex.
+		int[] indices = new int[SPHERE_INDEX_COUNT];
+		for (int j = 0; j <= STACKS; j++) {
+			double latitude = (Math.PI/STACKS) * j - Math.PI/2;
+			for (int i = 0; i <= SLICES; i++) {
+				double longitude = (2*Math.PI/SLICES) * i;
+				double x = Math.cos(longitude) * Math.cos(latitude);
+				double y = Math.sin(longitude) * Math.cos(latitude);
+				double z = Math.sin(latitude);
+				int v = 6*(j*(SLICES+1) + i);
+				sphere[v] = (float)(0.4*x);
+				sphere[v+1] = (float)(0.4*y);
+				sphere[v+2] = (float)(0.4*z);
+				sphere[v+3] = (float)x;
+				sphere[v+4] = (float)y;
+				sphere[v+5] = (float)z;
+			}
+		}
+		int k = 0;
+		for (int j = 0; j < STACKS; j++) {
+			for (int i = 0; i < SLICES; i++) {  // Two triangles for the quad between rows j and j+1.
+				int lower = j*(SLICES+1) + i;
+				int upper = lower + SLICES + 1;
+				indices[k++] = upper;
+				indices[k++] = lower;
+				indices[k++] = lower + 1;
+				indices[k++] = upper;
+				indices[k++] = lower + 1;
+				indices[k++] = upper + 1;
+			}
+		}
+		int sphereCount = visibleSpheres.length;
+		ByteBuffer merged = GLBuffers.newDirectByteBuffer(28*SPHERE_VERTEX_COUNT*sphereCount);
+		IntBuffer mergedIndices = GLBuffers.newDirectIntBuffer(SPHERE_INDEX_COUNT*sphereCount);
+		for (int s = 0; s < sphereCount; s++) {
+			int i = s/121, j = (s/11) % 11;
+			k = s % 11;
+			for (int v = 0; v < 6*SPHERE_VERTEX_COUNT; v += 6) {
+				merged.putFloat(sphere[v] + i - 5);
+				merged.putFloat(sphere[v+1] + j - 5);
+				merged.putFloat(sphere[v+2] + k - 5);
+				merged.putFloat(sphere[v+3]);
+				merged.putFloat(sphere[v+4]);
+				merged.putFloat(sphere[v+5]);
+				merged.put((byte)Math.round(i*25.5));
+				merged.put((byte)Math.round(j*25.5));
+				merged.put((byte)Math.round(k*25.5));
+				merged.put((byte)255);
+			}
+			for (int index : indices)
+				mergedIndices.put(index + s*SPHERE_VERTEX_COUNT);
+		}
+		merged.flip();
+		mergedIndices.flip();
+		instanceBuffer = GLBuffers.newDirectFloatBuffer(6*sphereCount);
+		int[] bufferIDs = new int[5];
+		gl.glGenBuffers(5, bufferIDs, 0);
+		mergedVboId = bufferIDs[0];
+		mergedIndexVboId = bufferIDs[1];
+		templateVboId = bufferIDs[2];
+		templateIndexVboId = bufferIDs[3];
+		instanceVboId = bufferIDs[4];
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, mergedVboId);
+		gl.glBufferData(GL.GL_ARRAY_BUFFER, merged.limit(), merged, GL.GL_STATIC_DRAW);
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, templateVboId);
+		gl.glBufferData(GL.GL_ARRAY_BUFFER, 4L*sphere.length, GLBuffers.newDirectFloatBuffer(sphere), GL.GL_STATIC_DRAW);
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, instanceVboId);
+		gl.glBufferData(GL.GL_ARRAY_BUFFER, 4L*instanceBuffer.capacity(), null, GL.GL_DYNAMIC_DRAW);
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+		gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, mergedIndexVboId);
+		gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, 4L*mergedIndices.limit(), mergedIndices, GL.GL_STATIC_DRAW);
+		gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, templateIndexVboId);
+		gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, 4L*indices.length, GLBuffers.newDirectIntBuffer(indices), GL.GL_STATIC_DRAW);
+		gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+	}
+
+	/**
+	 * Draw the spheres listed in visibleSpheres from the merged VBO (render mode 5).
+	 * Since the spheres are stored in order in the VBO and visibleSpheres is in
+	 * increasing order, each run of consecutive spheres in the list can be drawn
+	 * with one call to glDrawElements.  When no spheres are culled, that is one
+	 * call for the whole scene.
+	 */
+	private void drawMergedSpheres(GL2 gl, int sphereCount) {
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, mergedVboId);
+		gl.glVertexPointer(3, GL.GL_FLOAT, 28, 0);
+		gl.glNormalPointer(GL.GL_FLOAT, 28, 12);
+		gl.glColorPointer(4, GL.GL_UNSIGNED_BYTE, 28, 24);
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+		gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+		gl.glEnableClientState(GL2.GL_NORMAL_ARRAY);
+		gl.glEnableClientState(GL2.GL_COLOR_ARRAY);
+		gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, mergedIndexVboId);
+		int n = 0;
+		while (n < sphereCount) {
+			int first = visibleSpheres[n];
+			int end = n + 1;
+			while (end < sphereCount && visibleSpheres[end] == first + (end - n))
+				end++;
+			gl.glDrawElements(GL.GL_TRIANGLES, (end - n)*SPHERE_INDEX_COUNT, GL.GL_UNSIGNED_INT,
+					4L*first*SPHERE_INDEX_COUNT);
+			n = end;
+		}
+		gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+		gl.glDisableClientState(GL2.GL_VERTEX_ARRAY);
+		gl.glDisableClientState(GL2.GL_NORMAL_ARRAY);
+		gl.glDisableClientState(GL2.GL_COLOR_ARRAY);
+	}
+
+	/**
+	 * Draw the spheres listed in visibleSpheres with one call to glDrawElementsInstanced
+	 * (render mode 6).  The offset and color of each sphere are copied into the
+	 * instance VBO, which is at most 32 kilobytes, and are read by the shader
+	 * program from attributes that advance once per instance instead of once per vertex.
+	 */
+	private void drawInstancedSpheres(GL2 gl, int sphereCount) {
+		if (sphereCount == 0)
+			return;
+		instanceBuffer.clear();
+		for (int n = 0; n < sphereCount; n++) {
+			int s = visibleSpheres[n];
+			int i = s/121, j = (s/11) % 11, k = s % 11;
+			instanceBuffer.put(i-5).put(j-5).put(k-5);
+			instanceBuffer.put(i/10.0f).put(j/10.0f).put(k/10.0f);
+		}
+		instanceBuffer.flip();
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, instanceVboId);
+		gl.glBufferSubData(GL.GL_ARRAY_BUFFER, 0, 4L*instanceBuffer.limit(), instanceBuffer);
+		gl.glVertexAttribPointer(INSTANCE_OFFSET, 3, GL.GL_FLOAT, false, 24, 0);
+		gl.glVertexAttribPointer(INSTANCE_COLOR, 3, GL.GL_FLOAT, false, 24, 12);
+		gl.glVertexAttribDivisor(INSTANCE_OFFSET, 1);
+		gl.glVertexAttribDivisor(INSTANCE_COLOR, 1);
+		gl.glEnableVertexAttribArray(INSTANCE_OFFSET);
+		gl.glEnableVertexAttribArray(INSTANCE_COLOR);
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, templateVboId);
+		gl.glVertexPointer(3, GL.GL_FLOAT, 24, 0);
+		gl.glNormalPointer(GL.GL_FLOAT, 24, 12);
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+		gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+		gl.glEnableClientState(GL2.GL_NORMAL_ARRAY);
+		gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, templateIndexVboId);
+		gl.glUseProgram(instanceProgram);
+		gl.glDrawElementsInstanced(GL.GL_TRIANGLES, SPHERE_INDEX_COUNT, GL.GL_UNSIGNED_INT, 0, sphereCount);
+		gl.glUseProgram(0);
+		gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+		gl.glDisableClientState(GL2.GL_VERTEX_ARRAY);
+		gl.glDisableClientState(GL2.GL_NORMAL_ARRAY);
+		gl.glVertexAttribDivisor(INSTANCE_OFFSET, 0);
+		gl.glVertexAttribDivisor(INSTANCE_COLOR, 0);
+		gl.glDisableVertexAttribArray(INSTANCE_OFFSET);
+		gl.glDisableVertexAttribArray(INSTANCE_COLOR);
+	}
+
+	/**
+	 * The vertex shader for render mode 6.  It adds the offset of the instance to the
+	 * vertex coordinates, and it computes the same lighting as the fixed-function
+	 * pipeline does for the other modes:  the default directional light, GL_LIGHT0,
+	 * and the instance color as ambient and diffuse color (as for GL_COLOR_MATERIAL).
+	 */
+	private static final String INSTANCE_VERTEX_SHADER =
+			"#version 120\n" +
+			"attribute vec3 instanceOffset;\n" +
+			"attribute vec3 instanceColor;\n" +
+			"varying vec3 color;\n" +
+			"void main() {\n" +
+			"    vec3 normal = normalize(gl_NormalMatrix * gl_Normal);\n" +
+			"    vec3 toLight = normalize(gl_LightSource[0].position.xyz);\n" +
+			"    float diffuse = max(dot(normal, toLight), 0.0);\n" +
+			"    color = instanceColor * (gl_LightModel.ambient.rgb + gl_LightSource[0].ambient.rgb\n" +
+			"                                 + diffuse * gl_LightSource[0].diffuse.rgb);\n" +
+			"    gl_Position = gl_ModelViewProjectionMatrix * vec4(gl_Vertex.xyz + instanceOffset, 1.0);\n" +
+			"}\n";
+
+	private static final String INSTANCE_FRAGMENT_SHADER =
+			"#version 120\n" +
+			"varying vec3 color;\n" +
+			"void main() {\n" +
+			"    gl_FragColor = vec4(color, 1.0);\n" +
+			"}\n";
+
+	/**
+	 * Compiles and links the shader program for render mode 6.  Returns 0, and mode 6
+	 * draws nothing, if the OpenGL version does not support instanced drawing with
+	 * per-instance attributes, or if the program can't be compiled.  (Errors are
+	 * printed to standard error.)
+	 */
+	private int createInstanceProgram(GL2 gl) {
+		if (!gl.isFunctionAvailable("glDrawElementsInstanced") || !gl.isFunctionAvailable("glVertexAttribDivisor"))
+			return 0;
+		int vertexShader = compileShader(gl, GL2.GL_VERTEX_SHADER, INSTANCE_VERTEX_SHADER);
+		int fragmentShader = compileShader(gl, GL2.GL_FRAGMENT_SHADER, INSTANCE_FRAGMENT_SHADER);
+		if (vertexShader == 0 || fragmentShader == 0)
+			return 0;
+		int program = gl.glCreateProgram();
+		gl.glAttachShader(program, vertexShader);
+		gl.glAttachShader(program, fragmentShader);
+		gl.glBindAttribLocation(program, INSTANCE_OFFSET, "instanceOffset");
+		gl.glBindAttribLocation(program, INSTANCE_COLOR, "instanceColor");
+		gl.glLinkProgram(program);
+		gl.glDeleteShader(vertexShader);  // They are deleted when the program is deleted.
+		gl.glDeleteShader(fragmentShader);
+		int[] status = new int[1];
+		gl.glGetProgramiv(program, GL2.GL_LINK_STATUS, status, 0);
+		if (status[0] == 0) {
+			byte[] log = new byte[4096];
+			int[] length = new int[1];
+			gl.glGetProgramInfoLog(program, log.length, length, 0, log, 0);
+			System.err.println("Can't link the instancing shader program:\n" + new String(log, 0, length[0]));
+			gl.glDeleteProgram(program);
+			return 0;
+		}
+		return program;
+	}
+
+	private int compileShader(GL2 gl, int type, String source) {
+		int shader = gl.glCreateShader(type);
+		gl.glShaderSource(shader, 1, new String[] { source }, new int[] { source.length() }, 0);
+		gl.glCompileShader(shader);
+		int[] status = new int[1];
+		gl.glGetShaderiv(shader, GL2.GL_COMPILE_STATUS, status, 0);
+		if (status[0] == 0) {
+			byte[] log = new byte[4096];
+			int[] length = new int[1];
+			gl.glGetShaderInfoLog(shader, log.length, length, 0, log, 0);
+			System.err.println("Can't compile an instancing shader:\n" + new String(log, 0, length[0]));
+			gl.glDeleteShader(shader);
+			return 0;
+		}
+		return shader;
+	}
+
 	/**
 	 * Draw one sphere.  The VertexPointer and NormalPointer must already
 	 * be set to point to the data for the sphere, and they must be enabled.
@@ -21,6 +21,8 @@ import com.jogamp.opengl.util.gl2.GLUT;
  *  when the light is on.  The teapot is gray with weak specular highlights.
  *  The base is colored with a spectrum.  (The user can turn the display of
  *  the base on and off.) The mouse can be used to rotate the scene.
+ *  The time to render each frame is measured with a FrameTimer, and
+ *  a summary of the times is shown under the checkboxes.
  */
 public class FourLights extends JPanel implements GLEventListener {
 
@@ -103,7 +105,7 @@ public class FourLights extends JPanel implements GLEventListener {
 		animating.addActionListener(boxHandler);
 		drawBase.addActionListener(boxHandler);
 		JPanel bottom = new JPanel();
-		bottom.setLayout(new GridLayout(2,1));
+		bottom.setLayout(new GridLayout(3,1));
 		JPanel row1 = new JPanel();
 		row1.add(animating);
 		row1.add(drawBase);
@@ -115,6 +117,9 @@ public class FourLights extends JPanel implements GLEventListener {
 		row2.add(greenLight);
 		row2.add(blueLight);
 		bottom.add(row2);
+		FrameTimer frameTimer = new FrameTimer();
+		frameTimer.install(display);
+		bottom.add(frameTimer.createReportPanel());
 		add(bottom,BorderLayout.SOUTH);
 		animationTimer.setInitialDelay(500);
 		animationTimer.start();
@@ -0,0 +1,404 @@
+import java.awt.Component;
+import java.awt.FlowLayout;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLEventListener;
+
+/**
+ * A FrameTimer measures the time taken to render frames in an OpenGL program,
+ * and reports the distribution of the times, not just an average.  For each frame,
+ * it records the CPU time from begin() to end(), which is the time the program takes
+ * to submit its OpenGL commands, measured with System.nanoTime().  When the OpenGL
+ * implementation supports timer queries (OpenGL 3.3, or the ARB_timer_query extension),
+ * it also records the time that the GPU takes to execute the commands, using a
+ * GL_TIME_ELAPSED query.  Query results are read back a few frames later, when they
+ * are available, so the timer never makes the CPU wait for the GPU.  (If the GPU
+ * falls more than four frames behind, some frames are not timed on the GPU.)
+ *     The most recent times, 4096 by default, are kept in ring buffers that are
+ * written only by the rendering thread and can be read from any thread, such as the
+ * Swing event thread, without locking.  The median and the 95th and 99th percentiles
+ * are available from getSummary() and the other methods, and all the recorded times
+ * can be saved in a CSV file, one line per frame, with writeCSV().
+ *     A program can call begin() and end() around the drawing that it wants to time,
+ * or it can call install() to time the whole display method of a GLJPanel or
+ * GLCanvas.  createReportPanel() makes a small panel that shows the summary and
+ * has buttons for saving the times and for starting over.
+ */
+public class FrameTimer {
+
+	private static final int QUERY_COUNT = 4;  // Number of queries that can be waiting for results.
+
+	private final SampleRing cpuTimes;
+	private final SampleRing gpuTimes;
+
+	private long frameNumber;            // The number of the current frame, counting from 0.
+	private long beginTime;              // The value of System.nanoTime() at the start of the current frame.
+	private int activeQuery = -1;        // Index of the query that is timing the current frame, or -1.
+	private int[] queryIds;              // OpenGL query objects, or null if not yet created.
+	private final long[] queryFrames = new long[QUERY_COUNT];    // The frame timed by each query.
+	private final boolean[] queryPending = new boolean[QUERY_COUNT];  // Is the query waiting for its result?
+	private final int[] queryAvailable = new int[1];
+	private final long[] queryResult = new long[1];
+	private volatile boolean gpuTimingAvailable;
+
+	/**
+	 * Create a timer that keeps the times for the most recent 4096 frames.
+	 */
+	public FrameTimer() {
+		this(4096);
+	}
+
+	/**
+	 * Create a timer that keeps the times for a given number of recent frames.
+	 * The capacity is rounded up to a power of two.
+	 */
+	public FrameTimer(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive.");
+		cpuTimes = new SampleRing(capacity);
+		gpuTimes = new SampleRing(capacity);
+	}
+
+	/**
+	 * Start timing a frame.  This must be called in the rendering thread, with the
+	 * OpenGL context current, and must be followed by a call to end() for the same
+	 * frame.  The first call checks whether timer queries are supported.
+	 */
+	public void begin(GL2 gl) {
+		if (queryIds == null) {
+			queryIds = new int[QUERY_COUNT];
+			gpuTimingAvailable = gl.isFunctionAvailable("glGetQueryObjectui64v");
+			if (gpuTimingAvailable)
+				gl.glGenQueries(QUERY_COUNT, queryIds, 0);
+			Arrays.fill(queryPending, false);
+		}
+		activeQuery = -1;
+		if (gpuTimingAvailable) {
+			int query = (int)(frameNumber % QUERY_COUNT);
+			if (!queryPending[query]) {
+				gl.glBeginQuery(GL2.GL_TIME_ELAPSED, queryIds[query]);
+				queryFrames[query] = frameNumber;
+				activeQuery = query;
+			}
+		}
+		beginTime = System.nanoTime();
+	}
+
+	/**
+	 * Finish timing a frame.  The CPU time is recorded immediately.  The GPU time
+	 * is recorded when the result of its query becomes available, which is usually
+	 * at the end of a later frame.
+	 */
+	public void end(GL2 gl) {
+		cpuTimes.add(frameNumber, System.nanoTime() - beginTime);
+		if (activeQuery >= 0) {
+			gl.glEndQuery(GL2.GL_TIME_ELAPSED);
+			queryPending[activeQuery] = true;
+			activeQuery = -1;
+		}
+		if (gpuTimingAvailable) {
+			for (int i = 1; i <= QUERY_COUNT; i++) {  // Oldest query first, since results arrive in order.
+				int query = (int)((frameNumber + i) % QUERY_COUNT);
+				if (!queryPending[query])
+					continue;
+				gl.glGetQueryObjectiv(queryIds[query], GL2.GL_QUERY_RESULT_AVAILABLE, queryAvailable, 0);
+				if (queryAvailable[0] == 0)
+					break;
+				gl.glGetQueryObjectui64v(queryIds[query], GL2.GL_QUERY_RESULT, queryResult, 0);
+				gpuTimes.add(queryFrames[query], queryResult[0]);
+				queryPending[query] = false;
+			}
+		}
+		frameNumber++;
+	}
+
+	/**
+	 * Delete the OpenGL query objects.  This should be called when the OpenGL context
+	 * is being disposed, with the context current.  The timer can still be used;
+	 * new query objects are made the next time begin() is called.
+	 */
+	public void dispose(GL2 gl) {
+		if (queryIds != null && gpuTimingAvailable)
+			gl.glDeleteQueries(QUERY_COUNT, queryIds, 0);
+		queryIds = null;
+		activeQuery = -1;
+	}
+
+	/**
+	 * Add this timer to a GLJPanel or GLCanvas so that it times the complete display()
+	 * method of the drawable's event listeners, and deletes its queries when the
+	 * drawable is disposed.  This adds one event listener before and one after all the
+	 * listeners that the drawable already has, so it should be called after the program
+	 * has added its own listener.
+	 */
+	public void install(GLAutoDrawable drawable) {
+		drawable.addGLEventListener(0, new GLEventListener() {
+			public void init(GLAutoDrawable drawable) { }
+			public void display(GLAutoDrawable drawable) {
+				begin(drawable.getGL().getGL2());
+			}
+			public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) { }
+			public void dispose(GLAutoDrawable drawable) {
+				FrameTimer.this.dispose(drawable.getGL().getGL2());
+			}
+		});
+		drawable.addGLEventListener(new GLEventListener() {
+			public void init(GLAutoDrawable drawable) { }
+			public void display(GLAutoDrawable drawable) {
+				end(drawable.getGL().getGL2());
+			}
+			public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) { }
+			public void dispose(GLAutoDrawable drawable) { }
+		});
+	}
+
+	/**
+	 * Discard the recorded times.  This can be called from any thread, for example
+	 * when the user changes a rendering option, so that the times for different
+	 * options are not mixed together.
+	 */
+	public void reset() {
+		cpuTimes.reset();
+		gpuTimes.reset();
+	}
+
+	/**
+	 * Returns true if GPU times are being recorded.  This is false until the first
+	 * frame has been timed, and remains false if timer queries are not supported.
+	 */
+	public boolean isGpuTimingAvailable() {
+		return gpuTimingAvailable;
+	}
+
+	/**
+	 * Returns the number of frames with recorded CPU times (at most the capacity).
+	 */
+	public int getCpuSampleCount() {
+		return cpuTimes.snapshot(null, null);
+	}
+
+	/**
+	 * Returns the number of frames with recorded GPU times (at most the capacity).
+	 */
+	public int getGpuSampleCount() {
+		return gpuTimes.snapshot(null, null);
+	}
+
+	/**
+	 * Returns a percentile of the recorded CPU times, in milliseconds, or 0 if there
+	 * are none.  For example, getCpuPercentile(95) is a time that is longer than
+	 * 95% of the recorded times.
+	 */
+	public double getCpuPercentile(double percent) {
+		return percentiles(cpuTimes, percent)[0];
+	}
+
+	/**
+	 * Returns a percentile of the recorded GPU times, in milliseconds, or 0 if there are none.
+	 */
+	public double getGpuPercentile(double percent) {
+		return percentiles(gpuTimes, percent)[0];
+	}
+
+	/**
+	 * Returns a one-line summary of the recorded times, such as
+	 * "CPU 0.41/0.52/0.90 ms, GPU 3.10/3.25/3.40 ms (p50/p95/p99, 800 frames)".
+	 */
+	public String getSummary() {
+		double[] cpu = percentiles(cpuTimes, 50, 95, 99);
+		int frames = cpuTimes.snapshot(null, null);
+		if (frames == 0)
+			return "No frames timed";
+		String text = String.format("CPU %.2f/%.2f/%.2f ms", cpu[0], cpu[1], cpu[2]);
+		if (gpuTimingAvailable && gpuTimes.snapshot(null, null) > 0) {
+			double[] gpu = percentiles(gpuTimes, 50, 95, 99);
+			text += String.format(", GPU %.2f/%.2f/%.2f ms", gpu[0], gpu[1], gpu[2]);
+		}
+		return text + String.format(" (p50/p95/p99, %d frames)", frames);
+	}
+
+	/**
+	 * Write the recorded times to a file in CSV format, with a header line and then one
+	 * line for each frame, giving the frame number and the CPU and GPU times in
+	 * milliseconds.  The GPU time is empty for a frame that was not timed on the GPU.
+	 */
+	public void writeCSV(File file) throws IOException {
+		int capacity = cpuTimes.frames.length;
+		long[] cpuFrames = new long[capacity], cpuNanos = new long[capacity];
+		long[] gpuFrames = new long[capacity], gpuNanos = new long[capacity];
+		int gpuCount = gpuTimes.snapshot(gpuFrames, gpuNanos);
+		int cpuCount = cpuTimes.snapshot(cpuFrames, cpuNanos);
+		try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+			out.println("frame,cpu_ms,gpu_ms");
+			int g = 0;
+			for (int c = 0; c < cpuCount; c++) {  // Both lists are in order of frame number.
+				while (g < gpuCount && gpuFrames[g] < cpuFrames[c])
+					g++;
+				out.print(cpuFrames[c] + "," + cpuNanos[c] / 1e6 + ",");
+				if (g < gpuCount && gpuFrames[g] == cpuFrames[c])
+					out.print(gpuNanos[g] / 1e6);
+				out.println();
+			}
+			if (out.checkError())
+				throw new IOException("Error while writing to " + file);
+		}
+	}
+
+	/**
+	 * Ask the user for a file, and save the recorded times in it with writeCSV().
+	 * Errors are reported in a dialog box.  This must be called in the Swing event thread.
+	 */
+	public void saveCSV(Component parent) {
+		JFileChooser fileDialog = new JFileChooser();
+		fileDialog.setSelectedFile(new File("frame-times.csv"));
+		if (fileDialog.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION)
+			return;
+		File file = fileDialog.getSelectedFile();
+		if (file.exists()) {
+			int response = JOptionPane.showConfirmDialog(parent,
+					"The file \"" + file.getName() + "\" already exists.\nDo you want to replace it?",
+					"Confirm Save", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+			if (response != JOptionPane.YES_OPTION)
+				return;
+		}
+		try {
+			writeCSV(file);
+		}
+		catch (IOException e) {
+			JOptionPane.showMessageDialog(parent, "Sorry, an error occurred while trying to save the times:\n" + e);
+		}
+	}
+
+	/**
+	 * Make a panel that shows getSummary(), updated twice a second, with a button
+	 * for saving the times in a CSV file and a button that calls reset().  The
+	 * summary is updated only while the panel is in a window.
+	 */
+	public JPanel createReportPanel() {
+		JLabel summary = new JLabel(getSummary());
+		Timer timer = new Timer(500, evt -> summary.setText(getSummary()));
+		JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0)) {
+			public void addNotify() {
+				super.addNotify();
+				timer.start();
+			}
+			public void removeNotify() {
+				timer.stop();
+				super.removeNotify();
+			}
+		};
+		JButton save = new JButton("Save Times...");
+		JButton reset = new JButton("Reset");
+		save.addActionListener(evt -> saveCSV(panel));
+		reset.addActionListener(evt -> {
+			reset();
+			summary.setText(getSummary());
+		});
+		panel.add(summary);
+		panel.add(save);
+		panel.add(reset);
+		return panel;
+	}
+
+	/**
+	 * Returns the given percentiles of the times in a ring buffer, in milliseconds.
+	 */
+	private static double[] percentiles(SampleRing ring, double... percents) {
+		long[] nanos = new long[ring.frames.length];
+		int n = ring.snapshot(null, nanos);
+		double[] result = new double[percents.length];
+		if (n == 0)
+			return result;
+		Arrays.sort(nanos, 0, n);
+		for (int i = 0; i < percents.length; i++) {
+			int rank = (int)Math.ceil(percents[i] / 100 * n) - 1;
+			result[i] = nanos[Math.max(0, Math.min(n - 1, rank))] / 1e6;
+		}
+		return result;
+	}
+
+	/**
+	 * A ring buffer of (frame number, time) pairs, with a single writer and any number
+	 * of readers.  The writer stores a sample and then publishes it by incrementing the
+	 * volatile count.  A reader copies the samples without locking, and then discards
+	 * any that the writer might have overwritten while they were being copied.
+	 */
+	private static class SampleRing {
+
+		final long[] frames;
+		final long[] nanos;
+		final int mask;
+		volatile long written;  // Total number of samples ever added.
+		volatile long start;    // Value of written at the most recent reset.
+
+		SampleRing(int capacity) {
+			int size = Integer.highestOneBit(capacity);
+			if (size < capacity)
+				size *= 2;
+			frames = new long[size];
+			nanos = new long[size];
+			mask = size - 1;
+		}
+
+		void add(long frame, long time) {  // Called only by the writer.
+			long n = written;
+			frames[(int)(n & mask)] = frame;
+			nanos[(int)(n & mask)] = time;
+			written = n + 1;
+		}
+
+		void reset() {
+			start = written;
+		}
+
+		/**
+		 * Copy the current samples, oldest first, into the arrays, which must have
+		 * length at least equal to the capacity, and return the number of samples.
+		 * Either array can be null if that data is not needed; if both are null, this
+		 * just returns the number of samples.
+		 */
+		int snapshot(long[] frameCopy, long[] nanoCopy) {
+			long end = written;
+			long first = Math.max(start, end - frames.length);
+			if (frameCopy == null && nanoCopy == null)
+				return (int)(end - first);
+			for (long i = first; i < end; i++) {
+				int k = (int)(i & mask);
+				if (frameCopy != null)
+					frameCopy[(int)(i - first)] = frames[k];
+				if (nanoCopy != null)
+					nanoCopy[(int)(i - first)] = nanos[k];
+			}
+			VarHandle.acquireFence();  // Keeps the reads above from being moved after the next read of written.
+			// Samples that may have changed during the copy.  The writer may be storing
+			// sample number written, in the slot of sample written - frames.length, so
+			// that one counts too.
+			long overwritten = written + 1 - frames.length - first;
+			if (overwritten <= 0)
+				return (int)(end - first);
+			if (overwritten >= end - first)
+				return 0;
+			int skip = (int)overwritten;
+			if (frameCopy != null)
+				System.arraycopy(frameCopy, skip, frameCopy, 0, (int)(end - first) - skip);
+			if (nanoCopy != null)
+				System.arraycopy(nanoCopy, skip, nanoCopy, 0, (int)(end - first) - skip);
+			return (int)(end - first) - skip;
+		}
+
+	}
+
+}
@@ -0,0 +1,331 @@
+import java.util.Arrays;
+
+/**
+ * A HalfEdgeMesh adds connectivity information to a PackedMesh, so that questions
+ * such as "which faces are next to this face?" and "which vertices are connected to
+ * this vertex?" can be answered without searching through all of the faces.
+ *    Each face is made of half-edges, one for each corner of the face.  The
+ * half-edges of a face go around the face in order; half-edge number h starts at
+ * vertex origin(h) and ends at the start of the next half-edge in the same face,
+ * next(h).  The half-edges are numbered in the same way as the corners in the
+ * faceIndices array of the PackedMesh, so half-edge h starts at the vertex
+ * faceIndices[h], and the half-edges of face f are numbered from faceOffsets[f]
+ * up to, but not including, faceOffsets[f+1].  When two faces share an edge, the
+ * edge is made of two half-edges, one in each face, going in opposite directions;
+ * each of them is the twin of the other.  A half-edge on the boundary of a mesh that
+ * is not closed has no twin.  Each edge of the mesh, counting a pair of twins as a
+ * single edge, is also given a number, and the edges can be listed for drawing the
+ * mesh as a wireframe, with each edge drawn just once.
+ *    The structure is built in time proportional to the size of the mesh, using a
+ * hash table to find the twin of each half-edge from its pair of vertices.  After
+ * that, all queries take constant time, except that listing the neighbors of a
+ * vertex or face takes time proportional to the number of neighbors.
+ *    If an edge is used by more than two faces, or by two faces that go around it
+ * in the same direction (which happens when the faces are not consistently oriented),
+ * the edge is "non-manifold," and none of its half-edges have twins.  Such edges can
+ * be counted with getNonManifoldEdgeCount().
+ */
+public class HalfEdgeMesh {
+
+	private final PackedMesh mesh;
+	private final int[] face;           // For each half-edge, the face that contains it.
+	private final int[] twin;           // For each half-edge, its twin, or -1 if it has none.
+	private final int[] edge;           // For each half-edge, the number of its edge.
+	private final int[] edgeHalfEdge;   // For each edge, one of its half-edges.
+	private final int[] edgeUses;       // For each edge, the number of half-edges that belong to it.
+	private final int[] vertexHalfEdge; // For each vertex, a half-edge that starts there, or -1.
+	                                    //   If possible, one that has no twin (see getOneRing()).
+	private final int edgeCount;
+
+	/**
+	 * Build the half-edge structure for a Polyhedron.
+	 */
+	public HalfEdgeMesh(Polyhedron poly) {
+		this(new PackedMesh(poly));
+	}
+
+	/**
+	 * Build the half-edge structure for a PackedMesh.  The mesh is used directly,
+	 * not copied, so it should not be modified while this structure is in use.
+	 */
+	public HalfEdgeMesh(PackedMesh mesh) {
+		this.mesh = mesh;
+		int halfEdges = mesh.faceIndices.length;
+		face = new int[halfEdges];
+		twin = new int[halfEdges];
+		edge = new int[halfEdges];
+		int[] firstHalfEdge = new int[halfEdges];
+		int[] uses = new int[halfEdges];
+		Arrays.fill(twin, -1);
+		for (int f = 0; f < mesh.getFaceCount(); f++)
+			Arrays.fill(face, mesh.faceOffsets[f], mesh.faceOffsets[f+1], f);
+		VertexPairTable table = new VertexPairTable(halfEdges);
+		int edges = 0;
+		for (int h = 0; h < halfEdges; h++) {
+			int a = origin(h), b = target(h);
+			long key = (long)Math.min(a,b) << 32 | Math.max(a,b);
+			int e = table.get(key);
+			if (e < 0) {
+				e = edges++;
+				table.put(key, e);
+				firstHalfEdge[e] = h;
+			}
+			else {
+				int first = firstHalfEdge[e];
+				if (uses[e] == 1 && origin(first) == b) {
+					twin[h] = first;
+					twin[first] = h;
+				}
+				else if (twin[first] >= 0) {  // A third half-edge, or the same direction:  non-manifold.
+					twin[twin[first]] = -1;
+					twin[first] = -1;
+				}
+			}
+			uses[e]++;
+			edge[h] = e;
+		}
+		edgeCount = edges;
+		edgeHalfEdge = Arrays.copyOf(firstHalfEdge, edges);
+		edgeUses = Arrays.copyOf(uses, edges);
+		vertexHalfEdge = new int[mesh.getVertexCount()];
+		Arrays.fill(vertexHalfEdge, -1);
+		for (int h = 0; h < halfEdges; h++) {
+			int v = origin(h);
+			if (vertexHalfEdge[v] < 0 || twin[h] < 0)
+				vertexHalfEdge[v] = h;
+		}
+	}
+
+	/**
+	 * Returns the mesh that this structure describes.
+	 */
+	public PackedMesh getMesh() {
+		return mesh;
+	}
+
+	public int getHalfEdgeCount() {
+		return face.length;
+	}
+
+	/**
+	 * Returns the number of edges, counting a pair of twin half-edges as one edge.
+	 */
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	/**
+	 * Returns the vertex where half-edge h starts.
+	 */
+	public int origin(int h) {
+		return mesh.faceIndices[h];
+	}
+
+	/**
+	 * Returns the vertex where half-edge h ends.
+	 */
+	public int target(int h) {
+		return mesh.faceIndices[next(h)];
+	}
+
+	/**
+	 * Returns the half-edge that follows half-edge h in the same face.
+	 */
+	public int next(int h) {
+		return h + 1 == mesh.faceOffsets[face[h] + 1] ? mesh.faceOffsets[face[h]] : h + 1;
+	}
+
+	/**
+	 * Returns the half-edge that comes before half-edge h in the same face.
+	 */
+	public int prev(int h) {
+		return h == mesh.faceOffsets[face[h]] ? mesh.faceOffsets[face[h] + 1] - 1 : h - 1;
+	}
+
+	/**
+	 * Returns the twin of half-edge h, in the neighboring face, or -1 if h
+	 * is on the boundary or belongs to a non-manifold edge.
+	 */
+	public int twin(int h) {
+		return twin[h];
+	}
+
+	/**
+	 * Returns the face that contains half-edge h.
+	 */
+	public int face(int h) {
+		return face[h];
+	}
+
+	/**
+	 * Returns the number of the edge that contains half-edge h.
+	 */
+	public int edge(int h) {
+		return edge[h];
+	}
+
+	/**
+	 * Returns one of the half-edges of edge number e.
+	 */
+	public int edgeHalfEdge(int e) {
+		return edgeHalfEdge[e];
+	}
+
+	/**
+	 * Returns a half-edge that starts at vertex v, or -1 if v is not in any face.
+	 */
+	public int vertexHalfEdge(int v) {
+		return vertexHalfEdge[v];
+	}
+
+	/**
+	 * Returns true if edge number e belongs to just one face.
+	 */
+	public boolean isBoundaryEdge(int e) {
+		return edgeUses[e] == 1;
+	}
+
+	/**
+	 * Returns the number of edges that belong to just one face.  This is zero
+	 * for a closed polyhedron.
+	 */
+	public int getBoundaryEdgeCount() {
+		int count = 0;
+		for (int e = 0; e < edgeCount; e++)
+			if (edgeUses[e] == 1)
+				count++;
+		return count;
+	}
+
+	/**
+	 * Returns the number of non-manifold edges, which are edges that belong to more
+	 * than two faces, or to two faces that do not have consistent orientations.
+	 */
+	public int getNonManifoldEdgeCount() {
+		int count = 0;
+		for (int e = 0; e < edgeCount; e++)
+			if (edgeUses[e] > 1 && twin[edgeHalfEdge[e]] < 0)
+				count++;
+		return count;
+	}
+
+	/**
+	 * Returns true if every edge belongs to exactly two faces with consistent
+	 * orientations.
+	 */
+	public boolean isClosedManifold() {
+		for (int e = 0; e < edgeCount; e++)
+			if (twin[edgeHalfEdge[e]] < 0)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Returns an array containing the two vertex numbers of each edge, for drawing
+	 * the edges with GL_LINES.  Each edge is listed once.
+	 */
+	public int[] getEdgeVertices() {
+		int[] vertices = new int[2*edgeCount];
+		for (int e = 0; e < edgeCount; e++) {
+			vertices[2*e] = origin(edgeHalfEdge[e]);
+			vertices[2*e+1] = target(edgeHalfEdge[e]);
+		}
+		return vertices;
+	}
+
+	/**
+	 * Find the vertices that are joined to vertex v by an edge, going around v in
+	 * counterclockwise order as seen from the outside.  This requires that the faces around
+	 * v form a single fan, as they do in a manifold mesh; otherwise, only the vertices
+	 * of one fan are found.
+	 * @param neighbors an array to hold the vertex numbers.  It must be large enough;
+	 *    getValence(v) + 1 is always enough.
+	 * @return the number of vertices that were put into the array.
+	 */
+	public int getOneRing(int v, int[] neighbors) {
+		int start = vertexHalfEdge[v];
+		if (start < 0)
+			return 0;
+		int count = 0;
+		int h = start;
+		do {
+			neighbors[count++] = target(h);
+			int in = prev(h);  // Ends at v.
+			if (twin[in] < 0) {  // The fan ends at a boundary.
+				if (origin(in) != neighbors[0])
+					neighbors[count++] = origin(in);
+				break;
+			}
+			h = twin[in];
+		} while (h != start);
+		return count;
+	}
+
+	/**
+	 * Returns the number of faces that contain a half-edge that starts at vertex v,
+	 * going around v as in getOneRing().
+	 */
+	public int getValence(int v) {
+		int start = vertexHalfEdge[v];
+		if (start < 0)
+			return 0;
+		int count = 0;
+		int h = start;
+		do {
+			count++;
+			h = twin[prev(h)];
+		} while (h >= 0 && h != start);
+		return count;
+	}
+
+	/**
+	 * Find the faces that share an edge with face f.  A face is listed once for
+	 * each edge that it shares with f.  Boundary and non-manifold edges are skipped.
+	 * @param neighbors an array to hold the face numbers, with length at least the
+	 *    number of vertices of face f.
+	 * @return the number of faces that were put into the array.
+	 */
+	public int getFaceNeighbors(int f, int[] neighbors) {
+		int count = 0;
+		for (int h = mesh.faceOffsets[f]; h < mesh.faceOffsets[f+1]; h++)
+			if (twin[h] >= 0)
+				neighbors[count++] = face[twin[h]];
+		return count;
+	}
+
+	/**
+	 * A hash table that maps pairs of vertex numbers, packed into a long, to
+	 * non-negative ints.  It uses open addressing with linear probing, and it never
+	 * grows, so it must be created with room for all of the keys.
+	 */
+	private static class VertexPairTable {
+		long[] keys;
+		int[] values;
+		int mask;
+		int shift;  // The slot for a key is the top log2(capacity) bits of the key times a constant.
+		VertexPairTable(int maxSize) {
+			int capacity = Integer.highestOneBit(Math.max(2, 2*maxSize) - 1) << 1;
+			keys = new long[capacity];
+			values = new int[capacity];
+			mask = capacity - 1;
+			shift = 64 - Integer.numberOfTrailingZeros(capacity);
+			Arrays.fill(keys, -1);  // Keys are never negative.
+		}
+		int slot(long key) {
+			int i = (int)((key * 0x9E3779B97F4A7C15L) >>> shift);
+			while (keys[i] != -1 && keys[i] != key)
+				i = (i + 1) & mask;
+			return i;
+		}
+		int get(long key) {
+			int i = slot(key);
+			return keys[i] == key ? values[i] : -1;
+		}
+		void put(long key, int value) {
+			int i = slot(key);
+			keys[i] = key;
+			values[i] = value;
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 import java.awt.*;
 import java.awt.event.*;
+import java.io.File;
 
 import javax.swing.*;
 import com.jogamp.opengl.*;
@@ -11,6 +12,28 @@ import com.jogamp.opengl.awt.*;
  *  display.  If a model does not already have colors for its faces,
  *  then random colors are assigned.  The user can drag the polyhedron
  *  to rotate the view.
+ *     The faces and edges of the current model are drawn with glDrawElements,
+ *  from vertex buffer objects that are filled once each time a new model is
+ *  selected, using the data computed by the MeshBuffers class.
+ *     The "Open Model File" command in the File menu can load a model
+ *  from an OBJ, PLY, or STL file, using the MeshLoader class.  (The
+ *  vertices of a model from an STL file are welded with MeshWelder.)  The file
+ *  is read, and the buffer data is computed, in a separate thread, so
+ *  that the window stays responsive while a large model is loading.
+ *  For a model with many triangles, simplified versions are also made
+ *  (see LODChain), and when the model is small on the screen, the viewer
+ *  draws the simplest version that differs from the original by less than
+ *  a pixel.  The mouse wheel zooms the view.  The face under the mouse is
+ *  outlined in yellow; it is found by following the ray from the camera
+ *  through the mouse position (see Camera.getPickRay()) through a bounding
+ *  volume hierarchy for the model (see MeshBVH).  The triangles and edges
+ *  are drawn in chunks of up to 4096, and chunks whose bounding boxes are
+ *  outside the view volume are skipped (see Camera.cullBoxes()), which saves
+ *  time when the view is zoomed in on part of a large model.  When
+ *  "Trackball Inertia" is checked, the model keeps turning for a while if
+ *  it is released while it is being dragged.  The time to draw each frame
+ *  is measured with a FrameTimer; commands in the File menu show the median,
+ *  95th and 99th percentiles and save the times for all frames in a CSV file.
  */
 public class IFSPolyhedronViewer extends GLJPanel implements GLEventListener {
 
@@ -31,6 +54,10 @@ public class IFSPolyhedronViewer extends GLJPanel implements GLEventListener {
 		panel.requestFocusInWindow();
 	}
 
+	private static final String DEFAULT_MODEL = "stellatedDodecahedron"; // Model shown at startup.
+
+	private final FrameTimer frameTimer = new FrameTimer();  // Measures the time to draw each frame.
+
 	/**
 	 * Constructor for class UnlitCube.
 	 */
@@ -38,14 +65,68 @@ public class IFSPolyhedronViewer extends GLJPanel implements GLEventListener {
 		super( new GLCapabilities(null) ); // Makes a panel with default OpenGL "capabilities".
 		setPreferredSize( new Dimension(500,500) );
 		addGLEventListener(this);
+		frameTimer.install(this);
+		addMouseWheelListener( evt -> {
+			viewScale *= Math.pow(1.1, evt.getPreciseWheelRotation());
+			viewScale = Math.max(0.05, Math.min(100, viewScale));
+			if (camera != null) {
+				camera.setScale(viewScale);
+				repaint();
+			}
+		});
+		addMouseMotionListener( new MouseMotionAdapter() {
+			public void mouseMoved(MouseEvent evt) {
+				pick(evt.getX(), evt.getY());
+			}
+		});
+	}
+
+	/**
+	 * Find the face of the current model that is visible at the point (x,y), and
+	 * repaint if it is not the face that is currently outlined.
+	 */
+	private void pick(int x, int y) {
+		if (camera == null || currentMesh == null)
+			return;
+		if (currentBVH == null)
+			currentBVH = new MeshBVH(currentMesh);
+		double[] ray = camera.getPickRay(x, y, getWidth(), getHeight());
+		double size = currentMesh.maxVertexLength;  // The model is scaled by 1/size when it is drawn.
+		MeshBVH.Hit hit = currentBVH.intersect(ray[0]*size, ray[1]*size, ray[2]*size,
+				ray[3], ray[4], ray[5], Double.POSITIVE_INFINITY);
+		int face = hit == null ? -1 : hit.face;
+		if (face != pickedFace) {
+			pickedFace = face;
+			repaint();
+		}
 	}
 
 	//-------------------- methods to draw the cube ----------------------
 
 	private Camera camera;
-	private Polyhedron currentModel;
+	private Polyhedron currentModel;       // The selected built-in model, or null if a file was loaded.
+	private PackedMesh currentMesh;        // The mesh that is drawn; if null, it is made from currentModel.
+	private MeshBuffers currentBuffers;    // Data for drawing currentMesh; if null, it is made from currentMesh.
+	private LODChain currentLOD;           // Levels of detail for a large loaded model, or null.
+	private MeshBuffers[] levelBuffers;    // Data for drawing each level, made when the level is first used.
+	private double viewScale = 1.2;       // The scale of the camera, changed by the mouse wheel.
+	private MeshBVH currentBVH;            // For picking faces in currentMesh; made when first needed.
+	private int pickedFace = -1;           // The face of currentMesh under the mouse, or -1.
+
+	private int[] bufferIds = new int[3];  // Vertex buffer objects for vertex data, triangles, and edges.
+	private MeshBuffers bufferedData;      // The data that is in the buffers, if any.
+	private int triangleIndexCount;        // Number of indices in the triangle buffer.
+	private int edgeIndexCount;            // Number of indices in the edge buffer.
+
+	private static final int CHUNK_SIZE = 4096;  // Number of triangles or edges in a chunk, for culling.
+	private float[] triangleChunkBoxes;    // Bounding box of each chunk of the triangle buffer, as for Camera.cullBoxes().
+	private float[] edgeChunkBoxes;        // Bounding box of each chunk of the edge buffer.
+	private int[] visibleChunks = new int[0];
 
 	private JRadioButtonMenuItem orthographic, drawEdges, drawFaces, drawBoth, coloredFaces;
+	private JRadioButtonMenuItem[] modelItems;
+	private JCheckBoxMenuItem autoDetail;
+	private JFileChooser fileDialog;
 
 	//-------------------- GLEventListener Methods -------------------------
 
@@ -58,38 +139,55 @@ public class IFSPolyhedronViewer extends GLJPanel implements GLEventListener {
 
 		gl2.glClear( GL2.GL_COLOR_BUFFER_BIT | GL2.GL_DEPTH_BUFFER_BIT );
 
-		if (currentModel.faceColors == null) {
-			// Make up random face colors.
-			currentModel.faceColors = new double[currentModel.faces.length][];
-			for (int i = 0; i < currentModel.faceColors.length; i++) {
-				double[] rgb = { Math.random(), Math.random(), Math.random() };
-				currentModel.faceColors[i] = rgb;
+		if (currentMesh == null) {
+			if (currentModel.faceColors == null) {
+				// Make up random face colors.
+				currentModel.faceColors = new double[currentModel.faces.length][];
+				for (int i = 0; i < currentModel.faceColors.length; i++) {
+					double[] rgb = { Math.random(), Math.random(), Math.random() };
+					currentModel.faceColors[i] = rgb;
+				}
 			}
+			currentMesh = new PackedMesh(currentModel);
 		}
+		if (currentBuffers == null)
+			currentBuffers = new MeshBuffers(currentMesh);
 
 		camera.setOrthographic(orthographic.isSelected());
 		camera.apply(gl2);
+
+		if (currentLOD != null) {
+			int level = 0;
+			if (autoDetail.isSelected())
+				level = currentLOD.selectLevel(camera, drawable.getSurfaceHeight(), 1.0/currentMesh.maxVertexLength);
+			if (levelBuffers[level] == null)
+				levelBuffers[level] = new MeshBuffers(currentLOD.getLevel(level));
+			currentBuffers = levelBuffers[level];
+		}
+		if (currentBuffers != bufferedData)
+			loadBuffers(gl2, currentBuffers);
+
 		gl2.glPushMatrix();
-		double scale = 1.0/currentModel.maxVertexLength;
+		double scale = 1.0/currentMesh.maxVertexLength;
 		gl2.glScaled(scale,scale,scale);  // scale to fit nicely in window
 		boolean colored = coloredFaces.isSelected();
-		int i,j;
+		gl2.glBindBuffer(GL2.GL_ARRAY_BUFFER, bufferIds[0]);
+		gl2.glVertexPointer(3, GL2.GL_FLOAT, MeshBuffers.STRIDE, 0);
+		gl2.glColorPointer(3, GL2.GL_FLOAT, MeshBuffers.STRIDE, MeshBuffers.COLOR_OFFSET);
+		gl2.glEnableClientState(GL2.GL_VERTEX_ARRAY);
 		if (drawFaces.isSelected() || drawBoth.isSelected()) {
 			if (drawBoth.isSelected()) {
 				gl2.glEnable(GL2.GL_POLYGON_OFFSET_FILL);
 			}
-			gl2.glColor3f(1,1,1); // in case colored is false
-			for (i = 0; i < currentModel.faces.length; i++) {
-				if (colored) {
-					gl2.glColor3dv( currentModel.faceColors[i], 0 );
-				}
-				gl2.glBegin(GL2.GL_TRIANGLE_FAN);
-				for (j = 0; j < currentModel.faces[i].length; j++) {
-					int vertexNum = currentModel.faces[i][j];
-					gl2.glVertex3dv( currentModel.vertices[vertexNum], 0 );
-				}
-				gl2.glEnd();
+			if (colored) {
+				gl2.glEnableClientState(GL2.GL_COLOR_ARRAY);
+			}
+			else {
+				gl2.glColor3f(1,1,1);
 			}
+			gl2.glBindBuffer(GL2.GL_ELEMENT_ARRAY_BUFFER, bufferIds[1]);
+			drawChunks(gl2, GL2.GL_TRIANGLES, 3, triangleIndexCount, triangleChunkBoxes);
+			gl2.glDisableClientState(GL2.GL_COLOR_ARRAY);
 			gl2.glDisable(GL2.GL_POLYGON_OFFSET_FILL);
 		}
 		if (drawEdges.isSelected() || drawBoth.isSelected()) {
@@ -99,19 +197,100 @@ public class IFSPolyhedronViewer extends GLJPanel implements GLEventListener {
 			else {
 				gl2.glColor3f(1,1,1);
 			}
-			for (i = 0; i < currentModel.faces.length; i++) {
-				gl2.glBegin(GL2.GL_LINE_LOOP);
-				for (j = 0; j < currentModel.faces[i].length; j++) {
-					int vertexNum = currentModel.faces[i][j];
-					gl2.glVertex3dv( currentModel.vertices[vertexNum], 0 );
-				}
-				gl2.glEnd();
+			gl2.glBindBuffer(GL2.GL_ELEMENT_ARRAY_BUFFER, bufferIds[2]);
+			drawChunks(gl2, GL2.GL_LINES, 2, edgeIndexCount, edgeChunkBoxes);
+		}
+		gl2.glDisableClientState(GL2.GL_VERTEX_ARRAY);
+		gl2.glBindBuffer(GL2.GL_ELEMENT_ARRAY_BUFFER, 0);
+		gl2.glBindBuffer(GL2.GL_ARRAY_BUFFER, 0);
+		if (pickedFace >= 0) {
+			gl2.glDisable(GL2.GL_DEPTH_TEST);  // Draw the outline on top of everything.
+			gl2.glColor3f(1,1,0);
+			gl2.glBegin(GL2.GL_LINE_LOOP);
+			for (int i = currentMesh.faceOffsets[pickedFace]; i < currentMesh.faceOffsets[pickedFace+1]; i++) {
+				int v = 3*currentMesh.faceIndices[i];
+				gl2.glVertex3f(currentMesh.positions[v], currentMesh.positions[v+1], currentMesh.positions[v+2]);
 			}
+			gl2.glEnd();
+			gl2.glEnable(GL2.GL_DEPTH_TEST);
 		}
 		gl2.glPopMatrix();
+		camera.frameDisplayed();
 
 	} // end display()
 
+	/**
+	 * Copy the vertex data, triangles, and edges of a model into the vertex buffer objects.
+	 */
+	private void loadBuffers(GL2 gl2, MeshBuffers buffers) {
+		gl2.glBindBuffer(GL2.GL_ARRAY_BUFFER, bufferIds[0]);
+		gl2.glBufferData(GL2.GL_ARRAY_BUFFER, 4L*buffers.vertexData.length,
+				buffers.getVertexBuffer(), GL2.GL_STATIC_DRAW);
+		gl2.glBindBuffer(GL2.GL_ARRAY_BUFFER, 0);
+		gl2.glBindBuffer(GL2.GL_ELEMENT_ARRAY_BUFFER, bufferIds[1]);
+		gl2.glBufferData(GL2.GL_ELEMENT_ARRAY_BUFFER, 4L*buffers.triangleIndices.length,
+				buffers.getTriangleBuffer(), GL2.GL_STATIC_DRAW);
+		gl2.glBindBuffer(GL2.GL_ELEMENT_ARRAY_BUFFER, bufferIds[2]);
+		gl2.glBufferData(GL2.GL_ELEMENT_ARRAY_BUFFER, 4L*buffers.edgeIndices.length,
+				buffers.getEdgeBuffer(), GL2.GL_STATIC_DRAW);
+		gl2.glBindBuffer(GL2.GL_ELEMENT_ARRAY_BUFFER, 0);
+		triangleIndexCount = buffers.triangleIndices.length;
+		edgeIndexCount = buffers.edgeIndices.length;
+		bufferedData = buffers;
+		float scale = (float)(1.0/currentMesh.maxVertexLength);
+		triangleChunkBoxes = chunkBoxes(buffers.triangleIndices, 3*CHUNK_SIZE, buffers.vertexData, scale);
+		edgeChunkBoxes = chunkBoxes(buffers.edgeIndices, 2*CHUNK_SIZE, buffers.vertexData, scale);
+		int chunks = Math.max(triangleChunkBoxes.length, edgeChunkBoxes.length) / 6;
+		if (visibleChunks.length < chunks)
+			visibleChunks = new int[chunks];
+	}
+
+	/**
+	 * Returns the bounding boxes, in the format used by Camera.cullBoxes(), of consecutive
+	 * chunks of an index array, with the vertex coordinates multiplied by scale, which is
+	 * the scale factor that is applied to the model when it is drawn.
+	 */
+	private static float[] chunkBoxes(int[] indices, int chunkLength, float[] vertexData, float scale) {
+		int chunks = (indices.length + chunkLength - 1) / chunkLength;
+		float[] boxes = new float[6*chunks];
+		for (int c = 0; c < chunks; c++) {
+			float[] box = { Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+					Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY };
+			for (int i = c*chunkLength; i < Math.min(indices.length, (c+1)*chunkLength); i++) {
+				int v = MeshBuffers.FLOATS_PER_VERTEX * indices[i];
+				for (int k = 0; k < 3; k++) {
+					box[k] = Math.min(box[k], scale*vertexData[v+k]);
+					box[k+3] = Math.max(box[k+3], scale*vertexData[v+k]);
+				}
+			}
+			System.arraycopy(box, 0, boxes, 6*c, 6);
+		}
+		return boxes;
+	}
+
+	/**
+	 * Draw the chunks of the bound element buffer whose bounding boxes can be visible.
+	 * Consecutive visible chunks are drawn with a single call to glDrawElements.
+	 * @param primitiveSize the number of indices per primitive, 3 for triangles or 2 for lines.
+	 */
+	private void drawChunks(GL2 gl2, int mode, int primitiveSize, int indexCount, float[] boxes) {
+		int chunkLength = primitiveSize*CHUNK_SIZE;
+		int visible = camera.cullBoxes(boxes, boxes.length/6, visibleChunks);
+		int i = 0;
+		while (i < visible) {
+			int first = visibleChunks[i];
+			int last = first;
+			while (i + 1 < visible && visibleChunks[i+1] == last + 1) {
+				i++;
+				last++;
+			}
+			int start = first*chunkLength;
+			int end = Math.min(indexCount, (last+1)*chunkLength);
+			gl2.glDrawElements(mode, end - start, GL2.GL_UNSIGNED_INT, 4L*start);
+			i++;
+		}
+	}
+
 	public void init(GLAutoDrawable drawable) {
 		// called when the panel is created
 		GL2 gl2 = drawable.getGL().getGL2();
@@ -119,15 +298,20 @@ public class IFSPolyhedronViewer extends GLJPanel implements GLEventListener {
 		gl2.glEnable(GL2.GL_DEPTH_TEST);
 		gl2.glLineWidth(2);
 		gl2.glPolygonOffset(1,2);
+		gl2.glGenBuffers(3, bufferIds, 0);
+		bufferedData = null;
 		camera = new Camera();
 		camera.lookAt(2,2,6, 0,0,0, 0,1,0);
-		camera.setScale(1.2);
+		camera.setScale(viewScale);
 		camera.installTrackball(this);
-		currentModel = Polyhedron.stellatedDodecahedron;
+		currentModel = Polyhedron.getModel(DEFAULT_MODEL);
 	}
 
 	public void dispose(GLAutoDrawable drawable) {
 		// called when the panel is being disposed
+		GL2 gl2 = drawable.getGL().getGL2();
+		gl2.glDeleteBuffers(3, bufferIds, 0);
+		bufferedData = null;
 	}
 
 	public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) {
@@ -138,11 +322,43 @@ public class IFSPolyhedronViewer extends GLJPanel implements GLEventListener {
 
 	private JMenuBar createMenuBar() {
 		JMenuBar menuBar = new JMenuBar();
+		JMenu file = new JMenu("File");
 		JMenu model = new JMenu("Polyhedron");
 		JMenu render = new JMenu("Render Options");
+		menuBar.add(file);
 		menuBar.add(model);
 		menuBar.add(render);
 		
+		JMenuItem open = new JMenuItem("Open Model File...");
+		open.addActionListener( new ActionListener() {
+			public void actionPerformed(ActionEvent evt) {
+				openFile();
+			}
+		});
+		file.add(open);
+		file.addSeparator();
+		JMenuItem timing = new JMenuItem("Show Frame Times");
+		timing.addActionListener( new ActionListener() {
+			public void actionPerformed(ActionEvent evt) {
+				JOptionPane.showMessageDialog(IFSPolyhedronViewer.this, frameTimer.getSummary());
+			}
+		});
+		file.add(timing);
+		JMenuItem saveTiming = new JMenuItem("Save Frame Times...");
+		saveTiming.addActionListener( new ActionListener() {
+			public void actionPerformed(ActionEvent evt) {
+				frameTimer.saveCSV(IFSPolyhedronViewer.this);
+			}
+		});
+		file.add(saveTiming);
+		JMenuItem resetTiming = new JMenuItem("Reset Frame Times");
+		resetTiming.addActionListener( new ActionListener() {
+			public void actionPerformed(ActionEvent evt) {
+				frameTimer.reset();
+			}
+		});
+		file.add(resetTiming);
+
 		ActionListener repainter = new ActionListener() {
 			public void actionPerformed(ActionEvent evt) {
 				repaint();
@@ -161,52 +377,107 @@ public class IFSPolyhedronViewer extends GLJPanel implements GLEventListener {
 		drawBoth = items[2];
 		drawBoth.setSelected(true);
 		render.addSeparator();
+		autoDetail = new JCheckBoxMenuItem("Automatic Level of Detail", true);
+		autoDetail.addActionListener(repainter);
+		render.add(autoDetail);
+		JCheckBoxMenuItem inertia = new JCheckBoxMenuItem("Trackball Inertia", false);
+		inertia.addActionListener( new ActionListener() {
+			public void actionPerformed(ActionEvent evt) {
+				camera.setTrackballInertia(inertia.isSelected());
+			}
+		});
+		render.add(inertia);
+		render.addSeparator();
 		items = createRadioMenuGroup(new String[] {"Perspective Projetion", "Orthographics Projection"}, render, repainter);
 		orthographic = items[1];
 		items[0].setSelected(true);
 
-		items = createRadioMenuGroup(new String[] {
-				"House",
-				"Cube",
-				"Dodecahedron",
-				"Icosahedron",
-				"Octahedron",
-				"Rhombic Dodecahedron",
-				"Socer Ball",
-				"Stellated Dodecahedron",
-				"Stellated Icosahedron",
-				"Stellated Octahedron",
-				"Tetrahedron",
-				"Truncated Icosahedron",
-				"Truncated Rhombic Dodecahedron"
-		}, 
-		model,
-		new ActionListener() {
+		String[] modelNames = Polyhedron.getModelNames();
+		String[] modelTitles = new String[modelNames.length];
+		for (int i = 0; i < modelNames.length; i++)
+			modelTitles[i] = Polyhedron.getModelTitle(modelNames[i]);
+		modelItems = items = createRadioMenuGroup(modelTitles, model, new ActionListener() {
 			public void actionPerformed(ActionEvent evt) {
-				switch (evt.getActionCommand()) {
-				case "House": currentModel = Polyhedron.house; break;
-				case "Cube": currentModel = Polyhedron.cube; break;
-				case "Dodecahedron": currentModel = Polyhedron.dodecahedron; break;
-				case "Icosahedron": currentModel = Polyhedron.icosahedron; break;
-				case "Octahedron": currentModel = Polyhedron.octahedron; break;
-				case "Rhombic Dodecahedron": currentModel = Polyhedron.rhombicDodecahedron; break;
-				case "Socer Ball": currentModel = Polyhedron.socerBall; break;
-				case "Stellated Dodecahedron": currentModel = Polyhedron.stellatedDodecahedron; break;
-				case "Stellated Icosahedron": currentModel = Polyhedron.stellatedIcosahedron; break;
-				case "Stellated Octahedron": currentModel = Polyhedron.stellatedOctahedron; break;
-				case "Tetrahedron": currentModel = Polyhedron.tetrahedron; break;
-				case "Truncated Icosahedron": currentModel = Polyhedron.truncatedIcosahedron; break;
-				case "Truncated Rhombic Dodecahedron": currentModel = Polyhedron.truncatedRhombicDodecahedron; break;
-				}
+				currentModel = Polyhedron.getModel(evt.getActionCommand());
+				currentMesh = null;
+				currentBuffers = null;
+				currentLOD = null;
+				levelBuffers = null;
+				currentBVH = null;
+				pickedFace = -1;
 				camera.lookAt(2,2,6, 0,0,0, 0,1,0);
 				repaint();
 			}
 		});
-		items[7].setSelected(true);
+		for (int i = 0; i < modelNames.length; i++) {
+			items[i].setActionCommand(modelNames[i]);
+			if (modelNames[i].equals(DEFAULT_MODEL))
+				items[i].setSelected(true);
+		}
 
 		return menuBar;
 	}
 
+	/**
+	 * Let the user select an OBJ, PLY, or STL file, and load the model from that file
+	 * in a separate thread.  When the model has been loaded, it replaces the current
+	 * model.  If an error occurs, it is reported to the user, and the current model
+	 * does not change.
+	 */
+	private void openFile() {
+		if (fileDialog == null) {
+			fileDialog = new JFileChooser();
+			fileDialog.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter(
+					"Model files (OBJ, PLY, STL, IFSB)", "obj", "ply", "stl", "ifsb"));
+		}
+		if (fileDialog.showOpenDialog(this) != JFileChooser.APPROVE_OPTION)
+			return;
+		File selected = fileDialog.getSelectedFile();
+		setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+		Thread loader = new Thread( () -> {
+			try {
+				PackedMesh mesh = MeshLoader.load(selected);
+				if (selected.getName().toLowerCase().endsWith(".stl"))
+					mesh = MeshWelder.weld(mesh, 0);  // STL files don't share vertices between triangles.
+				float[] colors = new float[3*mesh.getFaceCount()];
+				for (int i = 0; i < colors.length; i++)
+					colors[i] = (float)Math.random();
+				mesh = new PackedMesh(mesh.positions, mesh.faceOffsets, mesh.faceIndices, mesh.normals, colors);
+				MeshBuffers buffers = new MeshBuffers(mesh);
+				LODChain chain = null;
+				if (buffers.triangleIndices.length/3 >= 2*LODChain.DEFAULT_MIN_TRIANGLES)
+					chain = new LODChain(mesh);
+				MeshBVH bvh = new MeshBVH(mesh);
+				PackedMesh loadedMesh = mesh;
+				LODChain loadedLOD = chain;
+				SwingUtilities.invokeLater( () -> {
+					setCursor(null);
+					currentModel = null;
+					currentMesh = loadedMesh;
+					currentBuffers = buffers;
+					currentLOD = loadedLOD;
+					currentBVH = bvh;
+					pickedFace = -1;
+					if (loadedLOD != null) {
+						levelBuffers = new MeshBuffers[loadedLOD.getLevelCount()];
+						levelBuffers[0] = buffers;
+					}
+					((DefaultButtonModel)modelItems[0].getModel()).getGroup().clearSelection();
+					camera.lookAt(2,2,6, 0,0,0, 0,1,0);
+					repaint();
+				});
+			}
+			catch (Exception | OutOfMemoryError e) {  // Includes runtime exceptions from malformed files.
+				SwingUtilities.invokeLater( () -> {
+					setCursor(null);
+					JOptionPane.showMessageDialog(this, "Could not load " + selected.getName() + ":\n" + e);
+				});
+			}
+		});
+		loader.setDaemon(true);
+		loader.start();
+	}
+
 	private JRadioButtonMenuItem[] createRadioMenuGroup(String[] itemNames, JMenu menu, ActionListener listener) {
 		JRadioButtonMenuItem[] items = new JRadioButtonMenuItem[itemNames.length];
 		ButtonGroup group = new ButtonGroup();
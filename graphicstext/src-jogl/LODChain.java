@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+
+/**
+ * An LODChain holds a series of "levels of detail" for a mesh:  level 0 is the
+ * mesh itself, and each following level has about half as many triangles as the
+ * one before, down to a minimum count.  The levels are made by a single
+ * QuadricSimplifier, which is stopped at each triangle count to save a copy of
+ * the current mesh.  Each level also records an estimate of the largest distance
+ * between its surface and the original surface (see QuadricSimplifier.getError()).
+ *    When a model is small on the screen, one of the simpler levels looks the same
+ * as the original but takes much less work to draw.  The selectLevel() methods
+ * choose the simplest level whose error, converted to pixels, is no more than a
+ * given amount.  For the conversion, the Camera's limits give the number of pixels
+ * per unit at the view center, and the scale gives the factor by which the model
+ * is scaled before drawing; a program that scales a model to fit in the view would
+ * use 1/maxVertexLength of level 0.  (Since the simplified levels have slightly
+ * different vertices, their own maxVertexLengths should not be used for scaling.)
+ */
+public class LODChain {
+
+	public static final int DEFAULT_MIN_TRIANGLES = 2000;
+
+	private final PackedMesh[] levels;
+	private final double[] errors;
+
+	/**
+	 * Make the levels of detail for a Polyhedron.
+	 */
+	public LODChain(Polyhedron poly) {
+		this(new PackedMesh(poly), DEFAULT_MIN_TRIANGLES);
+	}
+
+	/**
+	 * Make the levels of detail for a mesh, down to DEFAULT_MIN_TRIANGLES triangles.
+	 */
+	public LODChain(PackedMesh mesh) {
+		this(mesh, DEFAULT_MIN_TRIANGLES);
+	}
+
+	/**
+	 * Make the levels of detail for a mesh.  Levels are made with 1/2, 1/4, 1/8, ...
+	 * of the original number of triangles, as long as that number is at least
+	 * minTriangles.  (If the mesh has fewer than 2*minTriangles triangles, there
+	 * is only one level.)  Simplification stops early if no more edges can be
+	 * collapsed.
+	 */
+	public LODChain(PackedMesh mesh, int minTriangles) {
+		ArrayList<PackedMesh> meshes = new ArrayList<>();
+		ArrayList<Double> errorList = new ArrayList<>();
+		meshes.add(mesh);
+		errorList.add(0.0);
+		QuadricSimplifier simplifier = null;
+		int triangles = 0;
+		for (int f = 0; f < mesh.getFaceCount(); f++)
+			triangles += Math.max(0, mesh.getFaceSize(f) - 2);
+		int target = triangles / 2;
+		while (target >= minTriangles) {
+			if (simplifier == null)
+				simplifier = new QuadricSimplifier(mesh);
+			int before = simplifier.getTriangleCount();
+			simplifier.simplify(target);
+			if (simplifier.getTriangleCount() == before)
+				break;  // No more edges can be collapsed.
+			meshes.add(simplifier.getMesh());
+			errorList.add(simplifier.getError());
+			target = simplifier.getTriangleCount() / 2;
+		}
+		levels = meshes.toArray(new PackedMesh[0]);
+		errors = new double[levels.length];
+		for (int i = 0; i < levels.length; i++)
+			errors[i] = errorList.get(i);
+	}
+
+	public int getLevelCount() {
+		return levels.length;
+	}
+
+	/**
+	 * Returns the mesh for a level; level 0 is the original mesh.
+	 */
+	public PackedMesh getLevel(int level) {
+		return levels[level];
+	}
+
+	/**
+	 * Returns the estimated error of a level, in the units of the mesh's coordinates.
+	 */
+	public double getError(int level) {
+		return errors[level];
+	}
+
+	/**
+	 * Returns the simplest level whose error is at most maxPixelError pixels, when
+	 * one unit of the mesh's coordinates covers pixelsPerUnit pixels on the screen.
+	 */
+	public int selectLevel(double pixelsPerUnit, double maxPixelError) {
+		int level = 0;
+		while (level + 1 < levels.length && errors[level + 1] * pixelsPerUnit <= maxPixelError)
+			level++;
+		return level;
+	}
+
+	/**
+	 * Returns the simplest level whose error is at most one pixel, for a model that
+	 * is drawn with a given camera, in a viewport of a given height, after scaling
+	 * it by a given factor.  The camera's apply() method must have been called, so
+	 * that its actual limits match the shape of the viewport.
+	 */
+	public int selectLevel(Camera camera, int viewportHeight, double scale) {
+		double[] limits = camera.getActualXYLimits();
+		double pixelsPerUnit = scale * viewportHeight / (limits[3] - limits[2]);
+		return selectLevel(pixelsPerUnit, 1);
+	}
+
+}
@@ -0,0 +1,82 @@
+import java.util.Arrays;
+
+/**
+ * A LatencyProbe collects measurements of a time interval, such as the time from a
+ * mouse event to the display of the first frame that shows its effect, and reports
+ * statistics about them.  It keeps the count, average, and maximum of all the samples
+ * since it was created or reset, and it keeps the most recent samples (up to 1024)
+ * for computing percentiles.  Times are in nanoseconds, as from System.nanoTime().
+ * The methods are synchronized, so samples can be recorded in one thread, such as
+ * an OpenGL rendering thread, and read in another.
+ */
+public class LatencyProbe {
+
+	private static final int RECENT = 1024;  // Number of recent samples kept for percentiles.
+
+	private final long[] recent = new long[RECENT];
+	private long count;
+	private long total;
+	private long max;
+
+	/**
+	 * Add one measurement, in nanoseconds.
+	 */
+	public synchronized void record(long nanos) {
+		recent[(int)(count % RECENT)] = nanos;
+		count++;
+		total += nanos;
+		max = Math.max(max, nanos);
+	}
+
+	/**
+	 * Discard all measurements.
+	 */
+	public synchronized void reset() {
+		count = total = max = 0;
+	}
+
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the average of all the measurements, in milliseconds, or 0 if there are none.
+	 */
+	public synchronized double getAverageMillis() {
+		return count == 0 ? 0 : total / 1e6 / count;
+	}
+
+	/**
+	 * Returns the largest measurement, in milliseconds.
+	 */
+	public synchronized double getMaxMillis() {
+		return max / 1e6;
+	}
+
+	/**
+	 * Returns a percentile of the recent measurements, in milliseconds, or 0 if there
+	 * are none.  For example, getPercentileMillis(95) is a time that is longer than
+	 * 95% of the recent measurements.
+	 */
+	public synchronized double getPercentileMillis(double percent) {
+		int n = (int)Math.min(count, RECENT);
+		if (n == 0)
+			return 0;
+		long[] sorted = Arrays.copyOf(recent, n);
+		Arrays.sort(sorted);
+		int i = (int)Math.ceil(percent / 100 * n) - 1;
+		return sorted[Math.max(0, Math.min(n - 1, i))] / 1e6;
+	}
+
+	/**
+	 * Returns a short summary of the measurements, such as
+	 * "median 12.1 ms, 95% 20.3 ms, max 31.0 ms (200 samples)".
+	 */
+	public synchronized String toString() {
+		if (count == 0)
+			return "no samples";
+		return String.format("median %.1f ms, 95%% %.1f ms, max %.1f ms (%d samples)",
+				getPercentileMillis(50), getPercentileMillis(95), getMaxMillis(), count);
+	}
+
+}
@@ -0,0 +1,421 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A MeshBVH is a "bounding volume hierarchy" for the faces of a mesh, which makes
+ * it possible to find the first face hit by a ray without testing every face.
+ * The faces are divided into triangles, and the triangles are put into a binary
+ * tree of axis-aligned boxes:  each node of the tree has a box that contains all
+ * of the triangles below it, and a leaf holds a few triangles.  A ray only needs
+ * to be tested against the triangles in the leaves whose boxes it passes through,
+ * and the boxes are visited nearest first, so that most of the tree can be skipped.
+ * A query typically tests a few dozen boxes and triangles, even for a mesh with
+ * millions of faces.
+ *    The tree is built top down.  At each node, the triangles are sorted by the
+ * centers of their boxes into a small number of equal "bins" along each axis, and
+ * the split between bins is chosen that minimizes the "surface area heuristic,"
+ * the sum over the two children of the surface area of the child's box times the
+ * number of triangles in the child.  (The surface area of a box is proportional
+ * to the probability that a random ray hits it.)  A node becomes a leaf when no
+ * split is better than testing all of its triangles.  Large subtrees are built in
+ * parallel by the common ForkJoinPool.  The tree is stored in flat arrays, with
+ * the two children of a node stored next to each other, and the coordinates of
+ * the triangles are copied into an array in the order of the leaves.
+ *    The mesh can be a PackedMesh or a Polyhedron.  A ray is given by an origin
+ * and a direction in the coordinate system of the mesh; see Camera.getPickRay().
+ */
+public class MeshBVH {
+
+	private static final int BINS = 16;
+	private static final int MAX_LEAF_SIZE = 16;      // Larger nodes are always split.
+	private static final int PARALLEL_SIZE = 50000;   // Larger subtrees are built by separate tasks.
+	private static final double TRAVERSAL_COST = 1;   // Relative cost of testing a box, versus a triangle.
+
+	/**
+	 * The result of a successful ray query.
+	 */
+	public static class Hit {
+		public final int face;          // The number of the face that was hit, in the original mesh.
+		public final double distance;   // The ray parameter t of the hit point, origin + t*direction.
+		public final double x, y, z;    // The hit point.
+		Hit(int face, double distance, double x, double y, double z) {
+			this.face = face;
+			this.distance = distance;
+			this.x = x;
+			this.y = y;
+			this.z = z;
+		}
+	}
+
+	private final float[] bounds;       // Six numbers per node:  xmin, ymin, zmin, xmax, ymax, zmax.
+	private final int[] firstOrChild;   // For a leaf, its first triangle; otherwise, its first child.
+	private final int[] triangleCount;  // For a leaf, its number of triangles; 0 for other nodes.
+	private final int nodeCount;
+	private final int depth;
+	private final float[] coords;       // Nine numbers for each triangle, in the order of the leaves.
+	private final int[] triangleFace;   // For each triangle, in the same order, the face it came from.
+
+	/**
+	 * Build the hierarchy for the faces of a Polyhedron.
+	 */
+	public MeshBVH(Polyhedron poly) {
+		this(new PackedMesh(poly));
+	}
+
+	/**
+	 * Build the hierarchy for the faces of a mesh.  Faces are divided into triangles
+	 * using their first vertex, which is correct for convex faces.  The mesh is not
+	 * used after the constructor returns.
+	 */
+	public MeshBVH(PackedMesh mesh) {
+		int count = 0;
+		for (int f = 0; f < mesh.getFaceCount(); f++)
+			count += Math.max(0, mesh.getFaceSize(f) - 2);
+		int[] corners = new int[3*count];
+		int[] faces = new int[count];
+		int t = 0;
+		for (int f = 0; f < mesh.getFaceCount(); f++) {
+			int start = mesh.faceOffsets[f];
+			for (int j = 1; j < mesh.getFaceSize(f) - 1; j++) {
+				corners[3*t] = mesh.faceIndices[start];
+				corners[3*t+1] = mesh.faceIndices[start + j];
+				corners[3*t+2] = mesh.faceIndices[start + j + 1];
+				faces[t++] = f;
+			}
+		}
+		float[] triBounds = new float[6*count];
+		int[] order = new int[count];
+		float[] p = mesh.positions;
+		ParallelLoop.run(count, 8192, (first, last) -> {
+			for (int i = first; i < last; i++) {
+				order[i] = i;
+				for (int k = 0; k < 3; k++) {
+					float a = p[3*corners[3*i] + k], b = p[3*corners[3*i+1] + k], c = p[3*corners[3*i+2] + k];
+					triBounds[6*i + k] = Math.min(a, Math.min(b, c));
+					triBounds[6*i + 3 + k] = Math.max(a, Math.max(b, c));
+				}
+			}
+		});
+		int maxNodes = Math.max(1, 2*count - 1);
+		bounds = new float[6*maxNodes];
+		firstOrChild = new int[maxNodes];
+		triangleCount = new int[maxNodes];
+		AtomicInteger nodes = new AtomicInteger(1);
+		AtomicInteger maxDepth = new AtomicInteger(1);
+		ForkJoinPool.commonPool().invoke(new Builder(triBounds, order, 0, count, 0, 1, nodes, maxDepth));
+		nodeCount = nodes.get();
+		depth = maxDepth.get();
+		coords = new float[9*count];
+		triangleFace = new int[count];
+		ParallelLoop.run(count, 8192, (first, last) -> {
+			for (int i = first; i < last; i++) {
+				int tri = order[i];
+				for (int j = 0; j < 3; j++)
+					System.arraycopy(p, 3*corners[3*tri + j], coords, 9*i + 3*j, 3);
+				triangleFace[i] = faces[tri];
+			}
+		});
+	}
+
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	public int getTriangleCount() {
+		return triangleFace.length;
+	}
+
+	/**
+	 * Returns the number of levels in the tree, counting the root and the leaves.
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Find the first face hit by the ray origin + t*direction, for t >= 0.
+	 * @return the hit, or null if the ray misses the mesh.
+	 */
+	public Hit intersect(double[] origin, double[] direction) {
+		return intersect(origin[0], origin[1], origin[2], direction[0], direction[1], direction[2],
+				Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Find the first face hit by the ray (ox,oy,oz) + t*(dx,dy,dz), for 0 <= t <= maxDistance.
+	 * Both sides of a face can be hit.  (When the direction is a unit vector, t is the
+	 * distance from the origin to the hit point.)
+	 * @return the hit, or null if the ray misses the mesh.
+	 */
+	public Hit intersect(double ox, double oy, double oz, double dx, double dy, double dz, double maxDistance) {
+		if (triangleFace.length == 0)
+			return null;
+		double ix = 1/dx, iy = 1/dy, iz = 1/dz;  // Infinite for a zero component, which the box test allows.
+		double closest = maxDistance;
+		int hit = -1;
+		int[] stack = new int[2*depth];             // Nodes waiting to be visited,
+		double[] stackDistance = new double[2*depth];  //   and where the ray enters their boxes.
+		int top = 0;
+		double tRoot = boxDistance(0, ox, oy, oz, ix, iy, iz, closest);
+		if (tRoot < 0)
+			return null;
+		stackDistance[top] = tRoot;
+		stack[top++] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			if (stackDistance[top] > closest)
+				continue;  // A hit nearer than this box has been found since it was pushed.
+			if (triangleCount[node] > 0) {
+				int first = firstOrChild[node];
+				for (int i = first; i < first + triangleCount[node]; i++) {
+					double t = triangleDistance(i, ox, oy, oz, dx, dy, dz);
+					if (t >= 0 && t <= closest) {
+						closest = t;
+						hit = i;
+					}
+				}
+			}
+			else {
+				int left = firstOrChild[node];
+				double tLeft = boxDistance(left, ox, oy, oz, ix, iy, iz, closest);
+				double tRight = boxDistance(left + 1, ox, oy, oz, ix, iy, iz, closest);
+				if (tLeft >= 0 && tRight >= 0) {  // Push the farther child first, so the nearer one is visited first.
+					boolean leftFirst = tLeft <= tRight;
+					stackDistance[top] = leftFirst ? tRight : tLeft;
+					stack[top++] = leftFirst ? left + 1 : left;
+					stackDistance[top] = leftFirst ? tLeft : tRight;
+					stack[top++] = leftFirst ? left : left + 1;
+				}
+				else if (tLeft >= 0) {
+					stackDistance[top] = tLeft;
+					stack[top++] = left;
+				}
+				else if (tRight >= 0) {
+					stackDistance[top] = tRight;
+					stack[top++] = left + 1;
+				}
+			}
+		}
+		if (hit < 0)
+			return null;
+		return new Hit(triangleFace[hit], closest, ox + closest*dx, oy + closest*dy, oz + closest*dz);
+	}
+
+	/**
+	 * Returns the distance along the ray at which it enters the box of a node, or -1
+	 * if it misses the box or enters it beyond maxDistance.  This is the "slab" test.
+	 */
+	private double boxDistance(int node, double ox, double oy, double oz,
+			double ix, double iy, double iz, double maxDistance) {
+		int b = 6*node;
+		double t1 = (bounds[b] - ox) * ix, t2 = (bounds[b+3] - ox) * ix;
+		double near = Math.min(t1, t2), far = Math.max(t1, t2);
+		t1 = (bounds[b+1] - oy) * iy;
+		t2 = (bounds[b+4] - oy) * iy;
+		near = Math.max(near, Math.min(t1, t2));
+		far = Math.min(far, Math.max(t1, t2));
+		t1 = (bounds[b+2] - oz) * iz;
+		t2 = (bounds[b+5] - oz) * iz;
+		near = Math.max(near, Math.min(t1, t2));
+		far = Math.min(far, Math.max(t1, t2));
+		if (!(far >= Math.max(near, 0)) || near > maxDistance)
+			return -1;  // (The test is written so that a NaN, from 0 times infinity, counts as a miss.)
+		return Math.max(near, 0);
+	}
+
+	/**
+	 * Returns the ray parameter where the ray hits triangle i, or -1 if it misses,
+	 * using the Moller-Trumbore method.
+	 */
+	private double triangleDistance(int i, double ox, double oy, double oz, double dx, double dy, double dz) {
+		int c = 9*i;
+		double ax = coords[c], ay = coords[c+1], az = coords[c+2];
+		double e1x = coords[c+3] - ax, e1y = coords[c+4] - ay, e1z = coords[c+5] - az;
+		double e2x = coords[c+6] - ax, e2y = coords[c+7] - ay, e2z = coords[c+8] - az;
+		double px = dy*e2z - dz*e2y, py = dz*e2x - dx*e2z, pz = dx*e2y - dy*e2x;
+		double det = e1x*px + e1y*py + e1z*pz;
+		if (det == 0)
+			return -1;  // The ray is parallel to the triangle.
+		double inv = 1/det;
+		double sx = ox - ax, sy = oy - ay, sz = oz - az;
+		double u = (sx*px + sy*py + sz*pz) * inv;
+		if (u < 0 || u > 1)
+			return -1;
+		double qx = sy*e1z - sz*e1y, qy = sz*e1x - sx*e1z, qz = sx*e1y - sy*e1x;
+		double v = (dx*qx + dy*qy + dz*qz) * inv;
+		if (v < 0 || u + v > 1)
+			return -1;
+		return (e2x*qx + e2y*qy + e2z*qz) * inv;
+	}
+
+	/**
+	 * Builds the subtree for the triangles order[start] to order[end-1], storing
+	 * its root in a given node.  Children of large nodes are built by new tasks.
+	 */
+	private class Builder extends RecursiveAction {
+		float[] triBounds;
+		int[] order;
+		int start, end, node, level;
+		AtomicInteger nodes, maxDepth;
+		Builder(float[] triBounds, int[] order, int start, int end, int node, int level,
+				AtomicInteger nodes, AtomicInteger maxDepth) {
+			this.triBounds = triBounds;
+			this.order = order;
+			this.start = start;
+			this.end = end;
+			this.node = node;
+			this.level = level;
+			this.nodes = nodes;
+			this.maxDepth = maxDepth;
+		}
+		protected void compute() {
+			build(start, end, node, level);
+		}
+		private void build(int start, int end, int node, int level) {
+			float[] box = new float[6];
+			float[] centers = new float[6];
+			boxOf(start, end, box, centers);
+			System.arraycopy(box, 0, bounds, 6*node, 6);
+			int count = end - start;
+			int split = count <= 2 ? -1 : chooseSplit(start, end, box, centers);
+			if (split < 0 && count > MAX_LEAF_SIZE)
+				split = start + count/2;  // All the centers are the same; divide the triangles in any order.
+			if (split < 0) {
+				firstOrChild[node] = start;
+				triangleCount[node] = count;
+				maxDepth.accumulateAndGet(level, Math::max);
+				return;
+			}
+			int left = nodes.getAndAdd(2);
+			firstOrChild[node] = left;
+			triangleCount[node] = 0;
+			if (count > PARALLEL_SIZE) {
+				invokeAll(new Builder(triBounds, order, start, split, left, level + 1, nodes, maxDepth),
+						new Builder(triBounds, order, split, end, left + 1, level + 1, nodes, maxDepth));
+			}
+			else {
+				build(start, split, left, level + 1);
+				build(split, end, left + 1, level + 1);
+			}
+		}
+		/**
+		 * Find the box that contains the triangles, and the box that contains their centers.
+		 * (Centers are stored doubled, as the sum of min and max, to save a multiplication.)
+		 */
+		private void boxOf(int start, int end, float[] box, float[] centers) {
+			for (int k = 0; k < 3; k++) {
+				box[k] = centers[k] = Float.POSITIVE_INFINITY;
+				box[k+3] = centers[k+3] = Float.NEGATIVE_INFINITY;
+			}
+			for (int i = start; i < end; i++) {
+				int b = 6*order[i];
+				for (int k = 0; k < 3; k++) {
+					box[k] = Math.min(box[k], triBounds[b+k]);
+					box[k+3] = Math.max(box[k+3], triBounds[b+k+3]);
+					float c = triBounds[b+k] + triBounds[b+k+3];
+					centers[k] = Math.min(centers[k], c);
+					centers[k+3] = Math.max(centers[k+3], c);
+				}
+			}
+		}
+		/**
+		 * Choose the best split of the triangles using binned SAH, reorder the triangles
+		 * so that the left child's come first, and return the index where the right
+		 * child's start.  Returns -1 if the node should be a leaf, which is possible only
+		 * if it has at most MAX_LEAF_SIZE triangles or if all their centers are the same.
+		 */
+		private int chooseSplit(int start, int end, float[] box, float[] centers) {
+			int count = end - start;
+			double bestCost = count > MAX_LEAF_SIZE ? Double.POSITIVE_INFINITY
+					: count * area(box, 0);  // The cost of a leaf, relative to a split.
+			int bestAxis = -1, bestBin = -1;
+			int[] binCount = new int[BINS];
+			float[] binBox = new float[6*BINS];
+			float[] sweep = new float[6];
+			double[] rightArea = new double[BINS];
+			int[] rightCount = new int[BINS];
+			for (int axis = 0; axis < 3; axis++) {
+				float lo = centers[axis], hi = centers[axis+3];
+				if (hi <= lo)
+					continue;
+				double binScale = BINS / (double)(hi - lo);
+				java.util.Arrays.fill(binCount, 0);
+				for (int j = 0; j < BINS; j++)
+					emptyBox(binBox, 6*j);
+				for (int i = start; i < end; i++) {
+					int b = 6*order[i];
+					int bin = Math.min(BINS - 1, (int)((triBounds[b+axis] + triBounds[b+axis+3] - lo) * binScale));
+					binCount[bin]++;
+					for (int k = 0; k < 3; k++) {
+						binBox[6*bin + k] = Math.min(binBox[6*bin + k], triBounds[b+k]);
+						binBox[6*bin + k + 3] = Math.max(binBox[6*bin + k + 3], triBounds[b+k+3]);
+					}
+				}
+				emptyBox(sweep, 0);
+				int n = 0;
+				for (int j = BINS - 1; j > 0; j--) {  // Right side of the split before bin j.
+					addBox(sweep, binBox, 6*j);
+					n += binCount[j];
+					rightArea[j] = area(sweep, 0);
+					rightCount[j] = n;
+				}
+				emptyBox(sweep, 0);
+				n = 0;
+				for (int j = 1; j < BINS; j++) {  // Split between bins j-1 and j.
+					addBox(sweep, binBox, 6*(j-1));
+					n += binCount[j-1];
+					if (n == 0 || rightCount[j] == 0)
+						continue;
+					double cost = TRAVERSAL_COST * area(box, 0) + n*area(sweep, 0) + rightCount[j]*rightArea[j];
+					if (cost < bestCost) {
+						bestCost = cost;
+						bestAxis = axis;
+						bestBin = j;
+					}
+				}
+			}
+			if (bestAxis < 0)
+				return -1;
+			float lo = centers[bestAxis];
+			double binScale = BINS / (double)(centers[bestAxis+3] - lo);
+			int i = start, j = end - 1;
+			while (i <= j) {  // Partition, as in quicksort.
+				int b = 6*order[i];
+				int bin = Math.min(BINS - 1, (int)((triBounds[b+bestAxis] + triBounds[b+bestAxis+3] - lo) * binScale));
+				if (bin < bestBin) {
+					i++;
+				}
+				else {
+					int temp = order[i];
+					order[i] = order[j];
+					order[j--] = temp;
+				}
+			}
+			return i;
+		}
+	}
+
+	private static void emptyBox(float[] box, int b) {
+		box[b] = box[b+1] = box[b+2] = Float.POSITIVE_INFINITY;
+		box[b+3] = box[b+4] = box[b+5] = Float.NEGATIVE_INFINITY;
+	}
+
+	private static void addBox(float[] box, float[] other, int b) {
+		for (int k = 0; k < 3; k++) {
+			box[k] = Math.min(box[k], other[b+k]);
+			box[k+3] = Math.max(box[k+3], other[b+k+3]);
+		}
+	}
+
+	/**
+	 * Returns half the surface area of a box, which is all that is needed for comparing costs.
+	 */
+	private static double area(float[] box, int b) {
+		double x = box[b+3] - box[b], y = box[b+4] - box[b+1], z = box[b+5] - box[b+2];
+		if (x < 0)
+			return 0;  // An empty box.
+		return x*y + y*z + z*x;
+	}
+
+}
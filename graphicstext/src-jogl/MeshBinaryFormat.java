@@ -0,0 +1,242 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MeshBinaryFormat reads and writes a PackedMesh in a simple binary file format,
+ * with file name extension .ifsb.  The file holds the arrays of the mesh more or less
+ * as they are stored in memory, so reading it is little more than a bulk copy.  All
+ * numbers are little-endian.  The file starts with a 32-byte header:
+ *
+ *     bytes 0-3    the characters "IFSB"
+ *     int32        format version, currently 1
+ *     int32        flags:  1 if there are normals, 2 if there are face colors,
+ *                  4 if the numbers are quantized
+ *     int32        number of vertices, V
+ *     int32        number of faces, F
+ *     int32        number of face indices, I
+ *     int32 x 2    reserved, 0
+ *
+ * followed by these sections, each padded with zeros to a multiple of 4 bytes:
+ *
+ *     if quantized, the bounding box of the vertices:  float32 xmin, ymin, zmin, xmax, ymax, zmax
+ *     positions:    3V numbers; float32, or if quantized, uint16 fractions of the bounding box
+ *     faceOffsets:  F+1 int32
+ *     faceIndices:  I int32
+ *     normals:      3F numbers, if present; float32, or if quantized, int16 fractions of 32767
+ *     faceColors:   3F numbers, if present; float32, or if quantized, uint8 fractions of 255
+ *
+ * Quantization makes the file smaller, at the cost of precision:  Coordinates are
+ * rounded to 1/65535 of the size of the bounding box, normal vector components to
+ * 1/32767, and colors to 1/255.  A reader can tell from the version number whether it
+ * understands a file; a later version can add sections after the ones listed here.
+ */
+public class MeshBinaryFormat {
+
+	public static final int VERSION = 1;
+
+	private static final int HAS_NORMALS = 1, HAS_COLORS = 2, QUANTIZED = 4;
+	private static final int HEADER_SIZE = 32;
+
+	/**
+	 * Write a mesh to a file.
+	 * @param quantize whether to store numbers with 16 or 8 bits instead of as floats.
+	 */
+	public static void write(PackedMesh mesh, File file, boolean quantize) throws IOException {
+		int vertexCount = mesh.getVertexCount();
+		int faceCount = mesh.getFaceCount();
+		int flags = (mesh.normals == null ? 0 : HAS_NORMALS) | (mesh.faceColors == null ? 0 : HAS_COLORS)
+				| (quantize ? QUANTIZED : 0);
+		long size = fileSize(flags, vertexCount, faceCount, mesh.faceIndices.length);
+		if (size > Integer.MAX_VALUE)
+			throw new IOException("The mesh is too large for one buffer.");
+		ByteBuffer buffer = ByteBuffer.allocateDirect((int)size).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.put((byte)'I').put((byte)'F').put((byte)'S').put((byte)'B');
+		buffer.putInt(VERSION).putInt(flags).putInt(vertexCount).putInt(faceCount)
+				.putInt(mesh.faceIndices.length).putInt(0).putInt(0);
+		if (quantize) {
+			float[] box = boundingBox(mesh.positions);
+			for (float x : box)
+				buffer.putFloat(x);
+			for (int i = 0; i < mesh.positions.length; i++) {
+				float min = box[i % 3], range = box[3 + i % 3] - min;
+				int q = range == 0 ? 0 : Math.round((mesh.positions[i] - min) / range * 65535);
+				buffer.putShort((short)q);
+			}
+		}
+		else {
+			buffer.asFloatBuffer().put(mesh.positions);
+			buffer.position(buffer.position() + 4*mesh.positions.length);
+		}
+		align(buffer);
+		buffer.asIntBuffer().put(mesh.faceOffsets);
+		buffer.position(buffer.position() + 4*mesh.faceOffsets.length);
+		buffer.asIntBuffer().put(mesh.faceIndices);
+		buffer.position(buffer.position() + 4*mesh.faceIndices.length);
+		if (mesh.normals != null) {
+			if (quantize) {
+				for (float n : mesh.normals)
+					buffer.putShort((short)Math.round(Math.max(-1, Math.min(1, n)) * 32767));
+			}
+			else {
+				buffer.asFloatBuffer().put(mesh.normals);
+				buffer.position(buffer.position() + 4*mesh.normals.length);
+			}
+			align(buffer);
+		}
+		if (mesh.faceColors != null) {
+			if (quantize) {
+				for (float c : mesh.faceColors)
+					buffer.put((byte)Math.round(Math.max(0, Math.min(1, c)) * 255));
+			}
+			else {
+				buffer.asFloatBuffer().put(mesh.faceColors);
+				buffer.position(buffer.position() + 4*mesh.faceColors.length);
+			}
+			align(buffer);
+		}
+		buffer.flip();
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Read a mesh from a file in this format.
+	 * @throws IOException if the file cannot be read, if it is not in this format, if it
+	 *    has a newer version number, or if its data is inconsistent.
+	 */
+	public static PackedMesh read(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("The file is too large.");
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.limit() < HEADER_SIZE || buffer.get() != 'I' || buffer.get() != 'F'
+					|| buffer.get() != 'S' || buffer.get() != 'B')
+				throw new IOException("This is not an IFSB file.");
+			int version = buffer.getInt();
+			if (version > VERSION)
+				throw new IOException("The file has version " + version + "; only version " + VERSION
+						+ " can be read.");
+			int flags = buffer.getInt();
+			int vertexCount = buffer.getInt();
+			int faceCount = buffer.getInt();
+			int indexCount = buffer.getInt();
+			buffer.position(HEADER_SIZE);
+			if (vertexCount < 0 || faceCount < 0 || indexCount < 0)
+				throw new IOException("Bad header in IFSB file.");
+			if (fileSize(flags, vertexCount, faceCount, indexCount) > channel.size())
+				throw new IOException("The IFSB file is shorter than its header says.");
+			boolean quantized = (flags & QUANTIZED) != 0;
+			float[] positions = new float[3*vertexCount];
+			if (quantized) {
+				float[] box = new float[6];
+				for (int i = 0; i < 6; i++)
+					box[i] = buffer.getFloat();
+				for (int i = 0; i < positions.length; i++) {
+					float min = box[i % 3], range = box[3 + i % 3] - min;
+					positions[i] = min + (buffer.getShort() & 0xFFFF) / 65535f * range;
+				}
+			}
+			else {
+				buffer.asFloatBuffer().get(positions);
+				buffer.position(buffer.position() + 4*positions.length);
+			}
+			align(buffer);
+			int[] faceOffsets = new int[faceCount + 1];
+			buffer.asIntBuffer().get(faceOffsets);
+			buffer.position(buffer.position() + 4*faceOffsets.length);
+			int[] faceIndices = new int[indexCount];
+			buffer.asIntBuffer().get(faceIndices);
+			buffer.position(buffer.position() + 4*faceIndices.length);
+			float[] normals = null;
+			if ((flags & HAS_NORMALS) != 0) {
+				normals = new float[3*faceCount];
+				if (quantized) {
+					for (int i = 0; i < normals.length; i++)
+						normals[i] = buffer.getShort() / 32767f;
+				}
+				else {
+					buffer.asFloatBuffer().get(normals);
+					buffer.position(buffer.position() + 4*normals.length);
+				}
+				align(buffer);
+			}
+			float[] colors = null;
+			if ((flags & HAS_COLORS) != 0) {
+				colors = new float[3*faceCount];
+				if (quantized) {
+					for (int i = 0; i < colors.length; i++)
+						colors[i] = (buffer.get() & 0xFF) / 255f;
+				}
+				else {
+					buffer.asFloatBuffer().get(colors);
+					buffer.position(buffer.position() + 4*colors.length);
+				}
+				align(buffer);
+			}
+			return new PackedMesh(positions, faceOffsets, faceIndices, normals, colors);
+		}
+		catch (java.nio.BufferUnderflowException e) {
+			throw new IOException("The IFSB file ended unexpectedly.");
+		}
+		catch (IllegalArgumentException e) {
+			throw new IOException("Bad data in IFSB file: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the box containing the points, as xmin, ymin, zmin, xmax, ymax, zmax.
+	 */
+	private static float[] boundingBox(float[] positions) {
+		float[] box = new float[6];
+		if (positions.length == 0)
+			return box;
+		for (int k = 0; k < 3; k++)
+			box[k] = box[k+3] = positions[k];
+		for (int i = 3; i < positions.length; i++) {
+			box[i % 3] = Math.min(box[i % 3], positions[i]);
+			box[3 + i % 3] = Math.max(box[3 + i % 3], positions[i]);
+		}
+		return box;
+	}
+
+	/**
+	 * Returns the number of bytes in a file with the given header, without any sections
+	 * that a later version might add.  The result is a long, so it cannot overflow.
+	 */
+	private static long fileSize(int flags, int vertexCount, int faceCount, int indexCount) {
+		boolean quantized = (flags & QUANTIZED) != 0;
+		long size = HEADER_SIZE + (quantized ? 24 : 0) + pad(3L*vertexCount*(quantized ? 2 : 4))
+				+ 4L*(faceCount + 1L) + 4L*indexCount;
+		if ((flags & HAS_NORMALS) != 0)
+			size += pad(3L*faceCount*(quantized ? 2 : 4));
+		if ((flags & HAS_COLORS) != 0)
+			size += pad(3L*faceCount*(quantized ? 1 : 4));
+		return size;
+	}
+
+	private static long pad(long bytes) {
+		return (bytes + 3) & ~3L;
+	}
+
+	/**
+	 * Move the buffer's position up to a multiple of 4, writing zeros if it is being written.
+	 */
+	private static void align(ByteBuffer buffer) {
+		while (buffer.position() % 4 != 0) {
+			if (buffer.isReadOnly())
+				buffer.get();
+			else
+				buffer.put((byte)0);
+		}
+	}
+
+}
@@ -0,0 +1,155 @@
+import com.jogamp.common.nio.Buffers;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * A MeshBuffers object holds the data for drawing a polyhedron with glDrawElements,
+ * in the form of arrays that can be copied directly into OpenGL vertex buffer
+ * objects.  The data is computed once, when the object is constructed, and does
+ * not use OpenGL, so it can be made and checked without a GPU.
+ *    Since each face has its own normal vector and color, a vertex of the polyhedron
+ * is repeated once for each face that contains it.  The vertexData array holds
+ * FLOATS_PER_VERTEX numbers for each of those vertices:  the x, y, and z
+ * coordinates, then the normal vector, then the red, green, and blue color
+ * components.  (This is an "interleaved" array; in OpenGL, the stride is
+ * STRIDE bytes, and the offsets of the three attributes are NORMAL_OFFSET and
+ * COLOR_OFFSET bytes.)  Each face is divided into triangles, using the first
+ * vertex of the face as a common vertex for all the triangles, which is correct
+ * for convex faces.  The triangleIndices array holds three indices into the list
+ * of vertices for each triangle, for drawing with GL_TRIANGLES, and the edgeIndices
+ * array holds two indices for each edge of the polyhedron, for drawing with
+ * GL_LINES.  An edge that is shared by two faces is included only once.  (The
+ * edges are found with a HalfEdgeMesh.)
+ *    If the polyhedron has no normal vectors, they are computed from the vertices
+ * of each face.  Instead of face normals, the normals computed by a SmoothNormals
+ * object can be used, for smooth shading.  If it has no face colors, all the faces are white.
+ */
+public class MeshBuffers {
+
+	public static final int FLOATS_PER_VERTEX = 9;
+	public static final int STRIDE = 4*FLOATS_PER_VERTEX; // Bytes per vertex in vertexData.
+	public static final int NORMAL_OFFSET = 12;  // Byte offset of the normal vector in a vertex.
+	public static final int COLOR_OFFSET = 24;   // Byte offset of the color in a vertex.
+
+	public final float[] vertexData;
+	public final int[] triangleIndices;
+	public final int[] edgeIndices;
+
+	/**
+	 * Build the arrays for a Polyhedron.
+	 */
+	public MeshBuffers(Polyhedron poly) {
+		this(new PackedMesh(poly));
+	}
+
+	/**
+	 * Build the arrays for a PackedMesh, using the normal vectors of the faces.
+	 */
+	public MeshBuffers(PackedMesh mesh) {
+		this(mesh, null);
+	}
+
+	/**
+	 * Build the arrays for a PackedMesh.
+	 * @param smooth normal vectors for the corners of the faces, computed for the
+	 *    same mesh.  If null, the normal vectors of the faces are used.
+	 */
+	public MeshBuffers(PackedMesh mesh, SmoothNormals smooth) {
+		int faceCount = mesh.getFaceCount();
+		int corners = mesh.faceIndices.length;  // One vertex in vertexData for each corner of each face.
+		int triangles = 0;
+		for (int f = 0; f < faceCount; f++)
+			triangles += Math.max(0, mesh.getFaceSize(f) - 2);
+		vertexData = new float[FLOATS_PER_VERTEX*corners];
+		triangleIndices = new int[3*triangles];
+		float[] normal = new float[3];
+		int t = 0;
+		for (int f = 0; f < faceCount; f++) {
+			int start = mesh.faceOffsets[f];
+			int size = mesh.getFaceSize(f);
+			if (mesh.normals != null)
+				System.arraycopy(mesh.normals, 3*f, normal, 0, 3);
+			else
+				faceNormal(mesh, f, normal);
+			for (int j = 0; j < size; j++) {
+				int v = mesh.faceIndices[start + j];
+				int d = FLOATS_PER_VERTEX*(start + j);
+				System.arraycopy(mesh.positions, 3*v, vertexData, d, 3);
+				if (smooth != null)
+					System.arraycopy(smooth.cornerNormals, 3*(start + j), vertexData, d + 3, 3);
+				else
+					System.arraycopy(normal, 0, vertexData, d + 3, 3);
+				if (mesh.faceColors != null)
+					System.arraycopy(mesh.faceColors, 3*f, vertexData, d + 6, 3);
+				else
+					vertexData[d+6] = vertexData[d+7] = vertexData[d+8] = 1;
+			}
+			for (int j = 1; j < size - 1; j++) {
+				triangleIndices[t++] = start;
+				triangleIndices[t++] = start + j;
+				triangleIndices[t++] = start + j + 1;
+			}
+		}
+		HalfEdgeMesh halfEdges = new HalfEdgeMesh(mesh);
+		edgeIndices = new int[2*halfEdges.getEdgeCount()];
+		for (int e = 0; e < halfEdges.getEdgeCount(); e++) {
+			int h = halfEdges.edgeHalfEdge(e);  // Half-edges are numbered like the corners of the faces,
+			edgeIndices[2*e] = h;               //   which are also the vertices in vertexData.
+			edgeIndices[2*e+1] = halfEdges.next(h);
+		}
+	}
+
+	/**
+	 * Returns the number of vertices in vertexData.
+	 */
+	public int getVertexCount() {
+		return vertexData.length / FLOATS_PER_VERTEX;
+	}
+
+	/**
+	 * Returns a new direct buffer containing a copy of vertexData.
+	 */
+	public FloatBuffer getVertexBuffer() {
+		return Buffers.newDirectFloatBuffer(vertexData);
+	}
+
+	/**
+	 * Returns a new direct buffer containing a copy of triangleIndices.
+	 */
+	public IntBuffer getTriangleBuffer() {
+		return Buffers.newDirectIntBuffer(triangleIndices);
+	}
+
+	/**
+	 * Returns a new direct buffer containing a copy of edgeIndices.
+	 */
+	public IntBuffer getEdgeBuffer() {
+		return Buffers.newDirectIntBuffer(edgeIndices);
+	}
+
+	/**
+	 * Compute a unit normal vector for a face, using Newell's method, which works
+	 * for any polygon whose vertices are in counterclockwise order as seen from the
+	 * outside, even if the vertices are not exactly in one plane.
+	 */
+	private static void faceNormal(PackedMesh mesh, int f, float[] normal) {
+		int start = mesh.faceOffsets[f];
+		int size = mesh.getFaceSize(f);
+		double nx = 0, ny = 0, nz = 0;
+		for (int j = 0; j < size; j++) {
+			int a = 3*mesh.faceIndices[start + j];
+			int b = 3*mesh.faceIndices[start + (j + 1) % size];
+			float[] p = mesh.positions;
+			nx += (p[a+1] - p[b+1]) * (p[a+2] + p[b+2]);
+			ny += (p[a+2] - p[b+2]) * (p[a] + p[b]);
+			nz += (p[a] - p[b]) * (p[a+1] + p[b+1]);
+		}
+		double length = Math.sqrt(nx*nx + ny*ny + nz*nz);
+		if (length == 0)
+			length = 1;
+		normal[0] = (float)(nx/length);
+		normal[1] = (float)(ny/length);
+		normal[2] = (float)(nz/length);
+	}
+
+}
@@ -0,0 +1,651 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * MeshLoader reads indexed face set models from files in three common formats:
+ * Wavefront OBJ, PLY (ASCII or binary), and binary STL.  The result is a PackedMesh,
+ * which can be converted to a Polyhedron if necessary.  Only the vertex coordinates
+ * and the faces are used; texture coordinates, vertex normals, and other data in the
+ * file are ignored, except that the facet normals in an STL file become the normals
+ * of the faces.  An STL file lists the three vertices of each triangle separately,
+ * so the mesh has three vertices for each face; vertices are not merged here, but
+ * they can be merged afterwards with MeshWelder.
+ *    Files are read through memory-mapped FileChannels, and numbers are parsed
+ * directly from the bytes of the file by a hand-written parser, so that no Strings
+ * or other objects are created for individual lines or numbers.  The data goes
+ * straight into growable arrays of floats and ints.  A large OBJ file is divided
+ * into chunks that start and end at line boundaries, and the chunks are parsed in
+ * parallel by the common ForkJoinPool; then the results for the chunks are joined
+ * together.  (Relative face indices, which are negative numbers in OBJ files, are
+ * adjusted when the chunks are joined.)  The triangles in an STL file all have the
+ * same size in the file, so they are also read in parallel.  PLY files are read
+ * by a single thread, since the length of a face in the file is not known until it
+ * has been read.  Numbers in ASCII files are converted to float by a method that
+ * can differ from Float.parseFloat in the last bit for numbers with many digits.
+ */
+public class MeshLoader {
+
+	private static final long CHUNK_SIZE = 8 << 20;  // Target size, in bytes, for chunks of an OBJ file.
+	private static final long MAX_ARRAY = Integer.MAX_VALUE - 8;  // The longest array that every JVM can make.
+
+	/**
+	 * Read a mesh from a file, choosing the format from the file name extension,
+	 * which must be .obj, .ply, or .stl (in upper or lower case).  Files with extension
+	 * .ifsb, written by MeshBinaryFormat, are also accepted.
+	 * @throws IOException if the file cannot be read, if its name does not have one
+	 *    of the recognized extensions, or if it is not a legal file of its type.
+	 */
+	public static PackedMesh load(File file) throws IOException {
+		String name = file.getName().toLowerCase();
+		if (name.endsWith(".obj"))
+			return loadOBJ(file);
+		else if (name.endsWith(".ply"))
+			return loadPLY(file);
+		else if (name.endsWith(".stl"))
+			return loadSTL(file);
+		else if (name.endsWith(".ifsb"))
+			return MeshBinaryFormat.read(file);
+		else
+			throw new IOException("The file name must end with .obj, .ply, .stl, or .ifsb.");
+	}
+
+	//------------------------------------------- OBJ -----------------------------------------
+
+	/**
+	 * The data read from one chunk of an OBJ file.  Face indices are stored as
+	 * zero-based vertex numbers.  A relative index refers to a vertex counting back
+	 * from the last vertex before the face, and the vertex can be in an earlier chunk;
+	 * it is stored as an index relative to the first vertex of this chunk (which can
+	 * be negative), and its position in the indices list is recorded in relativeSlots
+	 * so that it can be adjusted when the chunks are joined.
+	 */
+	private static class OBJChunk {
+		FloatList positions = new FloatList();
+		IntList faceSizes = new IntList();
+		IntList indices = new IntList();
+		IntList relativeSlots = new IntList();
+	}
+
+	/**
+	 * Read a Wavefront OBJ file.  Lines that start with "v" give vertex coordinates,
+	 * and lines that start with "f" give faces.  A face with fewer than three
+	 * vertices is ignored.  All other lines are ignored.
+	 */
+	public static PackedMesh loadOBJ(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long[] bounds = lineAlignedChunks(channel);
+			OBJChunk[] chunks = new OBJChunk[bounds.length - 1];
+			ParallelLoop.run(chunks.length, 1, (first, last) -> {
+				for (int i = first; i < last; i++) {
+					try {
+						MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+								bounds[i], bounds[i+1] - bounds[i]);
+						chunks[i] = parseOBJ(new Parser(buffer, bounds[i]));
+					}
+					catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
+			});
+			long vertexCount = 0, faceCount = 0, indexCount = 0;  // Longs, since the sums can overflow an int.
+			for (OBJChunk chunk : chunks) {
+				vertexCount += chunk.positions.size / 3;
+				faceCount += chunk.faceSizes.size;
+				indexCount += chunk.indices.size;
+			}
+			if (3*vertexCount > MAX_ARRAY || faceCount + 1 > MAX_ARRAY || indexCount > MAX_ARRAY)
+				throw new IOException("The OBJ file has too many vertices or faces to be loaded.");
+			float[] positions = new float[(int)(3*vertexCount)];
+			int[] faceOffsets = new int[(int)(faceCount + 1)];
+			int[] faceIndices = new int[(int)indexCount];
+			int v = 0, f = 0, k = 0;
+			for (OBJChunk chunk : chunks) {
+				System.arraycopy(chunk.positions.data, 0, positions, 3*v, chunk.positions.size);
+				for (int i = 0; i < chunk.faceSizes.size; i++) {
+					faceOffsets[f+1] = faceOffsets[f] + chunk.faceSizes.data[i];
+					f++;
+				}
+				System.arraycopy(chunk.indices.data, 0, faceIndices, k, chunk.indices.size);
+				for (int i = 0; i < chunk.relativeSlots.size; i++)
+					faceIndices[k + chunk.relativeSlots.data[i]] += v;
+				v += chunk.positions.size / 3;
+				k += chunk.indices.size;
+			}
+			return makeMesh(positions, faceOffsets, faceIndices, null);
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Parse the lines in one chunk of an OBJ file.
+	 */
+	private static OBJChunk parseOBJ(Parser in) throws IOException {
+		OBJChunk chunk = new OBJChunk();
+		while (in.more()) {
+			in.skipSpaces();
+			int c = in.peek();
+			int c2 = in.peek(1);
+			if (c == 'v' && (c2 == ' ' || c2 == '\t')) {
+				in.advance(2);
+				chunk.positions.add(in.parseFloat());
+				chunk.positions.add(in.parseFloat());
+				chunk.positions.add(in.parseFloat());
+			}
+			else if (c == 'f' && (c2 == ' ' || c2 == '\t')) {
+				in.advance(2);
+				int start = chunk.indices.size;
+				int localVertexCount = chunk.positions.size / 3;
+				while (true) {
+					in.skipSpaces();
+					if (in.atLineEnd())
+						break;
+					int index = in.parseInt();
+					if (index < 0) {
+						chunk.relativeSlots.add(chunk.indices.size);
+						chunk.indices.add(localVertexCount + index);
+					}
+					else {
+						chunk.indices.add(index - 1);
+					}
+					in.skipToken();  // Skip texture and normal indices, as in "3/7/2".
+				}
+				int size = chunk.indices.size - start;
+				if (size >= 3) {
+					chunk.faceSizes.add(size);
+				}
+				else {  // Discard a degenerate face.
+					chunk.indices.size = start;
+					while (chunk.relativeSlots.size > 0 && chunk.relativeSlots.data[chunk.relativeSlots.size-1] >= start)
+						chunk.relativeSlots.size--;
+				}
+			}
+			in.skipLine();
+		}
+		return chunk;
+	}
+
+	/**
+	 * Divide a file into chunks of about CHUNK_SIZE bytes that end just after a newline
+	 * (except possibly for the last chunk), and return the positions where the chunks
+	 * start, followed by the size of the file.
+	 */
+	private static long[] lineAlignedChunks(FileChannel channel) throws IOException {
+		long size = channel.size();
+		int count = (int)Math.max(1, Math.min(Integer.MAX_VALUE/2, (size + CHUNK_SIZE - 1) / CHUNK_SIZE));
+		long[] bounds = new long[count + 1];
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		int n = 1;
+		for (int i = 1; i < count; i++) {
+			long position = Math.max(bounds[n-1], size * i / count);
+			boolean found = false;
+			while (!found && position < size) {
+				buffer.clear();
+				int bytes = channel.read(buffer, position);
+				if (bytes <= 0)
+					break;
+				for (int j = 0; j < bytes; j++) {
+					if (buffer.get(j) == '\n') {
+						position += j + 1;
+						found = true;
+						break;
+					}
+				}
+				if (!found)
+					position += bytes;
+			}
+			if (position > bounds[n-1] && position < size)
+				bounds[n++] = position;
+		}
+		bounds[n] = size;
+		return Arrays.copyOf(bounds, n + 1);
+	}
+
+	//------------------------------------------- PLY -----------------------------------------
+
+	private static final String[] PLY_TYPES = { "char", "uchar", "short", "ushort", "int", "uint", "float", "double",
+			"int8", "uint8", "int16", "uint16", "int32", "uint32", "float32", "float64" };
+	private static final int[] PLY_SIZES = { 1, 1, 2, 2, 4, 4, 4, 8,  1, 1, 2, 2, 4, 4, 4, 8 };
+
+	/**
+	 * A property of an element in the header of a PLY file.  The type is an
+	 * index into PLY_TYPES; for a list, countType is the type of the count.
+	 */
+	private static class PLYProperty {
+		String name;
+		int type;
+		int countType = -1;  // -1 if the property is not a list.
+	}
+
+	private static class PLYElement {
+		String name;
+		long count;
+		ArrayList<PLYProperty> properties = new ArrayList<>();
+	}
+
+	/**
+	 * Read a PLY file, in ASCII or binary format.  The coordinates of the vertices
+	 * come from the x, y, and z properties of the "vertex" element, and the faces
+	 * come from the vertex_indices (or vertex_index) property of the "face" element.
+	 * Other elements and properties are skipped.
+	 */
+	public static PackedMesh loadPLY(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = mapAll(channel);
+			ArrayList<PLYElement> elements = new ArrayList<>();
+			String format = readPLYHeader(buffer, elements);
+			long vertexCount = 0, faceCount = 0;
+			for (PLYElement element : elements) {
+				if (element.name.equals("vertex"))
+					vertexCount = element.count;
+				else if (element.name.equals("face"))
+					faceCount = element.count;
+			}
+			if (3*vertexCount > Integer.MAX_VALUE || faceCount >= Integer.MAX_VALUE)
+				throw new IOException("The PLY file is too large.");
+			float[] positions = new float[3*(int)vertexCount];
+			int[] faceOffsets = new int[(int)faceCount + 1];
+			IntList faceIndices = new IntList();
+			boolean ascii = format.equals("ascii");
+			Parser in = new Parser(buffer, 0);
+			if (!ascii)
+				buffer.order(format.equals("binary_big_endian") ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+			for (PLYElement element : elements) {
+				boolean isVertex = element.name.equals("vertex");
+				boolean isFace = element.name.equals("face");
+				for (int i = 0; i < element.count; i++) {
+					for (PLYProperty property : element.properties) {
+						if (property.countType >= 0) {
+							int count = (int)(ascii ? in.parseDouble() : readBinary(buffer, property.countType));
+							boolean indices = isFace && (property.name.equals("vertex_indices")
+									|| property.name.equals("vertex_index"));
+							for (int j = 0; j < count; j++) {
+								double value = ascii ? in.parseDouble() : readBinary(buffer, property.type);
+								if (indices)
+									faceIndices.add((int)value);
+							}
+							if (indices)
+								faceOffsets[i+1] = faceOffsets[i] + count;
+						}
+						else {
+							double value = ascii ? in.parseDouble() : readBinary(buffer, property.type);
+							if (isVertex) {
+								switch (property.name) {
+								case "x": positions[3*i] = (float)value; break;
+								case "y": positions[3*i+1] = (float)value; break;
+								case "z": positions[3*i+2] = (float)value; break;
+								}
+							}
+						}
+					}
+					if (isFace && faceOffsets[i+1] < faceOffsets[i])
+						faceOffsets[i+1] = faceOffsets[i];  // The face had no index list.
+				}
+			}
+			return makeMesh(positions, faceOffsets, faceIndices.toArray(), null);
+		}
+		catch (java.nio.BufferUnderflowException e) {
+			throw new IOException("The PLY file ended unexpectedly.");
+		}
+	}
+
+	/**
+	 * Read the header of a PLY file, leaving the buffer positioned at the start of the
+	 * data, and return the format:  "ascii", "binary_little_endian", or "binary_big_endian".
+	 */
+	private static String readPLYHeader(MappedByteBuffer buffer, ArrayList<PLYElement> elements) throws IOException {
+		StringBuilder line = new StringBuilder();
+		String format = null;
+		boolean first = true;
+		while (true) {
+			line.setLength(0);
+			while (true) {
+				if (!buffer.hasRemaining())
+					throw new IOException("The PLY header is not complete.");
+				char ch = (char)(buffer.get() & 0xFF);
+				if (ch == '\n')
+					break;
+				if (ch != '\r')
+					line.append(ch);
+			}
+			String[] words = line.toString().trim().split("\\s+");
+			if (first) {
+				if (!words[0].equals("ply"))
+					throw new IOException("This is not a PLY file.");
+				first = false;
+			}
+			else if (words[0].equals("end_header")) {
+				break;
+			}
+			else if (words[0].equals("format") && words.length >= 2) {
+				format = words[1];
+			}
+			else if (words[0].equals("element") && words.length == 3) {
+				PLYElement element = new PLYElement();
+				element.name = words[1];
+				try {
+					element.count = Long.parseLong(words[2]);
+				}
+				catch (NumberFormatException e) {
+					throw new IOException("Bad element count in PLY header: " + line);
+				}
+				elements.add(element);
+			}
+			else if (words[0].equals("property")) {
+				if (elements.isEmpty())
+					throw new IOException("PLY property without an element: " + line);
+				PLYProperty property = new PLYProperty();
+				if (words.length == 5 && words[1].equals("list")) {
+					property.countType = plyType(words[2]);
+					property.type = plyType(words[3]);
+					property.name = words[4];
+				}
+				else if (words.length == 3) {
+					property.type = plyType(words[1]);
+					property.name = words[2];
+				}
+				else {
+					throw new IOException("Bad property in PLY header: " + line);
+				}
+				elements.get(elements.size()-1).properties.add(property);
+			}
+		}
+		if (format == null || !(format.equals("ascii") || format.equals("binary_little_endian")
+				|| format.equals("binary_big_endian")))
+			throw new IOException("Unknown PLY format: " + format);
+		return format;
+	}
+
+	private static int plyType(String name) throws IOException {
+		for (int i = 0; i < PLY_TYPES.length; i++)
+			if (PLY_TYPES[i].equals(name))
+				return i;
+		throw new IOException("Unknown PLY property type: " + name);
+	}
+
+	/**
+	 * Read one number of a given PLY type from the current position of a buffer.
+	 */
+	private static double readBinary(ByteBuffer buffer, int type) {
+		switch (type % 8) {
+		case 0: return buffer.get();
+		case 1: return buffer.get() & 0xFF;
+		case 2: return buffer.getShort();
+		case 3: return buffer.getShort() & 0xFFFF;
+		case 4: return buffer.getInt();
+		case 5: return buffer.getInt() & 0xFFFFFFFFL;
+		case 6: return buffer.getFloat();
+		default: return buffer.getDouble();
+		}
+	}
+
+	//------------------------------------------- STL -----------------------------------------
+
+	/**
+	 * Read a binary STL file.  (ASCII STL files are not supported.)
+	 */
+	public static PackedMesh loadSTL(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = mapAll(channel);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.limit() < 84)
+				throw new IOException("The file is too short to be an STL file.");
+			long count = buffer.getInt(80) & 0xFFFFFFFFL;
+			if (84 + 50*count > buffer.limit())  // (Some programs add bytes after the triangles.)
+				throw new IOException("This is not a binary STL file.  (ASCII STL files are not supported.)");
+			if (9*count > MAX_ARRAY)
+				throw new IOException("The STL file is too large.");
+			int triangles = (int)count;
+			float[] positions = new float[9*triangles];
+			float[] normals = new float[3*triangles];
+			int[] faceOffsets = new int[triangles + 1];
+			int[] faceIndices = new int[3*triangles];
+			ParallelLoop.run(triangles, 8192, (first, last) -> {
+				for (int t = first; t < last; t++) {
+					int p = 84 + 50*t;  // Absolute gets do not change the buffer, so threads can share it.
+					for (int j = 0; j < 3; j++)
+						normals[3*t+j] = buffer.getFloat(p + 4*j);
+					for (int j = 0; j < 9; j++)
+						positions[9*t+j] = buffer.getFloat(p + 12 + 4*j);
+					faceOffsets[t+1] = 3*t + 3;
+					faceIndices[3*t] = 3*t;
+					faceIndices[3*t+1] = 3*t + 1;
+					faceIndices[3*t+2] = 3*t + 2;
+					if (normals[3*t] == 0 && normals[3*t+1] == 0 && normals[3*t+2] == 0)
+						triangleNormal(positions, 9*t, normals, 3*t);  // Some programs write zero normals.
+				}
+			});
+			return makeMesh(positions, faceOffsets, faceIndices, normals);
+		}
+	}
+
+	/**
+	 * Compute the unit normal of the triangle whose coordinates start at positions[p].
+	 */
+	private static void triangleNormal(float[] positions, int p, float[] normals, int n) {
+		float[] q = positions;
+		double ux = q[p+3] - q[p], uy = q[p+4] - q[p+1], uz = q[p+5] - q[p+2];
+		double vx = q[p+6] - q[p], vy = q[p+7] - q[p+1], vz = q[p+8] - q[p+2];
+		double nx = uy*vz - uz*vy, ny = uz*vx - ux*vz, nz = ux*vy - uy*vx;
+		double length = Math.sqrt(nx*nx + ny*ny + nz*nz);
+		if (length > 0) {
+			normals[n] = (float)(nx/length);
+			normals[n+1] = (float)(ny/length);
+			normals[n+2] = (float)(nz/length);
+		}
+	}
+
+	//--------------------------------------- Utilities ---------------------------------------
+
+	/**
+	 * Map an entire file into memory.  A single mapped buffer is limited to 2 GB.
+	 */
+	private static MappedByteBuffer mapAll(FileChannel channel) throws IOException {
+		if (channel.size() > Integer.MAX_VALUE)
+			throw new IOException("Files larger than 2 GB can only be read in OBJ format.");
+		return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+	}
+
+	/**
+	 * Make a PackedMesh, reporting inconsistent data, such as a face index that is
+	 * out of range, as an IOException.
+	 */
+	private static PackedMesh makeMesh(float[] positions, int[] faceOffsets, int[] faceIndices, float[] normals)
+			throws IOException {
+		try {
+			return new PackedMesh(positions, faceOffsets, faceIndices, normals, null);
+		}
+		catch (IllegalArgumentException e) {
+			throw new IOException("Bad data in file: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads numbers from the bytes of an ASCII file.  Lines can end with "\n" or "\r\n".
+	 */
+	private static class Parser {
+		final ByteBuffer buffer;
+		final long base;  // Position of the start of the buffer in the file, for error messages.
+		int pos;
+		final int limit;
+
+		Parser(ByteBuffer buffer, long base) {
+			this.buffer = buffer;
+			this.base = base;
+			pos = buffer.position();
+			limit = buffer.limit();
+		}
+		boolean more() {
+			return pos < limit;
+		}
+		int peek() {
+			return pos < limit ? buffer.get(pos) : -1;
+		}
+		int peek(int offset) {
+			return pos + offset < limit ? buffer.get(pos + offset) : -1;
+		}
+		void advance(int count) {
+			pos += count;
+		}
+		/**
+		 * Skip spaces and tabs, but not line ends.
+		 */
+		void skipSpaces() {
+			while (pos < limit) {
+				byte b = buffer.get(pos);
+				if (b != ' ' && b != '\t')
+					break;
+				pos++;
+			}
+		}
+		/**
+		 * Skip all white space, including line ends.
+		 */
+		void skipWhiteSpace() {
+			while (pos < limit && buffer.get(pos) <= ' ')
+				pos++;
+		}
+		boolean atLineEnd() {
+			return pos >= limit || buffer.get(pos) == '\n' || buffer.get(pos) == '\r';
+		}
+		/**
+		 * Skip to the end of the current word, stopping at white space.
+		 */
+		void skipToken() {
+			while (pos < limit && buffer.get(pos) > ' ')
+				pos++;
+		}
+		/**
+		 * Skip past the next newline.
+		 */
+		void skipLine() {
+			while (pos < limit && buffer.get(pos) != '\n')
+				pos++;
+			pos++;
+		}
+		float parseFloat() throws IOException {
+			skipSpaces();
+			return (float)parseNumber();
+		}
+		double parseDouble() throws IOException {
+			skipWhiteSpace();
+			return parseNumber();
+		}
+		/**
+		 * Parse an optionally signed integer, stopping at the first character that
+		 * is not a digit.
+		 */
+		int parseInt() throws IOException {
+			boolean negative = false;
+			if (pos < limit && (buffer.get(pos) == '-' || buffer.get(pos) == '+'))
+				negative = buffer.get(pos++) == '-';
+			long value = 0;
+			int start = pos;
+			while (pos < limit) {
+				int d = buffer.get(pos) - '0';
+				if (d < 0 || d > 9)
+					break;
+				value = value*10 + d;
+				if (value > Integer.MAX_VALUE)
+					throw error("Integer too large");
+				pos++;
+			}
+			if (pos == start)
+				throw error("Missing integer");
+			return (int)(negative ? -value : value);
+		}
+		/**
+		 * Parse a number in the format accepted by Double.parseDouble, except for
+		 * hexadecimal numbers, infinity, and NaN.  Up to 18 significant digits are used.
+		 */
+		double parseNumber() throws IOException {
+			boolean negative = false;
+			if (pos < limit && (buffer.get(pos) == '-' || buffer.get(pos) == '+'))
+				negative = buffer.get(pos++) == '-';
+			long mantissa = 0;
+			int exponent = 0;
+			boolean digits = false;
+			boolean fraction = false;
+			while (pos < limit) {
+				byte b = buffer.get(pos);
+				if (b >= '0' && b <= '9') {
+					digits = true;
+					if (mantissa < 100_000_000_000_000_000L) {
+						mantissa = mantissa*10 + (b - '0');
+						if (fraction)
+							exponent--;
+					}
+					else if (!fraction) {
+						exponent++;
+					}
+				}
+				else if (b == '.' && !fraction) {
+					fraction = true;
+				}
+				else {
+					break;
+				}
+				pos++;
+			}
+			if (!digits)
+				throw error("Missing number");
+			if (pos < limit && (buffer.get(pos) == 'e' || buffer.get(pos) == 'E')) {
+				pos++;
+				exponent += parseInt();
+			}
+			double value = mantissa;
+			if (exponent < 0)
+				value = -exponent < POWERS_OF_TEN.length ? value / POWERS_OF_TEN[-exponent] : value / Math.pow(10, -exponent);
+			else if (exponent > 0)
+				value = exponent < POWERS_OF_TEN.length ? value * POWERS_OF_TEN[exponent] : value * Math.pow(10, exponent);
+			return negative ? -value : value;
+		}
+		IOException error(String message) {
+			return new IOException(message + " at byte " + (base + pos) + " of the file.");
+		}
+	}
+
+	private static final double[] POWERS_OF_TEN = {  // Exactly representable as doubles.
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	/**
+	 * A growable array of floats.
+	 */
+	private static class FloatList {
+		float[] data = new float[1024];
+		int size;
+		void add(float x) {
+			if (size == data.length)
+				data = Arrays.copyOf(data, 2*size);
+			data[size++] = x;
+		}
+	}
+
+	/**
+	 * A growable array of ints.
+	 */
+	private static class IntList {
+		int[] data = new int[1024];
+		int size;
+		void add(int x) {
+			if (size == data.length)
+				data = Arrays.copyOf(data, 2*size);
+			data[size++] = x;
+		}
+		int[] toArray() {
+			return Arrays.copyOf(data, size);
+		}
+	}
+
+}
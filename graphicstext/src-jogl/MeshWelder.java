@@ -0,0 +1,203 @@
+import java.util.Arrays;
+
+/**
+ * MeshWelder merges vertices of a mesh that are at the same point, or within a given
+ * distance, epsilon, of each other, and changes the faces to use the merged vertices.
+ * This is needed, for example, for a mesh read from an STL file, which has separate
+ * copies of the vertices for every triangle, so that no two triangles share a vertex.
+ * Without welding, the faces of such a mesh are not connected to each other, so it
+ * can't be smoothly shaded or simplified, and the vertex data is several times larger
+ * than necessary.
+ *    The vertices are put into a hash table according to the cube of a grid, with
+ * side 2*epsilon, that contains them.  A point can only be within epsilon of a vertex
+ * in the same cube or in a neighboring cube on the side of the cube that the point
+ * is closer to, in each of the three directions.  So only 8 cubes have to be
+ * searched for each vertex, and the time is proportional to the number of vertices (unless a great
+ * many vertices are within epsilon of each other).  The hash table uses open addressing
+ * in an array of long keys, and the vertices in a cube are kept in a linked list made
+ * of an int array, so no objects are created for individual vertices or cubes.
+ *    Each vertex is merged into the first earlier vertex that is found within distance
+ * epsilon of it, if there is one, and otherwise it is kept.  A kept vertex keeps its
+ * position, so merged vertices do not drift, but merging is not transitive:  Two
+ * vertices can be merged into the same vertex even if they are 2*epsilon apart, and
+ * two vertices less than epsilon apart can remain separate if they were each merged
+ * into different vertices.  If epsilon is zero, only vertices with exactly the
+ * same coordinates are merged.
+ *    After the faces are changed to use the merged vertices, a vertex that is repeated
+ * in a row in a face is removed from the face.  A face that is left with fewer than
+ * three vertices, or that has zero area, is degenerate and is dropped, along with its
+ * normal vector and color.  Vertices that are not used by any remaining face are
+ * dropped.  The remaining vertices and faces stay in their original order.
+ */
+public class MeshWelder {
+
+	/**
+	 * Returns a new mesh in which the vertices of the given mesh that are within
+	 * distance epsilon of each other have been merged, and degenerate faces have
+	 * been dropped.  The given mesh is not modified.
+	 * @throws IllegalArgumentException if epsilon is negative, infinite, or NaN.
+	 */
+	public static PackedMesh weld(PackedMesh mesh, double epsilon) {
+		if (!(epsilon >= 0) || Double.isInfinite(epsilon))
+			throw new IllegalArgumentException("epsilon must be a non-negative number.");
+		float[] p = mesh.positions;
+		int vertexCount = mesh.getVertexCount();
+		int[] merged = mergeVertices(p, vertexCount, epsilon);
+		int faceCount = mesh.getFaceCount();
+		int[] offsets = new int[faceCount + 1];
+		int[] indices = new int[mesh.faceIndices.length];
+		int[] keptFaces = new int[faceCount];
+		int keptFaceCount = 0;
+		int count = 0;
+		for (int f = 0; f < faceCount; f++) {
+			int start = count;
+			for (int i = mesh.faceOffsets[f]; i < mesh.faceOffsets[f+1]; i++) {
+				int v = merged[mesh.faceIndices[i]];
+				if (count == start || indices[count-1] != v)
+					indices[count++] = v;
+			}
+			while (count - start > 1 && indices[count-1] == indices[start])
+				count--;
+			if (count - start < 3 || zeroArea(p, indices, start, count)) {
+				count = start;
+				continue;
+			}
+			keptFaces[keptFaceCount++] = f;
+			offsets[keptFaceCount] = count;
+		}
+		int[] newNumber = new int[vertexCount];
+		Arrays.fill(newNumber, -1);
+		for (int i = 0; i < count; i++)
+			newNumber[indices[i]] = 0;
+		int newVertexCount = 0;
+		for (int v = 0; v < vertexCount; v++) {
+			if (newNumber[v] == 0)
+				newNumber[v] = newVertexCount++;
+		}
+		float[] positions = new float[3*newVertexCount];
+		for (int v = 0; v < vertexCount; v++) {
+			if (newNumber[v] >= 0)
+				System.arraycopy(p, 3*v, positions, 3*newNumber[v], 3);
+		}
+		for (int i = 0; i < count; i++)
+			indices[i] = newNumber[indices[i]];
+		return new PackedMesh(positions, Arrays.copyOf(offsets, keptFaceCount + 1), Arrays.copyOf(indices, count),
+				keepFaces(mesh.normals, keptFaces, keptFaceCount), keepFaces(mesh.faceColors, keptFaces, keptFaceCount));
+	}
+
+	/**
+	 * Returns a new Polyhedron in which vertices of the given polyhedron that are
+	 * within distance epsilon of each other have been merged, and degenerate faces
+	 * have been dropped.  (The work is done on a PackedMesh, so the numbers in the
+	 * result have been converted to float and back.)
+	 */
+	public static Polyhedron weld(Polyhedron poly, double epsilon) {
+		return weld(new PackedMesh(poly), epsilon).toPolyhedron();
+	}
+
+	/**
+	 * Returns an array that gives, for each vertex, the number of the vertex that it
+	 * is merged into, which is the vertex itself for a vertex that is kept.
+	 */
+	private static int[] mergeVertices(float[] p, int vertexCount, double epsilon) {
+		int[] merged = new int[vertexCount];
+		int[] nextInCell = new int[vertexCount];  // Links the kept vertices in the same cell.
+		int capacity = Integer.highestOneBit(Math.max(4, 2*vertexCount) - 1) << 1;
+		long[] keys = new long[capacity];
+		int[] firstInCell = new int[capacity];    // The first kept vertex in the cell, or -1 for an empty slot.
+		Arrays.fill(firstInCell, -1);
+		int shift = 64 - Integer.numberOfTrailingZeros(capacity);
+		double epsilon2 = epsilon*epsilon;
+		double cellSize = 2*epsilon;
+		for (int v = 0; v < vertexCount; v++) {
+			float x = p[3*v], y = p[3*v+1], z = p[3*v+2];
+			long cx, cy, cz;
+			int lowX = 0, lowY = 0, lowZ = 0, reach = 0;  // The cells to search, relative to the vertex's cell.
+			if (epsilon == 0) {  // Each point is its own cell; adding 0 changes -0.0 to 0.0.
+				cx = Float.floatToIntBits(x + 0.0f);
+				cy = Float.floatToIntBits(y + 0.0f);
+				cz = Float.floatToIntBits(z + 0.0f);
+			}
+			else {
+				double gx = x / cellSize, gy = y / cellSize, gz = z / cellSize;
+				cx = (long)Math.floor(gx);
+				cy = (long)Math.floor(gy);
+				cz = (long)Math.floor(gz);
+				lowX = gx - cx < 0.5 ? -1 : 0;
+				lowY = gy - cy < 0.5 ? -1 : 0;
+				lowZ = gz - cz < 0.5 ? -1 : 0;
+				reach = 1;
+			}
+			int found = -1;
+			search:
+			for (int dx = lowX; dx <= lowX + reach; dx++) {
+				for (int dy = lowY; dy <= lowY + reach; dy++) {
+					for (int dz = lowZ; dz <= lowZ + reach; dz++) {
+						long key = cellKey(cx + dx, cy + dy, cz + dz);
+						int slot = (int)((key * 0xD6E8FEB86659FD93L) >>> shift);
+						while (firstInCell[slot] >= 0 && keys[slot] != key)
+							slot = (slot + 1) & (capacity - 1);
+						for (int u = firstInCell[slot]; u >= 0; u = nextInCell[u]) {
+							double ex = p[3*u] - x, ey = p[3*u+1] - y, ez = p[3*u+2] - z;
+							if (ex*ex + ey*ey + ez*ez <= epsilon2) {
+								found = u;
+								break search;
+							}
+						}
+					}
+				}
+			}
+			if (found >= 0) {
+				merged[v] = found;
+				continue;
+			}
+			merged[v] = v;
+			long key = cellKey(cx, cy, cz);
+			int slot = (int)((key * 0xD6E8FEB86659FD93L) >>> shift);
+			while (firstInCell[slot] >= 0 && keys[slot] != key)
+				slot = (slot + 1) & (capacity - 1);
+			keys[slot] = key;
+			nextInCell[v] = firstInCell[slot];
+			firstInCell[slot] = v;
+		}
+		return merged;
+	}
+
+	/**
+	 * Combine the three coordinates of a cell into one long.  Different cells can
+	 * get the same key, which only means that their vertices share a list.
+	 */
+	private static long cellKey(long cx, long cy, long cz) {
+		return cx * 0x9E3779B97F4A7C15L ^ cy * 0xC2B2AE3D27D4EB4FL ^ cz * 0x165667B19E3779F9L;
+	}
+
+	/**
+	 * Tests whether the polygon with vertices indices[start] to indices[end-1] has
+	 * zero area, using Newell's method to compute its area vector.
+	 */
+	private static boolean zeroArea(float[] p, int[] indices, int start, int end) {
+		double nx = 0, ny = 0, nz = 0;
+		for (int i = start; i < end; i++) {
+			int a = 3*indices[i];
+			int b = 3*indices[i + 1 < end ? i + 1 : start];
+			nx += ((double)p[a+1] - p[b+1]) * ((double)p[a+2] + p[b+2]);
+			ny += ((double)p[a+2] - p[b+2]) * ((double)p[a] + p[b]);
+			nz += ((double)p[a] - p[b]) * ((double)p[a+1] + p[b+1]);
+		}
+		return nx == 0 && ny == 0 && nz == 0;
+	}
+
+	/**
+	 * Returns the three numbers for each of the kept faces from an array of three
+	 * numbers per face, or null if the array is null.
+	 */
+	private static float[] keepFaces(float[] data, int[] keptFaces, int keptFaceCount) {
+		if (data == null)
+			return null;
+		float[] kept = new float[3*keptFaceCount];
+		for (int i = 0; i < keptFaceCount; i++)
+			System.arraycopy(data, 3*keptFaces[i], kept, 3*i, 3);
+		return kept;
+	}
+
+}
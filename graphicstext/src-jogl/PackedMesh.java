@@ -0,0 +1,231 @@
+import com.jogamp.common.nio.Buffers;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * A PackedMesh holds an indexed face set, with the same information as a
+ * Polyhedron, in a few flat arrays of floats and ints instead of one small array
+ * for each vertex and each face.  The arrays are
+ *
+ *     positions -- the coordinates of the vertices, three numbers per vertex.
+ *                  The coordinates of vertex number i are in positions[3*i],
+ *                  positions[3*i+1], and positions[3*i+2].
+ *
+ *     faceIndices -- the vertex numbers of all of the faces, one face after
+ *                  another, each face in counterclockwise order as seen from
+ *                  the outside.
+ *
+ *     faceOffsets -- the positions in faceIndices where the faces start.  The
+ *                  vertex numbers of face number f are faceIndices[faceOffsets[f]]
+ *                  up to, but not including, faceIndices[faceOffsets[f+1]].  The
+ *                  length of this array is one more than the number of faces, and
+ *                  its last element is the length of faceIndices.  (This is the
+ *                  "compressed sparse row" format for a sparse matrix.)
+ *
+ *     normals -- the normal vectors of the faces, three numbers per face.  Can be null.
+ *
+ *     faceColors -- the colors of the faces, three numbers in the range 0.0 to 1.0
+ *                  per face.  Can be null.
+ *
+ * A vertex takes 12 bytes, compared to about 40 bytes plus a reference for a
+ * double[3] in a Polyhedron, and a face takes 4 bytes plus 4 per vertex, compared
+ * to a separate int array with its own header.  The arrays can also be copied to
+ * OpenGL buffers without visiting each vertex and face separately.  The getBuffer
+ * methods return direct NIO buffers holding copies of the arrays, which can be
+ * used with OpenGL functions such as glVertexPointer and glBufferData.  Each
+ * buffer is made the first time that it is requested, and then the same buffer
+ * is returned every time.  If the arrays are modified after a buffer has been
+ * made, call clearBuffers() so that new buffers will be made.
+ */
+public class PackedMesh {
+
+	public final float[] positions;
+	public final int[] faceOffsets;
+	public final int[] faceIndices;
+	public final float[] normals;
+	public final float[] faceColors;
+	public final double maxVertexLength; // The length of the longest vertex vector.
+
+	private FloatBuffer positionBuffer, normalBuffer, colorBuffer; // Direct buffers, made when requested.
+	private IntBuffer indexBuffer;
+
+	/**
+	 * Create a mesh from arrays in the packed format.  The arrays are used
+	 * directly, not copied.
+	 * @throws IllegalArgumentException if the sizes of the arrays are not consistent,
+	 *    or if a face refers to a vertex that does not exist.
+	 */
+	public PackedMesh(float[] positions, int[] faceOffsets, int[] faceIndices, float[] normals, float[] faceColors) {
+		if (positions.length % 3 != 0)
+			throw new IllegalArgumentException("The length of the positions array must be a multiple of 3.");
+		if (faceOffsets.length == 0 || faceOffsets[0] != 0 || faceOffsets[faceOffsets.length-1] != faceIndices.length)
+			throw new IllegalArgumentException("The face offsets must start at 0 and end at the number of indices.");
+		int faceCount = faceOffsets.length - 1;
+		for (int f = 0; f < faceCount; f++) {
+			if (faceOffsets[f+1] < faceOffsets[f])
+				throw new IllegalArgumentException("The face offsets must not decrease.");
+		}
+		int vertexCount = positions.length / 3;
+		for (int index : faceIndices) {
+			if (index < 0 || index >= vertexCount)
+				throw new IllegalArgumentException("A face refers to vertex " + index + ", which does not exist.");
+		}
+		if (normals != null && normals.length != 3*faceCount)
+			throw new IllegalArgumentException("There must be one normal vector for each face.");
+		if (faceColors != null && faceColors.length != 3*faceCount)
+			throw new IllegalArgumentException("There must be one color for each face.");
+		this.positions = positions;
+		this.faceOffsets = faceOffsets;
+		this.faceIndices = faceIndices;
+		this.normals = normals;
+		this.faceColors = faceColors;
+		double max = 0;
+		for (int i = 0; i < positions.length; i += 3) {
+			double x = positions[i], y = positions[i+1], z = positions[i+2];
+			max = Math.max(max, x*x + y*y + z*z);
+		}
+		this.maxVertexLength = Math.sqrt(max);
+	}
+
+	/**
+	 * Create a mesh that holds the same data as a Polyhedron.  Numbers are converted
+	 * from double to float.
+	 */
+	public PackedMesh(Polyhedron poly) {
+		this(pack(poly.vertices), offsets(poly.faces), indices(poly.faces),
+				poly.normals == null ? null : pack(poly.normals),
+				poly.faceColors == null ? null : pack(poly.faceColors));
+	}
+
+	/**
+	 * Returns a new Polyhedron that holds the same data as this mesh, in the
+	 * format used by the Polyhedron class.
+	 */
+	public Polyhedron toPolyhedron() {
+		int faceCount = getFaceCount();
+		int[][] faces = new int[faceCount][];
+		for (int f = 0; f < faceCount; f++)
+			faces[f] = java.util.Arrays.copyOfRange(faceIndices, faceOffsets[f], faceOffsets[f+1]);
+		return new Polyhedron(unpack(positions), faces, faceColors == null ? null : unpack(faceColors),
+				normals == null ? null : unpack(normals));
+	}
+
+	public int getVertexCount() {
+		return positions.length / 3;
+	}
+
+	public int getFaceCount() {
+		return faceOffsets.length - 1;
+	}
+
+	/**
+	 * Returns the number of vertices in face number f.
+	 */
+	public int getFaceSize(int f) {
+		return faceOffsets[f+1] - faceOffsets[f];
+	}
+
+	/**
+	 * Returns the approximate number of bytes used by the arrays in this mesh,
+	 * not counting any direct buffers.
+	 */
+	public long getByteCount() {
+		long bytes = 4L*(positions.length + faceOffsets.length + faceIndices.length);
+		if (normals != null)
+			bytes += 4L*normals.length;
+		if (faceColors != null)
+			bytes += 4L*faceColors.length;
+		return bytes;
+	}
+
+	/**
+	 * Returns a direct buffer containing a copy of the positions array.
+	 */
+	public FloatBuffer getPositionBuffer() {
+		if (positionBuffer == null)
+			positionBuffer = Buffers.newDirectFloatBuffer(positions);
+		return positionBuffer;
+	}
+
+	/**
+	 * Returns a direct buffer containing a copy of the faceIndices array.
+	 */
+	public IntBuffer getIndexBuffer() {
+		if (indexBuffer == null)
+			indexBuffer = Buffers.newDirectIntBuffer(faceIndices);
+		return indexBuffer;
+	}
+
+	/**
+	 * Returns a direct buffer containing a copy of the normals array, or null
+	 * if there are no normals.
+	 */
+	public FloatBuffer getNormalBuffer() {
+		if (normalBuffer == null && normals != null)
+			normalBuffer = Buffers.newDirectFloatBuffer(normals);
+		return normalBuffer;
+	}
+
+	/**
+	 * Returns a direct buffer containing a copy of the faceColors array, or null
+	 * if there are no colors.
+	 */
+	public FloatBuffer getColorBuffer() {
+		if (colorBuffer == null && faceColors != null)
+			colorBuffer = Buffers.newDirectFloatBuffer(faceColors);
+		return colorBuffer;
+	}
+
+	/**
+	 * Discard the direct buffers, so that new copies of the arrays will be made
+	 * the next time that they are requested.
+	 */
+	public void clearBuffers() {
+		positionBuffer = normalBuffer = colorBuffer = null;
+		indexBuffer = null;
+	}
+
+	/**
+	 * Copy an array of 3-vectors into a float array, three numbers per vector.
+	 */
+	private static float[] pack(double[][] vectors) {
+		float[] packed = new float[3*vectors.length];
+		for (int i = 0; i < vectors.length; i++) {
+			packed[3*i] = (float)vectors[i][0];
+			packed[3*i+1] = (float)vectors[i][1];
+			packed[3*i+2] = (float)vectors[i][2];
+		}
+		return packed;
+	}
+
+	/**
+	 * Copy an array that holds three numbers per vector into an array of 3-vectors.
+	 */
+	private static double[][] unpack(float[] packed) {
+		double[][] vectors = new double[packed.length/3][];
+		for (int i = 0; i < vectors.length; i++)
+			vectors[i] = new double[] { packed[3*i], packed[3*i+1], packed[3*i+2] };
+		return vectors;
+	}
+
+	private static int[] offsets(int[][] faces) {
+		int[] offsets = new int[faces.length + 1];
+		for (int f = 0; f < faces.length; f++)
+			offsets[f+1] = offsets[f] + faces[f].length;
+		return offsets;
+	}
+
+	private static int[] indices(int[][] faces) {
+		int count = 0;
+		for (int[] face : faces)
+			count += face.length;
+		int[] indices = new int[count];
+		int i = 0;
+		for (int[] face : faces) {
+			System.arraycopy(face, 0, indices, i, face.length);
+			i += face.length;
+		}
+		return indices;
+	}
+
+}
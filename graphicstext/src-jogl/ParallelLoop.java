@@ -0,0 +1,53 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a task for a range of numbers in parallel, using the common ForkJoinPool.
+ * The range is split in half, and the halves are split again, until the pieces
+ * contain no more than a given number of items, and then the task is run once
+ * for each piece.  This is used by the classes in this directory that do their
+ * work in parallel, such as SmoothNormals, MeshLoader, and MeshBVH.  (The Java2D
+ * examples are published as a separate source tree, so they have their own copy
+ * of this class, ParallelRange.)
+ */
+class ParallelLoop extends RecursiveAction {
+
+	/**
+	 * A task that works on a range of numbers, from first up to, but not including, last.
+	 */
+	interface Task {
+		void run(int first, int last);
+	}
+
+	/**
+	 * Run a task for the numbers from 0 up to, but not including, count, in
+	 * parallel, by dividing the range into pieces that contain at most grain
+	 * numbers.  This method returns when the task has been run for every piece.
+	 */
+	static void run(int count, int grain, Task task) {
+		ForkJoinPool.commonPool().invoke( new ParallelLoop(task, grain, 0, count) );
+	}
+
+	private Task task;
+	private int grain;
+	private int first, last;
+
+	private ParallelLoop(Task task, int grain, int first, int last) {
+		this.task = task;
+		this.grain = grain;
+		this.first = first;
+		this.last = last;
+	}
+
+	protected void compute() {
+		if (last - first <= grain) {
+			task.run(first, last);
+		}
+		else {
+			int middle = (first + last) / 2;
+			invokeAll( new ParallelLoop(task, grain, first, middle),
+					new ParallelLoop(task, grain, middle, last) );
+		}
+	}
+
+}
@@ -0,0 +1,528 @@
+import java.util.Arrays;
+
+/**
+ * QuadricSimplifier reduces the number of triangles in a mesh by repeatedly
+ * collapsing an edge, merging its two vertices into one, using the "quadric error
+ * metric" of Garland and Heckbert to choose which edge to collapse and where to put
+ * the merged vertex.  Each vertex has a quadric, a 4-by-4 symmetric matrix Q such
+ * that v*Q*v (with v written as (x,y,z,1)) is the sum of the squared distances from
+ * the point v to the planes of the triangles that originally contained the vertex.
+ * When two vertices are merged, their quadrics are added.  The cost of collapsing
+ * an edge is the smallest value of v*Q*v, where Q is the sum of the quadrics of its
+ * vertices, and the merged vertex is placed at the point v that gives that value.
+ * Edges are kept in a priority queue (a binary heap) ordered by cost, so that the
+ * cheapest edge is always collapsed next.  When a vertex moves, the costs of its
+ * edges change; instead of finding the old entries in the heap, new entries are
+ * added, and the old entries are recognized as out of date, and discarded, when
+ * they reach the front of the queue.
+ *    Faces with more than three vertices are divided into triangles first.  A
+ * collapse is not done if it would fold a triangle over onto its neighbors, or if
+ * it would make the surface non-manifold.  Edges on the boundary of the mesh get
+ * extra quadrics that keep the boundary from shrinking.  If the mesh has face
+ * colors, each triangle keeps the color of the face that it came from; normal
+ * vectors are not kept, since they change as the vertices move.
+ *    Simplification can be done in stages:  call simplify() with a decreasing
+ * series of triangle counts, and call getMesh() after each call to get a copy
+ * of the current mesh.  This is how LODChain makes its levels of detail.
+ */
+public class QuadricSimplifier {
+
+	private static final double BOUNDARY_WEIGHT = 100;  // Weight of the quadrics that hold boundary edges in place.
+
+	private final double[] positions;   // Current vertex positions, three numbers per vertex.
+	private final double[] quadrics;    // Ten numbers for each vertex:  the upper triangle of Q.
+	private final int[] triangles;      // Current vertex numbers of the corners of the triangles.
+	private final int[] faceOfTriangle; // For each triangle, the face of the original mesh that it came from.
+	private final float[] faceColors;   // Face colors of the original mesh, or null.
+	private final boolean[] deadTriangle;
+	private final boolean[] deadVertex;
+	private final int[] version;        // Incremented when a vertex moves, to mark old heap entries.
+	private final int[] firstCorner;    // For each vertex, the first corner in its list, or -1.
+	private final int[] nextCorner;     // For each corner, the next corner in the same vertex's list, or -1.
+	private final int[] mark;           // Used for finding the neighbors of a vertex without repeats.
+	private int markValue;
+	private final EdgeHeap heap = new EdgeHeap();
+	private int triangleCount;
+	private double maxCost;
+	private final double[] work = new double[3];  // Holds the position chosen by edgeCost().
+	private final double[] sum = new double[10];  // Holds the sum of two quadrics in edgeCost().
+
+	/**
+	 * Prepare to simplify a mesh.  The mesh itself is not modified.
+	 */
+	public QuadricSimplifier(PackedMesh mesh) {
+		int vertexCount = mesh.getVertexCount();
+		int count = 0;
+		for (int f = 0; f < mesh.getFaceCount(); f++)
+			count += Math.max(0, mesh.getFaceSize(f) - 2);
+		triangleCount = count;
+		triangles = new int[3*count];
+		faceOfTriangle = new int[count];
+		int t = 0;
+		for (int f = 0; f < mesh.getFaceCount(); f++) {
+			int start = mesh.faceOffsets[f];
+			for (int j = 1; j < mesh.getFaceSize(f) - 1; j++) {
+				triangles[3*t] = mesh.faceIndices[start];
+				triangles[3*t+1] = mesh.faceIndices[start + j];
+				triangles[3*t+2] = mesh.faceIndices[start + j + 1];
+				faceOfTriangle[t++] = f;
+			}
+		}
+		faceColors = mesh.faceColors;
+		positions = new double[3*vertexCount];
+		for (int i = 0; i < positions.length; i++)
+			positions[i] = mesh.positions[i];
+		deadTriangle = new boolean[count];
+		deadVertex = new boolean[vertexCount];
+		version = new int[vertexCount];
+		mark = new int[vertexCount];
+		firstCorner = new int[vertexCount];
+		nextCorner = new int[3*count];
+		Arrays.fill(firstCorner, -1);
+		for (int c = 3*count - 1; c >= 0; c--) {
+			nextCorner[c] = firstCorner[triangles[c]];
+			firstCorner[triangles[c]] = c;
+		}
+
+		/* Add the plane of each triangle to the quadrics of its vertices. */
+
+		quadrics = new double[10*vertexCount];
+		double[] plane = new double[4];
+		for (t = 0; t < count; t++) {
+			if (trianglePlane(t, plane)) {
+				for (int j = 0; j < 3; j++)
+					addPlane(triangles[3*t+j], plane, 1);
+			}
+			else if (triangles[3*t] == triangles[3*t+1] || triangles[3*t+1] == triangles[3*t+2]
+					|| triangles[3*t] == triangles[3*t+2]) {
+				deadTriangle[t] = true;  // A triangle with a repeated vertex is useless.
+				triangleCount--;
+			}
+		}
+
+		/* Add a plane through each boundary edge, perpendicular to its triangle, to the
+		 * quadrics of the edge's vertices, and put every edge into the queue. */
+
+		HalfEdgeMesh halfEdges = new HalfEdgeMesh(new PackedMesh(mesh.positions,
+				offsets(count), triangles.clone(), null, null));
+		for (int h = 0; h < halfEdges.getHalfEdgeCount(); h++) {
+			int t2 = halfEdges.face(h);
+			if (halfEdges.twin(h) >= 0 || deadTriangle[t2] || !trianglePlane(t2, plane))
+				continue;
+			int a = halfEdges.origin(h), b = halfEdges.target(h);
+			double ex = positions[3*b] - positions[3*a];
+			double ey = positions[3*b+1] - positions[3*a+1];
+			double ez = positions[3*b+2] - positions[3*a+2];
+			double nx = ey*plane[2] - ez*plane[1];
+			double ny = ez*plane[0] - ex*plane[2];
+			double nz = ex*plane[1] - ey*plane[0];
+			double length = Math.sqrt(nx*nx + ny*ny + nz*nz);
+			if (length == 0)
+				continue;
+			plane[0] = nx/length;
+			plane[1] = ny/length;
+			plane[2] = nz/length;
+			plane[3] = -(plane[0]*positions[3*a] + plane[1]*positions[3*a+1] + plane[2]*positions[3*a+2]);
+			addPlane(a, plane, BOUNDARY_WEIGHT);
+			addPlane(b, plane, BOUNDARY_WEIGHT);
+		}
+		for (int e = 0; e < halfEdges.getEdgeCount(); e++) {
+			int h = halfEdges.edgeHalfEdge(e);
+			int a = halfEdges.origin(h), b = halfEdges.target(h);
+			if (a != b)
+				heap.add(edgeCost(a, b), a, b, 0, 0);
+		}
+	}
+
+	/**
+	 * Collapse edges until the number of triangles is at most targetTriangles, or
+	 * until no more edges can be collapsed.  Each collapse removes two triangles
+	 * (one on the boundary), so the final count can be one less than the target.
+	 */
+	public void simplify(int targetTriangles) {
+		int[] neighbors = new int[16];
+		while (triangleCount > targetTriangles && heap.size > 0) {
+			int a = heap.a[0], b = heap.b[0];
+			boolean current = !deadVertex[a] && !deadVertex[b]
+					&& heap.versionA[0] == version[a] && heap.versionB[0] == version[b];
+			heap.removeFirst();
+			if (!current)
+				continue;
+			double cost = edgeCost(a, b);
+			if (!canCollapse(a, b, work))
+				continue;
+			collapse(a, b, work);
+			maxCost = Math.max(maxCost, cost);
+			int count = 0;
+			newMark();
+			for (int c = firstCorner[a]; c >= 0; c = nextCorner[c]) {
+				int t = c / 3;
+				if (deadTriangle[t])
+					continue;
+				for (int j = 0; j < 3; j++) {
+					int v = triangles[3*t+j];
+					if (v != a && mark[v] != markValue) {
+						mark[v] = markValue;
+						if (count == neighbors.length)
+							neighbors = Arrays.copyOf(neighbors, 2*count);
+						neighbors[count++] = v;
+					}
+				}
+			}
+			for (int i = 0; i < count; i++) {
+				int v = neighbors[i];
+				heap.add(edgeCost(a, v), a, v, version[a], version[v]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the current number of triangles.
+	 */
+	public int getTriangleCount() {
+		return triangleCount;
+	}
+
+	/**
+	 * Returns an estimate of the largest distance that any part of the surface has
+	 * moved so far:  the square root of the largest cost of any collapse.  (The cost
+	 * is a sum of squared distances to planes, so this is usually an overestimate.)
+	 */
+	public double getError() {
+		return Math.sqrt(maxCost);
+	}
+
+	/**
+	 * Returns a new PackedMesh containing the current triangles.  Vertices that are
+	 * no longer used are omitted, and the rest are renumbered.
+	 */
+	public PackedMesh getMesh() {
+		int[] newNumber = new int[deadVertex.length];
+		Arrays.fill(newNumber, -1);
+		int vertices = 0;
+		int[] indices = new int[3*triangleCount];
+		float[] colors = faceColors == null ? null : new float[3*triangleCount];
+		int k = 0;
+		for (int t = 0; t < deadTriangle.length; t++) {
+			if (deadTriangle[t])
+				continue;
+			for (int j = 0; j < 3; j++) {
+				int v = triangles[3*t+j];
+				if (newNumber[v] < 0)
+					newNumber[v] = vertices++;
+				indices[3*k+j] = newNumber[v];
+			}
+			if (colors != null)
+				System.arraycopy(faceColors, 3*faceOfTriangle[t], colors, 3*k, 3);
+			k++;
+		}
+		float[] coords = new float[3*vertices];
+		for (int v = 0; v < newNumber.length; v++) {
+			if (newNumber[v] >= 0) {
+				for (int j = 0; j < 3; j++)
+					coords[3*newNumber[v] + j] = (float)positions[3*v + j];
+			}
+		}
+		return new PackedMesh(coords, offsets(triangleCount), indices, null, colors);
+	}
+
+	/**
+	 * Simplify a mesh to at most targetTriangles triangles (if possible), and return the result.
+	 */
+	public static PackedMesh simplify(PackedMesh mesh, int targetTriangles) {
+		QuadricSimplifier simplifier = new QuadricSimplifier(mesh);
+		simplifier.simplify(targetTriangles);
+		return simplifier.getMesh();
+	}
+
+	//------------------------------------------------------------------------------------
+
+	/**
+	 * Check whether the edge from a to b can be collapsed to the point p.  This is
+	 * not allowed if the edge is no longer in any triangle, if a and b have more
+	 * neighbors in common than the two vertices opposite the edge (the "link
+	 * condition," which prevents non-manifold results), or if moving a or b to p
+	 * would turn one of its triangles over.
+	 */
+	private boolean canCollapse(int a, int b, double[] p) {
+		int shared = 0;
+		for (int c = firstCorner[b]; c >= 0; c = nextCorner[c]) {
+			int t = c / 3;
+			if (deadTriangle[t])
+				continue;
+			boolean hasA = false;
+			for (int j = 0; j < 3; j++)
+				hasA |= triangles[3*t+j] == a;
+			if (hasA)
+				shared++;
+		}
+		newMark();
+		for (int c = firstCorner[a]; c >= 0; c = nextCorner[c]) {
+			int t = c / 3;
+			if (deadTriangle[t])
+				continue;
+			for (int j = 0; j < 3; j++)
+				mark[triangles[3*t+j]] = markValue;
+		}
+		int stamp = markValue;
+		newMark();  // Vertices still marked with stamp are neighbors of a that have not been counted.
+		int common = 0;
+		for (int c = firstCorner[b]; c >= 0; c = nextCorner[c]) {
+			int t = c / 3;
+			if (deadTriangle[t])
+				continue;
+			for (int j = 0; j < 3; j++) {
+				int v = triangles[3*t+j];
+				if (v != a && v != b && mark[v] == stamp) {
+					mark[v] = markValue;
+					common++;
+				}
+			}
+		}
+		if (shared == 0 || common != shared)
+			return false;
+		return !flips(a, b, p) && !flips(b, a, p);
+	}
+
+	/**
+	 * Returns true if moving vertex v to p would reverse the orientation of one of
+	 * its triangles that does not also contain other, or make it degenerate.
+	 */
+	private boolean flips(int v, int other, double[] p) {
+		for (int c = firstCorner[v]; c >= 0; c = nextCorner[c]) {
+			int t = c / 3;
+			if (deadTriangle[t])
+				continue;
+			int j = c % 3;
+			int u = triangles[3*t + (j+1) % 3], w = triangles[3*t + (j+2) % 3];
+			if (u == other || w == other)
+				continue;
+			double ux = positions[3*u] - positions[3*v], uy = positions[3*u+1] - positions[3*v+1],
+					uz = positions[3*u+2] - positions[3*v+2];
+			double wx = positions[3*w] - positions[3*v], wy = positions[3*w+1] - positions[3*v+1],
+					wz = positions[3*w+2] - positions[3*v+2];
+			double nx = uy*wz - uz*wy, ny = uz*wx - ux*wz, nz = ux*wy - uy*wx;
+			if (nx == 0 && ny == 0 && nz == 0)
+				continue;  // The triangle has no orientation to lose.
+			ux = positions[3*u] - p[0];  uy = positions[3*u+1] - p[1];  uz = positions[3*u+2] - p[2];
+			wx = positions[3*w] - p[0];  wy = positions[3*w+1] - p[1];  wz = positions[3*w+2] - p[2];
+			double mx = uy*wz - uz*wy, my = uz*wx - ux*wz, mz = ux*wy - uy*wx;
+			double dot = nx*mx + ny*my + nz*mz;
+			if (dot <= 0.2 * Math.sqrt((nx*nx + ny*ny + nz*nz) * (mx*mx + my*my + mz*mz)))
+				return true;  // The normal turns by more than about 78 degrees.
+		}
+		return false;
+	}
+
+	/**
+	 * Merge vertex b into vertex a, moving a to p.  Triangles that contain both
+	 * are removed, and b is replaced by a in the others.
+	 */
+	private void collapse(int a, int b, double[] p) {
+		for (int c = firstCorner[b]; c >= 0; c = nextCorner[c]) {
+			int t = c / 3;
+			if (deadTriangle[t])
+				continue;
+			int j = c % 3;
+			if (triangles[3*t + (j+1) % 3] == a || triangles[3*t + (j+2) % 3] == a) {
+				deadTriangle[t] = true;
+				triangleCount--;
+			}
+			triangles[c] = a;
+		}
+		positions[3*a] = p[0];
+		positions[3*a+1] = p[1];
+		positions[3*a+2] = p[2];
+		for (int i = 0; i < 10; i++)
+			quadrics[10*a + i] += quadrics[10*b + i];
+		deadVertex[b] = true;
+		version[a]++;
+
+		/* Join the corner lists, leaving out corners of dead triangles. */
+
+		int head = -1, tail = -1;
+		for (int i = 0; i < 2; i++) {
+			for (int c = firstCorner[i == 0 ? a : b]; c >= 0; c = nextCorner[c]) {
+				if (deadTriangle[c / 3])
+					continue;
+				if (tail < 0)
+					head = c;
+				else
+					nextCorner[tail] = c;
+				tail = c;
+			}
+		}
+		if (tail >= 0)
+			nextCorner[tail] = -1;
+		firstCorner[a] = head;
+		firstCorner[b] = -1;
+	}
+
+	/**
+	 * Returns the cost of collapsing the edge from a to b, and puts the best position
+	 * for the merged vertex into work.  The position is found by solving a 3-by-3
+	 * linear system; if the system is nearly singular (for example, when the
+	 * triangles are nearly coplanar), or its solution is far from the edge, the best
+	 * of the two endpoints and the midpoint is used instead.
+	 */
+	private double edgeCost(int a, int b) {
+		double[] q = sum;
+		for (int i = 0; i < 10; i++)
+			q[i] = quadrics[10*a + i] + quadrics[10*b + i];
+		// q holds the matrix   q0 q1 q2 q3
+		//                      q1 q4 q5 q6
+		//                      q2 q5 q7 q8
+		//                      q3 q6 q8 q9
+		double det = q[0]*(q[4]*q[7] - q[5]*q[5]) - q[1]*(q[1]*q[7] - q[5]*q[2]) + q[2]*(q[1]*q[5] - q[4]*q[2]);
+		double scale = q[0] + q[4] + q[7];
+		double ex = positions[3*b] - positions[3*a], ey = positions[3*b+1] - positions[3*a+1],
+				ez = positions[3*b+2] - positions[3*a+2];
+		double edgeLengthSquared = ex*ex + ey*ey + ez*ez;
+		double best = Double.POSITIVE_INFINITY;
+		if (Math.abs(det) > 1e-9 * scale*scale*scale) {
+			double x = -(q[3]*(q[4]*q[7] - q[5]*q[5]) - q[1]*(q[6]*q[7] - q[5]*q[8]) + q[2]*(q[6]*q[5] - q[4]*q[8])) / det;
+			double y = -(q[0]*(q[6]*q[7] - q[8]*q[5]) - q[3]*(q[1]*q[7] - q[5]*q[2]) + q[2]*(q[1]*q[8] - q[6]*q[2])) / det;
+			double z = -(q[0]*(q[4]*q[8] - q[5]*q[6]) - q[1]*(q[1]*q[8] - q[6]*q[2]) + q[3]*(q[1]*q[5] - q[4]*q[2])) / det;
+			double dx = x - (positions[3*a] + positions[3*b])/2, dy = y - (positions[3*a+1] + positions[3*b+1])/2,
+					dz = z - (positions[3*a+2] + positions[3*b+2])/2;
+			if (dx*dx + dy*dy + dz*dz <= edgeLengthSquared) {
+				best = error(q, x, y, z);
+				work[0] = x;
+				work[1] = y;
+				work[2] = z;
+			}
+		}
+		if (best == Double.POSITIVE_INFINITY) {
+			for (int i = 0; i <= 2; i++) {  // Try a, the midpoint, and b.
+				double x = positions[3*a] + ex*i/2, y = positions[3*a+1] + ey*i/2, z = positions[3*a+2] + ez*i/2;
+				double cost = error(q, x, y, z);
+				if (cost < best) {
+					best = cost;
+					work[0] = x;
+					work[1] = y;
+					work[2] = z;
+				}
+			}
+		}
+		return Math.max(0, best);
+	}
+
+	/**
+	 * Returns v*Q*v, where v = (x,y,z,1).
+	 */
+	private static double error(double[] q, double x, double y, double z) {
+		return q[0]*x*x + 2*q[1]*x*y + 2*q[2]*x*z + 2*q[3]*x + q[4]*y*y + 2*q[5]*y*z + 2*q[6]*y
+				+ q[7]*z*z + 2*q[8]*z + q[9];
+	}
+
+	/**
+	 * Compute the plane ax + by + cz + d = 0 of triangle t, with (a,b,c) a unit
+	 * vector, and store a, b, c, and d in plane.  Returns false if the triangle
+	 * has zero area, so that it has no plane.
+	 */
+	private boolean trianglePlane(int t, double[] plane) {
+		int p = 3*triangles[3*t], q = 3*triangles[3*t+1], r = 3*triangles[3*t+2];
+		double ux = positions[q] - positions[p], uy = positions[q+1] - positions[p+1], uz = positions[q+2] - positions[p+2];
+		double vx = positions[r] - positions[p], vy = positions[r+1] - positions[p+1], vz = positions[r+2] - positions[p+2];
+		double nx = uy*vz - uz*vy, ny = uz*vx - ux*vz, nz = ux*vy - uy*vx;
+		double length = Math.sqrt(nx*nx + ny*ny + nz*nz);
+		if (length == 0)
+			return false;
+		plane[0] = nx/length;
+		plane[1] = ny/length;
+		plane[2] = nz/length;
+		plane[3] = -(plane[0]*positions[p] + plane[1]*positions[p+1] + plane[2]*positions[p+2]);
+		return true;
+	}
+
+	/**
+	 * Add weight times the quadric of a plane to the quadric of vertex v.
+	 */
+	private void addPlane(int v, double[] plane, double weight) {
+		double a = plane[0], b = plane[1], c = plane[2], d = plane[3];
+		int i = 10*v;
+		quadrics[i] += weight*a*a;    quadrics[i+1] += weight*a*b;  quadrics[i+2] += weight*a*c;
+		quadrics[i+3] += weight*a*d;  quadrics[i+4] += weight*b*b;  quadrics[i+5] += weight*b*c;
+		quadrics[i+6] += weight*b*d;  quadrics[i+7] += weight*c*c;  quadrics[i+8] += weight*c*d;
+		quadrics[i+9] += weight*d*d;
+	}
+
+	private void newMark() {
+		markValue++;
+		if (markValue == Integer.MAX_VALUE) {
+			Arrays.fill(mark, 0);
+			markValue = 1;
+		}
+	}
+
+	private static int[] offsets(int triangles) {
+		int[] offsets = new int[triangles + 1];
+		for (int t = 0; t <= triangles; t++)
+			offsets[t] = 3*t;
+		return offsets;
+	}
+
+	/**
+	 * A binary min-heap of edges, ordered by cost, stored in parallel arrays.
+	 * Each entry records the versions of its two vertices when it was added.
+	 */
+	private static class EdgeHeap {
+		double[] cost = new double[1024];
+		int[] a = new int[1024], b = new int[1024];
+		int[] versionA = new int[1024], versionB = new int[1024];
+		int size;
+
+		void add(double c, int va, int vb, int verA, int verB) {
+			if (size == cost.length) {
+				cost = Arrays.copyOf(cost, 2*size);
+				a = Arrays.copyOf(a, 2*size);
+				b = Arrays.copyOf(b, 2*size);
+				versionA = Arrays.copyOf(versionA, 2*size);
+				versionB = Arrays.copyOf(versionB, 2*size);
+			}
+			int i = size++;
+			while (i > 0) {  // Move parents down until the new entry's place is found.
+				int parent = (i - 1) / 2;
+				if (cost[parent] <= c)
+					break;
+				move(parent, i);
+				i = parent;
+			}
+			set(i, c, va, vb, verA, verB);
+		}
+
+		void removeFirst() {
+			size--;
+			if (size == 0)
+				return;
+			double c = cost[size];
+			int va = a[size], vb = b[size], verA = versionA[size], verB = versionB[size];
+			int i = 0;
+			while (true) {  // Move the last entry down from the top.
+				int child = 2*i + 1;
+				if (child >= size)
+					break;
+				if (child + 1 < size && cost[child + 1] < cost[child])
+					child++;
+				if (cost[child] >= c)
+					break;
+				move(child, i);
+				i = child;
+			}
+			set(i, c, va, vb, verA, verB);
+		}
+
+		private void move(int from, int to) {
+			set(to, cost[from], a[from], b[from], versionA[from], versionB[from]);
+		}
+
+		private void set(int i, double c, int va, int vb, int verA, int verB) {
+			cost[i] = c;
+			a[i] = va;
+			b[i] = vb;
+			versionA[i] = verA;
+			versionB[i] = verB;
+		}
+	}
+
+}
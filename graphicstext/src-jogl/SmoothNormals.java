@@ -0,0 +1,221 @@
+/**
+ * SmoothNormals computes normal vectors at the vertices of a mesh, so that a curved
+ * surface that is approximated by a polyhedron can be drawn with smooth shading
+ * instead of flat faces.  The normal at a vertex is a weighted average of the normals
+ * of the faces that contain the vertex.  The weight for a face is either its area or
+ * the angle of the face at the vertex; angle weights give a result that does not
+ * depend on how the faces are divided into triangles.
+ *    Where two faces meet at a sharp angle, the edge between them should stay sharp.
+ * For that reason, a normal vector is actually computed for each corner of each face:
+ * The normal at a corner of face f averages only the faces at the same vertex whose
+ * normals differ from the normal of f by no more than the crease angle.  Corners at
+ * the same vertex that get the same normal are put into a group, and each group
+ * becomes a separate vertex for drawing, with its own normal.  (With a crease angle
+ * of 180 degrees, every vertex has just one normal, and no vertices are split.)
+ *    The results are stored in arrays that are numbered like the corners in the
+ * faceIndices array of the PackedMesh:  cornerNormals holds three numbers for
+ * each corner, and cornerVertices holds the number of the corner's vertex after the
+ * vertices are split.  The split vertices are numbered from 0 to splitVertexCount-1.
+ *    The work is divided into chunks of faces or of vertices, which are processed in
+ * parallel by the common ForkJoinPool.  First, the normal of each face and the
+ * weight of each corner are computed, working on chunks of faces.  Then the corners
+ * that belong to each vertex are listed, and finally the normals are added up for
+ * each vertex, working on chunks of vertices.  Since each vertex is handled by just
+ * one thread, the sums can be accumulated in ordinary arrays, with no locking and no
+ * extra copies of the arrays for each thread.
+ */
+public class SmoothNormals {
+
+	public enum Weighting { AREA, ANGLE }
+
+	private static final int MIN_CHUNK = 8192;  // Chunks with fewer faces or vertices are not split further.
+
+	public final float[] cornerNormals;   // For each face corner, a unit normal vector (three numbers).
+	public final int[] cornerVertices;    // For each face corner, the number of its vertex after splitting.
+	public final int splitVertexCount;    // The number of vertices after splitting.
+
+	/**
+	 * Compute normals for a mesh, with angle weighting and no crease angle.
+	 */
+	public SmoothNormals(PackedMesh mesh) {
+		this(mesh, 180, Weighting.ANGLE);
+	}
+
+	/**
+	 * Compute normals for a mesh.
+	 * @param creaseAngle the largest angle, in degrees, between the normals of two faces
+	 *    that can be smoothed together at a vertex that they share.  A value of 180 or
+	 *    more means that all of the faces at a vertex are smoothed together.
+	 * @param weighting whether to weight face normals by area or by angle.
+	 */
+	public SmoothNormals(PackedMesh mesh, double creaseAngle, Weighting weighting) {
+		int faceCount = mesh.getFaceCount();
+		int vertexCount = mesh.getVertexCount();
+		int corners = mesh.faceIndices.length;
+		int[] faceIndices = mesh.faceIndices;
+		float[] faceNormals = new float[3*faceCount];
+		float[] cornerWeights = new float[corners];
+		ParallelLoop.run(faceCount, MIN_CHUNK, (first, last) -> {
+			for (int f = first; f < last; f++)
+				faceNormal(mesh, f, weighting, faceNormals, cornerWeights);
+		});
+
+		/* List the corners at each vertex, using a counting sort:  the corners at vertex v
+		 * are vertexCorners[vertexStart[v]] up to, but not including, vertexCorners[vertexStart[v+1]]. */
+
+		int[] vertexStart = new int[vertexCount + 1];
+		for (int c = 0; c < corners; c++)
+			vertexStart[faceIndices[c] + 1]++;
+		for (int v = 0; v < vertexCount; v++)
+			vertexStart[v+1] += vertexStart[v];
+		int[] vertexCorners = new int[corners];
+		int[] cornerFace = new int[corners];
+		int[] next = vertexStart.clone();
+		for (int f = 0; f < faceCount; f++) {
+			for (int c = mesh.faceOffsets[f]; c < mesh.faceOffsets[f+1]; c++) {
+				vertexCorners[next[faceIndices[c]]++] = c;
+				cornerFace[c] = f;
+			}
+		}
+
+		/* Add up the weighted face normals for each vertex.  A corner's group number,
+		 * among the groups at its vertex, is stored temporarily in cornerVertices. */
+
+		cornerNormals = new float[3*corners];
+		cornerVertices = new int[corners];
+		int[] groupStart = new int[vertexCount + 1];
+		double minCos = creaseAngle >= 180 ? -2 : Math.cos(Math.toRadians(creaseAngle));
+		ParallelLoop.run(vertexCount, MIN_CHUNK, (first, last) -> {
+			float[] local = new float[4*16];  // Normal and weight of each corner at the current vertex.
+			for (int v = first; v < last; v++) {
+				int start = vertexStart[v], end = vertexStart[v+1];
+				if (minCos < -1 && end > start) {  // No crease angle, so all the corners are in one group.
+					smoothAll(vertexCorners, start, end, cornerFace, faceNormals, cornerWeights);
+					groupStart[v+1] = 1;
+					continue;
+				}
+				if (local.length < 4*(end - start))
+					local = new float[8*(end - start)];
+				for (int i = start; i < end; i++) {  // Copy the data for this vertex, since it is used many times.
+					int c = vertexCorners[i];
+					System.arraycopy(faceNormals, 3*cornerFace[c], local, 4*(i - start), 3);
+					local[4*(i - start) + 3] = cornerWeights[c];
+				}
+				int groups = 0;
+				for (int i = start; i < end; i++) {
+					int c = vertexCorners[i];
+					int f = cornerFace[c];
+					int a = 4*(i - start);
+					double nx = 0, ny = 0, nz = 0;
+					for (int b = 0; b < 4*(end - start); b += 4) {
+						double dot = local[a]*local[b] + local[a+1]*local[b+1] + local[a+2]*local[b+2];
+						if (b == a || dot >= minCos) {
+							float w = local[b+3];
+							nx += w*local[b];
+							ny += w*local[b+1];
+							nz += w*local[b+2];
+						}
+					}
+					double length = Math.sqrt(nx*nx + ny*ny + nz*nz);
+					if (length > 0) {
+						cornerNormals[3*c] = (float)(nx/length);
+						cornerNormals[3*c+1] = (float)(ny/length);
+						cornerNormals[3*c+2] = (float)(nz/length);
+					}
+					else {  // The faces cancel out; use the face's own normal.
+						System.arraycopy(faceNormals, 3*f, cornerNormals, 3*c, 3);
+					}
+					int group = groups;
+					for (int j = start; j < i; j++) {  // Look for an earlier corner with the same normal.
+						int c2 = vertexCorners[j];
+						if (cornerNormals[3*c] == cornerNormals[3*c2] && cornerNormals[3*c+1] == cornerNormals[3*c2+1]
+								&& cornerNormals[3*c+2] == cornerNormals[3*c2+2]) {
+							group = cornerVertices[c2];
+							break;
+						}
+					}
+					if (group == groups)
+						groups++;
+					cornerVertices[c] = group;
+				}
+				groupStart[v+1] = groups;
+			}
+		});
+		for (int v = 0; v < vertexCount; v++)
+			groupStart[v+1] += groupStart[v];
+		splitVertexCount = groupStart[vertexCount];
+		ParallelLoop.run(faceCount, MIN_CHUNK, (first, last) -> {
+			for (int c = mesh.faceOffsets[first]; c < mesh.faceOffsets[last]; c++)
+				cornerVertices[c] += groupStart[faceIndices[c]];
+		});
+	}
+
+	/**
+	 * Give all of the corners at a vertex the same normal, the weighted sum of the
+	 * normals of all of their faces, and put them all in group 0.
+	 */
+	private void smoothAll(int[] vertexCorners, int start, int end, int[] cornerFace,
+			float[] faceNormals, float[] cornerWeights) {
+		double nx = 0, ny = 0, nz = 0;
+		for (int i = start; i < end; i++) {
+			int c = vertexCorners[i];
+			int f = cornerFace[c];
+			float w = cornerWeights[c];
+			nx += w*faceNormals[3*f];
+			ny += w*faceNormals[3*f+1];
+			nz += w*faceNormals[3*f+2];
+		}
+		double length = Math.sqrt(nx*nx + ny*ny + nz*nz);
+		if (length == 0)
+			length = 1;  // The faces cancel out; there is no sensible normal.
+		for (int i = start; i < end; i++) {
+			int c = vertexCorners[i];
+			cornerNormals[3*c] = (float)(nx/length);
+			cornerNormals[3*c+1] = (float)(ny/length);
+			cornerNormals[3*c+2] = (float)(nz/length);
+			cornerVertices[c] = 0;
+		}
+	}
+
+	/**
+	 * Compute the unit normal of face f, using Newell's method, and the weights of its
+	 * corners.  The area of the face is half the length of the vector given by Newell's
+	 * method.  The angle at a corner is computed with atan2, which is accurate even
+	 * for very small and very large angles.
+	 */
+	private static void faceNormal(PackedMesh mesh, int f, Weighting weighting,
+			float[] faceNormals, float[] cornerWeights) {
+		int start = mesh.faceOffsets[f];
+		int size = mesh.faceOffsets[f+1] - start;
+		float[] p = mesh.positions;
+		double nx = 0, ny = 0, nz = 0;
+		for (int j = 0; j < size; j++) {
+			int a = 3*mesh.faceIndices[start + j];
+			int b = 3*mesh.faceIndices[start + (j + 1) % size];
+			nx += (p[a+1] - p[b+1]) * (p[a+2] + p[b+2]);
+			ny += (p[a+2] - p[b+2]) * (p[a] + p[b]);
+			nz += (p[a] - p[b]) * (p[a+1] + p[b+1]);
+		}
+		double length = Math.sqrt(nx*nx + ny*ny + nz*nz);
+		if (length > 0) {
+			faceNormals[3*f] = (float)(nx/length);
+			faceNormals[3*f+1] = (float)(ny/length);
+			faceNormals[3*f+2] = (float)(nz/length);
+		}
+		for (int j = 0; j < size; j++) {
+			if (weighting == Weighting.AREA) {
+				cornerWeights[start + j] = (float)(length/2);
+				continue;
+			}
+			int v = 3*mesh.faceIndices[start + j];
+			int a = 3*mesh.faceIndices[start + (j + size - 1) % size];
+			int b = 3*mesh.faceIndices[start + (j + 1) % size];
+			double ax = p[a] - p[v], ay = p[a+1] - p[v+1], az = p[a+2] - p[v+2];
+			double bx = p[b] - p[v], by = p[b+1] - p[v+1], bz = p[b+2] - p[v+2];
+			double cx = ay*bz - az*by, cy = az*bx - ax*bz, cz = ax*by - ay*bx;
+			double dot = ax*bx + ay*by + az*bz;
+			cornerWeights[start + j] = (float)Math.atan2(Math.sqrt(cx*cx + cy*cy + cz*cz), dot);
+		}
+	}
+
+}
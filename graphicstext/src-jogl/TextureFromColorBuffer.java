@@ -13,7 +13,9 @@ import com.jogamp.opengl.util.gl2.GLUT;
  * image from the OpenGL color buffer.  The display() method draws
  * a 2D scene, grabs that scene as a texture, and then renders
  * a 3D object textured with that texture.  The 2D scene can be
- * animated, which animates the texture on the object.
+ * animated, which animates the texture on the object.  The time to
+ * render each frame is measured with a FrameTimer, and a summary of
+ * the times is shown at the bottom of the window.
  */
 public class TextureFromColorBuffer extends JPanel implements GLEventListener {
 
@@ -71,7 +73,13 @@ public class TextureFromColorBuffer extends JPanel implements GLEventListener {
 		JPanel bottom = new JPanel();
 		bottom.setLayout(new FlowLayout(FlowLayout.CENTER));
 		bottom.add(animate);
-		add(bottom, BorderLayout.SOUTH);
+		FrameTimer frameTimer = new FrameTimer();
+		frameTimer.install(drawable);
+		JPanel controls = new JPanel();
+		controls.setLayout(new GridLayout(2,1));
+		controls.add(bottom);
+		controls.add(frameTimer.createReportPanel());
+		add(controls, BorderLayout.SOUTH);
 		animator = new Timer(30, new ActionListener() {
 			public void actionPerformed(ActionEvent evt) {
 				frameNumber++;
@@ -0,0 +1,296 @@
+import java.util.Arrays;
+
+/**
+ * VertexCacheOptimizer reorders the triangles of an indexed mesh so that the GPU's
+ * post-transform vertex cache is used well, and then renumbers the vertices in the
+ * order in which they are first used, so that vertex data is fetched from memory in
+ * order.  When glDrawElements draws triangles, a vertex that was transformed recently
+ * can be taken from a small cache instead of being processed again by the vertex
+ * shader, so the number of vertices processed depends on the order of the triangles.
+ * The usual measure is the ACMR, or average cache miss ratio, which is the number of
+ * vertices processed divided by the number of triangles.  It can be as large as 3;
+ * for a large mesh, 0.5 is the ideal, since there are about half as many vertices
+ * as triangles.  The acmr() methods compute it for a simulated first-in-first-out
+ * cache, which is how caches usually work in hardware.
+ *    The triangles are ordered by Tom Forsyth's "linear-speed vertex cache
+ * optimisation" algorithm.  It simulates a 32-entry least-recently-used cache.  Each
+ * vertex gets a score that is higher when the vertex is near the front of the cache,
+ * and also higher when the vertex is used by only a few of the triangles that are
+ * not yet drawn, so that such vertices are finished off and can leave the cache.  The
+ * score of a triangle is the sum of the scores of its vertices, and the next
+ * triangle is always the highest-scoring triangle that uses a vertex in the cache.
+ * Only the scores of vertices in the cache and their triangles change at each step,
+ * so the time is proportional to the number of triangles.  When no triangle uses a
+ * vertex in the cache, the next triangle is the first one, in the original order,
+ * that has not yet been drawn.  Ties go to the triangle that comes first in the
+ * original order, so the result is always the same for the same input.
+ */
+public class VertexCacheOptimizer {
+
+	private static final int CACHE_SIZE = 32;          // Size of the simulated LRU cache used to score vertices.
+	private static final double CACHE_DECAY_POWER = 1.5;
+	private static final double LAST_TRIANGLE_SCORE = 0.75;
+	private static final double VALENCE_BOOST_SCALE = 2.0;
+	private static final double VALENCE_BOOST_POWER = 0.5;
+
+	private static final double[] CACHE_SCORES = new double[CACHE_SIZE];  // Score for each cache position.
+	private static final double[] VALENCE_SCORES = new double[64];        // Score for small numbers of triangles.
+	static {
+		for (int i = 0; i < CACHE_SIZE; i++) {
+			if (i < 3)
+				CACHE_SCORES[i] = LAST_TRIANGLE_SCORE;
+			else
+				CACHE_SCORES[i] = Math.pow(1 - (i - 3) / (double)(CACHE_SIZE - 3), CACHE_DECAY_POWER);
+		}
+		for (int i = 1; i < VALENCE_SCORES.length; i++)
+			VALENCE_SCORES[i] = VALENCE_BOOST_SCALE * Math.pow(i, -VALENCE_BOOST_POWER);
+	}
+
+	/**
+	 * Returns a new array holding the triangles from the given array of triangle
+	 * indices, three per triangle, in an order that works well with a vertex cache.
+	 * Each triangle keeps its three indices in their original order, so the
+	 * orientation of the triangles is not changed.  The given array is not modified.
+	 * @throws IllegalArgumentException if the length of the array is not a multiple
+	 *    of three, or if it contains an index that is not in the range 0 to
+	 *    vertexCount-1.
+	 */
+	public static int[] optimizeTriangles(int[] triangles, int vertexCount) {
+		int[] order = triangleOrder(triangles, vertexCount);
+		int[] result = new int[triangles.length];
+		for (int i = 0; i < order.length; i++)
+			System.arraycopy(triangles, 3*order[i], result, 3*i, 3);
+		return result;
+	}
+
+	/**
+	 * Returns a new mesh with the same faces and vertices as the given mesh, with the
+	 * faces reordered to work well with a vertex cache, and the vertices renumbered in
+	 * the order in which the reordered faces use them.  The faces are not divided into
+	 * triangles; for the purpose of ordering, each face is treated as a fan of triangles,
+	 * and the faces are put in the order in which their first triangles are drawn.
+	 * Normal vectors and colors go with their faces.  Vertices that are not used by
+	 * any face come last.  The given mesh is not modified.
+	 */
+	public static PackedMesh optimize(PackedMesh mesh) {
+		int faceCount = mesh.getFaceCount();
+		int[] triangles = fanTriangles(mesh);
+		int[] faceOfTriangle = new int[triangles.length / 3];
+		for (int f = 0, t = 0; f < faceCount; f++) {
+			for (int j = 2; j < mesh.getFaceSize(f); j++)
+				faceOfTriangle[t++] = f;
+		}
+		int[] order = triangleOrder(triangles, mesh.getVertexCount());
+		int[] faceOrder = new int[faceCount];
+		boolean[] placed = new boolean[faceCount];
+		int placedCount = 0;
+		for (int t : order) {
+			int f = faceOfTriangle[t];
+			if (!placed[f]) {
+				placed[f] = true;
+				faceOrder[placedCount++] = f;
+			}
+		}
+		for (int f = 0; f < faceCount; f++) {  // Faces with fewer than 3 vertices have no triangles.
+			if (!placed[f])
+				faceOrder[placedCount++] = f;
+		}
+		int vertexCount = mesh.getVertexCount();
+		int[] newNumber = new int[vertexCount];
+		Arrays.fill(newNumber, -1);
+		int[] offsets = new int[faceCount + 1];
+		int[] indices = new int[mesh.faceIndices.length];
+		float[] normals = mesh.normals == null ? null : new float[3*faceCount];
+		float[] colors = mesh.faceColors == null ? null : new float[3*faceCount];
+		int count = 0, numbered = 0;
+		for (int i = 0; i < faceCount; i++) {
+			int f = faceOrder[i];
+			for (int k = mesh.faceOffsets[f]; k < mesh.faceOffsets[f+1]; k++) {
+				int v = mesh.faceIndices[k];
+				if (newNumber[v] < 0)
+					newNumber[v] = numbered++;
+				indices[count++] = newNumber[v];
+			}
+			offsets[i+1] = count;
+			if (normals != null)
+				System.arraycopy(mesh.normals, 3*f, normals, 3*i, 3);
+			if (colors != null)
+				System.arraycopy(mesh.faceColors, 3*f, colors, 3*i, 3);
+		}
+		for (int v = 0; v < vertexCount; v++) {
+			if (newNumber[v] < 0)
+				newNumber[v] = numbered++;
+		}
+		float[] positions = new float[3*vertexCount];
+		for (int v = 0; v < vertexCount; v++)
+			System.arraycopy(mesh.positions, 3*v, positions, 3*newNumber[v], 3);
+		return new PackedMesh(positions, offsets, indices, normals, colors);
+	}
+
+	/**
+	 * Returns the average number of cache misses per triangle when the triangles in
+	 * an array of triangle indices, three per triangle, are drawn in order with a
+	 * first-in-first-out vertex cache of the given size.
+	 */
+	public static double acmr(int[] triangles, int cacheSize) {
+		if (triangles.length < 3)
+			return 0;
+		int maxIndex = 0;
+		for (int v : triangles)
+			maxIndex = Math.max(maxIndex, v);
+		long[] missNumber = new long[maxIndex + 1];  // Value of misses when the vertex entered the cache.
+		Arrays.fill(missNumber, Long.MIN_VALUE / 2);
+		long misses = 0;
+		for (int v : triangles) {
+			if (misses - missNumber[v] >= cacheSize) {  // (Entries leave a FIFO cache after cacheSize misses.)
+				missNumber[v] = misses;
+				misses++;
+			}
+		}
+		return (double)misses / (triangles.length / 3);
+	}
+
+	/**
+	 * Returns the ACMR for the faces of a mesh, divided into triangles as fans from
+	 * their first vertices, drawn with a first-in-first-out cache of the given size.
+	 */
+	public static double acmr(PackedMesh mesh, int cacheSize) {
+		return acmr(fanTriangles(mesh), cacheSize);
+	}
+
+	/**
+	 * Returns the triangles of a mesh, dividing each face into a fan of triangles
+	 * that share its first vertex.
+	 */
+	private static int[] fanTriangles(PackedMesh mesh) {
+		int count = 0;
+		for (int f = 0; f < mesh.getFaceCount(); f++)
+			count += Math.max(0, mesh.getFaceSize(f) - 2);
+		int[] triangles = new int[3*count];
+		int t = 0;
+		for (int f = 0; f < mesh.getFaceCount(); f++) {
+			int start = mesh.faceOffsets[f];
+			for (int j = 1; j < mesh.getFaceSize(f) - 1; j++) {
+				triangles[t++] = mesh.faceIndices[start];
+				triangles[t++] = mesh.faceIndices[start + j];
+				triangles[t++] = mesh.faceIndices[start + j + 1];
+			}
+		}
+		return triangles;
+	}
+
+	/**
+	 * Returns the numbers of the triangles in the order chosen by Forsyth's algorithm.
+	 */
+	private static int[] triangleOrder(int[] triangles, int vertexCount) {
+		if (triangles.length % 3 != 0)
+			throw new IllegalArgumentException("The number of indices must be a multiple of 3.");
+		int triangleCount = triangles.length / 3;
+		int[] remaining = new int[vertexCount];  // Number of undrawn triangles that use each vertex.
+		for (int v : triangles) {
+			if (v < 0 || v >= vertexCount)
+				throw new IllegalArgumentException("Index " + v + " is not the number of a vertex.");
+			remaining[v]++;
+		}
+		int[] firstTriangle = new int[vertexCount + 1];  // The triangles of each vertex, as a CSR array.
+		for (int v = 0; v < vertexCount; v++)
+			firstTriangle[v+1] = firstTriangle[v] + remaining[v];
+		int[] vertexTriangles = new int[triangles.length];
+		int[] fill = Arrays.copyOf(firstTriangle, vertexCount);
+		for (int i = 0; i < triangles.length; i++)
+			vertexTriangles[fill[triangles[i]]++] = i / 3;
+		int[] cachePosition = new int[vertexCount];
+		Arrays.fill(cachePosition, -1);
+		double[] vertexScore = new double[vertexCount];
+		for (int v = 0; v < vertexCount; v++)
+			vertexScore[v] = vertexScore(-1, remaining[v]);
+		double[] triangleScore = new double[triangleCount];
+		for (int t = 0; t < triangleCount; t++)
+			triangleScore[t] = vertexScore[triangles[3*t]] + vertexScore[triangles[3*t+1]] + vertexScore[triangles[3*t+2]];
+		boolean[] drawn = new boolean[triangleCount];
+		int[] cache = new int[CACHE_SIZE + 3];
+		int[] newCache = new int[CACHE_SIZE + 3];
+		int cacheCount = 0;
+		int[] order = new int[triangleCount];
+		int cursor = 0;  // All triangles before this one, in the original order, have been drawn.
+		int best = -1;
+		for (int i = 0; i < triangleCount; i++) {
+			if (best < 0) {
+				while (drawn[cursor])
+					cursor++;
+				best = cursor;
+			}
+			int t = best;
+			order[i] = t;
+			drawn[t] = true;
+			int newCount = 0;
+			for (int k = 0; k < 3; k++) {
+				int v = triangles[3*t + k];
+				if (newCount == 0 || (newCache[0] != v && newCache[newCount-1] != v))
+					newCache[newCount++] = v;
+				removeTriangle(vertexTriangles, firstTriangle[v], remaining[v], t);
+				remaining[v]--;
+			}
+			for (int k = 0; k < cacheCount; k++) {
+				int v = cache[k];
+				if (v != triangles[3*t] && v != triangles[3*t+1] && v != triangles[3*t+2])
+					newCache[newCount++] = v;
+			}
+			int[] temp = cache;
+			cache = newCache;
+			newCache = temp;
+			cacheCount = newCount;
+			for (int k = 0; k < cacheCount; k++) {
+				int v = cache[k];
+				cachePosition[v] = k < CACHE_SIZE ? k : -1;
+				double score = vertexScore(cachePosition[v], remaining[v]);
+				double change = score - vertexScore[v];
+				vertexScore[v] = score;
+				for (int j = firstTriangle[v]; j < firstTriangle[v] + remaining[v]; j++)
+					triangleScore[vertexTriangles[j]] += change;
+			}
+			best = -1;
+			double bestScore = -1;
+			for (int k = 0; k < Math.min(cacheCount, CACHE_SIZE); k++) {
+				int v = cache[k];
+				for (int j = firstTriangle[v]; j < firstTriangle[v] + remaining[v]; j++) {
+					int u = vertexTriangles[j];
+					double score = triangleScore[u];
+					if (score > bestScore || (score == bestScore && u < best)) {
+						best = u;
+						bestScore = score;
+					}
+				}
+			}
+			if (cacheCount > CACHE_SIZE)
+				cacheCount = CACHE_SIZE;  // The vertices after CACHE_SIZE have left the cache.
+		}
+		return order;
+	}
+
+	/**
+	 * Remove triangle t from the list of count triangles that starts at position
+	 * start in vertexTriangles, keeping the other triangles in their order.
+	 */
+	private static void removeTriangle(int[] vertexTriangles, int start, int count, int t) {
+		int i = start;
+		while (vertexTriangles[i] != t)
+			i++;
+		System.arraycopy(vertexTriangles, i + 1, vertexTriangles, i, start + count - 1 - i);
+	}
+
+	/**
+	 * Forsyth's score for a vertex at the given position in the cache (-1 if it is
+	 * not in the cache) that is used by the given number of undrawn triangles.
+	 */
+	private static double vertexScore(int cachePosition, int remaining) {
+		if (remaining == 0)
+			return -1;
+		double score = cachePosition < 0 ? 0 : CACHE_SCORES[cachePosition];
+		if (remaining < VALENCE_SCORES.length)
+			return score + VALENCE_SCORES[remaining];
+		else
+			return score + VALENCE_BOOST_SCALE * Math.pow(remaining, -VALENCE_BOOST_POWER);
+	}
+
+}